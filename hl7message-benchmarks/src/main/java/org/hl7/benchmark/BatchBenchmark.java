@@ -0,0 +1,106 @@
+package org.hl7.benchmark;
+
+import org.hl7.batch.Hl7BatchReader;
+import org.hl7.batch.Hl7BatchSpliterator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reads a batch file of mixed messages sequentially and in parallel. Besides files per second, the {@code bytes}
+ * counter reports the read throughput in bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchBenchmark {
+  @Param("64")
+  public int fileSizeMb;
+
+  private Path file;
+  private long fileSize;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Throughput {
+    public long bytes;
+  }
+
+  @Setup(Level.Trial)
+  public void writeFile() throws IOException {
+    file = Files.createTempFile("hl7-batch", ".hl7");
+    Corpus[] shapes = Corpus.values();
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("FHS|^~\\&|BENCHMARK\rBHS|^~\\&|BENCHMARK\r");
+      // the corpus is plain ASCII, so characters and bytes are the same
+      long written = 0;
+      for (int i = 0; written < fileSizeMb * 1024L * 1024L; i++) {
+        String message = shapes[i % shapes.length].message();
+        writer.write(message);
+        written += message.length();
+      }
+      writer.write("BTS\rFTS\r");
+    }
+    fileSize = Files.size(file);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public long scan(Throughput throughput) throws IOException {
+    long messages = 0;
+    try (Hl7BatchReader reader = Hl7BatchReader.open(file)) {
+      while (reader.hasNext()) {
+        reader.nextString();
+        messages++;
+      }
+    }
+    throughput.bytes += fileSize;
+    return messages;
+  }
+
+  @Benchmark
+  public long parse(Throughput throughput) throws IOException {
+    long messages;
+    try (Hl7BatchReader reader = Hl7BatchReader.open(file)) {
+      messages = reader.stream().count();
+    }
+    throughput.bytes += fileSize;
+    return messages;
+  }
+
+  @Benchmark
+  public long parseParallel(Throughput throughput) throws IOException {
+    long messages;
+    try (Stream<?> stream = Hl7BatchSpliterator.parallelStream(file)) {
+      messages = stream.count();
+    }
+    throughput.bytes += fileSize;
+    return messages;
+  }
+}
@@ -0,0 +1,91 @@
+package org.hl7.benchmark;
+
+import org.hl7.Hl7Message;
+import org.hl7.batch.ColumnarBatch;
+import org.hl7.utils.Hl7DateTimeCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-of-day report over a day of orders: orders per NDC whose first schedule starts in the first half of the month.
+ * Compares extracting columns from the raw messages with parsing every message and keeping the Hl7Message objects. Run
+ * with {@code -prof gc} to compare the allocated bytes per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarBenchmark {
+  private static final Instant FROM = Instant.parse("2024-06-01T00:00:00Z");
+  private static final Instant TO = Instant.parse("2024-06-16T00:00:00Z");
+
+  @Param("10000")
+  public int messages;
+
+  private String[] raw;
+
+  @Setup
+  public void setup() {
+    String message = Corpus.FULL_RDE.message();
+    raw = new String[messages];
+    for (int i = 0; i < messages; i++) {
+      // 200 distinct NDCs and a start date per day of the month
+      raw[i] = message.replace("69618001001", String.valueOf(69618001001L + i % 200))
+          .replace("|||20240607111958||P||Take 1 tablet by mouth in the morning",
+              String.format("|||202406%02d111958||P||Take 1 tablet by mouth in the morning", 1 + i % 30));
+    }
+  }
+
+  @Benchmark
+  public Map<String, Integer> columnar() {
+    ColumnarBatch.Builder builder = ColumnarBatch.builder()
+        .stringColumn("RXE-2.1")
+        .stringColumn("ORC-3")
+        .stringColumn("PID-2")
+        .timestampColumn("TQ1-7")
+        .timestampColumn("TQ1-8");
+    for (String message : raw) {
+      builder.add(message);
+    }
+    ColumnarBatch batch = builder.build();
+
+    BitSet rows = batch.timestampColumn("TQ1-7").between(FROM, TO);
+    return batch.stringColumn("RXE-2.1").countBy(rows);
+  }
+
+  @Benchmark
+  public Map<String, Integer> objects() {
+    List<Hl7Message> parsed = new ArrayList<>(raw.length);
+    for (String message : raw) {
+      parsed.add(Hl7Message.fromString(message));
+    }
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (Hl7Message msg : parsed) {
+      Instant start = Hl7DateTimeCodec.parseOffsetDateTime(msg.getTq1().get(0).getTq1_7_startDateTime()).toInstant();
+      if (!start.isBefore(FROM) && start.isBefore(TO)) {
+        counts.merge(msg.getRxe().getRxe_2_1_drugNdc(), 1, Integer::sum);
+      }
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,49 @@
+package org.hl7.benchmark;
+
+import org.hl7.Hl7Converter;
+import org.hl7.Hl7Message;
+import org.hl7.common.ConversionMode;
+import org.hl7.common.MessageEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the full pharmacy order to every message event the converter supports. Events that are not implemented yet
+ * (ORDER_NEW, ORDER_HOLD, ORDER_REFILL, ORDER_RESUME) are left out, add them to the param list once they are.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConvertBenchmark {
+  @Param({"ORDER_DISPENSE", "ORDER_DC", "ORDER_UPDATE"})
+  public MessageEvent event;
+
+  @Param
+  public ConversionMode mode;
+
+  private Hl7Message message;
+
+  @Setup
+  public void setup() {
+    message = Hl7Message.fromString(Corpus.FULL_RDE.message());
+  }
+
+  @Benchmark
+  public Hl7Message convert() {
+    return Hl7Converter.convert(message, event, mode);
+  }
+}
@@ -0,0 +1,96 @@
+package org.hl7.benchmark;
+
+/**
+ * Messages the benchmarks run against. Segments are terminated by a carriage return as they are on the wire.
+ */
+public enum Corpus {
+  /**
+   * Admission-like message with only the header, patient and visit segments.
+   */
+  SMALL_ADT(String.join("\r",
+      "MSH|^~\\&|ADT|HOSP|AB|LOCATION1|20240531000000||ADT^A01^ADT_A01|4154345951|P|2.5||||||ASCII|||",
+      "PID|1|775908|08PAT||lastname^firstname^^^^||19690531000000|M|||||||||||||||||||||||||||||||",
+      "PV1|1|I|^101^A^NORTH^^^^|||||||||||||||||||||||||||||||||||||||||20240601111958||||||||") + "\r"),
+
+  /**
+   * Pharmacy order with every supported segment and four schedules.
+   */
+  FULL_RDE(String.join("\r",
+      "MSH|^~\\&|||AB|LOCATION1|20240531000000||RDE^O11^RDE_O11|4154345958|P|2.5||||||ASCII|||",
+      "PID|1|775908|08PAT||lastname^firstname^^^^||19690531000000|M|||||||||||||||||||||||||||||||",
+      "PV1|1|I|^101^A^NORTH^^^^|||||||||||||||||||||||||||||||||||||||||20240601111958||||||||",
+      "ORC|NW||5288240975||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|||"
+          + "1234567890^MedProFirstName^MedProLastName||||||||||||||||||",
+      "RXO|Mirtazapine 7.5MG TAB|||||||||||||||||||||||||||",
+      "RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902||||||||||||"
+          + "F33.9^Depression^ICD10|||||||||||||||||",
+      "TQ1|1|1^TAB|QAM|0800|||20240607111958||P||Take 1 tablet by mouth in the morning|A||",
+      "TQ1|2|1^TAB|QNOON|1200|||20240607111958||P||Take 1 tablet by mouth at noon|A||",
+      "TQ1|3|1^TAB|QPM|1800|||20240607111958||P||Take 1 tablet by mouth in the evening|A||",
+      "TQ1|4|1^TAB|QHS|2200|||20240607111958||P||Take 1 tablet by mouth at bedtime|A||",
+      "RXR|27^by mouth|||||",
+      "RXD|1|69618001001^Mirtazapine 7.5MG TAB|20240607111040||||||||||||||||||||||||||||||",
+      "ZPI|||||||||||3|20240601|||||N||||||7741^REFILL^L|N|5288240974|||||0800,1400,2000|||20240601|48213",
+      "ZQM|||0069618001001|||BP^HR|||N|Remeron",
+      "ZRX|D||CHG|20240601||||||||") + "\r"),
+
+  /**
+   * Pharmacy order with oversized free text instructions, as sent for compounded and tapering orders.
+   */
+  OVERSIZED_TEXT(String.join("\r",
+      "MSH|^~\\&|||AB|LOCATION1|20240531000000||RDE^O11^RDE_O11|4154345958|P|2.5||||||ASCII|||",
+      "PID|1|775908|08PAT||lastname^firstname^^^^||19690531000000|M|||||||||||||||||||||||||||||||",
+      "ORC|NW||5288240975||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|||"
+          + "1234567890^MedProFirstName^MedProLastName||||||||||||||||||",
+      "RXE||00093505801^Prednisone 10MG TAB^||||TABS|^" + instructions(40) + "||||||||58902||||||||||||"
+          + "M06.9^Rheumatoid arthritis^ICD10|||||||||||||||||",
+      "TQ1|1|1^TAB|QD|0800|||20240607111958||P||" + instructions(60) + "|A||",
+      "RXR|27^by mouth|||||") + "\r"),
+
+  /**
+   * Pharmacy order with allergy, note and observation segments that have no segment class and are kept raw.
+   */
+  UNKNOWN_SEGMENTS(String.join("\r",
+      "MSH|^~\\&|||AB|LOCATION1|20240531000000||RDE^O11^RDE_O11|4154345958|P|2.5||||||ASCII|||",
+      "PID|1|775908|08PAT||lastname^firstname^^^^||19690531000000|M|||||||||||||||||||||||||||||||",
+      "AL1|1|DA|^PENICILLIN|SV|HIVES|20240101",
+      "ORC|NW||5288240975||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|||"
+          + "1234567890^MedProFirstName^MedProLastName||||||||||||||||||",
+      "NTE|1||Patient prefers liquid forms when available",
+      "RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902||||||||||||"
+          + "F33.9^Depression^ICD10|||||||||||||||||",
+      "TQ1|1|1^TAB|QHS|2200|||20240607111958||P||Take 1 tablet by mouth at bedtime|A||",
+      "OBX|1|NM|29463-7^Body weight^LN||72|kg|||||F",
+      "RXR|27^by mouth|||||") + "\r");
+
+  private final String message;
+
+  Corpus(String message) {
+    this.message = message;
+  }
+
+  public String message() {
+    return message;
+  }
+
+  /**
+   * Returns the segment of the full message with the given segment id.
+   */
+  public static String segment(String segmentId) {
+    for (String segment : FULL_RDE.message.split("\r")) {
+      if (segment.startsWith(segmentId)) {
+        return segment;
+      }
+    }
+    throw new IllegalArgumentException("No sample for segment [" + segmentId + "]");
+  }
+
+  private static String instructions(int sentences) {
+    StringBuilder sb = new StringBuilder();
+    for (int day = 1; day <= sentences; day++) {
+      sb.append("Day ").append(day).append(": take ").append(Math.max(1, 8 - day / 8))
+          .append(" tablets by mouth with food, do not crush or chew. ");
+    }
+    return sb.toString().trim();
+  }
+}
@@ -0,0 +1,72 @@
+package org.hl7.benchmark;
+
+import org.hl7.utils.Hl7Clock;
+import org.hl7.utils.Hl7DateTimeCodec;
+import org.hl7.utils.Hl7DateTimeCodec.Precision;
+import org.hl7.utils.Hl7DateUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the HL7 date time codec and the cached HL7 clock with the DateTimeFormatter based equivalents.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateBenchmark {
+  private final LocalDateTime dateTime = LocalDateTime.of(2024, 6, 7, 11, 19, 58);
+  private final String value = "20240607111958";
+  private final char[] chars = new char[Hl7DateTimeCodec.MAX_LENGTH];
+
+  @Benchmark
+  public String formatWithFormatter() {
+    return dateTime.format(Hl7DateUtils.HL7_SPEC_DATE_TIME_FORMAT);
+  }
+
+  @Benchmark
+  public String nowWithFormatter() {
+    return LocalDateTime.now().format(Hl7DateUtils.HL7_SPEC_DATE_TIME_FORMAT);
+  }
+
+  @Benchmark
+  public String nowWithClock() {
+    return Hl7Clock.getDefault().now();
+  }
+
+  @Benchmark
+  public String formatWithCodec() {
+    return Hl7DateUtils.formatToHl7(dateTime);
+  }
+
+  @Benchmark
+  public char[] formatIntoArray() {
+    Hl7DateTimeCodec.format(dateTime, Precision.SECOND, chars, 0);
+    return chars;
+  }
+
+  @Benchmark
+  public OffsetDateTime parseWithFormatter() {
+    LocalDateTime parsed = LocalDateTime.parse(value, Hl7DateUtils.HL7_SPEC_DATE_TIME_FORMAT);
+    return OffsetDateTime.of(parsed, ZoneId.systemDefault().getRules().getOffset(parsed));
+  }
+
+  @Benchmark
+  public OffsetDateTime parseWithCodec() {
+    return Hl7DateUtils.formatFromHl7ToOffsetDateTime(value);
+  }
+}
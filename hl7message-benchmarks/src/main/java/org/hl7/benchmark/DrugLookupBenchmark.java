@@ -0,0 +1,97 @@
+package org.hl7.benchmark;
+
+import org.hl7.drug.Drug;
+import org.hl7.drug.DrugCodeResolver;
+import org.hl7.drug.Ndc;
+import org.hl7.drug.NdcTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the NDCs of RXE-2.1 in a drug table of {@code drugs} entries: in a {@code HashMap<String, Drug>}, in an
+ * {@link NdcTable}, and in an NdcTable behind a cache of 1,000 drugs. Lookups follow a skewed distribution where a few
+ * hundred drugs make up most orders. Run with {@code -prof gc} to compare the allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrugLookupBenchmark {
+  private static final int LOOKUPS = 4096;
+
+  @Param({"100000"})
+  public int drugs;
+
+  private Map<String, Drug> map;
+  private NdcTable table;
+  private DrugCodeResolver cached;
+  private String[] ndcs;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    StringBuilder csv = new StringBuilder("ndc,name,dosage form\n");
+    map = new HashMap<>();
+    for (int i = 0; i < drugs; i++) {
+      String ndc = Ndc.format(ndc(i));
+      String name = "Drug " + i + " 10 mg";
+      String dosageForm = i % 3 == 0 ? "CAP" : "TAB";
+      csv.append(ndc).append(',').append(name).append(',').append(dosageForm).append('\n');
+      map.put(ndc, Drug.builder().ndc(ndc).name(name).dosageForm(dosageForm).build());
+    }
+    table = NdcTable.load(new StringReader(csv.toString()));
+    cached = table.cached(1_000);
+
+    // 9 out of 10 orders are for the 500 most common drugs
+    SplittableRandom random = new SplittableRandom(42);
+    ndcs = new String[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      int drug = random.nextInt(10) < 9 ? random.nextInt(500) : random.nextInt(drugs);
+      ndcs[i] = Ndc.format(ndc(drug));
+    }
+  }
+
+  @Benchmark
+  public Drug hashMap() {
+    return map.get(nextNdc());
+  }
+
+  @Benchmark
+  public Drug ndcTable() {
+    return table.resolve(nextNdc());
+  }
+
+  @Benchmark
+  public Drug cachedNdcTable() {
+    return cached.resolve(nextNdc());
+  }
+
+  private String nextNdc() {
+    next = next + 1 & LOOKUPS - 1;
+    return ndcs[next];
+  }
+
+  // spreads the drugs over labelers like a real drug database
+  private static long ndc(int drug) {
+    return (10_000L + drug % 7_919) * 1_000_000 + drug / 7_919 * 100 + drug % 10;
+  }
+}
@@ -0,0 +1,70 @@
+package org.hl7.benchmark;
+
+import org.hl7.Hl7Message;
+import org.hl7.Hl7MessageEncoder;
+import org.hl7.Hl7MessageWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares printing a message and encoding the String with encoding it straight into bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+  @Param
+  public Corpus corpus;
+
+  private Hl7Message message;
+  private ByteBuffer buffer;
+  private final Hl7MessageEncoder encoder = Hl7MessageEncoder.standard();
+  private final OutputStream discard = OutputStream.nullOutputStream();
+
+  @Setup
+  public void setup() {
+    message = Hl7Message.fromString(corpus.message());
+    buffer = ByteBuffer.allocateDirect(64 * 1024);
+  }
+
+  @Benchmark
+  public byte[] printThenGetBytes() {
+    return Hl7MessageWriter.standard().print(message).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public byte[] encodeToArray() {
+    return encoder.encode(message);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeToBuffer() {
+    buffer.clear();
+    encoder.encode(message, buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public OutputStream encodeToStream() throws IOException {
+    encoder.encode(message, discard);
+    return discard;
+  }
+}
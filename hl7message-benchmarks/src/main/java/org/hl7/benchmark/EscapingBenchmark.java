@@ -0,0 +1,50 @@
+package org.hl7.benchmark;
+
+import org.hl7.parser.Hl7Escaping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escaping and unescaping of a typical free text value, with and without delimiters. The plain variants measure the
+ * cost added to the fields that need no escaping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscapingBenchmark {
+  private final String plain = "Take 1 tablet by mouth every day at bedtime for Depression";
+  private final String special = "Take 1 tablet | by mouth ^ every day & at bedtime ~ for Depression";
+  private final String escaped = Hl7Escaping.escape(special);
+
+  @Benchmark
+  public String escapePlain() {
+    return Hl7Escaping.escape(plain);
+  }
+
+  @Benchmark
+  public String escapeSpecial() {
+    return Hl7Escaping.escape(special);
+  }
+
+  @Benchmark
+  public String unescapePlain() {
+    return Hl7Escaping.unescape(plain);
+  }
+
+  @Benchmark
+  public String unescapeEscaped() {
+    return Hl7Escaping.unescape(escaped);
+  }
+}
@@ -0,0 +1,58 @@
+package org.hl7.benchmark;
+
+import org.hl7.parser.FieldPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads routing fields straight from the raw message, as String and as bytes received from the wire.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldPathBenchmark {
+  private static final FieldPath MESSAGE_TYPE = FieldPath.compile("MSH-9.1");
+  private static final FieldPath LAST_INSTRUCTIONS = FieldPath.compile("TQ1[4]-11");
+
+  @Param({"SMALL_ADT", "FULL_RDE"})
+  public Corpus corpus;
+
+  private String raw;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() {
+    raw = corpus.message();
+    bytes = raw.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  @Benchmark
+  public boolean messageTypeFromString() {
+    return MESSAGE_TYPE.find(raw).contentEquals("RDE");
+  }
+
+  @Benchmark
+  public boolean messageTypeFromBytes() {
+    return MESSAGE_TYPE.find(bytes).contentEquals("RDE");
+  }
+
+  @Benchmark
+  public CharSequence lastSegmentFromBytes() {
+    return LAST_INSTRUCTIONS.find(bytes);
+  }
+}
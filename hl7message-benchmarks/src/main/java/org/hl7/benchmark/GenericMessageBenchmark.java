@@ -0,0 +1,78 @@
+package org.hl7.benchmark;
+
+import org.hl7.GenericHl7Message;
+import org.hl7.Hl7Message;
+import org.hl7.segment.RXE;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch order with one ORDER group per medication: parsed once as a generic message, or split upstream into one
+ * message per medication as callers have to for Hl7Message. Both read the NDC of every medication.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericMessageBenchmark {
+  private static final String HEADER = String.join("\r",
+      "MSH|^~\\&|||AB|LOCATION1|20240531000000||RDE^O11^RDE_O11|4154345958|P|2.5||||||ASCII|||",
+      "PID|1|775908|08PAT||lastname^firstname^^^^||19690531000000|M|||||||||||||||||||||||||||||||",
+      "PV1|1|I|^101^A^NORTH^^^^|||||||||||||||||||||||||||||||||||||||||20240601111958||||||||") + "\r";
+
+  @Param({"1", "10", "50"})
+  public int medications;
+
+  private String batch;
+  private String[] split;
+
+  @Setup
+  public void setup() {
+    StringBuilder sb = new StringBuilder(HEADER);
+    split = new String[medications];
+    for (int i = 0; i < medications; i++) {
+      String order = String.join("\r",
+          "ORC|NW||" + (5288240975L + i) + "||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|||"
+              + "1234567890^MedProFirstName^MedProLastName||||||||||||||||||",
+          "RXE||" + (69618001001L + i) + "^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902||||||||||||"
+              + "F33.9^Depression^ICD10|||||||||||||||||",
+          "TQ1|1|1^TAB|QHS|2200|||20240607111958||P||Take 1 tablet by mouth at bedtime|A||",
+          "RXR|27^by mouth|||||") + "\r";
+      sb.append(order);
+      split[i] = HEADER + order;
+    }
+    batch = sb.toString();
+  }
+
+  @Benchmark
+  public long generic() {
+    GenericHl7Message msg = GenericHl7Message.fromString(batch);
+    long sum = 0;
+    for (int i = 0; i < msg.groupCount("ORDER"); i++) {
+      sum += msg.group("ORDER", i).first("RXE", RXE.class).getRxe_2_1_drugNdc().length();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long splitMessages() {
+    long sum = 0;
+    for (String message : split) {
+      sum += Hl7Message.fromString(message).getRxe().getRxe_2_1_drugNdc().length();
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,59 @@
+package org.hl7.benchmark;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hl7.id.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the id generators with the RandomStringUtils defaults they replace, with all generators shared by 8
+ * threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class IdBenchmark {
+  private final IdGenerator counter = IdGenerator.counter(7);
+  private final IdGenerator striped = IdGenerator.striped(7, 64);
+  private final IdGenerator nodePrefixed = IdGenerator.nodePrefixed(3, 2, IdGenerator.striped(7, 64));
+  private final IdGenerator snowflake = IdGenerator.snowflake(3);
+
+  @Benchmark
+  public String randomNumeric() {
+    return RandomStringUtils.randomNumeric(7);
+  }
+
+  @Benchmark
+  public String counter() {
+    return counter.next();
+  }
+
+  @Benchmark
+  public String striped() {
+    return striped.next();
+  }
+
+  @Benchmark
+  public String nodePrefixed() {
+    return nodePrefixed.next();
+  }
+
+  @Benchmark
+  public String snowflake() {
+    return snowflake.next();
+  }
+}
@@ -0,0 +1,45 @@
+package org.hl7.benchmark;
+
+import org.hl7.Hl7Message;
+import org.hl7.Hl7Parser;
+import org.hl7.parser.InternedFields;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses messages with and without interning of the low-cardinality fields. Run with {@code -prof gc}: interning
+ * trades a hash per value for fewer retained Strings, so the allocation rate drops while parse time stays close.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterningBenchmark {
+  private static final Hl7Parser PLAIN = Hl7Parser.standard();
+  private static final Hl7Parser INTERNING = Hl7Parser.builder().internedFields(InternedFields.defaults()).build();
+
+  @Param
+  public Corpus corpus;
+
+  @Benchmark
+  public Hl7Message parse() {
+    return PLAIN.parse(corpus.message());
+  }
+
+  @Benchmark
+  public Hl7Message parseInterned() {
+    return INTERNING.parse(corpus.message());
+  }
+}
@@ -0,0 +1,101 @@
+package org.hl7.benchmark;
+
+import org.hl7.Hl7Message;
+import org.hl7.Hl7MessageWriter;
+import org.hl7.Hl7Parser;
+import org.hl7.LazyHl7Message;
+import org.hl7.utils.Hl7MsgUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses, prints and copies whole messages of every corpus shape. The routing benchmarks only read MSH.9 and ORC.3,
+ * comparing eager with lazy decoding. fromStringCustomDelimiters parses the message with non-default MSH-2 encoding
+ * characters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MessageBenchmark {
+  private static final Hl7Parser RETAINING_PARSER = Hl7Parser.builder().retainRawFields(true).build();
+
+  @Param
+  public Corpus corpus;
+
+  private String raw;
+  // same message with the delimiters !$*#@ instead of |^~\&
+  private String customDelimitersRaw;
+  private Hl7Message message;
+  private StringBuilder out;
+
+  @Setup
+  public void setup() {
+    raw = corpus.message();
+    customDelimitersRaw = raw.replace('|', '!').replace('^', '$').replace('~', '*').replace('\\', '#').replace('&', '@');
+    message = Hl7Message.fromString(raw);
+    out = new StringBuilder(raw.length() * 2);
+  }
+
+  @Benchmark
+  public Hl7Message fromString() {
+    return Hl7Message.fromString(raw);
+  }
+
+  @Benchmark
+  public Hl7Message fromStringCustomDelimiters() {
+    return Hl7Message.fromString(customDelimitersRaw);
+  }
+
+  @Benchmark
+  public String routeEager() {
+    Hl7Message msg = Hl7Message.fromString(raw);
+    return msg.getOrc() == null ? msg.getMsh().getMsh_9_messageType() : msg.getOrc().getOrc_3_fillerOrderNumber();
+  }
+
+  @Benchmark
+  public String routeLazy() {
+    Hl7Message msg = LazyHl7Message.of(raw);
+    return msg.getOrc() == null ? msg.getMsh().getMsh_9_messageType() : msg.getOrc().getOrc_3_fillerOrderNumber();
+  }
+
+  @Benchmark
+  public String roundTrip() {
+    return Hl7MessageWriter.standard().print(Hl7Message.fromString(raw));
+  }
+
+  @Benchmark
+  public String roundTripRetainingRawFields() {
+    return Hl7MessageWriter.standard().print(RETAINING_PARSER.parse(raw));
+  }
+
+  @Benchmark
+  public String printMessage() {
+    return message.printMessage();
+  }
+
+  @Benchmark
+  public StringBuilder writeToBuffer() {
+    out.setLength(0);
+    Hl7MessageWriter.standard().write(message, out);
+    return out;
+  }
+
+  @Benchmark
+  public Hl7Message copy() {
+    return Hl7MsgUtils.copy(message);
+  }
+}
@@ -0,0 +1,174 @@
+package org.hl7.benchmark;
+
+import org.hl7.mllp.MllpFrameDecoder;
+import org.hl7.mllp.MllpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sends messages to a loopback MLLP server over many concurrent connections and waits for the ACKs. Every benchmark
+ * thread drives {@code connectionsPerThread} non-blocking connections through a selector, all but one of them keeping a
+ * message in flight at any time, so the server holds threads times connectionsPerThread connections (2048 with the
+ * defaults). {@code throughput} reports the acknowledged messages per second; {@code latency} sends on the remaining
+ * connection and reports the percentiles (p99 and up) of its round trip while the others load the server. Use
+ * {@code -t} and {@code -p connectionsPerThread} to change the number of connections.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MllpBenchmark {
+  private MllpServer server;
+
+  /**
+   * Connections of one benchmark thread, multiplexed with a selector.
+   */
+  @State(Scope.Thread)
+  public static class Connections {
+    @Param({"16", "512"})
+    public int connectionsPerThread;
+
+    private Selector selector;
+    // connection without a message in flight, used to measure the round trip
+    private Connection probe;
+    // selected connections not handled yet, an invocation returns as soon as it got its ACK
+    private Iterator<SelectionKey> ready;
+
+    @Setup(Level.Trial)
+    public void connect(MllpBenchmark benchmark) throws IOException {
+      selector = Selector.open();
+      byte[] message = Corpus.FULL_RDE.message().getBytes(StandardCharsets.UTF_8);
+      InetSocketAddress address = new InetSocketAddress("localhost", benchmark.server.getLocalPort());
+      for (int i = 0; i < connectionsPerThread; i++) {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel, message);
+        channel.register(selector, SelectionKey.OP_READ, connection);
+        if (i == 0) {
+          probe = connection;
+        } else {
+          connection.send();
+        }
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+      for (SelectionKey key : selector.keys()) {
+        key.channel().close();
+      }
+      selector.close();
+    }
+
+    // handles ACKs until the one of the given connection arrives, or any but the probe's if null; every connection
+    // that got its ACK sends the next message right away, except for the probe
+    private int awaitAck(Connection awaited) throws IOException {
+      while (true) {
+        if (ready == null || !ready.hasNext()) {
+          selector.select();
+          ready = selector.selectedKeys().iterator();
+        }
+        while (ready.hasNext()) {
+          SelectionKey key = ready.next();
+          ready.remove();
+          Connection connection = (Connection) key.attachment();
+          if (!connection.read()) {
+            continue;
+          }
+          if (connection != probe) {
+            connection.send();
+          }
+          if (connection == awaited || awaited == null && connection != probe) {
+            return connection.acks;
+          }
+        }
+      }
+    }
+  }
+
+  private static final class Connection {
+    private final SocketChannel channel;
+    private final ByteBuffer frame;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(4096);
+    private final MllpFrameDecoder decoder = new MllpFrameDecoder(StandardCharsets.UTF_8,
+        MllpServer.DEFAULT_MAX_MESSAGE_SIZE);
+    private int acks;
+    private final Consumer<String> onAck = ack -> acks++;
+
+    private Connection(SocketChannel channel, byte[] message) {
+      this.channel = channel;
+      this.frame = ByteBuffer.allocateDirect(message.length + 3);
+      MllpFrameDecoder.encode(message, frame);
+      frame.flip();
+    }
+
+    private void send() throws IOException {
+      frame.rewind();
+      while (frame.hasRemaining()) {
+        channel.write(frame);
+      }
+    }
+
+    // reads what arrived, returns true if it completed an ACK
+    private boolean read() throws IOException {
+      in.clear();
+      if (channel.read(in) < 0) {
+        throw new EOFException("Connection closed before acknowledgement was received");
+      }
+      in.flip();
+      int before = acks;
+      decoder.decode(in, onAck);
+      return acks > before;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void start() throws IOException {
+    server = MllpServer.builder().port(0).handler(msg -> { }).build().start();
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() throws IOException {
+    server.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public int throughput(Connections connections) throws IOException {
+    return connections.awaitAck(null);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  public int latency(Connections connections) throws IOException {
+    connections.probe.send();
+    return connections.awaitAck(connections.probe);
+  }
+}
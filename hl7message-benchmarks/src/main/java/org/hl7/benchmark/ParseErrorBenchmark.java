@@ -0,0 +1,86 @@
+package org.hl7.benchmark;
+
+import org.hl7.Hl7Parser;
+import org.hl7.ParseResult;
+import org.hl7.common.ParseMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a feed of full pharmacy orders of which 10% are malformed (missing required fields or invalid encoding
+ * characters), comparing catching the exceptions of a strict parse with collecting diagnostics in either mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseErrorBenchmark {
+  private static final int FEED_SIZE = 100;
+
+  private final Hl7Parser strict = Hl7Parser.standard();
+  private final Hl7Parser lenient = Hl7Parser.builder().mode(ParseMode.LENIENT).build();
+  private String[] feed;
+
+  @Setup
+  public void setup() {
+    String valid = Corpus.FULL_RDE.message();
+    String[] malformed = {
+        valid.replace("TQ1|2|", "TQ1\r"),
+        valid.replace("RXD|1|69618001001^Mirtazapine 7.5MG TAB|", "RXD\r"),
+        valid.replace("MSH|^~\\&|", "MSH|^^\\&|")
+    };
+
+    feed = new String[FEED_SIZE];
+    for (int i = 0; i < FEED_SIZE; i++) {
+      feed[i] = i % 10 == 9 ? malformed[i / 10 % malformed.length] : valid;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FEED_SIZE)
+  public int strictCatchingExceptions() {
+    int rejected = 0;
+    for (String message : feed) {
+      try {
+        strict.parse(message);
+      } catch (RuntimeException e) {
+        rejected++;
+      }
+    }
+    return rejected;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FEED_SIZE)
+  public int strictDiagnostics() {
+    int rejected = 0;
+    for (String message : feed) {
+      ParseResult result = strict.parseWithDiagnostics(message);
+      rejected += result.getMessage() == null ? 1 : 0;
+    }
+    return rejected;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FEED_SIZE)
+  public int lenientDiagnostics() {
+    int problems = 0;
+    for (String message : feed) {
+      problems += lenient.parseWithDiagnostics(message).getDiagnostics().size();
+    }
+    return problems;
+  }
+}
@@ -0,0 +1,54 @@
+package org.hl7.benchmark;
+
+import org.hl7.segment.PID;
+import org.hl7.segment.datatype.ExtendedCompositeId;
+import org.hl7.segment.datatype.Repetitions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Patient matching on PID.3: parses the segment and looks for an identifier, either through the repetitions view or by
+ * splitting the field by hand as callers did before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepetitionsBenchmark {
+  private final String raw = "PID|1|775908|775908^^^MRN^MR~123-45-6789^^^SSA^SS~A1234567^^^DMV^DL~998877^^^HOSP^PI"
+      + "||Doe^Jane||19910619|F";
+  private final String wanted = "998877";
+
+  @Benchmark
+  public boolean matchRepetitions() {
+    Repetitions<ExtendedCompositeId> ids = PID.fromString(raw).getPid_3_patient_identifier_list();
+    for (int i = 0; i < ids.size(); i++) {
+      if (ids.get(i).getIdNumber().equals(wanted)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Benchmark
+  public boolean matchSplit() {
+    String field = PID.fromString(raw).getPid_3_patient_identifier_list().toString();
+    for (String repetition : field.split("~")) {
+      if (repetition.split("\\^")[0].equals(wanted)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
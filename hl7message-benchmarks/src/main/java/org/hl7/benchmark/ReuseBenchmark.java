@@ -0,0 +1,68 @@
+package org.hl7.benchmark;
+
+import org.hl7.Hl7Message;
+import org.hl7.Hl7MessagePool;
+import org.hl7.Hl7Parser;
+import org.hl7.ReusableHl7Message;
+import org.hl7.parser.InternedFields;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses into a new message per parse, and into pooled reusable messages whose TQ1 schedules are read, with and
+ * without the low-cardinality fields interned. Run with {@code -prof gc}: filling the segment holders of a pooled
+ * message does not allocate, only the field values that are read are created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReuseBenchmark {
+  private static final Hl7Parser PARSER = Hl7Parser.standard();
+  private static final Hl7Parser INTERNING = Hl7Parser.builder().internedFields(InternedFields.defaults()).build();
+
+  private final Hl7MessagePool pool = new Hl7MessagePool(4);
+
+  @Param
+  public Corpus corpus;
+
+  @Benchmark
+  public Hl7Message parse() {
+    return PARSER.parse(corpus.message());
+  }
+
+  @Benchmark
+  public int parseIntoPooled() {
+    return readSchedules(PARSER.parseInto(corpus.message(), pool.acquire()));
+  }
+
+  @Benchmark
+  public int parseIntoPooledInterned() {
+    return readSchedules(INTERNING.parseInto(corpus.message(), pool.acquire()));
+  }
+
+  // reads the repeat pattern of every TQ1, which is interned by the interning parser
+  private int readSchedules(ReusableHl7Message msg) {
+    int length = 0;
+    for (int i = 0; i < msg.size(); i++) {
+      if (msg.segment(i).isSegment("TQ1")) {
+        String repeatPattern = msg.segment(i).field(3);
+        length += repeatPattern == null ? 0 : repeatPattern.length();
+      }
+    }
+    pool.release(msg);
+    return length;
+  }
+}
@@ -0,0 +1,78 @@
+package org.hl7.benchmark;
+
+import org.hl7.segment.ISegment;
+import org.hl7.segment.MSH;
+import org.hl7.segment.ORC;
+import org.hl7.segment.PID;
+import org.hl7.segment.PV1;
+import org.hl7.segment.RXD;
+import org.hl7.segment.RXE;
+import org.hl7.segment.RXO;
+import org.hl7.segment.RXR;
+import org.hl7.segment.TQ1;
+import org.hl7.segment.ZPI;
+import org.hl7.segment.ZQM;
+import org.hl7.segment.ZRX;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Parses and prints every supported segment on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentBenchmark {
+  @Param({"MSH", "PID", "PV1", "ORC", "RXO", "RXE", "TQ1", "RXR", "RXD", "ZPI", "ZQM", "ZRX"})
+  public String segmentId;
+
+  private String raw;
+  private Function<String, ISegment> parser;
+  private ISegment segment;
+
+  @Setup
+  public void setup() {
+    raw = Corpus.segment(segmentId);
+    parser = switch (segmentId) {
+      case MSH.segmentId -> MSH::fromString;
+      case PID.segmentId -> PID::fromString;
+      case PV1.segmentId -> PV1::fromString;
+      case ORC.segmentId -> ORC::fromString;
+      case RXO.segmentId -> RXO::fromString;
+      case RXE.segmentId -> RXE::fromString;
+      case TQ1.segmentId -> TQ1::fromString;
+      case RXR.segmentId -> RXR::fromString;
+      case RXD.segmentId -> RXD::fromString;
+      case ZPI.segmentId -> ZPI::fromString;
+      case ZQM.segmentId -> ZQM::fromString;
+      case ZRX.segmentId -> ZRX::fromString;
+      default -> throw new IllegalArgumentException("Unsupported segment [" + segmentId + "]");
+    };
+    segment = parser.apply(raw);
+  }
+
+  @Benchmark
+  public ISegment fromString() {
+    return parser.apply(raw);
+  }
+
+  @Benchmark
+  public String print() {
+    return segment.print();
+  }
+}
@@ -0,0 +1,152 @@
+package org.hl7;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Appendable that encodes characters straight into a ByteBuffer, as US-ASCII, ISO-8859-1 or UTF-8. Characters that
+ * can not be encoded are replaced by '?', like {@link String#getBytes(java.nio.charset.Charset)} does.
+ *
+ * <p>When an OutputStream is attached, a full buffer is written to the stream and reused, otherwise a
+ * BufferOverflowException is thrown. The buffer must have an accessible array in that case.
+ */
+final class ByteSink implements Appendable {
+  enum Encoding {
+    US_ASCII(0x7F),
+    ISO_8859_1(0xFF),
+    UTF_8(0x7F);
+
+    // highest char that is written as a single byte
+    private final int maxSingleByte;
+
+    Encoding(int maxSingleByte) {
+      this.maxSingleByte = maxSingleByte;
+    }
+  }
+
+  private final Encoding encoding;
+  private final ByteBuffer buffer;
+  private final OutputStream out;
+  private char highSurrogate;
+
+  ByteSink(Encoding encoding, ByteBuffer buffer, OutputStream out) {
+    this.encoding = encoding;
+    this.buffer = buffer;
+    this.out = out;
+  }
+
+  @Override
+  public ByteSink append(CharSequence csq) throws IOException {
+    return csq == null ? append("null") : append(csq, 0, csq.length());
+  }
+
+  @Override
+  public ByteSink append(CharSequence csq, int start, int end) throws IOException {
+    if (csq == null) {
+      return append("null", start, end);
+    }
+    int maxSingleByte = encoding.maxSingleByte;
+    for (int i = start; i < end; i++) {
+      char ch = csq.charAt(i);
+      if (ch <= maxSingleByte && highSurrogate == 0) {
+        // fast path for single byte characters
+        if (!buffer.hasRemaining()) {
+          drain(1);
+        }
+        buffer.put((byte) ch);
+      } else {
+        append(ch);
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public ByteSink append(char ch) throws IOException {
+    if (encoding != Encoding.UTF_8) {
+      if (highSurrogate != 0) {
+        highSurrogate = 0;
+        if (Character.isLowSurrogate(ch)) {
+          // the whole surrogate pair is replaced by a single '?'
+          return this;
+        }
+      }
+      if (Character.isHighSurrogate(ch)) {
+        highSurrogate = ch;
+      }
+      ensure(1);
+      buffer.put(ch <= encoding.maxSingleByte ? (byte) ch : (byte) '?');
+      return this;
+    }
+
+    if (highSurrogate != 0) {
+      char high = highSurrogate;
+      highSurrogate = 0;
+      if (Character.isLowSurrogate(ch)) {
+        int codePoint = Character.toCodePoint(high, ch);
+        ensure(4);
+        buffer.put((byte) (0xF0 | codePoint >> 18))
+            .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+            .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+            .put((byte) (0x80 | codePoint & 0x3F));
+        return this;
+      }
+      // unpaired high surrogate
+      ensure(1);
+      buffer.put((byte) '?');
+    }
+
+    if (ch < 0x80) {
+      ensure(1);
+      buffer.put((byte) ch);
+    } else if (ch < 0x800) {
+      ensure(2);
+      buffer.put((byte) (0xC0 | ch >> 6))
+          .put((byte) (0x80 | ch & 0x3F));
+    } else if (Character.isHighSurrogate(ch)) {
+      highSurrogate = ch;
+    } else if (Character.isLowSurrogate(ch)) {
+      ensure(1);
+      buffer.put((byte) '?');
+    } else {
+      ensure(3);
+      buffer.put((byte) (0xE0 | ch >> 12))
+          .put((byte) (0x80 | ch >> 6 & 0x3F))
+          .put((byte) (0x80 | ch & 0x3F));
+    }
+    return this;
+  }
+
+  /**
+   * Writes a pending unpaired surrogate and, if an OutputStream is attached, all buffered bytes.
+   */
+  void finish() throws IOException {
+    if (highSurrogate != 0 && encoding == Encoding.UTF_8) {
+      highSurrogate = 0;
+      ensure(1);
+      buffer.put((byte) '?');
+    }
+    if (out != null && buffer.position() > 0) {
+      drain(buffer.capacity());
+    }
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      drain(bytes);
+    }
+  }
+
+  private void drain(int bytes) throws IOException {
+    if (out == null) {
+      throw new BufferOverflowException();
+    }
+    out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+    buffer.clear();
+    if (buffer.remaining() < bytes) {
+      throw new BufferOverflowException();
+    }
+  }
+}
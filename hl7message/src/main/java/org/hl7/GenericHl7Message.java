@@ -0,0 +1,273 @@
+package org.hl7;
+
+import lombok.NonNull;
+import org.hl7.segment.ISegment;
+import org.hl7.segment.RawSegment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * HL7 message that keeps every segment in the order it was read, for message types and shapes {@link Hl7Message} can
+ * not hold: repeating ORDER groups of a multi-medication order, ADT or ORU messages. Segments are kept in an array next
+ * to their packed segment ids, and the groups of a {@link MessageStructure} are indexed once when the message is
+ * built, so the n-th occurrence of a group is found in constant time.
+ *
+ * <p>Segments with a parser in the {@link SegmentRegistry} are parsed into their segment classes, all others are kept
+ * as {@link RawSegment}. Messages are immutable, except for the segments themselves.
+ */
+public final class GenericHl7Message {
+  private static final Hl7MessageWriter PRINT_MESSAGE_WRITER = Hl7MessageWriter.builder()
+      .segmentTerminator(System.lineSeparator())
+      .terminateLastSegment(false)
+      .build();
+
+  private final MessageStructure structure;
+  private final ISegment[] segments;
+  // packed segment ids, 0 for raw segments without a valid id
+  private final int[] keys;
+  // first (inclusive) and last (exclusive) segment index of every group occurrence, in message order
+  private final int[] groupStarts;
+  private final int[] groupEnds;
+  // occurrences of every group of the structure, as indexes into groupStarts and groupEnds
+  private final int[][] occurrences;
+
+  private GenericHl7Message(MessageStructure structure, ISegment[] segments, int[] keys, int[] groupStarts,
+                            int[] groupEnds, int[][] occurrences) {
+    this.structure = structure;
+    this.segments = segments;
+    this.keys = keys;
+    this.groupStarts = groupStarts;
+    this.groupEnds = groupEnds;
+    this.occurrences = occurrences;
+  }
+
+  /**
+   * Converts a message from String to object, indexing the ORDER groups of {@link MessageStructure#pharmacy()}.
+   */
+  public static GenericHl7Message fromString(String message) {
+    return Hl7Parser.standard().parseGeneric(message, MessageStructure.pharmacy());
+  }
+
+  /**
+   * Converts a message from String to object, indexing the groups of the given structure.
+   */
+  public static GenericHl7Message fromString(String message, MessageStructure structure) {
+    return Hl7Parser.standard().parseGeneric(message, structure);
+  }
+
+  /**
+   * Returns a builder of a message with the groups of the given structure.
+   */
+  public static Builder builder(@NonNull MessageStructure structure) {
+    return new Builder(structure);
+  }
+
+  public MessageStructure structure() {
+    return structure;
+  }
+
+  /**
+   * Returns the number of segments.
+   */
+  public int size() {
+    return segments.length;
+  }
+
+  public ISegment segment(int index) {
+    return segments[index];
+  }
+
+  /**
+   * Returns the segment id of the segment at the given index.
+   */
+  public String segmentId(int index) {
+    int key = keys[index];
+    if (key == 0) {
+      return segments[index] instanceof RawSegment raw ? raw.getSegmentId() : null;
+    }
+    return new String(new char[] {(char) (key >>> 16), (char) (key >>> 8 & 0xFF), (char) (key & 0xFF)});
+  }
+
+  /**
+   * Returns all segments in message order. The list can not be modified.
+   */
+  public List<ISegment> segments() {
+    return Collections.unmodifiableList(Arrays.asList(segments));
+  }
+
+  /**
+   * Returns the first segment with the given id and type, or null if there is none.
+   */
+  public <T extends ISegment> T first(String segmentId, Class<T> type) {
+    return first(segmentId, type, 0, segments.length);
+  }
+
+  /**
+   * Returns all segments with the given id and type, in message order.
+   */
+  public <T extends ISegment> List<T> all(String segmentId, Class<T> type) {
+    return all(segmentId, type, 0, segments.length);
+  }
+
+  /**
+   * Returns the number of occurrences of the given group, 0 if the structure has no group of that name.
+   */
+  public int groupCount(String name) {
+    int group = structure.groupIndex(name);
+    return group < 0 ? 0 : occurrences[group].length;
+  }
+
+  /**
+   * Returns the occurrence of the given group at the given index.
+   *
+   * @throws IndexOutOfBoundsException if the message does not have that many occurrences of the group
+   */
+  public SegmentGroup group(String name, int index) {
+    int group = structure.groupIndex(name);
+    if (group < 0 || index < 0 || index >= occurrences[group].length) {
+      throw new IndexOutOfBoundsException("No occurrence " + index + " of group [" + name + "]");
+    }
+    int occurrence = occurrences[group][index];
+    return new SegmentGroup(this, name, groupStarts[occurrence], groupEnds[occurrence]);
+  }
+
+  /**
+   * Returns all occurrences of the given group, in message order.
+   */
+  public List<SegmentGroup> groups(String name) {
+    int count = groupCount(name);
+    List<SegmentGroup> groups = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      groups.add(group(name, i));
+    }
+    return groups;
+  }
+
+  /**
+   * Returns the message as a String. Segments are separated by the platform line separator. Use
+   * {@link Hl7MessageWriter} to write the message with HL7 segment terminators or into an existing buffer.
+   */
+  public String printMessage() {
+    return PRINT_MESSAGE_WRITER.print(this);
+  }
+
+  <T extends ISegment> T first(String segmentId, Class<T> type, int from, int to) {
+    int key = key(segmentId);
+    for (int i = from; i < to && key != 0; i++) {
+      if (keys[i] == key && type.isInstance(segments[i])) {
+        return type.cast(segments[i]);
+      }
+    }
+    return null;
+  }
+
+  <T extends ISegment> List<T> all(String segmentId, Class<T> type, int from, int to) {
+    int key = key(segmentId);
+    List<T> found = new ArrayList<>();
+    for (int i = from; i < to && key != 0; i++) {
+      if (keys[i] == key && type.isInstance(segments[i])) {
+        found.add(type.cast(segments[i]));
+      }
+    }
+    return found;
+  }
+
+  // packed segment id, 0 if the id is invalid and therefore matches no segment
+  private static int key(String segmentId) {
+    return segmentId.length() == 3
+        ? SegmentRegistry.pack(segmentId.charAt(0), segmentId.charAt(1), segmentId.charAt(2))
+        : 0;
+  }
+
+  /**
+   * Builds a message segment by segment, indexing groups as segments are added. Builders are not thread-safe.
+   */
+  public static final class Builder {
+    private final MessageStructure structure;
+    private ISegment[] segments = new ISegment[16];
+    private int[] keys = new int[16];
+    private int size;
+
+    private int[] groupStarts = new int[4];
+    private int[] groupEnds = new int[4];
+    private int[] groupIndexes = new int[4];
+    private int groupCount;
+    // group of the occurrence that the next segment may extend, or -1
+    private int openGroup = -1;
+
+    private Builder(MessageStructure structure) {
+      this.structure = structure;
+    }
+
+    /**
+     * Adds a segment at the end of the message.
+     *
+     * @throws IllegalArgumentException if the segment id is not 3 uppercase letters or digits
+     */
+    public Builder add(@NonNull String segmentId, @NonNull ISegment segment) {
+      int key = key(segmentId);
+      if (key == 0) {
+        throw new IllegalArgumentException("Invalid segment id [" + segmentId + "]");
+      }
+      return add(key, segment);
+    }
+
+    Builder add(int key, ISegment segment) {
+      if (size == segments.length) {
+        segments = Arrays.copyOf(segments, size * 2);
+        keys = Arrays.copyOf(keys, size * 2);
+      }
+
+      int startedGroup = key == 0 ? -1 : structure.groupStartedBy(key);
+      if (startedGroup >= 0) {
+        openGroup(startedGroup);
+      } else if (openGroup >= 0 && key != 0 && structure.isMember(openGroup, key)) {
+        groupEnds[groupCount - 1] = size + 1;
+      } else {
+        openGroup = -1;
+      }
+
+      segments[size] = segment;
+      keys[size] = key;
+      size++;
+      return this;
+    }
+
+    /**
+     * Returns a message with the segments added so far. The builder can be used to add further segments.
+     */
+    public GenericHl7Message build() {
+      int[] counts = new int[structure.groupCount()];
+      for (int i = 0; i < groupCount; i++) {
+        counts[groupIndexes[i]]++;
+      }
+      int[][] occurrences = new int[counts.length][];
+      for (int group = 0; group < counts.length; group++) {
+        occurrences[group] = new int[counts[group]];
+        counts[group] = 0;
+      }
+      for (int i = 0; i < groupCount; i++) {
+        occurrences[groupIndexes[i]][counts[groupIndexes[i]]++] = i;
+      }
+
+      return new GenericHl7Message(structure, Arrays.copyOf(segments, size), Arrays.copyOf(keys, size),
+          Arrays.copyOf(groupStarts, groupCount), Arrays.copyOf(groupEnds, groupCount), occurrences);
+    }
+
+    private void openGroup(int group) {
+      if (groupCount == groupStarts.length) {
+        groupStarts = Arrays.copyOf(groupStarts, groupCount * 2);
+        groupEnds = Arrays.copyOf(groupEnds, groupCount * 2);
+        groupIndexes = Arrays.copyOf(groupIndexes, groupCount * 2);
+      }
+      groupStarts[groupCount] = size;
+      groupEnds[groupCount] = size + 1;
+      groupIndexes[groupCount] = group;
+      groupCount++;
+      openGroup = group;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package org.hl7;
+
+import lombok.Getter;
+import org.hl7.parser.ParseDiagnostic;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link Hl7Parser#parseGenericWithDiagnostics(String, MessageStructure)}: the parsed generic message and
+ * the problems found in it.
+ */
+@Getter
+public final class GenericParseResult {
+  /**
+   * The parsed message, null if a strict parser stopped at a problem.
+   */
+  private final GenericHl7Message message;
+  private final List<ParseDiagnostic> diagnostics;
+
+  GenericParseResult(GenericHl7Message message, List<ParseDiagnostic> diagnostics) {
+    this.message = message;
+    this.diagnostics = diagnostics;
+  }
+
+  /**
+   * Returns true if no problem was found.
+   */
+  public boolean isValid() {
+    return diagnostics.isEmpty();
+  }
+}
@@ -1,30 +1,42 @@
 package org.hl7;
 
 import lombok.extern.slf4j.Slf4j;
+import org.hl7.common.ConversionMode;
 import org.hl7.common.MessageEvent;
+import org.hl7.segment.ISegment;
 import org.hl7.segment.RXD;
+import org.hl7.segment.TQ1;
 import org.hl7.segment.datatype.CodedElement;
-import org.hl7.utils.Hl7DateUtils;
+import org.hl7.utils.Hl7Clock;
 import org.hl7.utils.Hl7MsgUtils;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 public class Hl7Converter {
 
   /**
-   * Convert hl7 message from one type to another.
+   * Convert hl7 message from one type to another. The converted message is a deep copy of the original message.
    */
   public static Hl7Message convert(Hl7Message origMsg, MessageEvent convertTo) {
+    return convert(origMsg, convertTo, ConversionMode.DEEP_COPY);
+  }
+
+  /**
+   * Convert hl7 message from one type to another, sharing the immutable segments of the original message with the
+   * converted message when the mode is {@link ConversionMode#SHARED}.
+   */
+  public static Hl7Message convert(Hl7Message origMsg, MessageEvent convertTo, ConversionMode mode) {
     switch (convertTo) {
       case ORDER_DISPENSE -> {
-        return convertToDispense(origMsg);
+        return convertToDispense(origMsg, mode);
       }
       case ORDER_DC -> {
-        return convertToDiscontinue(origMsg);
+        return convertToDiscontinue(origMsg, mode);
       }
       case ORDER_UPDATE -> {
-        return convertToUpdate(origMsg);
+        return convertToUpdate(origMsg, mode);
       }
       case ORDER_NEW, ORDER_HOLD, ORDER_REFILL, ORDER_RESUME ->
           throw new RuntimeException("Can not convert message. Not yet implemented.");
@@ -32,14 +44,14 @@ public class Hl7Converter {
     }
   }
 
-  private static Hl7Message convertToDispense(Hl7Message origMsg) {
+  private static Hl7Message convertToDispense(Hl7Message origMsg, ConversionMode mode) {
     // create a copy of the original hl7 message
-    Hl7Message.Hl7MessageBuilder dispense = Hl7MsgUtils.copy(origMsg).toBuilder();
+    Hl7Message.Hl7MessageBuilder dispense = derive(origMsg, mode);
 
     // update MSH.9 - Message Type
     dispense.msh(origMsg.getMsh().toBuilder()
         .msh_9_messageType("RDS^O13^RDS_O13")
-        .msh_7_messageDatetime(Hl7DateUtils.formatToHl7(LocalDateTime.now()))
+        .msh_7_messageDatetime(Hl7Clock.getDefault().now())
         .build());
 
     // update ORC.1 - Order Control
@@ -59,21 +71,19 @@ public class Hl7Converter {
               .text(origMsg.getRxe().getRxe_2_2_drugName())
               .build())
           .build());
-    } else {
-      dispense.rxd(origMsg.getRxd().toBuilder().build());
     }
 
     return dispense.build();
   }
 
-  private static Hl7Message convertToDiscontinue(Hl7Message origMsg) {
+  private static Hl7Message convertToDiscontinue(Hl7Message origMsg, ConversionMode mode) {
     // create a copy of the original hl7 message
-    Hl7Message.Hl7MessageBuilder discontinue = Hl7MsgUtils.copy(origMsg).toBuilder();
+    Hl7Message.Hl7MessageBuilder discontinue = derive(origMsg, mode);
 
     // update MSH.9 - Message Type
     discontinue.msh(origMsg.getMsh().toBuilder()
         .msh_9_messageType("RDE^O11^RDE_O11")
-        .msh_7_messageDatetime(Hl7DateUtils.formatToHl7(LocalDateTime.now()))
+        .msh_7_messageDatetime(Hl7Clock.getDefault().now())
         .build());
 
     // update ORC.1 - Order Control
@@ -82,14 +92,14 @@ public class Hl7Converter {
     return discontinue.build();
   }
 
-  private static Hl7Message convertToUpdate(Hl7Message origMsg) {
+  private static Hl7Message convertToUpdate(Hl7Message origMsg, ConversionMode mode) {
     // create a copy of the original hl7 message
-    Hl7Message.Hl7MessageBuilder update = Hl7MsgUtils.copy(origMsg).toBuilder();
+    Hl7Message.Hl7MessageBuilder update = derive(origMsg, mode);
 
     // update MSH.9 - Message Type
     update.msh(origMsg.getMsh().toBuilder()
         .msh_9_messageType("RDE^O11^RDE_O11")
-        .msh_7_messageDatetime(Hl7DateUtils.formatToHl7(LocalDateTime.now()))
+        .msh_7_messageDatetime(Hl7Clock.getDefault().now())
         .build());
 
     // update ORC.1 - Order Control
@@ -97,4 +107,43 @@ public class Hl7Converter {
 
     return update.build();
   }
+
+  private static Hl7Message.Hl7MessageBuilder derive(Hl7Message origMsg, ConversionMode mode) {
+    if (mode == ConversionMode.DEEP_COPY) {
+      return Hl7MsgUtils.copy(origMsg).toBuilder();
+    }
+
+    // MSH and ORC are rewritten by every conversion. Segments without setters are shared, segments with setters are
+    // copied so changes to the converted message can't leak into the original one.
+    List<TQ1> schedules = null;
+    if (origMsg.getTq1() != null) {
+      schedules = new ArrayList<>(origMsg.getTq1().size());
+      for (TQ1 tq1 : origMsg.getTq1()) {
+        schedules.add(tq1 == null ? null : tq1.copy());
+      }
+    }
+
+    // segments of custom parsers may be mutable, raw segments return themselves
+    List<ISegment> otherSegments = null;
+    if (origMsg.getOtherSegments() != null) {
+      otherSegments = new ArrayList<>(origMsg.getOtherSegments().size());
+      for (ISegment segment : origMsg.getOtherSegments()) {
+        otherSegments.add(segment == null ? null : segment.copy());
+      }
+    }
+
+    return Hl7Message.builder()
+        .pid(origMsg.getPid())
+        .pv1(origMsg.getPv1())
+        .rxo(origMsg.getRxo())
+        .rxe(origMsg.getRxe() == null ? null : origMsg.getRxe().copy())
+        .tq1(schedules)
+        .rxr(origMsg.getRxr())
+        .rxd(origMsg.getRxd())
+        .zpi(origMsg.getZpi())
+        .zqm(origMsg.getZqm())
+        .zrx(origMsg.getZrx())
+        .otherSegments(otherSegments)
+        .otherSegmentAnchors(origMsg.getOtherSegmentAnchors() == null ? null : origMsg.getOtherSegmentAnchors().clone());
+  }
 }
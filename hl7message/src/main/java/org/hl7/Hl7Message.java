@@ -13,16 +13,15 @@ import org.hl7.segment.RXD;
 import org.hl7.segment.RXE;
 import org.hl7.segment.RXO;
 import org.hl7.segment.RXR;
+import org.hl7.segment.RawSegment;
 import org.hl7.segment.TQ1;
 import org.hl7.segment.ZPI;
 import org.hl7.segment.ZQM;
 import org.hl7.segment.ZRX;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 @Setter
 @Getter
@@ -41,71 +40,239 @@ public class Hl7Message {
   private ZPI zpi;
   private ZQM zqm;
   private ZRX zrx;
+  /**
+   * Segments without a field of their own, in the order they were read: segments of custom parsers registered in the
+   * {@link SegmentRegistry} and unknown segments kept as {@link RawSegment}. Printed where they were read, see
+   * {@link #getOtherSegmentAnchors()}.
+   */
+  private List<ISegment> otherSegments;
+  /**
+   * Where the other segments were read: entry i is the anchor of other segment i, the segment with a field of its own
+   * that it followed, so e.g. an NTE is printed right after its RXE again. Set by the parsers; other segments without
+   * an entry, e.g. added to the list afterwards, are printed after all other segments.
+   */
+  private int[] otherSegmentAnchors;
+
+  // segments with a field, in print order; an anchor is the slot of such a segment and, for TQ1, its occurrence
+  static final int TQ1_SLOT = 6;
+  static final int SLOT_COUNT = 12;
+  static final int ANCHOR_START = -1;
+  // anchor of other segments added without one, sorts after all slots
+  static final int UNANCHORED = SLOT_COUNT << 16;
+  private static final int[] SLOT_KEYS = {
+      key(MSH.segmentId), key(PID.segmentId), key(PV1.segmentId), key(ORC.segmentId), key(RXO.segmentId),
+      key(RXE.segmentId), key(TQ1.segmentId), key(RXR.segmentId), key(RXD.segmentId), key(ZPI.segmentId),
+      key(ZQM.segmentId), key(ZRX.segmentId)
+  };
+
+  private static final Hl7MessageWriter PRINT_MESSAGE_WRITER = Hl7MessageWriter.builder()
+      .segmentTerminator(System.lineSeparator())
+      .terminateLastSegment(false)
+      .build();
 
   /**
-   * Returns the hl7 message as a String.
+   * Returns the hl7 message as a String. Segments are separated by the platform line separator. Use
+   * {@link Hl7MessageWriter} to write the message with HL7 segment terminators or into an existing buffer.
    */
-  @SuppressWarnings("unchecked")
   public String printMessage() {
-    List<ISegment> segments = new ArrayList<>();
-
-    try {
-      for (Field field : this.getClass().getDeclaredFields()) {
-        if (!Modifier.isStatic(field.getModifiers())) {
-          field.setAccessible(true);
-          Object obj = field.get(this);
-
-          if (obj instanceof List && ((List<Object>) obj).stream().allMatch(ISegment.class::isInstance)) {
-            segments.addAll((List<ISegment>) obj);
-          } else if (obj instanceof ISegment) {
-            segments.add((ISegment) obj);
-          }
-        }
-      }
-    } catch (Exception e) {
-      throw new RuntimeException("Error while printing message", e);
+    return PRINT_MESSAGE_WRITER.print(this);
+  }
+
+  /**
+   * Convert a hl7 message from String to object. Segments without a field in Hl7Message are kept as
+   * {@link RawSegment} in {@link #getOtherSegments()}.
+   */
+  public static Hl7Message fromString(String message) {
+    return Hl7Parser.standard().parse(message);
+  }
+
+  /**
+   * Convert a hl7 message from String to object, parsing segments with the parsers of the given registry. Segments
+   * without parser are kept as {@link RawSegment} in {@link #getOtherSegments()}.
+   */
+  public static Hl7Message fromString(String message, SegmentRegistry registry) {
+    return Hl7Parser.builder().registry(registry).build().parse(message);
+  }
+
+  /**
+   * Replaces the other segments. The new segments have no anchors, they are printed after all other segments.
+   */
+  public void setOtherSegments(List<ISegment> otherSegments) {
+    this.otherSegments = otherSegments;
+    this.otherSegmentAnchors = null;
+  }
+
+  /**
+   * Removes all segments, so the message can be filled again. The TQ1 and other segment lists are cleared in place and
+   * reused, lists that can not be cleared are dropped, and so are the anchors of the other segments. Messages built from
+   * this one with {@link #toBuilder()} share these lists, copy them before resetting this one.
+   */
+  public void reset() {
+    setMsh(null);
+    setPid(null);
+    setPv1(null);
+    setOrc(null);
+    setRxo(null);
+    setRxe(null);
+    setRxr(null);
+    setRxd(null);
+    setZpi(null);
+    setZqm(null);
+    setZrx(null);
+    tq1 = clear(tq1);
+    otherSegments = clear(otherSegments);
+    otherSegmentAnchors = null;
+  }
+
+  /**
+   * Appends a segment without a field of its own, read after the segment of the given anchor.
+   */
+  void addOtherSegment(ISegment segment, int anchor) {
+    if (otherSegments == null) {
+      otherSegments = new ArrayList<>();
     }
+    otherSegments.add(segment);
+    otherSegmentAnchors = withAnchor(otherSegmentAnchors, otherSegments.size() - 1, anchor);
+  }
 
-    StringBuilder sb = new StringBuilder();
-    segments.stream()
-        .filter(Objects::nonNull)
-        .forEach(segment -> sb.append(segment.print()).append(System.lineSeparator()));
+  /**
+   * Returns the segment of the given slot, for all slots but TQ1.
+   */
+  ISegment segmentAt(int slot) {
+    return switch (slot) {
+      case 0 -> getMsh();
+      case 1 -> getPid();
+      case 2 -> getPv1();
+      case 3 -> getOrc();
+      case 4 -> getRxo();
+      case 5 -> getRxe();
+      case 7 -> getRxr();
+      case 8 -> getRxd();
+      case 9 -> getZpi();
+      case 10 -> getZqm();
+      case 11 -> getZrx();
+      default -> throw new IllegalArgumentException("No single segment at slot [" + slot + "]");
+    };
+  }
 
-    return sb.delete(sb.lastIndexOf(System.lineSeparator()), sb.length()).toString();
+  /**
+   * Returns the anchor of the given occurrence of the segment of the given slot. Anchors sort in print order.
+   */
+  static int anchor(int slot, int occurrence) {
+    return slot << 16 | Math.min(occurrence, 0xFFFF);
   }
 
   /**
-   * Convert a hl7 message from String to object.
+   * Returns the slot of the given segment, or -1 if it has no field of its own.
    */
-  public static Hl7Message fromString(String message) {
-    String[] segments = message.split("\\r?\\n|\\r");
-    Hl7MessageBuilder builder = Hl7Message.builder();
-
-    for (String segment : segments) {
-      String segmentId = segment.split("\\|")[0];
-
-      switch (segmentId) {
-        case MSH.segmentId -> builder.msh(MSH.fromString(segment));
-        case PID.segmentId -> builder.pid(PID.fromString(segment));
-        case PV1.segmentId -> builder.pv1(PV1.fromString(segment));
-        case ORC.segmentId -> builder.orc(ORC.fromString(segment));
-        case RXO.segmentId -> builder.rxo(RXO.fromString(segment));
-        case RXE.segmentId -> builder.rxe(RXE.fromString(segment));
-        case RXR.segmentId -> builder.rxr(RXR.fromString(segment));
-        case RXD.segmentId -> builder.rxd(RXD.fromString(segment));
-        case ZPI.segmentId -> builder.zpi(ZPI.fromString(segment));
-        case ZQM.segmentId -> builder.zqm(ZQM.fromString(segment));
-        case ZRX.segmentId -> builder.zrx(ZRX.fromString(segment));
-        case TQ1.segmentId -> {
-          if (builder.tq1 == null) {
-            builder.tq1(new ArrayList<>());
+  static int slotOf(ISegment segment) {
+    if (segment instanceof MSH) {
+      return 0;
+    } else if (segment instanceof PID) {
+      return 1;
+    } else if (segment instanceof PV1) {
+      return 2;
+    } else if (segment instanceof ORC) {
+      return 3;
+    } else if (segment instanceof RXO) {
+      return 4;
+    } else if (segment instanceof RXE) {
+      return 5;
+    } else if (segment instanceof TQ1) {
+      return TQ1_SLOT;
+    } else if (segment instanceof RXR) {
+      return 7;
+    } else if (segment instanceof RXD) {
+      return 8;
+    } else if (segment instanceof ZPI) {
+      return 9;
+    } else if (segment instanceof ZQM) {
+      return 10;
+    } else if (segment instanceof ZRX) {
+      return 11;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the slot of the segment with the given packed id, or -1 if it has no field of its own.
+   */
+  static int slotOf(int key) {
+    for (int slot = 0; slot < SLOT_KEYS.length; slot++) {
+      if (SLOT_KEYS[slot] == key) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  private static int key(String segmentId) {
+    return SegmentRegistry.pack(segmentId.charAt(0), segmentId.charAt(1), segmentId.charAt(2));
+  }
+
+  // spare entries are unanchored, so segments appended to the list afterwards are printed last
+  private static int[] withAnchor(int[] anchors, int index, int anchor) {
+    int[] result = anchors;
+    if (result == null) {
+      result = new int[Math.max(4, index + 1)];
+      Arrays.fill(result, UNANCHORED);
+    } else if (index >= result.length) {
+      int length = result.length;
+      result = Arrays.copyOf(result, Math.max(index + 1, length * 2));
+      Arrays.fill(result, length, result.length, UNANCHORED);
+    }
+    result[index] = anchor;
+    return result;
+  }
+
+  // lists of parsed messages are ArrayLists, lists of built messages may be immutable
+  private static <T> List<T> clear(List<T> list) {
+    if (list instanceof ArrayList<T> reusable) {
+      reusable.clear();
+      return reusable;
+    }
+    return null;
+  }
+
+  public static class Hl7MessageBuilder {
+    // anchor of the last parsed segment with a field of its own
+    private int anchor = ANCHOR_START;
+
+    /**
+     * Adds a parsed segment to its field, TQ1 and segments without a field are appended to their lists. Segments without
+     * a field are anchored to the last segment added that has one.
+     */
+    Hl7MessageBuilder add(ISegment segment) {
+      int slot = slotOf(segment);
+      switch (slot) {
+        case 0 -> msh((MSH) segment);
+        case 1 -> pid((PID) segment);
+        case 2 -> pv1((PV1) segment);
+        case 3 -> orc((ORC) segment);
+        case 4 -> rxo((RXO) segment);
+        case 5 -> rxe((RXE) segment);
+        case TQ1_SLOT -> {
+          if (this.tq1 == null) {
+            this.tq1 = new ArrayList<>();
           }
-          builder.tq1.add(TQ1.fromString(segment));
+          this.tq1.add((TQ1) segment);
+        }
+        case 7 -> rxr((RXR) segment);
+        case 8 -> rxd((RXD) segment);
+        case 9 -> zpi((ZPI) segment);
+        case 10 -> zqm((ZQM) segment);
+        case 11 -> zrx((ZRX) segment);
+        default -> {
+          if (this.otherSegments == null) {
+            this.otherSegments = new ArrayList<>();
+          }
+          this.otherSegments.add(segment);
+          this.otherSegmentAnchors = withAnchor(this.otherSegmentAnchors, this.otherSegments.size() - 1, anchor);
+          return this;
         }
-        default -> throw new IllegalArgumentException("Unsupported or Invalid message segment [" + segmentId + "]");
       }
+      anchor = anchor(slot, slot == TQ1_SLOT ? this.tq1.size() - 1 : 0);
+      return this;
     }
-
-    return builder.build();
   }
 }
@@ -0,0 +1,140 @@
+package org.hl7;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.hl7.ByteSink.Encoding;
+import org.hl7.mllp.ByteBufferPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes an Hl7Message straight into bytes. Segments are printed into an Appendable that encodes every character into
+ * the target buffer as it is written, so neither the message nor its segments are materialized as Strings.
+ * US-ASCII, ISO-8859-1 and UTF-8 are encoded directly, other charsets fall back to encoding the printed message.
+ *
+ * <p>Streams and byte arrays are written through pooled heap buffers. Messages that do not fit a pooled buffer are
+ * encoded into a buffer sized from the largest message encoded so far. Instances are thread-safe and meant to be
+ * shared, e.g. one per downstream system.
+ */
+public class Hl7MessageEncoder {
+  public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+  private static final Hl7MessageEncoder STANDARD = Hl7MessageEncoder.builder().build();
+  private static final int MAX_POOLED = 64;
+
+  @Getter
+  private final Charset charset;
+  @Getter
+  private final Hl7MessageWriter writer;
+  @Getter
+  private final int bufferSize;
+  private final Encoding encoding;
+  private final ByteBufferPool bufferPool;
+  // size of the largest message encoded by encode(Hl7Message)
+  @Getter
+  private volatile int sizeEstimate;
+
+  @Builder(toBuilder = true)
+  private Hl7MessageEncoder(Charset charset, Hl7MessageWriter writer, Integer bufferSize) {
+    this.charset = charset == null ? StandardCharsets.UTF_8 : charset;
+    this.writer = writer == null ? Hl7MessageWriter.standard() : writer;
+    this.bufferSize = bufferSize == null ? DEFAULT_BUFFER_SIZE : bufferSize;
+    this.encoding = encodingOf(this.charset);
+    this.bufferPool = new ByteBufferPool(this.bufferSize, MAX_POOLED, false);
+  }
+
+  /**
+   * Returns the encoder that writes UTF-8 with the standard {@link Hl7MessageWriter}.
+   */
+  public static Hl7MessageEncoder standard() {
+    return STANDARD;
+  }
+
+  /**
+   * Encodes the message into the buffer, starting at its position, and returns the number of bytes written.
+   *
+   * @throws BufferOverflowException if the message does not fit, the buffer's position is left unchanged then
+   */
+  public int encode(Hl7Message message, ByteBuffer dst) {
+    int start = dst.position();
+    try {
+      if (encoding == null) {
+        dst.put(writer.print(message).getBytes(charset));
+      } else {
+        ByteSink sink = new ByteSink(encoding, dst, null);
+        writer.write(message, sink);
+        sink.finish();
+      }
+    } catch (BufferOverflowException e) {
+      dst.position(start);
+      throw e;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return dst.position() - start;
+  }
+
+  /**
+   * Encodes the message into the stream. The stream is neither flushed nor closed.
+   */
+  public void encode(Hl7Message message, OutputStream out) throws IOException {
+    if (encoding == null) {
+      out.write(writer.print(message).getBytes(charset));
+      return;
+    }
+
+    ByteBuffer buffer = bufferPool.acquire();
+    try {
+      ByteSink sink = new ByteSink(encoding, buffer, out);
+      writer.write(message, sink);
+      sink.finish();
+    } finally {
+      bufferPool.release(buffer);
+    }
+  }
+
+  /**
+   * Returns the encoded message.
+   */
+  public byte[] encode(Hl7Message message) {
+    if (encoding == null) {
+      return writer.print(message).getBytes(charset);
+    }
+
+    int capacity = sizeEstimate;
+    while (true) {
+      ByteBuffer buffer = capacity <= bufferSize ? bufferPool.acquire() : ByteBuffer.allocate(capacity);
+      try {
+        int length = encode(message, buffer);
+        if (length > sizeEstimate) {
+          sizeEstimate = length;
+        }
+        return Arrays.copyOf(buffer.array(), length);
+      } catch (BufferOverflowException e) {
+        capacity = Math.max(capacity, buffer.capacity()) * 2;
+      } finally {
+        bufferPool.release(buffer);
+      }
+    }
+  }
+
+  private static Encoding encodingOf(Charset charset) {
+    if (charset.equals(StandardCharsets.UTF_8)) {
+      return Encoding.UTF_8;
+    }
+    if (charset.equals(StandardCharsets.ISO_8859_1)) {
+      return Encoding.ISO_8859_1;
+    }
+    if (charset.equals(StandardCharsets.US_ASCII)) {
+      return Encoding.US_ASCII;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,89 @@
+package org.hl7;
+
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of messages to parse into with {@link Hl7Parser#parseInto(String, ReusableHl7Message)}, so a
+ * long-running consumer reuses the same few messages instead of creating one per message:
+ *
+ * <pre>{@code
+ * ReusableHl7Message msg = parser.parseInto(raw, pool.acquire());
+ * try {
+ *   dispense(msg);
+ * } finally {
+ *   pool.release(msg);
+ * }
+ * }</pre>
+ *
+ * <p>A released message is reset and handed out again, so neither it nor its segment holders may be used after
+ * release, and it must not be released twice. Messages may be released by another thread than the one that acquired
+ * them. Instances are thread-safe and lock-free: free messages are kept in an array of slots that are taken and filled
+ * by compare-and-set, every thread starting at its own slot, so threads rarely contend for the same message and a
+ * thread that releases a message gets it back on its next acquire. Neither acquiring nor releasing allocates once the
+ * pool is warm.
+ */
+public final class Hl7MessagePool {
+  private final AtomicReferenceArray<ReusableHl7Message> free;
+
+  /**
+   * Creates an empty pool that keeps up to the given number of released messages.
+   *
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  public Hl7MessagePool(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Invalid capacity [" + capacity + "]");
+    }
+    this.free = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Returns an empty message from the pool, or a new one if the pool is empty.
+   */
+  public ReusableHl7Message acquire() {
+    int capacity = free.length();
+    int first = firstSlot(capacity);
+    for (int i = 0; i < capacity; i++) {
+      int slot = (first + i) % capacity;
+      ReusableHl7Message message = free.get(slot);
+      if (message != null && free.compareAndSet(slot, message, null)) {
+        return message;
+      }
+    }
+    return new ReusableHl7Message();
+  }
+
+  /**
+   * Resets the given message and returns it to the pool. Messages released while the pool is full are dropped.
+   */
+  public void release(@NonNull ReusableHl7Message message) {
+    message.reset();
+    int capacity = free.length();
+    int first = firstSlot(capacity);
+    for (int i = 0; i < capacity; i++) {
+      int slot = (first + i) % capacity;
+      if (free.get(slot) == null && free.compareAndSet(slot, null, message)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of messages in the pool.
+   */
+  public int size() {
+    int size = 0;
+    for (int i = 0; i < free.length(); i++) {
+      size += free.get(i) != null ? 1 : 0;
+    }
+    return size;
+  }
+
+  // spreads the threads over the slots
+  private static int firstSlot(int capacity) {
+    int h = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+    return ((h ^ h >>> 16) & Integer.MAX_VALUE) % capacity;
+  }
+}
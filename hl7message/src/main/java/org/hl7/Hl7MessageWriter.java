@@ -0,0 +1,191 @@
+package org.hl7;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.hl7.segment.ISegment;
+import org.hl7.segment.TQ1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Writes an Hl7Message segment by segment into a caller supplied Appendable. Segments are written in the fixed order
+ * of the Hl7Message fields (MSH, PID, PV1, ORC, RXO, RXE, TQ1s, RXR, RXD, ZPI, ZQM, ZRX) without reflection or
+ * intermediate collections; every other segment is written right after the segment it followed when parsed, other
+ * segments without such anchor at the end. A {@link GenericHl7Message} or {@link ReusableHl7Message} is written in the
+ * order of its segments. Instances are immutable and can be shared between threads.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class Hl7MessageWriter {
+  public static final String SEGMENT_TERMINATOR = "\r";
+
+  private static final Hl7MessageWriter STANDARD = Hl7MessageWriter.builder().build();
+
+  @Builder.Default
+  private final String segmentTerminator = SEGMENT_TERMINATOR;
+  @Builder.Default
+  private final boolean terminateLastSegment = true;
+
+  /**
+   * Returns the writer that terminates every segment, including the last one, with a carriage return as required by
+   * the HL7 spec.
+   */
+  public static Hl7MessageWriter standard() {
+    return STANDARD;
+  }
+
+  /**
+   * Writes the message into the given Appendable.
+   */
+  public void write(Hl7Message message, Appendable out) throws IOException {
+    List<ISegment> otherSegments = message.getOtherSegments();
+    int[] anchors = message.getOtherSegmentAnchors();
+    boolean empty = writeOthers(otherSegments, anchors, Integer.MIN_VALUE, Hl7Message.anchor(0, 0), out, true);
+
+    for (int slot = 0; slot < Hl7Message.SLOT_COUNT; slot++) {
+      int nextSlot = Hl7Message.anchor(slot + 1, 0);
+      if (slot != Hl7Message.TQ1_SLOT) {
+        empty = writeSegment(message.segmentAt(slot), out, empty);
+        empty = writeOthers(otherSegments, anchors, Hl7Message.anchor(slot, 0), nextSlot, out, empty);
+        continue;
+      }
+
+      List<TQ1> schedules = message.getTq1();
+      int count = schedules == null ? 0 : schedules.size();
+      for (int i = 0; i < count; i++) {
+        empty = writeSegment(schedules.get(i), out, empty);
+        int to = i == count - 1 ? nextSlot : Hl7Message.anchor(slot, i + 1);
+        empty = writeOthers(otherSegments, anchors, Hl7Message.anchor(slot, i), to, out, empty);
+      }
+      if (count == 0) {
+        empty = writeOthers(otherSegments, anchors, Hl7Message.anchor(slot, 0), nextSlot, out, empty);
+      }
+    }
+
+    // segments added without anchor
+    empty = writeOthers(otherSegments, anchors, Hl7Message.UNANCHORED, Integer.MAX_VALUE, out, empty);
+
+    if (!empty && terminateLastSegment) {
+      out.append(segmentTerminator);
+    }
+  }
+
+  /**
+   * Writes the message into the given StringBuilder.
+   */
+  public void write(Hl7Message message, StringBuilder sb) {
+    try {
+      write(message, (Appendable) sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the message as a String.
+   */
+  public String print(Hl7Message message) {
+    StringBuilder sb = new StringBuilder(1024);
+    write(message, sb);
+    return sb.toString();
+  }
+
+  /**
+   * Writes the generic message into the given Appendable, segments in message order.
+   */
+  public void write(GenericHl7Message message, Appendable out) throws IOException {
+    boolean empty = true;
+    for (int i = 0; i < message.size(); i++) {
+      empty = writeSegment(message.segment(i), out, empty);
+    }
+
+    if (!empty && terminateLastSegment) {
+      out.append(segmentTerminator);
+    }
+  }
+
+  /**
+   * Writes the generic message into the given StringBuilder.
+   */
+  public void write(GenericHl7Message message, StringBuilder sb) {
+    try {
+      write(message, (Appendable) sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the generic message as a String.
+   */
+  public String print(GenericHl7Message message) {
+    StringBuilder sb = new StringBuilder(1024);
+    write(message, sb);
+    return sb.toString();
+  }
+
+  /**
+   * Writes the reusable message into the given Appendable, segments in message order.
+   */
+  public void write(ReusableHl7Message message, Appendable out) throws IOException {
+    for (int i = 0; i < message.size(); i++) {
+      if (i > 0) {
+        out.append(segmentTerminator);
+      }
+      message.segment(i).printTo(out);
+    }
+
+    if (message.size() > 0 && terminateLastSegment) {
+      out.append(segmentTerminator);
+    }
+  }
+
+  /**
+   * Writes the reusable message into the given StringBuilder.
+   */
+  public void write(ReusableHl7Message message, StringBuilder sb) {
+    try {
+      write(message, (Appendable) sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the reusable message as a String.
+   */
+  public String print(ReusableHl7Message message) {
+    StringBuilder sb = new StringBuilder(1024);
+    write(message, sb);
+    return sb.toString();
+  }
+
+  // writes the other segments whose anchor is in [from, to), other segments without anchor count as anchored last
+  private boolean writeOthers(List<ISegment> otherSegments, int[] anchors, int from, int to, Appendable out,
+                              boolean empty) throws IOException {
+    if (otherSegments == null) {
+      return empty;
+    }
+    boolean result = empty;
+    for (int i = 0; i < otherSegments.size(); i++) {
+      int anchor = anchors != null && i < anchors.length ? anchors[i] : Hl7Message.UNANCHORED;
+      if (anchor >= from && anchor < to) {
+        result = writeSegment(otherSegments.get(i), out, result);
+      }
+    }
+    return result;
+  }
+
+  private boolean writeSegment(ISegment segment, Appendable out, boolean empty) throws IOException {
+    if (segment == null) {
+      return empty;
+    }
+    if (!empty) {
+      out.append(segmentTerminator);
+    }
+    segment.printTo(out);
+    return false;
+  }
+}
@@ -0,0 +1,258 @@
+package org.hl7;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import org.hl7.SegmentRegistry.SegmentDecoder;
+import org.hl7.common.ParseMode;
+import org.hl7.drug.DrugCodeResolver;
+import org.hl7.drug.DrugEnrichment;
+import org.hl7.parser.Delimiters;
+import org.hl7.parser.InternedFields;
+import org.hl7.parser.ParseDiagnostic;
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.segment.ISegment;
+import org.hl7.segment.RXD;
+import org.hl7.segment.RXE;
+import org.hl7.segment.RawSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses HL7 messages from Strings into Hl7Message objects. {@link Hl7Message#fromString(String)} uses the standard
+ * parser, build a parser to change how messages are parsed. Instances are immutable and can be shared between threads.
+ *
+ * <p>Delimiters are read from MSH-1 and MSH-2 once per message; messages with other than the standard delimiters are
+ * parsed into the standard encoding, see {@link Delimiters}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class Hl7Parser {
+  private static final Hl7Parser STANDARD = Hl7Parser.builder().build();
+
+  /**
+   * Parsers of the segments; segments without parser are kept as {@link RawSegment}.
+   */
+  @NonNull
+  @Builder.Default
+  private final SegmentRegistry registry = SegmentRegistry.standard();
+  /**
+   * Makes parsed segments keep their original text, so fields the segment classes do not model are printed back
+   * unchanged. See {@link org.hl7.parser.RawFields}.
+   */
+  @Builder.Default
+  private final boolean retainRawFields = false;
+  /**
+   * How messages with problems are handled, see {@link ParseMode}.
+   */
+  @NonNull
+  @Builder.Default
+  private final ParseMode mode = ParseMode.STRICT;
+  /**
+   * Fields whose values are resolved to shared String instances, none by default. See {@link InternedFields}.
+   */
+  @NonNull
+  @Builder.Default
+  private final InternedFields internedFields = InternedFields.none();
+  /**
+   * Resolves the NDCs of RXE and RXD to fill their blank drug names and dosage forms, null (the default) to leave them
+   * as parsed. Segments whose message has no NDC in field 2.1 are left as parsed. See {@link DrugEnrichment}.
+   */
+  private final DrugCodeResolver drugCodeResolver;
+
+  /**
+   * Returns the strict parser with the standard registry that does not retain raw fields.
+   */
+  public static Hl7Parser standard() {
+    return STANDARD;
+  }
+
+  /**
+   * Parses the given message. In strict mode the first problem is thrown, in lenient mode the best effort message is
+   * returned and problems are dropped.
+   *
+   * @throws IllegalArgumentException if the message declares invalid encoding characters (strict mode)
+   * @throws java.util.NoSuchElementException if a required field is missing (strict mode)
+   */
+  public Hl7Message parse(String message) {
+    return mode == ParseMode.STRICT ? parse(message, null) : parse(message, new ArrayList<>());
+  }
+
+  /**
+   * Parses the given message without throwing and returns it along with the problems found. A strict parser stops at
+   * the first segment with a problem and returns no message.
+   */
+  public ParseResult parseWithDiagnostics(String message) {
+    List<ParseDiagnostic> diagnostics = new ArrayList<>(0);
+    Hl7Message parsed = parse(message, diagnostics);
+    return new ParseResult(mode == ParseMode.STRICT && !diagnostics.isEmpty() ? null : parsed, diagnostics);
+  }
+
+  /**
+   * Parses the given message into a generic message that keeps every segment in order and indexes the groups of the
+   * given structure. Segments without parser are kept as {@link RawSegment}; in lenient mode so are segments whose
+   * parser fails, and problems are dropped.
+   *
+   * @throws IllegalArgumentException if the message declares invalid encoding characters (strict mode)
+   * @throws java.util.NoSuchElementException if a required field is missing (strict mode)
+   */
+  public GenericHl7Message parseGeneric(String message, @NonNull MessageStructure structure) {
+    return mode == ParseMode.STRICT
+        ? parseGeneric(message, structure, null)
+        : parseGeneric(message, structure, new ArrayList<>(0));
+  }
+
+  /**
+   * Parses the given message into a generic message without throwing and returns it along with the problems found. A
+   * strict parser stops at the first segment with a problem and returns no message.
+   */
+  public GenericParseResult parseGenericWithDiagnostics(String message, @NonNull MessageStructure structure) {
+    List<ParseDiagnostic> diagnostics = new ArrayList<>(0);
+    GenericHl7Message parsed = parseGeneric(message, structure, diagnostics);
+    return new GenericParseResult(mode == ParseMode.STRICT && !diagnostics.isEmpty() ? null : parsed, diagnostics);
+  }
+
+  // throws on the first problem if diagnostics is null
+  private GenericHl7Message parseGeneric(String message, MessageStructure structure,
+                                         List<ParseDiagnostic> diagnostics) {
+    GenericHl7Message.Builder builder = GenericHl7Message.builder(structure);
+    return decode(message, diagnostics, builder::add) ? builder.build() : null;
+  }
+
+  /**
+   * Parses the given message into the given target and returns it, so a long-running consumer can parse every message
+   * into the same instance, or into instances of an {@link Hl7MessagePool}. The target is reset first, then a
+   * {@link SegmentHolder} per segment is filled in place; segments are only decoded by
+   * {@link ReusableHl7Message#toMessage()}. In lenient mode invalid encoding characters are reported to the diagnostics
+   * of the target and the standard ones are used.
+   *
+   * @throws IllegalArgumentException if the message declares invalid encoding characters (strict mode)
+   */
+  public ReusableHl7Message parseInto(String message, @NonNull ReusableHl7Message target) {
+    target.reset();
+    target.filledBy(this);
+    scan(message, mode == ParseMode.STRICT ? null : target.diagnostics(), target.filler);
+    return target;
+  }
+
+  // decodes every segment into the sink, keeping segments without decoder and failing ones raw; throws on the first
+  // problem if diagnostics is null, returns false if a strict parser stopped at a reported problem
+  private boolean decode(String message, List<ParseDiagnostic> diagnostics, SegmentSink sink) {
+    SegmentTokenizer tokens = SegmentTokenizer.local();
+    boolean stopAtProblem = mode == ParseMode.STRICT;
+    return scan(message, diagnostics, (source, segmentStart, segmentEnd, delimiters) -> {
+      SegmentDecoder decoder = registry.find(source, segmentStart, segmentEnd, delimiters.field());
+      ISegment segment = null;
+      if (decoder != null) {
+        int reported = diagnostics == null ? 0 : diagnostics.size();
+        tokens.tokenize(source, segmentStart, segmentEnd, delimiters).retainRawFields(retainRawFields)
+            .intern(internedFields).reportTo(diagnostics);
+        segment = diagnostics == null
+            ? decoder.decode(tokens)
+            : tryDecode(decoder, tokens, source, segmentStart, diagnostics);
+        if (stopAtProblem && diagnostics != null && diagnostics.size() > reported) {
+          return false;
+        }
+        if (segment != null && drugCodeResolver != null) {
+          segment = enrich(segment, tokens);
+        }
+      }
+      if (segment == null) {
+        segment = RawSegment.of(delimiters.normalize(source, segmentStart, segmentEnd));
+      }
+      sink.add(segmentKey(source, segmentStart, segmentEnd, delimiters.field()), segment);
+      return true;
+    });
+  }
+
+  // passes every non-blank segment to the sink along with the delimiters of the message; throws on invalid encoding
+  // characters if diagnostics is null, returns false if a strict parser or the sink stopped at a problem
+  private boolean scan(String message, List<ParseDiagnostic> diagnostics, RawSegmentSink sink) {
+    int headerEnd = segmentEnd(message, 0);
+    Delimiters delimiters = diagnostics == null
+        ? Delimiters.fromHeader(message, 0, headerEnd)
+        : Delimiters.fromHeaderOrNull(message, 0, headerEnd);
+    if (delimiters == null) {
+      diagnostics.add(new ParseDiagnostic(message.substring(0, 3), 2, 4, "Invalid encoding characters"));
+      if (mode == ParseMode.STRICT) {
+        return false;
+      }
+      delimiters = Delimiters.STANDARD;
+    }
+
+    int length = message.length();
+    int segmentStart = 0;
+    while (segmentStart < length) {
+      int segmentEnd = segmentEnd(message, segmentStart);
+      if (segmentEnd > segmentStart && !sink.add(message, segmentStart, segmentEnd, delimiters)) {
+        return false;
+      }
+
+      // segments are terminated by \r, \n or \r\n; blank lines are skipped
+      segmentStart = segmentEnd + 1;
+    }
+    return true;
+  }
+
+  // throws on the first problem if diagnostics is null
+  private Hl7Message parse(String message, List<ParseDiagnostic> diagnostics) {
+    Hl7Message.Hl7MessageBuilder builder = Hl7Message.builder();
+    return decode(message, diagnostics, (key, segment) -> builder.add(segment)) ? builder.build() : null;
+  }
+
+  // RXE and RXD without a drug code in the message are skipped, RXE would resolve the random NDC of its builder
+  private ISegment enrich(ISegment segment, SegmentTokenizer tokens) {
+    if (!(segment instanceof RXE || segment instanceof RXD)) {
+      return segment;
+    }
+    String drugCode = tokens.component(2, 0);
+    return drugCode == null || drugCode.isBlank() ? segment : DrugEnrichment.enrich(segment, drugCodeResolver);
+  }
+
+  // reports a failing decoder and returns null, so the segment is kept raw
+  private static ISegment tryDecode(SegmentDecoder decoder, SegmentTokenizer tokens, String message, int segmentStart,
+                                    List<ParseDiagnostic> diagnostics) {
+    try {
+      return decoder.decode(tokens);
+    } catch (RuntimeException e) {
+      diagnostics.add(new ParseDiagnostic(message.substring(segmentStart, segmentStart + 3), 0, segmentStart,
+          "Segment could not be parsed: " + e.getMessage()));
+      return null;
+    }
+  }
+
+  // packed segment id, 0 if the segment does not start with a valid one
+  private static int segmentKey(String message, int segmentStart, int segmentEnd, char fieldSeparator) {
+    if (segmentEnd - segmentStart < 3 || segmentEnd - segmentStart > 3
+        && message.charAt(segmentStart + 3) != fieldSeparator) {
+      return 0;
+    }
+    return SegmentRegistry.pack(message.charAt(segmentStart), message.charAt(segmentStart + 1),
+        message.charAt(segmentStart + 2));
+  }
+
+  private static int segmentEnd(String message, int segmentStart) {
+    int segmentEnd = segmentStart;
+    int length = message.length();
+    while (segmentEnd < length && message.charAt(segmentEnd) != '\r' && message.charAt(segmentEnd) != '\n') {
+      segmentEnd++;
+    }
+    return segmentEnd;
+  }
+
+  // receives the decoded segments of a message in order along with their packed segment ids
+  @FunctionalInterface
+  private interface SegmentSink {
+    void add(int key, ISegment segment);
+  }
+
+  /**
+   * Receives the segments of a message in order as ranges of the raw message, along with the delimiters of its header.
+   * Returns false to stop at a problem.
+   */
+  @FunctionalInterface
+  interface RawSegmentSink {
+    boolean add(String message, int start, int end, Delimiters delimiters);
+  }
+}
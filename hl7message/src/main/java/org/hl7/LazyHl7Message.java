@@ -0,0 +1,357 @@
+package org.hl7;
+
+import org.hl7.parser.Delimiters;
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.segment.MSH;
+import org.hl7.segment.ORC;
+import org.hl7.segment.PID;
+import org.hl7.segment.PV1;
+import org.hl7.segment.RXD;
+import org.hl7.segment.RXE;
+import org.hl7.segment.RXO;
+import org.hl7.segment.RXR;
+import org.hl7.segment.RawSegment;
+import org.hl7.segment.TQ1;
+import org.hl7.segment.ZPI;
+import org.hl7.segment.ZQM;
+import org.hl7.segment.ZRX;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hl7Message that decodes its segments on demand. Creating the message only records where every segment starts and
+ * ends in the raw text, a segment is parsed the first time its getter is called. Consumers that only look at a few
+ * segments, e.g. to route messages on MSH and ORC, skip parsing all others.
+ *
+ * <p>The message behaves like an eagerly parsed one otherwise: setters replace segments, and {@link #toBuilder()},
+ * printing and copying decode all remaining segments first. Segments without a field in Hl7Message are kept as
+ * {@link RawSegment} right away, custom parsers of a {@link SegmentRegistry} are not supported. Instances are not
+ * thread-safe.
+ */
+public class LazyHl7Message extends Hl7Message {
+  private static final String[] SEGMENT_IDS = {
+      MSH.segmentId, PID.segmentId, PV1.segmentId, ORC.segmentId, RXO.segmentId, RXE.segmentId,
+      TQ1.segmentId, RXR.segmentId, RXD.segmentId, ZPI.segmentId, ZQM.segmentId, ZRX.segmentId
+  };
+  private static final int MSH_INDEX = 0;
+  private static final int PID_INDEX = 1;
+  private static final int PV1_INDEX = 2;
+  private static final int ORC_INDEX = 3;
+  private static final int RXO_INDEX = 4;
+  private static final int RXE_INDEX = 5;
+  private static final int TQ1_INDEX = 6;
+  private static final int RXR_INDEX = 7;
+  private static final int RXD_INDEX = 8;
+  private static final int ZPI_INDEX = 9;
+  private static final int ZQM_INDEX = 10;
+  private static final int ZRX_INDEX = 11;
+
+  private final String raw;
+  private final Delimiters delimiters;
+  private final int[] segmentStarts = new int[SEGMENT_IDS.length];
+  private final int[] segmentEnds = new int[SEGMENT_IDS.length];
+
+  // start and end offsets of all TQ1 segments, in pairs
+  private int[] schedules = new int[8];
+  private int scheduleCount;
+
+  // bit per segment that is present in the raw text and not decoded yet
+  private int pending;
+  // anchor of the last indexed segment with a field of its own
+  private int anchor = ANCHOR_START;
+
+  private LazyHl7Message(String raw, Delimiters delimiters) {
+    super(null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+    this.raw = raw;
+    this.delimiters = delimiters;
+  }
+
+  /**
+   * Creates a lazily decoded message from the given String. Only the segment ids are read up front, fields are parsed
+   * when a segment is accessed.
+   */
+  public static LazyHl7Message of(String message) {
+    int length = message.length();
+    int headerEnd = 0;
+    while (headerEnd < length && message.charAt(headerEnd) != '\r' && message.charAt(headerEnd) != '\n') {
+      headerEnd++;
+    }
+    LazyHl7Message lazy = new LazyHl7Message(message, Delimiters.fromHeader(message, 0, headerEnd));
+
+    int segmentStart = 0;
+    while (segmentStart < length) {
+      int segmentEnd = segmentStart;
+      while (segmentEnd < length && message.charAt(segmentEnd) != '\r' && message.charAt(segmentEnd) != '\n') {
+        segmentEnd++;
+      }
+
+      if (segmentEnd > segmentStart) {
+        lazy.index(segmentStart, segmentEnd);
+      }
+
+      // segments are terminated by \r, \n or \r\n; blank lines are skipped
+      segmentStart = segmentEnd + 1;
+    }
+
+    return lazy;
+  }
+
+  /**
+   * Returns true if the given segment has not been decoded yet. Intended for tests and diagnostics.
+   */
+  boolean isPending(String segmentId) {
+    for (int i = 0; i < SEGMENT_IDS.length; i++) {
+      if (SEGMENT_IDS[i].equals(segmentId)) {
+        return isPending(i);
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public MSH getMsh() {
+    if (isPending(MSH_INDEX)) {
+      setMsh(MSH.fromTokens(tokenize(MSH_INDEX)));
+    }
+    return super.getMsh();
+  }
+
+  @Override
+  public PID getPid() {
+    if (isPending(PID_INDEX)) {
+      setPid(PID.fromTokens(tokenize(PID_INDEX)));
+    }
+    return super.getPid();
+  }
+
+  @Override
+  public PV1 getPv1() {
+    if (isPending(PV1_INDEX)) {
+      setPv1(PV1.fromTokens(tokenize(PV1_INDEX)));
+    }
+    return super.getPv1();
+  }
+
+  @Override
+  public ORC getOrc() {
+    if (isPending(ORC_INDEX)) {
+      setOrc(ORC.fromTokens(tokenize(ORC_INDEX)));
+    }
+    return super.getOrc();
+  }
+
+  @Override
+  public RXO getRxo() {
+    if (isPending(RXO_INDEX)) {
+      setRxo(RXO.fromTokens(tokenize(RXO_INDEX)));
+    }
+    return super.getRxo();
+  }
+
+  @Override
+  public RXE getRxe() {
+    if (isPending(RXE_INDEX)) {
+      setRxe(RXE.fromTokens(tokenize(RXE_INDEX)));
+    }
+    return super.getRxe();
+  }
+
+  @Override
+  public List<TQ1> getTq1() {
+    if (isPending(TQ1_INDEX)) {
+      SegmentTokenizer tokens = SegmentTokenizer.local();
+      List<TQ1> tq1 = new ArrayList<>(scheduleCount);
+      for (int i = 0; i < scheduleCount; i++) {
+        tq1.add(TQ1.fromTokens(tokens.tokenize(raw, schedules[2 * i], schedules[2 * i + 1], delimiters)));
+      }
+      setTq1(tq1);
+    }
+    return super.getTq1();
+  }
+
+  @Override
+  public RXR getRxr() {
+    if (isPending(RXR_INDEX)) {
+      setRxr(RXR.fromTokens(tokenize(RXR_INDEX)));
+    }
+    return super.getRxr();
+  }
+
+  @Override
+  public RXD getRxd() {
+    if (isPending(RXD_INDEX)) {
+      setRxd(RXD.fromTokens(tokenize(RXD_INDEX)));
+    }
+    return super.getRxd();
+  }
+
+  @Override
+  public ZPI getZpi() {
+    if (isPending(ZPI_INDEX)) {
+      setZpi(ZPI.fromTokens(tokenize(ZPI_INDEX)));
+    }
+    return super.getZpi();
+  }
+
+  @Override
+  public ZQM getZqm() {
+    if (isPending(ZQM_INDEX)) {
+      setZqm(ZQM.fromTokens(tokenize(ZQM_INDEX)));
+    }
+    return super.getZqm();
+  }
+
+  @Override
+  public ZRX getZrx() {
+    if (isPending(ZRX_INDEX)) {
+      setZrx(ZRX.fromTokens(tokenize(ZRX_INDEX)));
+    }
+    return super.getZrx();
+  }
+
+  @Override
+  public void setMsh(MSH msh) {
+    pending &= ~(1 << MSH_INDEX);
+    super.setMsh(msh);
+  }
+
+  @Override
+  public void setPid(PID pid) {
+    pending &= ~(1 << PID_INDEX);
+    super.setPid(pid);
+  }
+
+  @Override
+  public void setPv1(PV1 pv1) {
+    pending &= ~(1 << PV1_INDEX);
+    super.setPv1(pv1);
+  }
+
+  @Override
+  public void setOrc(ORC orc) {
+    pending &= ~(1 << ORC_INDEX);
+    super.setOrc(orc);
+  }
+
+  @Override
+  public void setRxo(RXO rxo) {
+    pending &= ~(1 << RXO_INDEX);
+    super.setRxo(rxo);
+  }
+
+  @Override
+  public void setRxe(RXE rxe) {
+    pending &= ~(1 << RXE_INDEX);
+    super.setRxe(rxe);
+  }
+
+  @Override
+  public void setTq1(List<TQ1> tq1) {
+    pending &= ~(1 << TQ1_INDEX);
+    super.setTq1(tq1);
+  }
+
+  @Override
+  public void setRxr(RXR rxr) {
+    pending &= ~(1 << RXR_INDEX);
+    super.setRxr(rxr);
+  }
+
+  @Override
+  public void setRxd(RXD rxd) {
+    pending &= ~(1 << RXD_INDEX);
+    super.setRxd(rxd);
+  }
+
+  @Override
+  public void setZpi(ZPI zpi) {
+    pending &= ~(1 << ZPI_INDEX);
+    super.setZpi(zpi);
+  }
+
+  @Override
+  public void setZqm(ZQM zqm) {
+    pending &= ~(1 << ZQM_INDEX);
+    super.setZqm(zqm);
+  }
+
+  @Override
+  public void setZrx(ZRX zrx) {
+    pending &= ~(1 << ZRX_INDEX);
+    super.setZrx(zrx);
+  }
+
+  /**
+   * Removes all segments, including the ones not decoded yet.
+   */
+  @Override
+  public void reset() {
+    pending = 0;
+    scheduleCount = 0;
+    super.reset();
+  }
+
+  /**
+   * Decodes all remaining segments and returns a builder of an eagerly parsed message with the same segments.
+   */
+  @Override
+  public Hl7MessageBuilder toBuilder() {
+    decodeAll();
+    return super.toBuilder();
+  }
+
+  private void decodeAll() {
+    getMsh();
+    getPid();
+    getPv1();
+    getOrc();
+    getRxo();
+    getRxe();
+    getTq1();
+    getRxr();
+    getRxd();
+    getZpi();
+    getZqm();
+    getZrx();
+  }
+
+  private void index(int segmentStart, int segmentEnd) {
+    for (int i = 0; i < SEGMENT_IDS.length; i++) {
+      if (isSegment(SEGMENT_IDS[i], segmentStart, segmentEnd)) {
+        if (i == TQ1_INDEX) {
+          if (2 * scheduleCount == schedules.length) {
+            schedules = Arrays.copyOf(schedules, schedules.length * 2);
+          }
+          schedules[2 * scheduleCount] = segmentStart;
+          schedules[2 * scheduleCount + 1] = segmentEnd;
+          scheduleCount++;
+        } else {
+          // like the eager parser, the last occurrence of a segment wins
+          segmentStarts[i] = segmentStart;
+          segmentEnds[i] = segmentEnd;
+        }
+        pending |= 1 << i;
+        // slots are in the order of SEGMENT_IDS
+        anchor = anchor(i, i == TQ1_INDEX ? scheduleCount - 1 : 0);
+        return;
+      }
+    }
+
+    addOtherSegment(RawSegment.of(delimiters.normalize(raw, segmentStart, segmentEnd)), anchor);
+  }
+
+  private boolean isSegment(String segmentId, int segmentStart, int segmentEnd) {
+    int idEnd = segmentStart + segmentId.length();
+    return raw.startsWith(segmentId, segmentStart) && (idEnd == segmentEnd || raw.charAt(idEnd) == delimiters.field());
+  }
+
+  private boolean isPending(int index) {
+    return (pending & (1 << index)) != 0;
+  }
+
+  private SegmentTokenizer tokenize(int index) {
+    return SegmentTokenizer.local().tokenize(raw, segmentStarts[index], segmentEnds[index], delimiters);
+  }
+}
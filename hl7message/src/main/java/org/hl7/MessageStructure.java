@@ -0,0 +1,120 @@
+package org.hl7;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Segment groups of a message type, used by {@link GenericHl7Message} to index repeating groups such as the ORDER
+ * group of a pharmacy message. A group starts at its first segment id and extends over the following segments as long
+ * as they are members of the group; a segment that is not a member ends the group. Groups are not nested.
+ *
+ * <p>Segment ids are packed into ints like in the {@link SegmentRegistry}, so matching a segment against the groups
+ * does not allocate. Structures are immutable and can be shared between threads.
+ */
+public final class MessageStructure {
+  private static final MessageStructure FLAT = new MessageStructure(new String[0], new int[0][]);
+  // union of the ORDER groups of RDE_O11, RDS_O13 and OMP_O09, flattened since groups are not nested
+  private static final MessageStructure PHARMACY = FLAT.group("ORDER", "ORC", "TQ1", "TQ2", "RXO", "NTE", "RXR", "RXC",
+      "RXE", "RXD", "OBX", "FT1", "BLG", "CTI");
+
+  private final String[] names;
+  // packed segment ids of every group, the first one starts a new occurrence of the group
+  private final int[][] members;
+
+  private MessageStructure(String[] names, int[][] members) {
+    this.names = names;
+    this.members = members;
+  }
+
+  /**
+   * Returns the structure without groups, all segments are top-level segments.
+   */
+  public static MessageStructure flat() {
+    return FLAT;
+  }
+
+  /**
+   * Returns the structure of the pharmacy messages (RDE, RDS, OMP): an ORDER group per medication that starts at ORC
+   * and holds the order's TQ1, TQ2, RXO, NTE, RXR, RXC, RXE, RXD, OBX, FT1, BLG and CTI segments.
+   */
+  public static MessageStructure pharmacy() {
+    return PHARMACY;
+  }
+
+  /**
+   * Returns a copy of this structure with an additional group. The first segment id starts a new occurrence of the
+   * group, the others may follow it in any order and may repeat.
+   *
+   * @throws IllegalArgumentException if the name is already used, a segment id is not 3 uppercase letters or digits,
+   *                                  or the first segment id already starts another group
+   */
+  public MessageStructure group(@NonNull String name, @NonNull String firstSegmentId, String... segmentIds) {
+    if (groupIndex(name) >= 0) {
+      throw new IllegalArgumentException("Group [" + name + "] already exists");
+    }
+    int[] keys = new int[segmentIds.length + 1];
+    keys[0] = key(firstSegmentId);
+    for (int i = 0; i < segmentIds.length; i++) {
+      keys[i + 1] = key(segmentIds[i]);
+    }
+    if (groupStartedBy(keys[0]) >= 0) {
+      throw new IllegalArgumentException("Segment [" + firstSegmentId + "] already starts a group");
+    }
+
+    String[] newNames = Arrays.copyOf(names, names.length + 1);
+    int[][] newMembers = Arrays.copyOf(members, members.length + 1);
+    newNames[names.length] = name;
+    newMembers[members.length] = keys;
+    return new MessageStructure(newNames, newMembers);
+  }
+
+  public int groupCount() {
+    return names.length;
+  }
+
+  public String groupName(int group) {
+    return names[group];
+  }
+
+  /**
+   * Returns the index of the group with the given name, or -1 if there is none.
+   */
+  public int groupIndex(String name) {
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // index of the group started by the packed segment id, or -1
+  int groupStartedBy(int key) {
+    for (int i = 0; i < members.length; i++) {
+      if (members[i][0] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  boolean isMember(int group, int key) {
+    for (int member : members[group]) {
+      if (member == key) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int key(String segmentId) {
+    int key = segmentId.length() == 3
+        ? SegmentRegistry.pack(segmentId.charAt(0), segmentId.charAt(1), segmentId.charAt(2))
+        : 0;
+    if (key == 0) {
+      throw new IllegalArgumentException("Invalid segment id [" + segmentId + "]");
+    }
+    return key;
+  }
+}
@@ -0,0 +1,30 @@
+package org.hl7;
+
+import lombok.Getter;
+import org.hl7.parser.ParseDiagnostic;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link Hl7Parser#parseWithDiagnostics(String)}: the parsed message and the problems found in it.
+ */
+@Getter
+public final class ParseResult {
+  /**
+   * The parsed message, null if a strict parser stopped at a problem.
+   */
+  private final Hl7Message message;
+  private final List<ParseDiagnostic> diagnostics;
+
+  ParseResult(Hl7Message message, List<ParseDiagnostic> diagnostics) {
+    this.message = message;
+    this.diagnostics = diagnostics;
+  }
+
+  /**
+   * Returns true if no problem was found.
+   */
+  public boolean isValid() {
+    return diagnostics.isEmpty();
+  }
+}
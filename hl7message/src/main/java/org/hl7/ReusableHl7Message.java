@@ -0,0 +1,137 @@
+package org.hl7;
+
+import org.hl7.parser.Delimiters;
+import org.hl7.parser.ParseDiagnostic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * HL7 message that a long-running consumer parses into again and again instead of creating a message per parse.
+ * {@link Hl7Parser#parseInto(String, ReusableHl7Message)} fills a {@link SegmentHolder} per segment in place, which
+ * only records where the fields are in the raw message, so once the message has grown to the largest message parsed
+ * into it a parse allocates nothing. Field values are created when read. Segments are only decoded into their segment
+ * classes by {@link #toMessage()}, which is when the builder defaults of fields the message leaves out apply.
+ *
+ * <p>Segments are kept in the order they were read and printed as read, with the fields that were set. Messages are
+ * not thread-safe; an {@link Hl7MessagePool} hands them out to the threads of a consumer.
+ */
+public final class ReusableHl7Message {
+  private static final Hl7MessageWriter PRINT_MESSAGE_WRITER = Hl7MessageWriter.builder()
+      .segmentTerminator(System.lineSeparator())
+      .terminateLastSegment(false)
+      .build();
+
+  private SegmentHolder[] segments = new SegmentHolder[16];
+  private int size;
+  // parser that filled the message, null while it is empty
+  private Hl7Parser parser;
+  private final List<ParseDiagnostic> diagnostics = new ArrayList<>(0);
+  // passed to the parser, so filling does not create a sink per parse
+  final Hl7Parser.RawSegmentSink filler = this::fill;
+
+  /**
+   * Returns the number of segments.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the holder of the segment at the given index.
+   *
+   * @throws IndexOutOfBoundsException if there is no segment at that index
+   */
+  public SegmentHolder segment(int index) {
+    return segments[Objects.checkIndex(index, size)];
+  }
+
+  /**
+   * Returns the holder of the first segment with the given id, or null if the message has none. Does not allocate.
+   */
+  public SegmentHolder first(String segmentId) {
+    return find(segmentId, 0);
+  }
+
+  /**
+   * Returns the holder of the given occurrence (0-based) of the segment with the given id, or null if the message has
+   * not that many. Does not allocate.
+   */
+  public SegmentHolder find(String segmentId, int occurrence) {
+    int remaining = occurrence;
+    for (int i = 0; i < size; i++) {
+      if (segments[i].isSegment(segmentId) && remaining-- == 0) {
+        return segments[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of segments with the given id.
+   */
+  public int count(String segmentId) {
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      count += segments[i].isSegment(segmentId) ? 1 : 0;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the problems a lenient parser found while filling the message. Cleared by {@link #reset()}.
+   */
+  public List<ParseDiagnostic> diagnostics() {
+    return diagnostics;
+  }
+
+  /**
+   * Decodes the segments into an Hl7Message, as the parser that filled this message parses the printed message: in
+   * strict mode the first problem is thrown, in lenient mode failing segments are kept raw.
+   *
+   * @throws IllegalStateException if nothing was parsed into the message since it was reset
+   */
+  public Hl7Message toMessage() {
+    if (parser == null) {
+      throw new IllegalStateException("Nothing was parsed into the message");
+    }
+    return parser.parse(Hl7MessageWriter.standard().print(this));
+  }
+
+  /**
+   * Returns the hl7 message as a String. Segments are separated by the platform line separator.
+   */
+  public String printMessage() {
+    return PRINT_MESSAGE_WRITER.print(this);
+  }
+
+  /**
+   * Removes all segments. The holders are emptied and kept to be filled again, so the message no longer refers to the
+   * raw message it was filled from.
+   */
+  public void reset() {
+    for (int i = 0; i < size; i++) {
+      segments[i].reset();
+    }
+    size = 0;
+    parser = null;
+    diagnostics.clear();
+  }
+
+  void filledBy(Hl7Parser parser) {
+    this.parser = parser;
+  }
+
+  private boolean fill(String message, int start, int end, Delimiters delimiters) {
+    if (size == segments.length) {
+      segments = Arrays.copyOf(segments, size * 2);
+    }
+    if (segments[size] == null) {
+      segments[size] = new SegmentHolder();
+    }
+    segments[size++].fill(message, start, end, delimiters, parser.getInternedFields());
+    return true;
+  }
+}
@@ -0,0 +1,74 @@
+package org.hl7;
+
+import org.hl7.segment.ISegment;
+
+import java.util.List;
+
+/**
+ * One occurrence of a segment group of a {@link GenericHl7Message}, e.g. the ORDER group of one medication. Groups are
+ * views of a range of the message segments and are created on demand, they do not copy any segment.
+ */
+public final class SegmentGroup {
+  private final GenericHl7Message message;
+  private final String name;
+  private final int start;
+  private final int end;
+
+  SegmentGroup(GenericHl7Message message, String name, int start, int end) {
+    this.message = message;
+    this.name = name;
+    this.start = start;
+    this.end = end;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Returns the number of segments of the group.
+   */
+  public int size() {
+    return end - start;
+  }
+
+  /**
+   * Returns the segment at the given index of the group.
+   *
+   * @throws IndexOutOfBoundsException if the group does not have that many segments
+   */
+  public ISegment segment(int index) {
+    if (index < 0 || index >= end - start) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for group of " + (end - start));
+    }
+    return message.segment(start + index);
+  }
+
+  /**
+   * Returns the index of the first segment of the group in the message.
+   */
+  public int messageIndex() {
+    return start;
+  }
+
+  /**
+   * Returns the segments of the group. The list can not be modified.
+   */
+  public List<ISegment> segments() {
+    return message.segments().subList(start, end);
+  }
+
+  /**
+   * Returns the first segment of the group with the given id and type, or null if there is none.
+   */
+  public <T extends ISegment> T first(String segmentId, Class<T> type) {
+    return message.first(segmentId, type, start, end);
+  }
+
+  /**
+   * Returns all segments of the group with the given id and type, in message order.
+   */
+  public <T extends ISegment> List<T> all(String segmentId, Class<T> type) {
+    return message.all(segmentId, type, start, end);
+  }
+}
@@ -0,0 +1,183 @@
+package org.hl7;
+
+import lombok.NonNull;
+import org.hl7.parser.Delimiters;
+import org.hl7.parser.InternedFields;
+import org.hl7.parser.SegmentTokenizer;
+
+import java.io.IOException;
+
+/**
+ * Mutable holder of one segment of a {@link ReusableHl7Message}, filled in place by
+ * {@link Hl7Parser#parseInto(String, ReusableHl7Message)}. Filling records where the fields, components and
+ * subcomponents of the segment are in the raw message, in arrays the holder keeps across messages, so it does not
+ * allocate once they have grown to the largest segment. Values are only created when read, and are resolved to shared
+ * instances for the fields interned by the parser.
+ *
+ * <p>Positions are the ones of {@link SegmentTokenizer}: position 0 is the segment id, and for MSH position 1 holds the
+ * encoding characters, so position n is MSH-(n+1). Values are returned in the standard encoding, and fields are set in
+ * it. Holders are not thread-safe.
+ */
+public final class SegmentHolder {
+  private final SegmentTokenizer tokens = new SegmentTokenizer();
+  private String source = "";
+  private int start;
+  private int end;
+  private Delimiters delimiters = Delimiters.STANDARD;
+  private InternedFields internedFields = InternedFields.none();
+
+  SegmentHolder() {
+    reset();
+  }
+
+  /**
+   * Fills the holder with the segment between {@code start} (inclusive) and {@code end} (exclusive) of the given
+   * message, without copying it.
+   */
+  void fill(String message, int start, int end, Delimiters delimiters, InternedFields internedFields) {
+    this.source = message;
+    this.start = start;
+    this.end = end;
+    this.delimiters = delimiters;
+    this.internedFields = internedFields;
+    tokens.tokenize(message, start, end, delimiters).intern(internedFields);
+  }
+
+  /**
+   * Empties the holder, so it no longer refers to the message it was filled from.
+   */
+  public void reset() {
+    fill("", 0, 0, Delimiters.STANDARD, InternedFields.none());
+  }
+
+  /**
+   * Returns true if the holder holds a segment with the given id. Does not allocate.
+   */
+  public boolean isSegment(String segmentId) {
+    return end > start && tokens.isSegment(segmentId);
+  }
+
+  public String segmentId() {
+    return tokens.segmentId();
+  }
+
+  /**
+   * Returns the number of positions of the segment, including the segment id.
+   */
+  public int fieldCount() {
+    return end > start ? tokens.fieldCount() : 0;
+  }
+
+  public boolean hasField(int field) {
+    return field < fieldCount() && tokens.hasField(field);
+  }
+
+  /**
+   * Returns the whole field at the given position, or null if the segment does not have that many fields.
+   */
+  public String field(int field) {
+    return hasField(field) ? tokens.field(field) : null;
+  }
+
+  /**
+   * Returns a component of a field, or null if either the field or the component does not exist.
+   */
+  public String component(int field, int component) {
+    return hasField(field) ? tokens.component(field, component) : null;
+  }
+
+  /**
+   * Returns a subcomponent of a component, or null if the field, component or subcomponent does not exist.
+   */
+  public String subComponent(int field, int component, int subComponent) {
+    return hasField(field) ? tokens.subComponent(field, component, subComponent) : null;
+  }
+
+  /**
+   * Returns true if the field at the given position equals the given value. Does not allocate for messages with the
+   * standard delimiters.
+   */
+  public boolean fieldEquals(int field, @NonNull CharSequence value) {
+    if (!hasField(field)) {
+      return false;
+    }
+    if (!delimiters.isStandard()) {
+      return tokens.field(field).contentEquals(value);
+    }
+    int from = tokens.fieldStart(field);
+    int length = tokens.fieldEnd(field) - from;
+    if (length != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (source.charAt(from + i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Replaces the field at the given position, adding empty fields in between if the segment is shorter. The segment is
+   * rewritten in the standard encoding, so setting allocates; reading and printing do not tell set fields apart.
+   *
+   * @throws IllegalArgumentException if the position is the segment id or the encoding characters of MSH
+   * @throws IllegalStateException if the holder is empty
+   */
+  public void setField(int field, @NonNull String value) {
+    if (end == start) {
+      throw new IllegalStateException("Segment holder is empty");
+    }
+    if (field < 1 || field == 1 && isHeader()) {
+      throw new IllegalArgumentException("Field [" + field + "] of segment [" + segmentId() + "] can not be set");
+    }
+
+    int count = Math.max(tokens.fieldCount(), field + 1);
+    StringBuilder sb = new StringBuilder(end - start + value.length() + count - tokens.fieldCount());
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        sb.append(SegmentTokenizer.FIELD_SEPARATOR);
+      }
+      if (i == field) {
+        sb.append(value);
+      } else if (i < tokens.fieldCount()) {
+        appendField(i, sb);
+      }
+    }
+    String segment = sb.toString();
+    fill(segment, 0, segment.length(), Delimiters.STANDARD, internedFields);
+  }
+
+  /**
+   * Writes the segment as read, with the fields that were set, in the standard encoding.
+   */
+  public void printTo(Appendable out) throws IOException {
+    if (delimiters.isStandard()) {
+      out.append(source, start, end);
+    } else {
+      out.append(delimiters.normalize(source, start, end));
+    }
+  }
+
+  /**
+   * Returns the segment as read, with the fields that were set, in the standard encoding.
+   */
+  @Override
+  public String toString() {
+    return delimiters.normalize(source, start, end);
+  }
+
+  private void appendField(int field, StringBuilder sb) {
+    int from = tokens.fieldStart(field);
+    int to = tokens.fieldEnd(field);
+    if (delimiters.isStandard()) {
+      sb.append(source, from, to);
+    } else {
+      sb.append(delimiters.normalize(source, from, to));
+    }
+  }
+
+  private boolean isHeader() {
+    return tokens.isSegment("MSH") || tokens.isSegment("FHS") || tokens.isSegment("BHS");
+  }
+}
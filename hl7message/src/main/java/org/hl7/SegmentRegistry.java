@@ -0,0 +1,175 @@
+package org.hl7;
+
+import lombok.NonNull;
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.segment.ISegment;
+import org.hl7.segment.MSH;
+import org.hl7.segment.ORC;
+import org.hl7.segment.PID;
+import org.hl7.segment.PV1;
+import org.hl7.segment.RXD;
+import org.hl7.segment.RXE;
+import org.hl7.segment.RXO;
+import org.hl7.segment.RXR;
+import org.hl7.segment.TQ1;
+import org.hl7.segment.ZPI;
+import org.hl7.segment.ZQM;
+import org.hl7.segment.ZRX;
+
+import java.util.function.Function;
+
+/**
+ * Maps 3-char segment ids to the parsers used by {@link Hl7Message#fromString(String, SegmentRegistry)}. The standard
+ * registry knows the segments of the Hl7Message fields; custom segments can be added with
+ * {@link #register(String, Function)} and end up in {@link Hl7Message#getOtherSegments()}. Segments without parser are
+ * kept as {@link org.hl7.segment.RawSegment}.
+ *
+ * <p>Ids are packed into an int and looked up in a small open-addressing table straight from the raw message, so the
+ * segment id is never extracted as a String. Registries are immutable and can be shared between threads.
+ */
+public final class SegmentRegistry {
+  private static final int MIN_CAPACITY = 32;
+
+  private static final SegmentRegistry STANDARD = new SegmentRegistry(new int[MIN_CAPACITY],
+      new SegmentDecoder[MIN_CAPACITY])
+      .with(MSH.segmentId, MSH::fromTokens)
+      .with(PID.segmentId, PID::fromTokens)
+      .with(PV1.segmentId, PV1::fromTokens)
+      .with(ORC.segmentId, ORC::fromTokens)
+      .with(RXO.segmentId, RXO::fromTokens)
+      .with(RXE.segmentId, RXE::fromTokens)
+      .with(TQ1.segmentId, TQ1::fromTokens)
+      .with(RXR.segmentId, RXR::fromTokens)
+      .with(RXD.segmentId, RXD::fromTokens)
+      .with(ZPI.segmentId, ZPI::fromTokens)
+      .with(ZQM.segmentId, ZQM::fromTokens)
+      .with(ZRX.segmentId, ZRX::fromTokens);
+
+  // packed segment ids, 0 marks a free slot
+  private final int[] keys;
+  private final SegmentDecoder[] decoders;
+
+  private SegmentRegistry(int[] keys, SegmentDecoder[] decoders) {
+    this.keys = keys;
+    this.decoders = decoders;
+  }
+
+  /**
+   * Returns the registry of the segments that have a field in Hl7Message.
+   */
+  public static SegmentRegistry standard() {
+    return STANDARD;
+  }
+
+  /**
+   * Returns a copy of this registry that parses the given segment with the given parser. Parsed segments are added to
+   * the other segments of the message, in the order they appear.
+   *
+   * @throws IllegalArgumentException if the segment id is not 3 uppercase letters or digits, or already registered
+   */
+  public SegmentRegistry register(@NonNull String segmentId,
+                                  @NonNull Function<SegmentTokenizer, ? extends ISegment> parser) {
+    return with(segmentId, parser::apply);
+  }
+
+  /**
+   * Returns true if a parser is registered for the given segment id.
+   */
+  public boolean isRegistered(String segmentId) {
+    return find(segmentId, 0, segmentId.length()) != null;
+  }
+
+  /**
+   * Returns the parser of the segment between {@code start} (inclusive) and {@code end} (exclusive) of the given text,
+   * or null if the segment is unknown.
+   */
+  SegmentDecoder find(CharSequence text, int start, int end) {
+    return find(text, start, end, SegmentTokenizer.FIELD_SEPARATOR);
+  }
+
+  /**
+   * Returns the parser of the segment, for a message with the given field separator.
+   */
+  SegmentDecoder find(CharSequence text, int start, int end, char fieldSeparator) {
+    int slot = slot(text, start, end, fieldSeparator);
+    return slot < 0 ? null : decoders[slot];
+  }
+
+  private int slot(CharSequence text, int start, int end, char fieldSeparator) {
+    if (end - start < 3 || end - start > 3 && text.charAt(start + 3) != fieldSeparator) {
+      return -1;
+    }
+    int key = pack(text.charAt(start), text.charAt(start + 1), text.charAt(start + 2));
+    if (key == 0) {
+      return -1;
+    }
+
+    int mask = keys.length - 1;
+    for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  private SegmentRegistry with(String segmentId, SegmentDecoder decoder) {
+    int key = segmentId.length() == 3 ? pack(segmentId.charAt(0), segmentId.charAt(1), segmentId.charAt(2)) : 0;
+    if (key == 0) {
+      throw new IllegalArgumentException("Invalid segment id [" + segmentId + "]");
+    }
+    if (isRegistered(segmentId)) {
+      throw new IllegalArgumentException("Segment [" + segmentId + "] is already registered");
+    }
+
+    // keep the table at most a quarter full, so probe sequences stay short
+    int size = 1;
+    for (int k : keys) {
+      size += k != 0 ? 1 : 0;
+    }
+    int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(size * 4 - 1) << 1);
+    int[] newKeys = new int[capacity];
+    SegmentDecoder[] newDecoders = new SegmentDecoder[capacity];
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) {
+        insert(newKeys, newDecoders, keys[i], decoders[i]);
+      }
+    }
+    insert(newKeys, newDecoders, key, decoder);
+    return new SegmentRegistry(newKeys, newDecoders);
+  }
+
+  private static void insert(int[] keys, SegmentDecoder[] decoders, int key, SegmentDecoder decoder) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (keys[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    decoders[slot] = decoder;
+  }
+
+  /**
+   * Packs a segment id into an int, or returns 0 if it has characters other than uppercase letters and digits.
+   */
+  static int pack(char c0, char c1, char c2) {
+    return isIdChar(c0) && isIdChar(c1) && isIdChar(c2) ? c0 << 16 | c1 << 8 | c2 : 0;
+  }
+
+  private static boolean isIdChar(char ch) {
+    return ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9';
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ h >>> 16;
+  }
+
+  /**
+   * Parses a tokenized segment into a segment object.
+   */
+  @FunctionalInterface
+  interface SegmentDecoder {
+    ISegment decode(SegmentTokenizer tokens);
+  }
+}
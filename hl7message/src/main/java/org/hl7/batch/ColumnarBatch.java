@@ -0,0 +1,180 @@
+package org.hl7.batch;
+
+import lombok.NonNull;
+import org.hl7.parser.FieldPath;
+import org.hl7.parser.RawSlice;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Selected fields of many messages, stored column by column for bulk reporting. Values are extracted with
+ * {@link FieldPath} straight from the raw messages, no Hl7Message or segment objects are created. String values are
+ * dictionary encoded into an int per row, timestamps are held as epoch milliseconds in a long per row.
+ *
+ * <pre>{@code
+ * ColumnarBatch batch = ColumnarBatch.builder()
+ *     .stringColumn("RXE-2.1")
+ *     .timestampColumn("TQ1-7")
+ *     .addAll(reader)
+ *     .build();
+ * BitSet rows = batch.timestampColumn("TQ1-7").between(from, to);
+ * Map<String, Integer> ordersPerNdc = batch.stringColumn("RXE-2.1").countBy(rows);
+ * }</pre>
+ *
+ * <p>Rows are combined with the {@link BitSet} operations, e.g. {@code rows.and(other)}. Batches are immutable and can
+ * be shared between threads.
+ */
+public final class ColumnarBatch {
+  private final int rowCount;
+  private final List<StringColumn> stringColumns;
+  private final List<TimestampColumn> timestampColumns;
+
+  private ColumnarBatch(int rowCount, List<StringColumn> stringColumns, List<TimestampColumn> timestampColumns) {
+    this.rowCount = rowCount;
+    this.stringColumns = stringColumns;
+    this.timestampColumns = timestampColumns;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the number of rows, one per added message.
+   */
+  public int rowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the string column of the given path.
+   *
+   * @throws IllegalArgumentException if the batch has no string column of that path
+   */
+  public StringColumn stringColumn(String path) {
+    for (StringColumn column : stringColumns) {
+      if (column.path().equals(path)) {
+        return column;
+      }
+    }
+    throw new IllegalArgumentException("No string column [" + path + "]");
+  }
+
+  /**
+   * Returns the timestamp column of the given path.
+   *
+   * @throws IllegalArgumentException if the batch has no timestamp column of that path
+   */
+  public TimestampColumn timestampColumn(String path) {
+    for (TimestampColumn column : timestampColumns) {
+      if (column.path().equals(path)) {
+        return column;
+      }
+    }
+    throw new IllegalArgumentException("No timestamp column [" + path + "]");
+  }
+
+  /**
+   * Returns all rows, to start a filter from.
+   */
+  public BitSet allRows() {
+    BitSet rows = new BitSet(rowCount);
+    rows.set(0, rowCount);
+    return rows;
+  }
+
+  /**
+   * Declares the columns and extracts them from messages one at a time. Columns must be declared before the first
+   * message is added. Builders are not thread-safe.
+   */
+  public static final class Builder {
+    private final List<StringColumn.Appender> stringColumns = new ArrayList<>();
+    private final List<TimestampColumn.Appender> timestampColumns = new ArrayList<>();
+    private ZoneId zone = ZoneId.systemDefault();
+    private int rowCount;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the zone of the timestamps without offset in all timestamp columns, including those declared before, the
+     * system default zone by default.
+     */
+    public Builder zone(@NonNull ZoneId zone) {
+      checkNoRows();
+      this.zone = zone;
+      return this;
+    }
+
+    /**
+     * Adds a dictionary encoded column of the values at the given path, e.g. {@code RXE-2.1}.
+     *
+     * @throws IllegalArgumentException if the path is not valid
+     */
+    public Builder stringColumn(String path) {
+      checkNoRows();
+      stringColumns.add(new StringColumn.Appender(FieldPath.compile(path)));
+      return this;
+    }
+
+    /**
+     * Adds a column of the timestamps at the given path, e.g. {@code TQ1-7}.
+     *
+     * @throws IllegalArgumentException if the path is not valid
+     */
+    public Builder timestampColumn(String path) {
+      checkNoRows();
+      timestampColumns.add(new TimestampColumn.Appender(FieldPath.compile(path)));
+      return this;
+    }
+
+    /**
+     * Extracts the columns of the given message into a new row.
+     */
+    public Builder add(CharSequence message) {
+      RawSlice slice = RawSlice.of(message);
+      for (StringColumn.Appender column : stringColumns) {
+        column.append(slice);
+      }
+      for (TimestampColumn.Appender column : timestampColumns) {
+        column.append(slice, zone);
+      }
+      rowCount++;
+      return this;
+    }
+
+    /**
+     * Adds all remaining messages of the reader without parsing them.
+     */
+    public Builder addAll(Hl7BatchReader reader) {
+      while (reader.hasNext()) {
+        add(reader.nextString());
+      }
+      return this;
+    }
+
+    /**
+     * Returns the batch of all rows added so far.
+     */
+    public ColumnarBatch build() {
+      List<StringColumn> strings = new ArrayList<>(stringColumns.size());
+      for (StringColumn.Appender column : stringColumns) {
+        strings.add(column.build());
+      }
+      List<TimestampColumn> timestamps = new ArrayList<>(timestampColumns.size());
+      for (TimestampColumn.Appender column : timestampColumns) {
+        timestamps.add(column.build());
+      }
+      return new ColumnarBatch(rowCount, List.copyOf(strings), List.copyOf(timestamps));
+    }
+
+    private void checkNoRows() {
+      if (rowCount > 0) {
+        throw new IllegalStateException("Columns must be declared before messages are added");
+      }
+    }
+  }
+}
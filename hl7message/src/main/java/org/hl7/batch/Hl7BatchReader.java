@@ -0,0 +1,240 @@
+package org.hl7.batch;
+
+import org.hl7.Hl7Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming reader for HL7 batch files, i.e. concatenated messages optionally wrapped in file (FHS/FTS) and batch
+ * (BHS/BTS) envelopes. The input is memory-mapped window by window and messages are parsed lazily, one at a time, so the
+ * heap footprint does not depend on the size of the file.
+ *
+ * <p>A message starts at every MSH segment and ends right before the next MSH or envelope segment. Segments may be
+ * terminated by \r, \n or \r\n and blank lines are ignored.
+ *
+ * <pre>{@code
+ * try (Hl7BatchReader reader = Hl7BatchReader.open(path)) {
+ *   reader.stream().forEach(msg -> ...);
+ * }
+ * }</pre>
+ *
+ * <p>Instances are not thread-safe.
+ */
+public class Hl7BatchReader implements Iterator<Hl7Message>, AutoCloseable {
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final FileChannel channel;
+  private final long end;
+  private final int windowSize;
+  private final Charset charset;
+
+  private ByteBuffer window;
+  private long windowStart;
+  private long position;
+
+  private long messageStart = -1;
+  private long messageEnd = -1;
+  private byte[] scratch = new byte[4096];
+
+  Hl7BatchReader(FileChannel channel, long start, long end, int windowSize, Charset charset) {
+    this.channel = channel;
+    this.end = end;
+    this.windowSize = windowSize;
+    this.charset = charset;
+    this.position = start;
+    this.windowStart = start;
+  }
+
+  Hl7BatchReader(ByteBuffer buffer, int start, int end, Charset charset) {
+    this(null, start, end, Integer.MAX_VALUE, charset);
+    this.window = buffer;
+    this.windowStart = 0;
+  }
+
+  /**
+   * Opens a reader over the given file, decoding messages as UTF-8.
+   */
+  public static Hl7BatchReader open(Path file) throws IOException {
+    return open(file, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Opens a reader over the given file.
+   */
+  public static Hl7BatchReader open(Path file, Charset charset) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    return new Hl7BatchReader(channel, 0, channel.size(), DEFAULT_WINDOW_SIZE, charset);
+  }
+
+  /**
+   * Returns a reader over the remaining bytes of the given buffer. The buffer's position is not modified.
+   */
+  public static Hl7BatchReader of(ByteBuffer buffer, Charset charset) {
+    return new Hl7BatchReader(buffer, buffer.position(), buffer.limit(), charset);
+  }
+
+  @Override
+  public boolean hasNext() {
+    return messageStart >= 0 || findNextMessage();
+  }
+
+  /**
+   * Parses and returns the next message of the batch.
+   *
+   * @throws NoSuchElementException if there are no more messages
+   * @throws IllegalArgumentException if a segment is found outside of a message or the message can not be parsed
+   */
+  @Override
+  public Hl7Message next() {
+    return Hl7Message.fromString(nextString());
+  }
+
+  /**
+   * Returns the next message of the batch without parsing it.
+   *
+   * @throws NoSuchElementException if there are no more messages
+   */
+  public String nextString() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    int length = (int) (messageEnd - messageStart);
+    if (scratch.length < length) {
+      scratch = new byte[Math.max(length, scratch.length * 2)];
+    }
+    window.get((int) (messageStart - windowStart), scratch, 0, length);
+    messageStart = -1;
+    return new String(scratch, 0, length, charset);
+  }
+
+  /**
+   * Returns the remaining messages as a sequential stream. Closing the stream closes the reader.
+   */
+  public Stream<Hl7Message> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+        false).onClose(this::closeQuietly);
+  }
+
+  @Override
+  public void close() throws IOException {
+    window = null;
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private boolean findNextMessage() {
+    long start = -1;
+    while (position < end) {
+      long lineStart = position;
+      long lineEnd = findLineEnd(lineStart, start < 0 ? lineStart : start);
+      position = lineEnd + 1;
+
+      if (lineEnd == lineStart) {
+        continue;
+      }
+
+      if (isSegment(lineStart, lineEnd, 'M', 'S', 'H')) {
+        if (start >= 0) {
+          position = lineStart;
+          return foundMessage(start, lineStart);
+        }
+        start = lineStart;
+      } else if (isEnvelope(lineStart, lineEnd)) {
+        if (start >= 0) {
+          return foundMessage(start, lineStart);
+        }
+      } else if (start < 0) {
+        throw new IllegalArgumentException("Segment found outside of a message at offset " + lineStart);
+      }
+    }
+
+    return start >= 0 && foundMessage(start, end);
+  }
+
+  private boolean foundMessage(long start, long messageEnd) {
+    this.messageStart = start;
+    this.messageEnd = messageEnd;
+    return true;
+  }
+
+  /**
+   * Returns the absolute offset of the segment terminator of the line starting at {@code from}, or the end of the input.
+   * Remaps the window when needed so that it covers everything from {@code keep} to the returned offset.
+   */
+  private long findLineEnd(long from, long keep) {
+    long scanned = from;
+    while (true) {
+      if (window == null || scanned < windowStart || keep < windowStart) {
+        map(keep, scanned - keep);
+      }
+
+      int limit = (int) Math.min(window.limit(), end - windowStart);
+      for (int i = (int) (scanned - windowStart); i < limit; i++) {
+        byte b = window.get(i);
+        if (b == CR || b == LF) {
+          return windowStart + i;
+        }
+      }
+
+      scanned = windowStart + limit;
+      if (scanned >= end) {
+        return end;
+      }
+      map(keep, scanned - keep);
+    }
+  }
+
+  private void map(long start, long retained) {
+    if (channel == null) {
+      throw new IllegalStateException("Buffer does not cover offset " + start);
+    }
+    long size = Math.min(end - start, Math.max(windowSize, retained * 2));
+    if (size > Integer.MAX_VALUE) {
+      size = Integer.MAX_VALUE;
+    }
+    try {
+      window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+      windowStart = start;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private boolean isEnvelope(long lineStart, long lineEnd) {
+    return isSegment(lineStart, lineEnd, 'F', 'H', 'S')
+        || isSegment(lineStart, lineEnd, 'B', 'H', 'S')
+        || isSegment(lineStart, lineEnd, 'B', 'T', 'S')
+        || isSegment(lineStart, lineEnd, 'F', 'T', 'S');
+  }
+
+  private boolean isSegment(long lineStart, long lineEnd, char c1, char c2, char c3) {
+    int i = (int) (lineStart - windowStart);
+    return lineEnd - lineStart >= 3 && window.get(i) == c1 && window.get(i + 1) == c2 && window.get(i + 2) == c3;
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package org.hl7.batch;
+
+import org.hl7.Hl7Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator over the messages of an HL7 batch file or buffer that splits its byte range in half on MSH segment
+ * boundaries, so a parallel stream parses large batches on all cores. Every split is read by its own
+ * {@link Hl7BatchReader}, no bytes are copied until a message is decoded.
+ *
+ * <pre>{@code
+ * try (Stream<Hl7Message> messages = Hl7BatchSpliterator.parallelStream(path)) {
+ *   messages.forEach(msg -> ...);
+ * }
+ * }</pre>
+ */
+public class Hl7BatchSpliterator implements Spliterator<Hl7Message> {
+  public static final int DEFAULT_MIN_SPLIT_SIZE = 256 * 1024;
+
+  // rough average size of a message, only used to estimate the number of messages of a split
+  private static final int ESTIMATED_MESSAGE_SIZE = 1024;
+  private static final int SCAN_BLOCK_SIZE = 8 * 1024;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final Charset charset;
+  private final int minSplitSize;
+  private final long end;
+  private long start;
+
+  private Hl7BatchReader reader;
+
+  private Hl7BatchSpliterator(FileChannel channel, ByteBuffer buffer, Charset charset, int minSplitSize, long start,
+                              long end) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.charset = charset;
+    this.minSplitSize = minSplitSize;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns a spliterator over the messages of the given file channel.
+   */
+  public static Hl7BatchSpliterator of(FileChannel channel, Charset charset, int minSplitSize) throws IOException {
+    return new Hl7BatchSpliterator(channel, null, charset, minSplitSize, 0, channel.size());
+  }
+
+  /**
+   * Returns a spliterator over the messages in the remaining bytes of the given buffer.
+   */
+  public static Hl7BatchSpliterator of(ByteBuffer buffer, Charset charset, int minSplitSize) {
+    return new Hl7BatchSpliterator(null, buffer, charset, minSplitSize, buffer.position(), buffer.limit());
+  }
+
+  /**
+   * Returns a parallel stream of the messages of the given file, decoded as UTF-8. The stream must be closed to release
+   * the file.
+   */
+  public static Stream<Hl7Message> parallelStream(Path file) throws IOException {
+    return parallelStream(file, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns a parallel stream of the messages of the given file. The stream must be closed to release the file.
+   */
+  public static Stream<Hl7Message> parallelStream(Path file, Charset charset) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    return StreamSupport.stream(of(channel, charset, DEFAULT_MIN_SPLIT_SIZE), true).onClose(() -> {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Returns a parallel stream of the messages in the remaining bytes of the given buffer.
+   */
+  public static Stream<Hl7Message> parallelStream(ByteBuffer buffer, Charset charset) {
+    return StreamSupport.stream(of(buffer, charset, DEFAULT_MIN_SPLIT_SIZE), true);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Hl7Message> action) {
+    if (reader == null) {
+      reader = channel != null
+          ? new Hl7BatchReader(channel, start, end, Hl7BatchReader.DEFAULT_WINDOW_SIZE, charset)
+          : new Hl7BatchReader(buffer, (int) start, (int) end, charset);
+    }
+    if (!reader.hasNext()) {
+      return false;
+    }
+    action.accept(reader.next());
+    return true;
+  }
+
+  @Override
+  public Spliterator<Hl7Message> trySplit() {
+    if (reader != null || end - start < 2L * minSplitSize) {
+      return null;
+    }
+
+    long boundary = findMessageStart(start + (end - start) / 2);
+    if (boundary <= start || boundary >= end) {
+      return null;
+    }
+
+    Hl7BatchSpliterator prefix = new Hl7BatchSpliterator(channel, buffer, charset, minSplitSize, start, boundary);
+    start = boundary;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return Math.max(1, (end - start) / ESTIMATED_MESSAGE_SIZE);
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  /**
+   * Returns the offset of the first MSH segment that starts after {@code from}, or the end of the range if there is
+   * none.
+   */
+  private long findMessageStart(long from) {
+    byte[] block = new byte[SCAN_BLOCK_SIZE];
+    long blockStart = from;
+    while (blockStart < end) {
+      int length = read(blockStart, block);
+      for (int i = 0; i + 3 < length; i++) {
+        if ((block[i] == '\r' || block[i] == '\n') && block[i + 1] == 'M' && block[i + 2] == 'S' && block[i + 3] == 'H') {
+          return blockStart + i + 1;
+        }
+      }
+      // a short read means the file shrank since the range was set, and an overlap of 3 bytes would not move on
+      if (length <= 3 || blockStart + length >= end) {
+        break;
+      }
+      // overlap the blocks so that a terminator followed by MSH is found across block boundaries
+      blockStart += length - 3;
+    }
+    return end;
+  }
+
+  private int read(long position, byte[] block) {
+    int length = (int) Math.min(block.length, end - position);
+    if (channel == null) {
+      buffer.get((int) position, block, 0, length);
+      return length;
+    }
+
+    ByteBuffer target = ByteBuffer.wrap(block, 0, length);
+    try {
+      while (target.hasRemaining()) {
+        if (channel.read(target, position + target.position()) < 0) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return target.position();
+  }
+}
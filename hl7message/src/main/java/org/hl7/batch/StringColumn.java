@@ -0,0 +1,222 @@
+package org.hl7.batch;
+
+import org.hl7.parser.FieldPath;
+import org.hl7.parser.RawSlice;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoded column of a {@link ColumnarBatch}. Every distinct value is held once in the dictionary and every
+ * row holds the int code of its value, or {@link #NULL} if the message does not have the value. Values are the raw
+ * text of the message, as returned by {@link FieldPath}.
+ */
+public final class StringColumn {
+  /**
+   * Code of the rows whose message does not have the value.
+   */
+  public static final int NULL = -1;
+
+  private final String path;
+  private final String[] dictionary;
+  private final int[] codes;
+
+  private StringColumn(String path, String[] dictionary, int[] codes) {
+    this.path = path;
+    this.dictionary = dictionary;
+    this.codes = codes;
+  }
+
+  public String path() {
+    return path;
+  }
+
+  public int size() {
+    return codes.length;
+  }
+
+  /**
+   * Returns the value of the given row, or null if its message does not have the value.
+   */
+  public String get(int row) {
+    int code = codes[row];
+    return code == NULL ? null : dictionary[code];
+  }
+
+  /**
+   * Returns the dictionary code of the value of the given row, or {@link #NULL}.
+   */
+  public int code(int row) {
+    return codes[row];
+  }
+
+  /**
+   * Returns the number of distinct values.
+   */
+  public int dictionarySize() {
+    return dictionary.length;
+  }
+
+  /**
+   * Returns the value of the given dictionary code.
+   */
+  public String value(int code) {
+    return dictionary[code];
+  }
+
+  /**
+   * Returns the dictionary code of the given value, or {@link #NULL} if no row has that value.
+   */
+  public int codeOf(String value) {
+    for (int code = 0; code < dictionary.length; code++) {
+      if (dictionary[code].equals(value)) {
+        return code;
+      }
+    }
+    return NULL;
+  }
+
+  /**
+   * Returns the rows with the given value.
+   */
+  public BitSet equalTo(String value) {
+    BitSet rows = new BitSet(codes.length);
+    int code = codeOf(value);
+    if (code != NULL) {
+      for (int row = 0; row < codes.length; row++) {
+        if (codes[row] == code) {
+          rows.set(row);
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the rows that have a value.
+   */
+  public BitSet isNotNull() {
+    BitSet rows = new BitSet(codes.length);
+    for (int row = 0; row < codes.length; row++) {
+      if (codes[row] != NULL) {
+        rows.set(row);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Counts the given rows by dictionary code. Rows without value are not counted.
+   */
+  public int[] countByCode(BitSet rows) {
+    int[] counts = new int[dictionary.length];
+    for (int row = rows.nextSetBit(0); row >= 0 && row < codes.length; row = rows.nextSetBit(row + 1)) {
+      if (codes[row] != NULL) {
+        counts[codes[row]]++;
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Counts the given rows by value, in the order the values were first seen. Rows without value are not counted.
+   */
+  public Map<String, Integer> countBy(BitSet rows) {
+    int[] counts = countByCode(rows);
+    Map<String, Integer> byValue = new LinkedHashMap<>();
+    for (int code = 0; code < counts.length; code++) {
+      if (counts[code] > 0) {
+        byValue.put(dictionary[code], counts[code]);
+      }
+    }
+    return byValue;
+  }
+
+  /**
+   * Extracts the values of one path from every added message. The dictionary is an open-addressing table hashed
+   * straight from the message, so a value that was seen before is encoded without creating a String.
+   */
+  static final class Appender {
+    private final FieldPath path;
+    private String[] dictionary = new String[16];
+    private int dictionarySize;
+    // code + 1 of the dictionary value in every slot, 0 marks a free slot
+    private int[] slots = new int[64];
+    private int[] codes = new int[1024];
+    private int size;
+
+    Appender(FieldPath path) {
+      this.path = path;
+    }
+
+    void append(RawSlice message) {
+      if (size == codes.length) {
+        codes = Arrays.copyOf(codes, size * 2);
+      }
+      RawSlice value = path.find(message);
+      codes[size++] = value == null ? NULL : encode(value);
+    }
+
+    StringColumn build() {
+      return new StringColumn(path.toString(), Arrays.copyOf(dictionary, dictionarySize), Arrays.copyOf(codes, size));
+    }
+
+    private int encode(CharSequence value) {
+      int hash = hash(value);
+      int mask = slots.length - 1;
+      int slot = hash & mask;
+      for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+        if (contentEquals(dictionary[slots[slot] - 1], value)) {
+          return slots[slot] - 1;
+        }
+      }
+
+      if (dictionarySize == dictionary.length) {
+        dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+      }
+      int code = dictionarySize++;
+      dictionary[code] = value.toString();
+      slots[slot] = code + 1;
+      // keep the table at most half full
+      if (dictionarySize * 2 > slots.length) {
+        rehash();
+      }
+      return code;
+    }
+
+    private void rehash() {
+      int[] newSlots = new int[slots.length * 2];
+      int mask = newSlots.length - 1;
+      for (int code = 0; code < dictionarySize; code++) {
+        int slot = hash(dictionary[code]) & mask;
+        while (newSlots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        newSlots[slot] = code + 1;
+      }
+      slots = newSlots;
+    }
+
+    private static int hash(CharSequence value) {
+      int h = 0;
+      for (int i = 0; i < value.length(); i++) {
+        h = 31 * h + value.charAt(i);
+      }
+      return h ^ h >>> 16;
+    }
+
+    private static boolean contentEquals(String a, CharSequence b) {
+      if (a.length() != b.length()) {
+        return false;
+      }
+      for (int i = 0; i < a.length(); i++) {
+        if (a.charAt(i) != b.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
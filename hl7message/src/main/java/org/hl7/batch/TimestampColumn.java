@@ -0,0 +1,119 @@
+package org.hl7.batch;
+
+import org.hl7.parser.FieldPath;
+import org.hl7.parser.RawSlice;
+import org.hl7.utils.Hl7DateTimeCodec;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Column of HL7 timestamps of a {@link ColumnarBatch}, held as epoch milliseconds in a long[]. Rows whose message does
+ * not have the value, or has an empty or invalid one, hold {@link #NULL}.
+ */
+public final class TimestampColumn {
+  /**
+   * Epoch milliseconds of the rows without valid timestamp.
+   */
+  public static final long NULL = Long.MIN_VALUE;
+
+  private final String path;
+  private final long[] epochMillis;
+
+  private TimestampColumn(String path, long[] epochMillis) {
+    this.path = path;
+    this.epochMillis = epochMillis;
+  }
+
+  public String path() {
+    return path;
+  }
+
+  public int size() {
+    return epochMillis.length;
+  }
+
+  public boolean isNull(int row) {
+    return epochMillis[row] == NULL;
+  }
+
+  /**
+   * Returns the epoch milliseconds of the given row, or {@link #NULL}.
+   */
+  public long getEpochMillis(int row) {
+    return epochMillis[row];
+  }
+
+  /**
+   * Returns the timestamp of the given row, or null.
+   */
+  public Instant get(int row) {
+    return epochMillis[row] == NULL ? null : Instant.ofEpochMilli(epochMillis[row]);
+  }
+
+  /**
+   * Returns the rows with a timestamp from {@code from} (inclusive) to {@code to} (exclusive).
+   */
+  public BitSet between(Instant from, Instant to) {
+    long fromMillis = from.toEpochMilli();
+    long toMillis = to.toEpochMilli();
+    BitSet rows = new BitSet(epochMillis.length);
+    for (int row = 0; row < epochMillis.length; row++) {
+      long value = epochMillis[row];
+      if (value != NULL && value >= fromMillis && value < toMillis) {
+        rows.set(row);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the rows that have a timestamp.
+   */
+  public BitSet isNotNull() {
+    BitSet rows = new BitSet(epochMillis.length);
+    for (int row = 0; row < epochMillis.length; row++) {
+      if (epochMillis[row] != NULL) {
+        rows.set(row);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Extracts the timestamps of one path from every added message. Values without offset are read in the zone passed to
+   * {@link #append(RawSlice, ZoneId)}.
+   */
+  static final class Appender {
+    private final FieldPath path;
+    private long[] epochMillis = new long[1024];
+    private int size;
+
+    Appender(FieldPath path) {
+      this.path = path;
+    }
+
+    void append(RawSlice message, ZoneId zone) {
+      if (size == epochMillis.length) {
+        epochMillis = Arrays.copyOf(epochMillis, size * 2);
+      }
+      RawSlice value = path.find(message);
+      epochMillis[size++] = value == null || value.length() == 0 ? NULL : parse(value, zone);
+    }
+
+    TimestampColumn build() {
+      return new TimestampColumn(path.toString(), Arrays.copyOf(epochMillis, size));
+    }
+
+    private long parse(RawSlice value, ZoneId zone) {
+      try {
+        return Hl7DateTimeCodec.parseOffsetDateTime(value, 0, value.length(), zone).toInstant().toEpochMilli();
+      } catch (DateTimeParseException e) {
+        return NULL;
+      }
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package org.hl7.common;
+
+/**
+ * Controls how much of the original message is copied when converting a message with the Hl7Converter.
+ */
+public enum ConversionMode {
+  /**
+   * The converted message is a deep copy of the original message. No segment is shared between both messages.
+   */
+  DEEP_COPY,
+
+  /**
+   * The converted message shares the immutable segments (PID, PV1, RXO, RXR, RXD, ZPI, ZQM, ZRX) with the original
+   * message. Only the segments rewritten by the conversion and the segments that have setters (RXE, TQ1) are
+   * allocated, so modifying either message never affects the other one.
+   */
+  SHARED
+}
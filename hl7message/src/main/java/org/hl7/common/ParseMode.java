@@ -0,0 +1,20 @@
+package org.hl7.common;
+
+/**
+ * Controls how the Hl7Parser handles messages with problems, such as missing required fields or invalid encoding
+ * characters.
+ */
+public enum ParseMode {
+  /**
+   * Parsing stops at the first segment with a problem. {@code parse} throws, {@code parseWithDiagnostics} returns the
+   * problems of that segment without message.
+   */
+  STRICT,
+
+  /**
+   * Parsing continues after every problem with a best effort message: missing required fields are left empty, invalid
+   * encoding characters are replaced by the standard ones and segments whose parser fails are kept raw. Problems are
+   * reported as diagnostics by {@code parseWithDiagnostics} and dropped by {@code parse}.
+   */
+  LENIENT
+}
@@ -0,0 +1,186 @@
+package org.hl7.drug;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Read-through cache of the most recently used drugs of another resolver, for resolvers that are slow, such as a
+ * remote drug database, or that create a new {@link Drug} per lookup, such as {@link NdcTable}. Unknown NDCs are cached
+ * as well, so a message stream with an unknown drug does not hit the delegate on every message.
+ *
+ * <p>Entries are kept in primitive arrays indexed by slot: a hash chain to find the slot of an NDC and a doubly linked
+ * list in access order to find the least recently used slot, no node object is created per entry. Instances are
+ * thread-safe; the delegate is called outside the lock, so concurrent misses of the same NDC may both call it.
+ */
+public final class CachingDrugCodeResolver implements DrugCodeResolver {
+  private static final Drug UNKNOWN = Drug.builder().ndc("").name("").build();
+  private static final int NONE = -1;
+
+  private final DrugCodeResolver delegate;
+  private final int capacity;
+
+  // per slot: packed NDC, cached drug, hash chain and access order
+  private final long[] keys;
+  private final Drug[] values;
+  private final int[] chain;
+  private final int[] previous;
+  private final int[] next;
+  // first slot of every hash bucket
+  private final int[] buckets;
+  private final int mask;
+
+  private int size;
+  // most and least recently used slot
+  private int head = NONE;
+  private int tail = NONE;
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * Creates a cache of up to the given number of drugs in front of the given resolver.
+   *
+   * @throws IllegalArgumentException if the capacity is not positive or larger than 2^29
+   */
+  public CachingDrugCodeResolver(@NonNull DrugCodeResolver delegate, int capacity) {
+    if (capacity < 1 || capacity > 1 << 29) {
+      throw new IllegalArgumentException("Invalid capacity [" + capacity + "]");
+    }
+    this.delegate = delegate;
+    this.capacity = capacity;
+    this.keys = new long[capacity];
+    this.values = new Drug[capacity];
+    this.chain = new int[capacity];
+    this.previous = new int[capacity];
+    this.next = new int[capacity];
+    this.buckets = new int[Integer.highestOneBit(capacity) << 1];
+    this.mask = buckets.length - 1;
+    Arrays.fill(buckets, NONE);
+  }
+
+  @Override
+  public Drug resolve(long ndc) {
+    synchronized (this) {
+      int slot = find(ndc);
+      if (slot != NONE) {
+        hitCount++;
+        moveToHead(slot);
+        return values[slot] == UNKNOWN ? null : values[slot];
+      }
+      missCount++;
+    }
+
+    Drug drug = delegate.resolve(ndc);
+    synchronized (this) {
+      // another thread may have cached it meanwhile
+      if (find(ndc) == NONE) {
+        put(ndc, drug == null ? UNKNOWN : drug);
+      }
+    }
+    return drug;
+  }
+
+  /**
+   * Returns the number of cached drugs, including unknown NDCs.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the maximum number of cached drugs.
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of lookups answered from the cache.
+   */
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of lookups passed to the delegate.
+   */
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  private int find(long ndc) {
+    for (int slot = buckets[bucket(ndc)]; slot != NONE; slot = chain[slot]) {
+      if (keys[slot] == ndc) {
+        return slot;
+      }
+    }
+    return NONE;
+  }
+
+  private void put(long ndc, Drug drug) {
+    int slot;
+    if (size < capacity) {
+      slot = size++;
+    } else {
+      slot = tail;
+      unlink(slot);
+      removeFromBucket(slot);
+    }
+    keys[slot] = ndc;
+    values[slot] = drug;
+    int bucket = bucket(ndc);
+    chain[slot] = buckets[bucket];
+    buckets[bucket] = slot;
+    linkAtHead(slot);
+  }
+
+  private void moveToHead(int slot) {
+    if (slot != head) {
+      unlink(slot);
+      linkAtHead(slot);
+    }
+  }
+
+  private void linkAtHead(int slot) {
+    previous[slot] = NONE;
+    next[slot] = head;
+    if (head != NONE) {
+      previous[head] = slot;
+    }
+    head = slot;
+    if (tail == NONE) {
+      tail = slot;
+    }
+  }
+
+  private void unlink(int slot) {
+    if (previous[slot] == NONE) {
+      head = next[slot];
+    } else {
+      next[previous[slot]] = next[slot];
+    }
+    if (next[slot] == NONE) {
+      tail = previous[slot];
+    } else {
+      previous[next[slot]] = previous[slot];
+    }
+  }
+
+  private void removeFromBucket(int slot) {
+    int bucket = bucket(keys[slot]);
+    if (buckets[bucket] == slot) {
+      buckets[bucket] = chain[slot];
+      return;
+    }
+    int current = buckets[bucket];
+    while (chain[current] != slot) {
+      current = chain[current];
+    }
+    chain[current] = chain[slot];
+  }
+
+  private int bucket(long ndc) {
+    long h = ndc * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ h >>> 32) & mask;
+  }
+}
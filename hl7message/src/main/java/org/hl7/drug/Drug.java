@@ -0,0 +1,21 @@
+package org.hl7.drug;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Drug of a {@link DrugCodeResolver}, identified by its NDC in the 11-digit 5-4-2 format without hyphens.
+ */
+@Getter
+@Builder(toBuilder = true)
+@Jacksonized
+public class Drug {
+  @NonNull
+  private final String ndc;
+  @NonNull
+  private final String name;
+  @Builder.Default
+  private final String dosageForm = "";
+}
@@ -0,0 +1,32 @@
+package org.hl7.drug;
+
+/**
+ * Looks up drugs by NDC, e.g. in a local {@link NdcTable} or a remote drug database. Lookups go by the packed 11-digit
+ * NDC (see {@link Ndc#pack(CharSequence)}), so implementations can key their tables by a primitive long.
+ *
+ * <p>Implementations must be thread-safe, a resolver is shared by all threads parsing messages.
+ */
+@FunctionalInterface
+public interface DrugCodeResolver {
+
+  /**
+   * Returns the drug of the given packed NDC, or null if it is unknown.
+   */
+  Drug resolve(long ndc);
+
+  /**
+   * Returns the drug of the given NDC in the 11-digit or a hyphenated 10-digit format, or null if the NDC is not valid
+   * or unknown.
+   */
+  default Drug resolve(CharSequence ndc) {
+    long packed = Ndc.pack(ndc);
+    return packed == Ndc.INVALID ? null : resolve(packed);
+  }
+
+  /**
+   * Returns a resolver that caches the most recently used drugs of this one, see {@link CachingDrugCodeResolver}.
+   */
+  default DrugCodeResolver cached(int capacity) {
+    return new CachingDrugCodeResolver(this, capacity);
+  }
+}
@@ -0,0 +1,93 @@
+package org.hl7.drug;
+
+import lombok.NonNull;
+import org.hl7.Hl7Message;
+import org.hl7.segment.ISegment;
+import org.hl7.segment.RXD;
+import org.hl7.segment.RXE;
+import org.hl7.segment.datatype.CodedElement;
+
+/**
+ * Fills the drug fields that a message leaves blank from a {@link DrugCodeResolver}: the drug name (RXE-2.2) and dosage
+ * form (RXE-6) of RXE from RXE-2.1, and the drug name (RXD-2.2) of RXD from RXD-2.1. Fields that have a value are kept,
+ * as are segments whose NDC is not valid or unknown. An RXE drug name equal to {@link RXE#DEFAULT_DRUG_NAME} counts as
+ * blank.
+ *
+ * <p>An RXE built without RXE-2.1 has a random NDC, which is resolved like any other; {@link org.hl7.Hl7Parser} only
+ * enriches segments whose message has an NDC.
+ */
+public final class DrugEnrichment {
+
+  private DrugEnrichment() {
+  }
+
+  /**
+   * Enriches the RXE and RXD segments of the given message and returns it. RXE is updated in place, RXD is replaced.
+   */
+  public static Hl7Message enrich(@NonNull Hl7Message message, @NonNull DrugCodeResolver resolver) {
+    if (message.getRxe() != null) {
+      enrich(message.getRxe(), resolver);
+    }
+    if (message.getRxd() != null) {
+      message.setRxd(enrich(message.getRxd(), resolver));
+    }
+    return message;
+  }
+
+  /**
+   * Enriches the given segment if it is an RXE or RXD segment and returns it, or the enriched copy of an RXD segment.
+   */
+  public static ISegment enrich(@NonNull ISegment segment, @NonNull DrugCodeResolver resolver) {
+    if (segment instanceof RXE rxe) {
+      return enrich(rxe, resolver);
+    }
+    if (segment instanceof RXD rxd) {
+      return enrich(rxd, resolver);
+    }
+    return segment;
+  }
+
+  /**
+   * Fills the drug name and dosage form of the given segment in place and returns it.
+   */
+  public static RXE enrich(@NonNull RXE rxe, @NonNull DrugCodeResolver resolver) {
+    boolean needsName = isBlank(rxe.getRxe_2_2_drugName()) || RXE.DEFAULT_DRUG_NAME.equals(rxe.getRxe_2_2_drugName());
+    boolean needsDosageForm = isBlank(rxe.getRxe_6_giveDosageForm());
+    if (!needsName && !needsDosageForm || isBlank(rxe.getRxe_2_1_drugNdc())) {
+      return rxe;
+    }
+
+    Drug drug = resolver.resolve(rxe.getRxe_2_1_drugNdc());
+    if (drug != null) {
+      if (needsName) {
+        rxe.setRxe_2_2_drugName(drug.getName());
+      }
+      if (needsDosageForm) {
+        rxe.setRxe_6_giveDosageForm(drug.getDosageForm());
+      }
+    }
+    return rxe;
+  }
+
+  /**
+   * Returns a copy of the given segment with the drug name filled, or the segment itself if it needs no name.
+   */
+  public static RXD enrich(@NonNull RXD rxd, @NonNull DrugCodeResolver resolver) {
+    CodedElement giveCode = rxd.getRxd_2_dispenseGiveCode();
+    if (!isBlank(giveCode.getText()) || isBlank(giveCode.getId())) {
+      return rxd;
+    }
+
+    Drug drug = resolver.resolve(giveCode.getId());
+    if (drug == null) {
+      return rxd;
+    }
+    return rxd.toBuilder()
+        .rxd_2_dispenseGiveCode(giveCode.toBuilder().text(drug.getName()).build())
+        .build();
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+}
@@ -0,0 +1,91 @@
+package org.hl7.drug;
+
+/**
+ * National Drug Codes packed into a long. NDCs are printed in three hyphenated formats of 10 digits (4-4-2, 5-3-2 and
+ * 5-4-1) that are normalized to the 11-digit 5-4-2 format by padding the short part with a leading zero. The 11 digits
+ * are then held as a number, which fits a long and is never negative.
+ */
+public final class Ndc {
+  /**
+   * Returned by {@link #pack(CharSequence)} for values that are not a valid NDC.
+   */
+  public static final long INVALID = -1;
+
+  private Ndc() {
+  }
+
+  /**
+   * Packs an NDC given as 11 digits without hyphens, or with hyphens in the 5-4-2, 4-4-2, 5-3-2 or 5-4-1 format.
+   * Returns {@link #INVALID} for all other values, including 10 digits without hyphens which are ambiguous.
+   */
+  public static long pack(CharSequence ndc) {
+    return pack(ndc, 0, ndc.length());
+  }
+
+  /**
+   * Packs the NDC between {@code start} (inclusive) and {@code end} (exclusive) of the given text.
+   */
+  public static long pack(CharSequence text, int start, int end) {
+    int firstHyphen = -1;
+    int secondHyphen = -1;
+    for (int i = start; i < end; i++) {
+      char ch = text.charAt(i);
+      if (ch == '-') {
+        if (firstHyphen < 0) {
+          firstHyphen = i;
+        } else if (secondHyphen < 0) {
+          secondHyphen = i;
+        } else {
+          return INVALID;
+        }
+      } else if (ch < '0' || ch > '9') {
+        return INVALID;
+      }
+    }
+
+    if (firstHyphen < 0) {
+      return end - start == 11 ? digits(text, start, end) : INVALID;
+    }
+    if (secondHyphen < 0) {
+      return INVALID;
+    }
+
+    int labeler = firstHyphen - start;
+    int product = secondHyphen - firstHyphen - 1;
+    int pack = end - secondHyphen - 1;
+    if (labeler == 5 && product == 4 && pack == 2
+        || labeler == 4 && product == 4 && pack == 2
+        || labeler == 5 && product == 3 && pack == 2
+        || labeler == 5 && product == 4 && pack == 1) {
+      // every part is padded to its 5-4-2 length with leading zeros
+      long value = digits(text, start, firstHyphen);
+      value = value * 10_000 + digits(text, firstHyphen + 1, secondHyphen);
+      return value * 100 + digits(text, secondHyphen + 1, end);
+    }
+    return INVALID;
+  }
+
+  /**
+   * Formats a packed NDC as 11 digits without hyphens.
+   */
+  public static String format(long ndc) {
+    if (ndc < 0 || ndc > 99_999_999_999L) {
+      throw new IllegalArgumentException("Invalid packed NDC [" + ndc + "]");
+    }
+    char[] chars = new char[11];
+    long value = ndc;
+    for (int i = 10; i >= 0; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    return new String(chars);
+  }
+
+  private static long digits(CharSequence text, int start, int end) {
+    long result = 0;
+    for (int i = start; i < end; i++) {
+      result = result * 10 + text.charAt(i) - '0';
+    }
+    return result;
+  }
+}
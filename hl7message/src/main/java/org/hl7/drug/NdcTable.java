@@ -0,0 +1,198 @@
+package org.hl7.drug;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory drug table loaded from a CSV file with the columns NDC, name and, optionally, dosage form. The table is an
+ * open-addressing hash keyed by the packed NDC in a long[], and all names are held in one String, so a table of a few
+ * hundred thousand drugs needs neither a boxed key nor a String object per entry. {@link Drug} objects are created on
+ * lookup, put a {@link CachingDrugCodeResolver} in front to share them.
+ *
+ * <p>Blank lines and lines starting with {@code #} are skipped, as is a first line whose NDC column is not an NDC (a
+ * header). Values may be double quoted to contain commas. If an NDC is listed twice, the last line wins. Tables are
+ * immutable and can be shared between threads.
+ */
+public final class NdcTable implements DrugCodeResolver {
+  private static final long FREE = -1;
+
+  // packed NDCs, FREE marks a free slot
+  private final long[] keys;
+  // row of every slot
+  private final int[] rows;
+  // names of all rows, concatenated
+  private final String names;
+  private final int[] nameEnds;
+  private final String[] dosageForms;
+  private final int size;
+
+  private NdcTable(long[] keys, int[] rows, String names, int[] nameEnds, String[] dosageForms, int size) {
+    this.keys = keys;
+    this.rows = rows;
+    this.names = names;
+    this.nameEnds = nameEnds;
+    this.dosageForms = dosageForms;
+    this.size = size;
+  }
+
+  /**
+   * Loads the table from the given UTF-8 CSV file.
+   *
+   * @throws IOException if the file can not be read
+   * @throws IllegalArgumentException if a line has an invalid NDC or no name
+   */
+  public static NdcTable load(Path csv) throws IOException {
+    try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+      return load(reader);
+    }
+  }
+
+  /**
+   * Loads the table from the given CSV text. The reader is not closed.
+   *
+   * @throws IOException if the reader fails
+   * @throws IllegalArgumentException if a line has an invalid NDC or no name
+   */
+  public static NdcTable load(Reader csv) throws IOException {
+    BufferedReader reader = csv instanceof BufferedReader buffered ? buffered : new BufferedReader(csv);
+    Builder builder = new Builder();
+    List<String> values = new ArrayList<>(3);
+    int lineNumber = 0;
+    boolean first = true;
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      lineNumber++;
+      if (line.isBlank() || line.startsWith("#")) {
+        continue;
+      }
+
+      split(line, values);
+      long ndc = Ndc.pack(values.get(0).trim());
+      if (ndc == Ndc.INVALID && first) {
+        // header
+        first = false;
+        continue;
+      }
+      first = false;
+      if (ndc == Ndc.INVALID || values.size() < 2 || values.get(1).isBlank()) {
+        throw new IllegalArgumentException("Invalid drug at line " + lineNumber + ": [" + line + "]");
+      }
+      builder.add(ndc, values.get(1).trim(), values.size() > 2 ? values.get(2).trim() : "");
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of distinct NDCs.
+   */
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Drug resolve(long ndc) {
+    if (ndc < 0) {
+      return null;
+    }
+    int mask = keys.length - 1;
+    for (int slot = hash(ndc) & mask; keys[slot] != FREE; slot = (slot + 1) & mask) {
+      if (keys[slot] == ndc) {
+        int row = rows[slot];
+        return Drug.builder()
+            .ndc(Ndc.format(ndc))
+            .name(names.substring(row == 0 ? 0 : nameEnds[row - 1], nameEnds[row]))
+            .dosageForm(dosageForms[row])
+            .build();
+      }
+    }
+    return null;
+  }
+
+  // splits a CSV line into values, a quoted value may contain commas and "" for a quote
+  private static void split(String line, List<String> values) {
+    values.clear();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char ch = line.charAt(i);
+      if (quoted) {
+        if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          value.append('"');
+          i++;
+        } else if (ch == '"') {
+          quoted = false;
+        } else {
+          value.append(ch);
+        }
+      } else if (ch == '"') {
+        quoted = true;
+      } else if (ch == ',') {
+        values.add(value.toString());
+        value.setLength(0);
+      } else {
+        value.append(ch);
+      }
+    }
+    values.add(value.toString());
+  }
+
+  private static int hash(long ndc) {
+    long h = ndc * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ h >>> 32);
+  }
+
+  private static final class Builder {
+    private long[] ndcs = new long[1024];
+    private final StringBuilder names = new StringBuilder(16 * 1024);
+    private int[] nameEnds = new int[1024];
+    private String[] dosageForms = new String[1024];
+    // dosage forms repeat across drugs, keep one instance of each
+    private final Map<String, String> forms = new HashMap<>();
+    private int size;
+
+    void add(long ndc, String name, String dosageForm) {
+      if (size == ndcs.length) {
+        ndcs = Arrays.copyOf(ndcs, size * 2);
+        nameEnds = Arrays.copyOf(nameEnds, size * 2);
+        dosageForms = Arrays.copyOf(dosageForms, size * 2);
+      }
+      ndcs[size] = ndc;
+      names.append(name);
+      nameEnds[size] = names.length();
+      dosageForms[size] = forms.computeIfAbsent(dosageForm, form -> form);
+      size++;
+    }
+
+    NdcTable build() {
+      // keep the table at most half full, so probe sequences stay short
+      int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, size * 2 - 1)) << 1);
+      long[] keys = new long[capacity];
+      int[] rows = new int[capacity];
+      Arrays.fill(keys, FREE);
+
+      int mask = capacity - 1;
+      int distinct = 0;
+      for (int row = 0; row < size; row++) {
+        int slot = hash(ndcs[row]) & mask;
+        while (keys[slot] != FREE && keys[slot] != ndcs[row]) {
+          slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == FREE) {
+          distinct++;
+        }
+        keys[slot] = ndcs[row];
+        rows[slot] = row;
+      }
+      return new NdcTable(keys, rows, names.toString(), Arrays.copyOf(nameEnds, size),
+          Arrays.copyOf(dosageForms, size), distinct);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package org.hl7.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out zero-padded ids of a fixed width from a single atomic counter. Ids are unique until the counter wraps
+ * around, i.e. for 10^width consecutive ids. Every call is a single atomic increment, which is cheap but contended when
+ * many threads generate ids; use {@link StripedIdGenerator} then.
+ */
+public final class CounterIdGenerator implements IdGenerator {
+  private final int width;
+  private final long modulus;
+  private final AtomicLong counter;
+
+  /**
+   * Creates a generator whose counter starts at a random value.
+   *
+   * @throws IllegalArgumentException if the width is not between 1 and 18
+   */
+  public CounterIdGenerator(int width) {
+    this(width, ThreadLocalRandom.current().nextLong(Ids.modulus(width)));
+  }
+
+  /**
+   * Creates a generator whose counter starts at the given value.
+   *
+   * @throws IllegalArgumentException if the width is not between 1 and 18
+   */
+  public CounterIdGenerator(int width, long start) {
+    this.width = width;
+    this.modulus = Ids.modulus(width);
+    this.counter = new AtomicLong(start);
+  }
+
+  @Override
+  public String next() {
+    return Ids.pad(Math.floorMod(counter.getAndIncrement(), modulus), width);
+  }
+}
@@ -0,0 +1,53 @@
+package org.hl7.id;
+
+import java.time.Clock;
+
+/**
+ * Source of unique numeric ids, e.g. message control ids (MSH.10) and prescription numbers. Implementations are
+ * lock-free and thread-safe.
+ */
+public interface IdGenerator {
+  /**
+   * Returns the next id.
+   */
+  String next();
+
+  /**
+   * Returns a generator handing out zero-padded ids of the given width from a single shared counter. The counter starts
+   * at a random value, so ids of different runs do not start over at the same value.
+   *
+   * @see CounterIdGenerator
+   */
+  static IdGenerator counter(int width) {
+    return new CounterIdGenerator(width);
+  }
+
+  /**
+   * Returns a generator handing out zero-padded ids of the given width from blocks that every thread reserves from a
+   * shared counter, so threads only contend once per block.
+   *
+   * @see StripedIdGenerator
+   */
+  static IdGenerator striped(int width, int blockSize) {
+    return new StripedIdGenerator(width, blockSize);
+  }
+
+  /**
+   * Returns a generator prefixing the ids of the given generator with the zero-padded node id, so generators of
+   * different nodes never hand out the same id.
+   *
+   * @see NodePrefixedIdGenerator
+   */
+  static IdGenerator nodePrefixed(int node, int nodeWidth, IdGenerator sequence) {
+    return new NodePrefixedIdGenerator(node, nodeWidth, sequence);
+  }
+
+  /**
+   * Returns a Snowflake-style generator of time, node and sequence based ids.
+   *
+   * @see SnowflakeIdGenerator
+   */
+  static IdGenerator snowflake(int node) {
+    return new SnowflakeIdGenerator(node, Clock.systemUTC());
+  }
+}
@@ -0,0 +1,77 @@
+package org.hl7.id;
+
+import lombok.NonNull;
+
+/**
+ * Ids the library generates as defaults, with the generator used for each. Every type defaults to a generator of the
+ * width the library always used for it:
+ * <ul>
+ *   <li>the 5 digit types use a {@link CounterIdGenerator}, whose ids are unique for 100,000 consecutive ids</li>
+ *   <li>MSH.10 uses a {@link StripedIdGenerator} with blocks of 64 ids, whose ids are unique until 10^7 ids were
+ *   reserved. Every thread reserves a block when it first generates an id, so ids repeat after fewer ids when many
+ *   short-lived threads generate them, at the latest after 156,250 such threads</li>
+ * </ul>
+ *
+ * <p>Applications can plug in their own strategy with {@link #setGenerator(IdGenerator)}, e.g. wider or node-prefixed
+ * ids when several instances send to the same receiver.
+ */
+public enum IdType {
+  /**
+   * MSH.10 of generated messages and acknowledgements.
+   */
+  MESSAGE_CONTROL_ID(7),
+  /**
+   * RXE.15.
+   */
+  PRESCRIPTION_NUMBER(5),
+  /**
+   * ZPI.34.
+   */
+  RX_NUMBER(5),
+  /**
+   * ORC.3 of scrambled orders.
+   */
+  FILLER_ORDER_NUMBER(5);
+
+  private static final int BLOCK_SIZE = 64;
+  // narrower ids can not afford a block per thread, e.g. with a virtual thread per MLLP connection
+  private static final int MIN_STRIPED_WIDTH = 7;
+
+  private final int defaultWidth;
+  private volatile IdGenerator generator;
+
+  IdType(int defaultWidth) {
+    this.defaultWidth = defaultWidth;
+    this.generator = defaultGenerator(defaultWidth);
+  }
+
+  public int getDefaultWidth() {
+    return defaultWidth;
+  }
+
+  public IdGenerator getGenerator() {
+    return generator;
+  }
+
+  public void setGenerator(@NonNull IdGenerator generator) {
+    this.generator = generator;
+  }
+
+  /**
+   * Restores the default generator.
+   */
+  public void resetGenerator() {
+    this.generator = defaultGenerator(defaultWidth);
+  }
+
+  /**
+   * Returns the next id of this type.
+   */
+  public String next() {
+    return generator.next();
+  }
+
+  private static IdGenerator defaultGenerator(int width) {
+    return width < MIN_STRIPED_WIDTH ? new CounterIdGenerator(width) : new StripedIdGenerator(width, BLOCK_SIZE);
+  }
+}
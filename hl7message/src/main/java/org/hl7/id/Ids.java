@@ -0,0 +1,38 @@
+package org.hl7.id;
+
+/**
+ * Helpers shared by the id generators.
+ */
+final class Ids {
+  /**
+   * Widest id that fits a long without overflowing the modulus.
+   */
+  static final int MAX_WIDTH = 18;
+
+  private Ids() {
+  }
+
+  static long modulus(int width) {
+    if (width < 1 || width > MAX_WIDTH) {
+      throw new IllegalArgumentException("Id width must be between 1 and " + MAX_WIDTH + " but was " + width);
+    }
+    long modulus = 1;
+    for (int i = 0; i < width; i++) {
+      modulus *= 10;
+    }
+    return modulus;
+  }
+
+  /**
+   * Formats the non-negative value with exactly {@code width} digits, padded with leading zeros.
+   */
+  static String pad(long value, int width) {
+    char[] chars = new char[width];
+    long remaining = value;
+    for (int i = width - 1; i >= 0; i--) {
+      chars[i] = (char) ('0' + remaining % 10);
+      remaining /= 10;
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,31 @@
+package org.hl7.id;
+
+import lombok.NonNull;
+
+/**
+ * Prefixes the ids of another generator with a fixed, zero-padded node id. Running every instance of a service with a
+ * distinct node id makes their ids unique across instances without any coordination, and ids of a single node stay
+ * monotonic if the sequence generator is.
+ */
+public final class NodePrefixedIdGenerator implements IdGenerator {
+  private final String prefix;
+  private final IdGenerator sequence;
+
+  /**
+   * Creates a generator for the given node.
+   *
+   * @throws IllegalArgumentException if the node id is negative or does not fit the node width
+   */
+  public NodePrefixedIdGenerator(int node, int nodeWidth, @NonNull IdGenerator sequence) {
+    if (node < 0 || node >= Ids.modulus(nodeWidth)) {
+      throw new IllegalArgumentException("Node id " + node + " does not fit " + nodeWidth + " digits");
+    }
+    this.prefix = Ids.pad(node, nodeWidth);
+    this.sequence = sequence;
+  }
+
+  @Override
+  public String next() {
+    return prefix.concat(sequence.next());
+  }
+}
@@ -0,0 +1,70 @@
+package org.hl7.id;
+
+import lombok.NonNull;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style generator of 63 bit ids made of a millisecond timestamp (41 bits, since 2024-01-01T00:00Z), the node
+ * id (10 bits) and a per-millisecond sequence (12 bits), written in decimal with up to 19 digits.
+ *
+ * <p>Ids are unique across nodes with distinct node ids and strictly increasing per node. Timestamp and sequence are
+ * updated with a single compare-and-set. When the sequence of a millisecond is exhausted, or the clock goes backwards,
+ * ids continue from the last used timestamp instead of waiting for the clock.
+ */
+public final class SnowflakeIdGenerator implements IdGenerator {
+  public static final int MAX_NODE = 1023;
+
+  static final long EPOCH_MILLIS = 1_704_067_200_000L;
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+  private final long node;
+  private final Clock clock;
+  // timestamp << SEQUENCE_BITS | sequence of the last id
+  private final AtomicLong last = new AtomicLong();
+
+  /**
+   * Creates a generator for the given node that reads the time from the given clock.
+   *
+   * @throws IllegalArgumentException if the node id is not between 0 and 1023
+   */
+  public SnowflakeIdGenerator(int node, @NonNull Clock clock) {
+    if (node < 0 || node > MAX_NODE) {
+      throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE + " but was " + node);
+    }
+    this.node = node;
+    this.clock = clock;
+  }
+
+  @Override
+  public String next() {
+    return Long.toString(nextLong());
+  }
+
+  /**
+   * Returns the next id as number.
+   */
+  public long nextLong() {
+    long timestamp = clock.millis() - EPOCH_MILLIS;
+    while (true) {
+      long previous = last.get();
+      long previousTimestamp = previous >>> SEQUENCE_BITS;
+      long next;
+      if (timestamp > previousTimestamp) {
+        next = timestamp << SEQUENCE_BITS;
+      } else if ((previous & SEQUENCE_MASK) == SEQUENCE_MASK) {
+        next = (previousTimestamp + 1) << SEQUENCE_BITS;
+      } else {
+        next = previous + 1;
+      }
+
+      if (last.compareAndSet(previous, next)) {
+        long nextTimestamp = next >>> SEQUENCE_BITS;
+        return nextTimestamp << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | next & SEQUENCE_MASK;
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.hl7.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out zero-padded ids of a fixed width from blocks of consecutive values. Every thread reserves a block from a
+ * shared atomic counter and hands out its ids without any synchronization, so threads only touch shared state once per
+ * block.
+ *
+ * <p>Blocks never overlap, so ids are unique across all threads until the shared counter wraps around, i.e. for
+ * 10^width reserved ids. Ids of different threads are not ordered, and ids left in the block of a thread that stops
+ * generating are never handed out.
+ */
+public final class StripedIdGenerator implements IdGenerator {
+  private final int width;
+  private final long modulus;
+  private final int blockSize;
+  private final AtomicLong nextBlock;
+  private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2]);
+
+  /**
+   * Creates a generator whose shared counter starts at a random value.
+   *
+   * @throws IllegalArgumentException if the width is not between 1 and 18 or the block size is not positive
+   */
+  public StripedIdGenerator(int width, int blockSize) {
+    this(width, blockSize, ThreadLocalRandom.current().nextLong(Ids.modulus(width)));
+  }
+
+  /**
+   * Creates a generator whose shared counter starts at the given value.
+   *
+   * @throws IllegalArgumentException if the width is not between 1 and 18 or the block size is not positive
+   */
+  public StripedIdGenerator(int width, int blockSize, long start) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("Block size must be positive but was " + blockSize);
+    }
+    this.width = width;
+    this.modulus = Ids.modulus(width);
+    this.blockSize = blockSize;
+    this.nextBlock = new AtomicLong(start);
+  }
+
+  @Override
+  public String next() {
+    // [next value, end of block]
+    long[] block = blocks.get();
+    if (block[0] == block[1]) {
+      block[0] = nextBlock.getAndAdd(blockSize);
+      block[1] = block[0] + blockSize;
+    }
+    return Ids.pad(Math.floorMod(block[0]++, modulus), width);
+  }
+}
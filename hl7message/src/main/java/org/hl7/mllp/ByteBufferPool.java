@@ -0,0 +1,60 @@
+package org.hl7.mllp;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of direct or heap byte buffers of a fixed size. Buffers are handed out cleared and must be released
+ * after use. When the pool is empty a new buffer is allocated, when it is full released buffers are dropped.
+ */
+public class ByteBufferPool {
+  private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooled = new AtomicInteger();
+  private final int bufferSize;
+  private final int maxPooled;
+  private final boolean direct;
+
+  public ByteBufferPool(int bufferSize, int maxPooled) {
+    this(bufferSize, maxPooled, true);
+  }
+
+  /**
+   * Creates a pool of direct buffers, or of heap buffers backed by an accessible array.
+   */
+  public ByteBufferPool(int bufferSize, int maxPooled, boolean direct) {
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+    this.direct = direct;
+  }
+
+  /**
+   * Returns a cleared buffer from the pool, or a new one if the pool is empty.
+   */
+  public ByteBuffer acquire() {
+    ByteBuffer buffer = buffers.poll();
+    if (buffer == null) {
+      return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+    pooled.decrementAndGet();
+    return buffer.clear();
+  }
+
+  /**
+   * Returns the buffer to the pool.
+   */
+  public void release(ByteBuffer buffer) {
+    if (buffer.capacity() != bufferSize) {
+      return;
+    }
+    if (pooled.incrementAndGet() <= maxPooled) {
+      buffers.offer(buffer);
+    } else {
+      pooled.decrementAndGet();
+    }
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+}
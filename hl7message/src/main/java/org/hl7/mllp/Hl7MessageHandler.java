@@ -0,0 +1,12 @@
+package org.hl7.mllp;
+
+import org.hl7.Hl7Message;
+
+/**
+ * Callback invoked by the MllpServer for every message received. A handler that returns normally is acknowledged
+ * with AA (application accept), a handler that throws is acknowledged with AE (application error).
+ */
+@FunctionalInterface
+public interface Hl7MessageHandler {
+  void handle(Hl7Message message) throws Exception;
+}
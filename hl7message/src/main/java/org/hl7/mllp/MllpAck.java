@@ -0,0 +1,70 @@
+package org.hl7.mllp;
+
+import org.hl7.id.IdType;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.utils.Hl7Clock;
+
+/**
+ * Builds acknowledgement (ACK) messages for inbound messages. The ACK is built from the raw MSH segment of the inbound
+ * message, so even messages that can not be parsed into an Hl7Message can be rejected properly.
+ */
+public final class MllpAck {
+  public static final String APPLICATION_ACCEPT = "AA";
+  public static final String APPLICATION_ERROR = "AE";
+  public static final String APPLICATION_REJECT = "AR";
+
+  private MllpAck() {
+  }
+
+  /**
+   * Returns the ACK for the given inbound message, with every segment terminated by a carriage return.
+   *
+   * @param inboundMessage the raw inbound message
+   * @param ackCode        one of AA, AE or AR
+   * @param text           optional text message written escaped to MSA.3, may be null
+   */
+  public static String build(String inboundMessage, String ackCode, String text) {
+    int mshEnd = 0;
+    while (mshEnd < inboundMessage.length() && inboundMessage.charAt(mshEnd) != '\r'
+        && inboundMessage.charAt(mshEnd) != '\n') {
+      mshEnd++;
+    }
+
+    SegmentTokenizer msh = new SegmentTokenizer().tokenize(inboundMessage, 0, mshEnd);
+    boolean hasMsh = msh.isSegment("MSH");
+
+    StringBuilder ack = new StringBuilder(256)
+        .append("MSH|^~\\&|")
+        .append(value(msh, hasMsh, 4)).append('|')
+        .append(value(msh, hasMsh, 5)).append('|')
+        .append(value(msh, hasMsh, 2)).append('|')
+        .append(value(msh, hasMsh, 3)).append('|')
+        .append(Hl7Clock.getDefault().now()).append("||ACK^");
+
+    String trigger = hasMsh ? msh.component(8, 1) : null;
+    if (trigger != null) {
+      ack.append(trigger);
+    }
+
+    String processingId = value(msh, hasMsh, 10);
+    String versionId = value(msh, hasMsh, 11);
+    ack.append("^ACK|")
+        .append(IdType.MESSAGE_CONTROL_ID.next()).append('|')
+        .append(processingId.isEmpty() ? "P" : processingId).append('|')
+        .append(versionId.isEmpty() ? "2.5" : versionId).append('\r')
+        .append("MSA|").append(ackCode).append('|')
+        .append(value(msh, hasMsh, 9));
+
+    if (text != null && !text.isEmpty()) {
+      ack.append('|').append(Hl7Escaping.escape(text));
+    }
+
+    return ack.append('\r').toString();
+  }
+
+  private static String value(SegmentTokenizer msh, boolean hasMsh, int field) {
+    String value = hasMsh ? msh.field(field) : null;
+    return value == null ? "" : value;
+  }
+}
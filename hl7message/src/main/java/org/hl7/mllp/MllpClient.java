@@ -0,0 +1,101 @@
+package org.hl7.mllp;
+
+import org.hl7.Hl7Message;
+import org.hl7.Hl7MessageEncoder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal blocking MLLP client that sends one message at a time and waits for its acknowledgement.
+ *
+ * <p>Instances are not thread-safe, use one client per thread.
+ */
+public class MllpClient implements AutoCloseable {
+  private final SocketChannel channel;
+  private final Charset charset;
+  private final MllpFrameDecoder decoder;
+  private final Hl7MessageEncoder encoder;
+  private final ByteBuffer in = ByteBuffer.allocateDirect(MllpServer.DEFAULT_BUFFER_SIZE);
+  private ByteBuffer out = ByteBuffer.allocate(MllpServer.DEFAULT_BUFFER_SIZE);
+  private String reply;
+
+  private MllpClient(SocketChannel channel, Charset charset) {
+    this.channel = channel;
+    this.charset = charset;
+    this.decoder = new MllpFrameDecoder(charset, MllpServer.DEFAULT_MAX_MESSAGE_SIZE);
+    this.encoder = Hl7MessageEncoder.builder().charset(charset).build();
+  }
+
+  /**
+   * Opens a connection to the given MLLP server.
+   */
+  public static MllpClient connect(String host, int port) throws IOException {
+    return connect(host, port, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Opens a connection to the given MLLP server using the given charset for messages.
+   */
+  public static MllpClient connect(String host, int port, Charset charset) throws IOException {
+    SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+    channel.socket().setTcpNoDelay(true);
+    return new MllpClient(channel, charset);
+  }
+
+  /**
+   * Sends the message and returns the acknowledgement received from the server.
+   */
+  public String send(String message) throws IOException {
+    byte[] bytes = message.getBytes(charset);
+    ByteBuffer frame = ByteBuffer.allocate(bytes.length + 3);
+    MllpFrameDecoder.encode(bytes, frame);
+    return sendFrame(frame.flip());
+  }
+
+  /**
+   * Sends the message and returns the acknowledgement received from the server. The message is encoded straight into
+   * the client's frame buffer, which grows to the largest message sent.
+   */
+  public String send(Hl7Message message) throws IOException {
+    while (true) {
+      try {
+        out.clear().put(MllpFrameDecoder.START_BLOCK);
+        encoder.encode(message, out);
+        out.put(MllpFrameDecoder.END_BLOCK).put(MllpFrameDecoder.CARRIAGE_RETURN);
+        break;
+      } catch (BufferOverflowException e) {
+        out = ByteBuffer.allocate(out.capacity() * 2);
+      }
+    }
+    return sendFrame(out.flip());
+  }
+
+  private String sendFrame(ByteBuffer frame) throws IOException {
+    while (frame.hasRemaining()) {
+      channel.write(frame);
+    }
+
+    reply = null;
+    while (reply == null) {
+      in.clear();
+      if (channel.read(in) < 0) {
+        throw new EOFException("Connection closed before acknowledgement was received");
+      }
+      in.flip();
+      decoder.decode(in, ack -> reply = ack);
+    }
+    return reply;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,86 @@
+package org.hl7.mllp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Incremental decoder of MLLP frames ({@code <VT> message <FS><CR>}). Bytes are fed as they arrive from the channel,
+ * complete messages are passed to the consumer. Bytes outside of a frame are ignored. The payload buffer is reused
+ * between frames, so a decoder allocates only the decoded message String in steady state.
+ *
+ * <p>Instances are not thread-safe, use one decoder per connection.
+ */
+public class MllpFrameDecoder {
+  public static final byte START_BLOCK = 0x0B;
+  public static final byte END_BLOCK = 0x1C;
+  public static final byte CARRIAGE_RETURN = 0x0D;
+
+  private final Charset charset;
+  private final int maxMessageSize;
+
+  private byte[] payload;
+  private int length;
+  private boolean inFrame;
+  private boolean endBlockSeen;
+
+  public MllpFrameDecoder(Charset charset, int maxMessageSize) {
+    this.charset = charset;
+    this.maxMessageSize = maxMessageSize;
+    this.payload = new byte[Math.min(4096, maxMessageSize)];
+  }
+
+  /**
+   * Decodes all bytes remaining in the buffer.
+   *
+   * @throws IllegalStateException if a message is larger than the configured maximum message size
+   */
+  public void decode(ByteBuffer buffer, Consumer<String> messages) {
+    while (buffer.hasRemaining()) {
+      byte b = buffer.get();
+
+      if (!inFrame) {
+        if (b == START_BLOCK) {
+          inFrame = true;
+          length = 0;
+        }
+      } else if (endBlockSeen) {
+        endBlockSeen = false;
+        if (b == CARRIAGE_RETURN) {
+          inFrame = false;
+          messages.accept(new String(payload, 0, length, charset));
+        } else {
+          // not a frame end after all, keep the end block as part of the payload
+          append(END_BLOCK);
+          append(b);
+        }
+      } else if (b == END_BLOCK) {
+        endBlockSeen = true;
+      } else if (b == START_BLOCK) {
+        // the previous frame was never terminated, start over
+        length = 0;
+      } else {
+        append(b);
+      }
+    }
+  }
+
+  private void append(byte b) {
+    if (length == payload.length) {
+      if (length >= maxMessageSize) {
+        throw new IllegalStateException("MLLP message exceeds maximum size of " + maxMessageSize + " bytes");
+      }
+      payload = Arrays.copyOf(payload, Math.min(length * 2, maxMessageSize));
+    }
+    payload[length++] = b;
+  }
+
+  /**
+   * Writes the given message as MLLP frame into the buffer. The buffer must have room for the message and 3 framing
+   * bytes.
+   */
+  public static void encode(byte[] message, ByteBuffer buffer) {
+    buffer.put(START_BLOCK).put(message).put(END_BLOCK).put(CARRIAGE_RETURN);
+  }
+}
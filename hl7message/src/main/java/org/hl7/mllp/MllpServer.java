@@ -0,0 +1,202 @@
+package org.hl7.mllp;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.Hl7Message;
+import org.hl7.Hl7Parser;
+import org.hl7.ParseResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MLLP (Minimal Lower Layer Protocol) server. Every accepted connection is served by its own task on the executor:
+ * frames are read from the channel into pooled byte buffers, decoded into an Hl7Message, passed to the handler and
+ * acknowledged with an ACK built from the inbound MSH segment.
+ *
+ * <p>Connections use blocking channel I/O, so the executor decides how far the server scales. By default, connections
+ * are served on virtual threads when the runtime supports them (Java 21+), which allows thousands of concurrent
+ * connections, and on a cached platform thread pool otherwise.
+ *
+ * <pre>{@code
+ * try (MllpServer server = MllpServer.builder().port(2575).handler(msg -> store(msg)).build().start()) {
+ *   ...
+ * }
+ * }</pre>
+ */
+@Slf4j
+public class MllpServer implements AutoCloseable {
+  public static final int DEFAULT_MAX_MESSAGE_SIZE = 4 * 1024 * 1024;
+  public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+  private final int port;
+  private final Hl7MessageHandler handler;
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+  private final Charset charset;
+  private final int maxMessageSize;
+  private final ByteBufferPool bufferPool;
+  private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+  private ServerSocketChannel serverChannel;
+  private volatile boolean running;
+
+  @Builder
+  private MllpServer(int port, Hl7MessageHandler handler, ExecutorService executor, Charset charset,
+                     Integer maxMessageSize, Integer bufferSize) {
+    this.port = port;
+    this.handler = Objects.requireNonNull(handler, "handler");
+    this.ownsExecutor = executor == null;
+    this.executor = executor == null ? defaultExecutor() : executor;
+    this.charset = charset == null ? StandardCharsets.UTF_8 : charset;
+    this.maxMessageSize = maxMessageSize == null ? DEFAULT_MAX_MESSAGE_SIZE : maxMessageSize;
+    this.bufferPool = new ByteBufferPool(bufferSize == null ? DEFAULT_BUFFER_SIZE : bufferSize, 1024);
+  }
+
+  /**
+   * Binds the server to its port and starts accepting connections.
+   */
+  public synchronized MllpServer start() throws IOException {
+    if (running) {
+      throw new IllegalStateException("MLLP server already started");
+    }
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(port), 1024);
+    running = true;
+
+    Thread acceptor = new Thread(this::accept, "mllp-acceptor-" + getLocalPort());
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    log.info("MLLP server listening on port {}", getLocalPort());
+    return this;
+  }
+
+  /**
+   * Returns the port the server is bound to. Useful when the server was built with port 0.
+   */
+  public int getLocalPort() {
+    try {
+      return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Stops accepting connections and closes all open connections.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    running = false;
+    if (serverChannel != null) {
+      serverChannel.close();
+    }
+    for (SocketChannel connection : connections) {
+      connection.close();
+    }
+    if (ownsExecutor) {
+      executor.shutdown();
+    }
+  }
+
+  private void accept() {
+    while (running) {
+      try {
+        SocketChannel channel = serverChannel.accept();
+        channel.socket().setTcpNoDelay(true);
+        executor.execute(() -> serve(channel));
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        log.warn("Failed to accept MLLP connection", e);
+      }
+    }
+  }
+
+  private void serve(SocketChannel channel) {
+    connections.add(channel);
+    ByteBuffer in = bufferPool.acquire();
+    ByteBuffer out = bufferPool.acquire();
+    MllpFrameDecoder decoder = new MllpFrameDecoder(charset, maxMessageSize);
+
+    try (channel) {
+      while (channel.read(in) >= 0) {
+        in.flip();
+        decoder.decode(in, message -> reply(channel, out, message));
+        in.clear();
+      }
+    } catch (IOException | UncheckedIOException e) {
+      if (running) {
+        log.debug("MLLP connection closed with error", e);
+      }
+    } catch (IllegalStateException e) {
+      log.warn("Closing MLLP connection: {}", e.getMessage());
+    } finally {
+      connections.remove(channel);
+      bufferPool.release(in);
+      bufferPool.release(out);
+    }
+  }
+
+  private void reply(SocketChannel channel, ByteBuffer out, String message) {
+    String ackCode = MllpAck.APPLICATION_ACCEPT;
+    String text = null;
+
+    // invalid messages are rejected without an exception being thrown, bad feeds are common
+    ParseResult result = Hl7Parser.standard().parseWithDiagnostics(message);
+    Hl7Message hl7Message = result.getMessage();
+    if (hl7Message == null) {
+      ackCode = MllpAck.APPLICATION_REJECT;
+      text = result.getDiagnostics().get(0).toString();
+    }
+
+    if (hl7Message != null) {
+      try {
+        handler.handle(hl7Message);
+      } catch (Exception e) {
+        log.warn("MLLP message handler failed", e);
+        ackCode = MllpAck.APPLICATION_ERROR;
+        text = e.getMessage();
+      }
+    }
+
+    byte[] ack = MllpAck.build(message, ackCode, text).getBytes(charset);
+    ByteBuffer buffer = ack.length + 3 <= out.capacity() ? out.clear() : ByteBuffer.allocate(ack.length + 3);
+    MllpFrameDecoder.encode(ack, buffer);
+    buffer.flip();
+
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ExecutorService defaultExecutor() {
+    try {
+      // virtual threads are only available from Java 21 on, while this library targets Java 17
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mllp-connection");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+}
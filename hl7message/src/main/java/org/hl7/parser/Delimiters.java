@@ -0,0 +1,200 @@
+package org.hl7.parser;
+
+/**
+ * Delimiters of an HL7 message, as declared by MSH-1 (field separator) and MSH-2 (encoding characters) of its header.
+ * Messages using the standard delimiters {@code |^~\&} share the {@link #STANDARD} instance, which the tokenizer
+ * recognizes by identity to take its constant fast path.
+ *
+ * <p>The model always holds values in the standard encoding. Values of a message with other delimiters are normalized
+ * when they are read: the sender's delimiters are replaced by the standard ones, and standard delimiters that appear as
+ * data are replaced by escape sequences. Instances are immutable.
+ */
+public final class Delimiters {
+  public static final Delimiters STANDARD = new Delimiters(SegmentTokenizer.FIELD_SEPARATOR,
+      SegmentTokenizer.COMPONENT_SEPARATOR, Hl7Escaping.REPETITION_SEPARATOR, Hl7Escaping.ESCAPE_CHARACTER,
+      SegmentTokenizer.SUBCOMPONENT_SEPARATOR);
+
+  private final char field;
+  private final char component;
+  private final char repetition;
+  private final char escape;
+  private final char subComponent;
+
+  private Delimiters(char field, char component, char repetition, char escape, char subComponent) {
+    this.field = field;
+    this.component = component;
+    this.repetition = repetition;
+    this.escape = escape;
+    this.subComponent = subComponent;
+  }
+
+  /**
+   * Returns the delimiters with the given field separator and encoding characters (component separator, repetition
+   * separator, escape character and subcomponent separator, in that order). Missing encoding characters default to the
+   * standard ones.
+   *
+   * @throws IllegalArgumentException if a delimiter is used twice, or is a letter, digit or line break
+   */
+  public static Delimiters of(char field, CharSequence encodingCharacters) {
+    int length = encodingCharacters.length();
+    return of(field,
+        length > 0 ? encodingCharacters.charAt(0) : SegmentTokenizer.COMPONENT_SEPARATOR,
+        length > 1 ? encodingCharacters.charAt(1) : Hl7Escaping.REPETITION_SEPARATOR,
+        length > 2 ? encodingCharacters.charAt(2) : Hl7Escaping.ESCAPE_CHARACTER,
+        length > 3 ? encodingCharacters.charAt(3) : SegmentTokenizer.SUBCOMPONENT_SEPARATOR);
+  }
+
+  private static Delimiters of(char field, char component, char repetition, char escape, char subComponent) {
+    if (field == STANDARD.field && component == STANDARD.component && repetition == STANDARD.repetition
+        && escape == STANDARD.escape && subComponent == STANDARD.subComponent) {
+      return STANDARD;
+    }
+
+    String reason = invalidReason(new char[] {field, component, repetition, escape, subComponent});
+    if (reason != null) {
+      throw new IllegalArgumentException(reason);
+    }
+    return new Delimiters(field, component, repetition, escape, subComponent);
+  }
+
+  private static String invalidReason(char[] chars) {
+    for (int i = 0; i < chars.length; i++) {
+      if (Character.isLetterOrDigit(chars[i]) || chars[i] == '\r' || chars[i] == '\n') {
+        return "Invalid delimiter [" + chars[i] + "]";
+      }
+      for (int j = i + 1; j < chars.length; j++) {
+        if (chars[i] == chars[j]) {
+          return "Delimiter [" + chars[i] + "] is used twice";
+        }
+      }
+    }
+    return null;
+  }
+
+  private static int encodingEnd(String source, int start, int end) {
+    int encodingEnd = source.indexOf(source.charAt(start + 3), start + 4);
+    return encodingEnd < 0 || encodingEnd > end ? end : encodingEnd;
+  }
+
+  /**
+   * Returns the delimiters declared by the header segment (MSH, FHS or BHS) found between {@code start} (inclusive) and
+   * {@code end} (exclusive) of the given source, or the standard delimiters if it is not a header segment.
+   *
+   * @throws IllegalArgumentException if the header declares invalid delimiters
+   */
+  public static Delimiters fromHeader(String source, int start, int end) {
+    Delimiters delimiters = fromHeaderOrNull(source, start, end);
+    if (delimiters == null) {
+      String declared = source.substring(start + 3, encodingEnd(source, start, end));
+      throw new IllegalArgumentException("Invalid encoding characters [" + declared + "]");
+    }
+    return delimiters;
+  }
+
+  /**
+   * Same as {@link #fromHeader(String, int, int)}, but returns null instead of throwing if the header declares invalid
+   * delimiters.
+   */
+  public static Delimiters fromHeaderOrNull(String source, int start, int end) {
+    if (!isHeader(source, start, end)) {
+      return STANDARD;
+    }
+    char field = source.charAt(start + 3);
+    int encodingEnd = encodingEnd(source, start, end);
+    if (field == STANDARD.field && encodingEnd - start == 8 && source.startsWith("^~\\&", start + 4)) {
+      return STANDARD;
+    }
+    char[] chars = {field,
+        encodingEnd - start > 4 ? source.charAt(start + 4) : STANDARD.component,
+        encodingEnd - start > 5 ? source.charAt(start + 5) : STANDARD.repetition,
+        encodingEnd - start > 6 ? source.charAt(start + 6) : STANDARD.escape,
+        encodingEnd - start > 7 ? source.charAt(start + 7) : STANDARD.subComponent};
+    return invalidReason(chars) == null ? new Delimiters(chars[0], chars[1], chars[2], chars[3], chars[4]) : null;
+  }
+
+  public char field() {
+    return field;
+  }
+
+  public char component() {
+    return component;
+  }
+
+  public char repetition() {
+    return repetition;
+  }
+
+  public char escape() {
+    return escape;
+  }
+
+  public char subComponent() {
+    return subComponent;
+  }
+
+  public boolean isStandard() {
+    return this == STANDARD;
+  }
+
+  /**
+   * Returns the text between {@code from} (inclusive) and {@code to} (exclusive) of the given source in the standard
+   * encoding. For the standard delimiters this is a plain substring.
+   */
+  public String normalize(String source, int from, int to) {
+    if (this == STANDARD) {
+      return source.substring(from, to);
+    }
+
+    int first = from;
+    while (first < to && !needsNormalizing(source.charAt(first))) {
+      first++;
+    }
+    if (first == to) {
+      return source.substring(from, to);
+    }
+
+    StringBuilder sb = new StringBuilder(to - from + 8).append(source, from, first);
+    for (int i = first; i < to; i++) {
+      char ch = source.charAt(i);
+      if (ch == field) {
+        sb.append(STANDARD.field);
+      } else if (ch == component) {
+        sb.append(STANDARD.component);
+      } else if (ch == repetition) {
+        sb.append(STANDARD.repetition);
+      } else if (ch == escape) {
+        sb.append(STANDARD.escape);
+      } else if (ch == subComponent) {
+        sb.append(STANDARD.subComponent);
+      } else if (isStandardDelimiter(ch)) {
+        // data in this encoding, but a delimiter in the standard one
+        sb.append(Hl7Escaping.escape(String.valueOf(ch)));
+      } else {
+        sb.append(ch);
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return new String(new char[] {field, component, repetition, escape, subComponent});
+  }
+
+  private boolean needsNormalizing(char ch) {
+    return ch == field || ch == component || ch == repetition || ch == escape || ch == subComponent
+        || isStandardDelimiter(ch);
+  }
+
+  private static boolean isStandardDelimiter(char ch) {
+    return ch == STANDARD.field || ch == STANDARD.component || ch == STANDARD.repetition || ch == STANDARD.escape
+        || ch == STANDARD.subComponent;
+  }
+
+  // the field separator follows the segment id, values such as MSH123 are not headers
+  static boolean isHeader(String source, int start, int end) {
+    return end - start > 3
+        && !Character.isLetterOrDigit(source.charAt(start + 3))
+        && (source.startsWith("MSH", start) || source.startsWith("FHS", start) || source.startsWith("BHS", start));
+  }
+}
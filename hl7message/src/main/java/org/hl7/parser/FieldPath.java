@@ -0,0 +1,232 @@
+package org.hl7.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled query for a single value of a raw HL7 message, written in the usual HL7 notation:
+ * <ul>
+ *   <li>{@code MSH-9} - field 9 of the first MSH segment</li>
+ *   <li>{@code RXE-2.1} - component 1 of field 2</li>
+ *   <li>{@code ORC-7.2.1} - subcomponent 1 of component 2 of field 7</li>
+ *   <li>{@code TQ1[2]-11} - field 11 of the second TQ1 segment</li>
+ *   <li>{@code PID-3(2).1} - component 1 of the second repetition of field 3</li>
+ * </ul>
+ *
+ * <p>Paths without a repetition address the first one, so {@code PID-3} of {@code A^B~C^D} is {@code A^B}.
+ *
+ * <p>Queries run directly against the raw message and return a {@link RawSlice} of it, no segment objects or Strings
+ * are created. Delimiters are taken from MSH-1 and MSH-2 when the message starts with a header segment. Compile paths
+ * once and reuse them, instances are immutable and can be shared between threads.
+ */
+public final class FieldPath {
+  // SEG[occurrence]-field(repetition).component.subComponent
+  private static final Pattern SYNTAX =
+      Pattern.compile("([A-Z][A-Z0-9]{2})(?:\\[(\\d+)])?-(\\d+)(?:\\((\\d+)\\))?(?:\\.(\\d+))?(?:\\.(\\d+))?");
+
+  private final String path;
+  private final String segmentId;
+  private final int occurrence;
+  private final int field;
+  private final int repetition;
+  private final int component;
+  private final int subComponent;
+
+  private FieldPath(String path, String segmentId, int occurrence, int field, int repetition, int component,
+                    int subComponent) {
+    this.path = path;
+    this.segmentId = segmentId;
+    this.occurrence = occurrence;
+    this.field = field;
+    this.repetition = repetition;
+    this.component = component;
+    this.subComponent = subComponent;
+  }
+
+  /**
+   * Compiles the given path.
+   *
+   * @throws IllegalArgumentException if the path is not valid
+   */
+  public static FieldPath compile(String path) {
+    Matcher matcher = SYNTAX.matcher(path);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid field path [" + path + "]");
+    }
+
+    int occurrence = matcher.group(2) == null ? 1 : Integer.parseInt(matcher.group(2));
+    int field = Integer.parseInt(matcher.group(3));
+    int repetition = matcher.group(4) == null ? 1 : Integer.parseInt(matcher.group(4));
+    int component = matcher.group(5) == null ? 0 : Integer.parseInt(matcher.group(5));
+    int subComponent = matcher.group(6) == null ? 0 : Integer.parseInt(matcher.group(6));
+    if (occurrence < 1 || field < 1 || repetition < 1 || matcher.group(5) != null && component < 1
+        || matcher.group(6) != null && subComponent < 1) {
+      throw new IllegalArgumentException("Invalid field path [" + path + "]. Positions start at 1");
+    }
+
+    return new FieldPath(path, matcher.group(1), occurrence, field, repetition, component, subComponent);
+  }
+
+  public String getSegmentId() {
+    return segmentId;
+  }
+
+  public RawSlice find(CharSequence message) {
+    return find(RawSlice.of(message));
+  }
+
+  /**
+   * Returns the value at this path of the UTF-8 encoded message, see {@link #find(RawSlice)}.
+   */
+  public RawSlice find(byte[] message) {
+    return find(RawSlice.of(message));
+  }
+
+  public RawSlice find(byte[] message, Charset charset) {
+    return find(RawSlice.of(message, charset));
+  }
+
+  /**
+   * Returns the value at this path of the UTF-8 encoded message, see {@link #find(RawSlice)}.
+   */
+  public RawSlice find(ByteBuffer message) {
+    return find(RawSlice.of(message));
+  }
+
+  public RawSlice find(ByteBuffer message, Charset charset) {
+    return find(RawSlice.of(message, charset));
+  }
+
+  /**
+   * Returns the value at this path, an empty slice if the value is present but empty, or null if the message does not
+   * have the segment, field, repetition, component or subcomponent.
+   */
+  public RawSlice find(RawSlice message) {
+    int length = message.length();
+    char fieldSeparator = SegmentTokenizer.FIELD_SEPARATOR;
+    char componentSeparator = SegmentTokenizer.COMPONENT_SEPARATOR;
+    char repetitionSeparator = Hl7Escaping.REPETITION_SEPARATOR;
+    char subComponentSeparator = SegmentTokenizer.SUBCOMPONENT_SEPARATOR;
+    if (length > 4 && isHeader(message, 0)) {
+      fieldSeparator = message.charAt(3);
+      int encodingEnd = indexOf(message, fieldSeparator, 4, length);
+      int encodingLength = (encodingEnd < 0 ? length : encodingEnd) - 4;
+      componentSeparator = encodingLength > 0 ? message.charAt(4) : componentSeparator;
+      repetitionSeparator = encodingLength > 1 ? message.charAt(5) : repetitionSeparator;
+      subComponentSeparator = encodingLength > 3 ? message.charAt(7) : subComponentSeparator;
+    }
+
+    int seen = 0;
+    int segmentStart = 0;
+    while (segmentStart < length) {
+      int segmentEnd = segmentStart;
+      while (segmentEnd < length && message.charAt(segmentEnd) != '\r' && message.charAt(segmentEnd) != '\n') {
+        segmentEnd++;
+      }
+
+      if (isSegment(message, segmentStart, segmentEnd, fieldSeparator) && ++seen == occurrence) {
+        return extract(message, segmentStart, segmentEnd, fieldSeparator, repetitionSeparator, componentSeparator,
+            subComponentSeparator);
+      }
+      segmentStart = segmentEnd + 1;
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+
+  private RawSlice extract(RawSlice message, int segmentStart, int segmentEnd, char fieldSeparator,
+                           char repetitionSeparator, char componentSeparator, char subComponentSeparator) {
+    boolean header = isHeader(message, segmentStart);
+    if (header && field == 1) {
+      // MSH-1 is the field separator itself
+      return repetition == 1 ? message.subSequence(segmentStart + 3, segmentStart + 4) : null;
+    }
+
+    int fieldStart = partStart(message, segmentStart, segmentEnd, fieldSeparator, header ? field - 1 : field);
+    if (fieldStart < 0) {
+      return null;
+    }
+    int fieldEnd = partEnd(message, fieldStart, segmentEnd, fieldSeparator);
+    if (header && field == 2) {
+      // the encoding characters are never split into repetitions or components
+      return repetition == 1 && component <= 1 && subComponent <= 1 ? message.subSequence(fieldStart, fieldEnd) : null;
+    }
+
+    int repetitionStart = partStart(message, fieldStart, fieldEnd, repetitionSeparator, repetition - 1);
+    if (repetitionStart < 0) {
+      return null;
+    }
+    int repetitionEnd = partEnd(message, repetitionStart, fieldEnd, repetitionSeparator);
+    if (component == 0) {
+      return message.subSequence(repetitionStart, repetitionEnd);
+    }
+
+    int componentStart = partStart(message, repetitionStart, repetitionEnd, componentSeparator, component - 1);
+    if (componentStart < 0) {
+      return null;
+    }
+    int componentEnd = partEnd(message, componentStart, repetitionEnd, componentSeparator);
+    if (subComponent == 0) {
+      return message.subSequence(componentStart, componentEnd);
+    }
+
+    int subStart = partStart(message, componentStart, componentEnd, subComponentSeparator, subComponent - 1);
+    if (subStart < 0) {
+      return null;
+    }
+    return message.subSequence(subStart, partEnd(message, subStart, componentEnd, subComponentSeparator));
+  }
+
+  private boolean isSegment(RawSlice message, int segmentStart, int segmentEnd, char fieldSeparator) {
+    return segmentEnd - segmentStart >= 3
+        && message.charAt(segmentStart) == segmentId.charAt(0)
+        && message.charAt(segmentStart + 1) == segmentId.charAt(1)
+        && message.charAt(segmentStart + 2) == segmentId.charAt(2)
+        && (segmentEnd - segmentStart == 3 || message.charAt(segmentStart + 3) == fieldSeparator);
+  }
+
+  private static boolean isHeader(RawSlice message, int start) {
+    if (message.length() - start < 4) {
+      return false;
+    }
+    char c0 = message.charAt(start);
+    char c1 = message.charAt(start + 1);
+    char c2 = message.charAt(start + 2);
+    return c0 == 'M' && c1 == 'S' && c2 == 'H' || c1 == 'H' && c2 == 'S' && (c0 == 'F' || c0 == 'B');
+  }
+
+  /**
+   * Returns the start offset of the n-th (0-based) part of the region, or -1 if the region has fewer parts.
+   */
+  private static int partStart(RawSlice message, int from, int to, char separator, int n) {
+    int start = from;
+    for (int i = 0; i < n; i++) {
+      int separatorAt = indexOf(message, separator, start, to);
+      if (separatorAt < 0) {
+        return -1;
+      }
+      start = separatorAt + 1;
+    }
+    return start;
+  }
+
+  private static int partEnd(RawSlice message, int start, int to, char separator) {
+    int end = indexOf(message, separator, start, to);
+    return end < 0 ? to : end;
+  }
+
+  private static int indexOf(RawSlice message, char ch, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (message.charAt(i) == ch) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,135 @@
+package org.hl7.parser;
+
+/**
+ * Escapes and unescapes text values with the HL7 escape sequences for the standard delimiters: {@code \F\} (field
+ * separator), {@code \S\} (component separator), {@code \T\} (subcomponent separator), {@code \R\} (repetition
+ * separator), {@code \E\} (escape character) and {@code \Xhh..\} (hex encoded characters, used for line breaks).
+ *
+ * <p>Both directions scan the value once and return the given String itself when there is nothing to escape or
+ * unescape, which is the case for almost all values. Unescaping looks for the escape character with
+ * {@link String#indexOf(int)}, which the JVM vectorizes; escaping checks every char against a lookup table.
+ *
+ * <p>Formatting sequences such as {@code \H\} or {@code \.br\} are not interpreted and kept as text when unescaping.
+ */
+public final class Hl7Escaping {
+  public static final char ESCAPE_CHARACTER = '\\';
+  public static final char REPETITION_SEPARATOR = '~';
+
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+  // chars that must be escaped, indexed by char
+  private static final boolean[] SPECIAL = new boolean[128];
+
+  static {
+    SPECIAL[SegmentTokenizer.FIELD_SEPARATOR] = true;
+    SPECIAL[SegmentTokenizer.COMPONENT_SEPARATOR] = true;
+    SPECIAL[SegmentTokenizer.SUBCOMPONENT_SEPARATOR] = true;
+    SPECIAL[REPETITION_SEPARATOR] = true;
+    SPECIAL[ESCAPE_CHARACTER] = true;
+    SPECIAL['\r'] = true;
+    SPECIAL['\n'] = true;
+  }
+
+  private Hl7Escaping() {
+  }
+
+  /**
+   * Returns the value with all delimiters and line breaks replaced by escape sequences, or the value itself if it has
+   * none. Null is returned as is.
+   */
+  public static String escape(String value) {
+    if (value == null) {
+      return null;
+    }
+    int length = value.length();
+    int first = 0;
+    while (first < length && !isSpecial(value.charAt(first))) {
+      first++;
+    }
+    if (first == length) {
+      return value;
+    }
+
+    StringBuilder sb = new StringBuilder(length + 16).append(value, 0, first);
+    for (int i = first; i < length; i++) {
+      char ch = value.charAt(i);
+      if (!isSpecial(ch)) {
+        sb.append(ch);
+        continue;
+      }
+      sb.append(ESCAPE_CHARACTER);
+      switch (ch) {
+        case SegmentTokenizer.FIELD_SEPARATOR -> sb.append('F');
+        case SegmentTokenizer.COMPONENT_SEPARATOR -> sb.append('S');
+        case SegmentTokenizer.SUBCOMPONENT_SEPARATOR -> sb.append('T');
+        case REPETITION_SEPARATOR -> sb.append('R');
+        case ESCAPE_CHARACTER -> sb.append('E');
+        default -> sb.append('X').append(HEX[ch >> 4]).append(HEX[ch & 0xF]);
+      }
+      sb.append(ESCAPE_CHARACTER);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the value with all escape sequences replaced by the characters they stand for, or the value itself if it
+   * has no escape character. Null is returned as is.
+   */
+  public static String unescape(String value) {
+    if (value == null) {
+      return null;
+    }
+    int first = value.indexOf(ESCAPE_CHARACTER);
+    if (first < 0) {
+      return value;
+    }
+
+    int length = value.length();
+    StringBuilder sb = new StringBuilder(length).append(value, 0, first);
+    int i = first;
+    while (i < length) {
+      char ch = value.charAt(i);
+      int end = ch == ESCAPE_CHARACTER ? value.indexOf(ESCAPE_CHARACTER, i + 1) : -1;
+      if (end < 0 || !appendSequence(value, i + 1, end, sb)) {
+        // plain char, unterminated or unknown sequence
+        sb.append(ch);
+        i++;
+      } else {
+        i = end + 1;
+      }
+    }
+    return sb.toString();
+  }
+
+  private static boolean appendSequence(String value, int start, int end, StringBuilder sb) {
+    if (end - start == 1) {
+      switch (value.charAt(start)) {
+        case 'F' -> sb.append(SegmentTokenizer.FIELD_SEPARATOR);
+        case 'S' -> sb.append(SegmentTokenizer.COMPONENT_SEPARATOR);
+        case 'T' -> sb.append(SegmentTokenizer.SUBCOMPONENT_SEPARATOR);
+        case 'R' -> sb.append(REPETITION_SEPARATOR);
+        case 'E' -> sb.append(ESCAPE_CHARACTER);
+        default -> {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    if (value.charAt(start) != 'X' || (end - start - 1) % 2 != 0 || end - start < 3) {
+      return false;
+    }
+    for (int i = start + 1; i < end; i++) {
+      if (Character.digit(value.charAt(i), 16) < 0) {
+        return false;
+      }
+    }
+    for (int i = start + 1; i < end; i += 2) {
+      sb.append((char) (Character.digit(value.charAt(i), 16) << 4 | Character.digit(value.charAt(i + 1), 16)));
+    }
+    return true;
+  }
+
+  private static boolean isSpecial(char ch) {
+    return ch < 128 && SPECIAL[ch];
+  }
+}
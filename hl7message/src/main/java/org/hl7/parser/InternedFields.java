@@ -0,0 +1,141 @@
+package org.hl7.parser;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fields whose values the {@link SegmentTokenizer} resolves through a {@link StringInterner}, so parsed segments share
+ * one String instance per distinct value instead of holding a copy each. Every field has its own interner; values of
+ * its components and subcomponents are interned as well.
+ *
+ * <p>Meant for low-cardinality fields that are kept in memory, e.g. in a cache of parsed messages. Interning costs a
+ * hash and a compare per value, leave it off for messages that are processed and dropped. Instances are immutable and
+ * can be shared between threads, together with the interners they hold.
+ */
+public final class InternedFields {
+  // SEG-field
+  private static final Pattern SYNTAX = Pattern.compile("([A-Z][A-Z0-9]{2})-(\\d+)");
+
+  private static final InternedFields NONE = new InternedFields(new int[0], new StringInterner[0][]);
+  private static final InternedFields DEFAULTS = NONE
+      .with("MSH-3")
+      .with("MSH-4")
+      .with("MSH-5")
+      .with("MSH-6")
+      .with("MSH-9")
+      .with("MSH-12")
+      .with("RXE-5")
+      .with("RXE-6")
+      .with("RXR-1")
+      .with("TQ1-3")
+      .with("TQ1-4");
+
+  // packed segment ids
+  private final int[] segmentKeys;
+  // interners of every segment, indexed by tokenizer position
+  private final StringInterner[][] interners;
+
+  private InternedFields(int[] segmentKeys, StringInterner[][] interners) {
+    this.segmentKeys = segmentKeys;
+    this.interners = interners;
+  }
+
+  /**
+   * Returns the configuration without interned fields.
+   */
+  public static InternedFields none() {
+    return NONE;
+  }
+
+  /**
+   * Returns the configuration that interns the low-cardinality fields of the segment classes: sending and receiving
+   * system and facility, message type and version of MSH, give units and dosage form of RXE, the route of RXR and the
+   * repeat pattern and explicit time of TQ1. The interners are shared by all users of this configuration.
+   */
+  public static InternedFields defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Returns a copy of this configuration that interns the given field, e.g. {@code MSH-3}, with an interner of the
+   * default capacity.
+   *
+   * @throws IllegalArgumentException if the path is not valid or the field is interned already
+   */
+  public InternedFields with(String path) {
+    return with(path, new StringInterner());
+  }
+
+  /**
+   * Returns a copy of this configuration that interns the given field with the given interner. An interner can be
+   * shared by several fields that hold the same kind of values.
+   *
+   * @throws IllegalArgumentException if the path is not valid or the field is interned already
+   */
+  public InternedFields with(@NonNull String path, @NonNull StringInterner interner) {
+    Matcher matcher = SYNTAX.matcher(path);
+    if (!matcher.matches() || Integer.parseInt(matcher.group(2)) < 1) {
+      throw new IllegalArgumentException("Invalid field path [" + path + "]");
+    }
+    String segmentId = matcher.group(1);
+    int key = pack(segmentId, 0, segmentId.length());
+    // the tokenizer does not count the field separator of header segments as a field
+    boolean header = Delimiters.isHeader(segmentId + SegmentTokenizer.FIELD_SEPARATOR, 0, 4);
+    int position = header ? Integer.parseInt(matcher.group(2)) - 1 : Integer.parseInt(matcher.group(2));
+    if (header && position < 2) {
+      throw new IllegalArgumentException("Delimiters can not be interned [" + path + "]");
+    }
+
+    int index = indexOf(key);
+    int[] newKeys = segmentKeys;
+    StringInterner[][] newInterners = Arrays.copyOf(interners, interners.length);
+    if (index < 0) {
+      index = segmentKeys.length;
+      newKeys = Arrays.copyOf(segmentKeys, index + 1);
+      newKeys[index] = key;
+      newInterners = Arrays.copyOf(interners, index + 1);
+      newInterners[index] = new StringInterner[0];
+    }
+
+    StringInterner[] fields = newInterners[index];
+    if (position < fields.length && fields[position] != null) {
+      throw new IllegalArgumentException("Field [" + path + "] is interned already");
+    }
+    fields = Arrays.copyOf(fields, Math.max(fields.length, position + 1));
+    fields[position] = interner;
+    newInterners[index] = fields;
+    return new InternedFields(newKeys, newInterners);
+  }
+
+  /**
+   * Returns the interners of the segment whose id starts at the given offset, indexed by tokenizer position, or null
+   * if none of its fields is interned.
+   */
+  StringInterner[] forSegment(String source, int start, int idEnd) {
+    if (segmentKeys.length == 0 || idEnd - start != 3) {
+      return null;
+    }
+    int index = indexOf(pack(source, start, idEnd));
+    return index < 0 ? null : interners[index];
+  }
+
+  private int indexOf(int key) {
+    for (int i = 0; i < segmentKeys.length; i++) {
+      if (segmentKeys[i] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // packed segment id, -1 for ids with non-ASCII chars which are never interned
+  private static int pack(String source, int start, int end) {
+    char c0 = source.charAt(start);
+    char c1 = source.charAt(start + 1);
+    char c2 = source.charAt(end - 1);
+    return (c0 | c1 | c2) > 0x7F ? -1 : c0 << 16 | c1 << 8 | c2;
+  }
+}
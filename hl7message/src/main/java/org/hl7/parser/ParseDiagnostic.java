@@ -0,0 +1,30 @@
+package org.hl7.parser;
+
+import lombok.Getter;
+
+/**
+ * Problem found while parsing a message: the segment and field it was found in, its offset in the message and the
+ * reason. Diagnostics are collected instead of throwing, see {@link org.hl7.Hl7Parser#parseWithDiagnostics(String)}.
+ */
+@Getter
+public final class ParseDiagnostic {
+  private final String segmentId;
+  /**
+   * Field number as written in HL7 notation (MSH-9 is 9), or 0 if the problem is not tied to a field.
+   */
+  private final int field;
+  private final int offset;
+  private final String reason;
+
+  public ParseDiagnostic(String segmentId, int field, int offset, String reason) {
+    this.segmentId = segmentId;
+    this.field = field;
+    this.offset = offset;
+    this.reason = reason;
+  }
+
+  @Override
+  public String toString() {
+    return (field > 0 ? segmentId + "-" + field : segmentId) + " at offset " + offset + ": " + reason;
+  }
+}
@@ -0,0 +1,144 @@
+package org.hl7.parser;
+
+import java.io.IOException;
+
+/**
+ * Original text of a parsed segment, kept by segments parsed with {@link org.hl7.Hl7Parser#isRetainRawFields()}. Such
+ * segments print the fields they model from their current values and every other field straight from the original
+ * text, so fields the segment classes do not model survive a parse, modify, print cycle. Runs of unmodeled fields are
+ * copied with a single append.
+ *
+ * <p>Fields are replaced as a whole: components of a modeled field that the segment class does not keep are not
+ * preserved. The original text is referenced, not copied, so a segment holding raw fields keeps the whole source
+ * message reachable.
+ */
+public final class RawFields {
+  private static final ThreadLocal<StringBuilder> SCRATCH = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+  private final String source;
+  private final int start;
+  private final int end;
+
+  private RawFields(String source, int start, int end) {
+    this.source = source;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the raw fields of the segment found between {@code start} (inclusive) and {@code end} (exclusive) of the
+   * given source.
+   */
+  public static RawFields of(String source, int start, int end) {
+    return new RawFields(source, start, end);
+  }
+
+  public static RawFields of(String segment) {
+    return new RawFields(segment, 0, segment.length());
+  }
+
+  /**
+   * Returns a bit mask of the given field positions, as used by {@link #printTo(long, FieldPrinter, Appendable)}.
+   * Position 0 is the segment id, positions must be below 64.
+   */
+  public static long positions(int... positions) {
+    long mask = 0;
+    for (int position : positions) {
+      if (position < 0 || position > 63) {
+        throw new IllegalArgumentException("Field position must be between 0 and 63 but was " + position);
+      }
+      mask |= 1L << position;
+    }
+    return mask;
+  }
+
+  /**
+   * Prints the segment by taking the modeled fields from the output of the given printer and all other fields from
+   * the original text. Modeled fields beyond the end of the original text are appended if they are not empty.
+   *
+   * @param modeledFields bit mask of the positions the segment models, see {@link #positions(int...)}
+   * @param modeled       prints the segment from its values, with the standard field separator
+   */
+  public void printTo(long modeledFields, FieldPrinter modeled, Appendable out) throws IOException {
+    StringBuilder scratch = SCRATCH.get();
+    scratch.setLength(0);
+    modeled.printTo(scratch);
+
+    int modeledLength = scratch.length();
+    int rawPos = start;
+    int modeledPos = 0;
+    // run of original fields, including their separators, that is not written yet
+    int runStart = -1;
+    int runEnd = -1;
+    int pendingSeparators = 0;
+
+    for (int position = 0; rawPos <= end || modeledPos <= modeledLength; position++) {
+      boolean rawMissing = rawPos > end;
+      boolean modeledMissing = modeledPos > modeledLength;
+      int rawEnd = rawMissing ? rawPos : fieldEnd(source, rawPos, end);
+      int modeledEnd = modeledMissing ? modeledPos : fieldEnd(scratch, modeledPos, modeledLength);
+
+      boolean isModeled = position < 64 && (modeledFields & 1L << position) != 0;
+      if (!rawMissing && !isModeled) {
+        if (runStart < 0) {
+          appendSeparators(out, pendingSeparators + (position > 0 ? 1 : 0));
+          pendingSeparators = 0;
+          runStart = rawPos;
+        }
+        runEnd = rawEnd;
+      } else {
+        if (runStart >= 0) {
+          out.append(source, runStart, runEnd);
+          runStart = -1;
+        }
+        if (position > 0) {
+          pendingSeparators++;
+        }
+        // beyond the original fields only non-empty modeled fields are written
+        boolean empty = modeledMissing || !isModeled || modeledEnd == modeledPos;
+        if (!rawMissing || !empty) {
+          appendSeparators(out, pendingSeparators);
+          pendingSeparators = 0;
+          if (!modeledMissing && isModeled) {
+            out.append(scratch, modeledPos, modeledEnd);
+          }
+        }
+      }
+
+      rawPos = rawMissing ? rawPos : rawEnd + 1;
+      modeledPos = modeledMissing ? modeledPos : modeledEnd + 1;
+    }
+
+    if (runStart >= 0) {
+      out.append(source, runStart, runEnd);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return source.substring(start, end);
+  }
+
+  private static int fieldEnd(CharSequence text, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (text.charAt(i) == SegmentTokenizer.FIELD_SEPARATOR) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  private static void appendSeparators(Appendable out, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      out.append(SegmentTokenizer.FIELD_SEPARATOR);
+    }
+  }
+
+  /**
+   * Prints a segment from its values.
+   */
+  @FunctionalInterface
+  public interface FieldPrinter {
+    void printTo(Appendable out) throws IOException;
+  }
+}
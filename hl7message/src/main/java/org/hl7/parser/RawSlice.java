@@ -0,0 +1,125 @@
+package org.hl7.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only CharSequence view of a region of a raw message held in a byte[], ByteBuffer or CharSequence. Creating a
+ * slice of a slice never copies the underlying message, only {@link #toString()} does.
+ *
+ * <p>Bytes are exposed one char per byte by {@link #charAt(int)}, so offsets are byte offsets. HL7 delimiters are ASCII,
+ * so slicing is exact for UTF-8 messages as well. {@link #toString()} decodes the bytes with the charset of the message,
+ * UTF-8 unless given.
+ */
+public final class RawSlice implements CharSequence {
+  private final byte[] bytes;
+  private final ByteBuffer buffer;
+  private final CharSequence chars;
+  // charset of the bytes, null for chars
+  private final Charset charset;
+  private final int start;
+  private final int end;
+
+  private RawSlice(byte[] bytes, ByteBuffer buffer, CharSequence chars, Charset charset, int start, int end) {
+    this.bytes = bytes;
+    this.buffer = buffer;
+    this.chars = chars;
+    this.charset = charset;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns a view of the UTF-8 encoded message.
+   */
+  public static RawSlice of(byte[] message) {
+    return of(message, StandardCharsets.UTF_8);
+  }
+
+  public static RawSlice of(byte[] message, Charset charset) {
+    return new RawSlice(message, null, null, charset, 0, message.length);
+  }
+
+  /**
+   * Returns a view of the remaining bytes of the buffer, a UTF-8 encoded message. The buffer's position is not
+   * modified.
+   */
+  public static RawSlice of(ByteBuffer message) {
+    return of(message, StandardCharsets.UTF_8);
+  }
+
+  public static RawSlice of(ByteBuffer message, Charset charset) {
+    return new RawSlice(null, message, null, charset, message.position(), message.limit());
+  }
+
+  public static RawSlice of(CharSequence message) {
+    return new RawSlice(null, null, message, null, 0, message.length());
+  }
+
+  @Override
+  public int length() {
+    return end - start;
+  }
+
+  @Override
+  public char charAt(int index) {
+    int i = start + index;
+    if (bytes != null) {
+      return (char) (bytes[i] & 0xFF);
+    }
+    if (buffer != null) {
+      return (char) (buffer.get(i) & 0xFF);
+    }
+    return chars.charAt(i);
+  }
+
+  @Override
+  public RawSlice subSequence(int start, int end) {
+    if (start < 0 || end > length() || start > end) {
+      throw new IndexOutOfBoundsException("Invalid slice [" + start + ", " + end + ") of length " + length());
+    }
+    return new RawSlice(bytes, buffer, chars, charset, this.start + start, this.start + end);
+  }
+
+  /**
+   * Returns true if the slice has the same characters as the given value. Does not allocate unless a slice of bytes is
+   * compared with a value that has non-ASCII characters, which is decoded first.
+   */
+  public boolean contentEquals(CharSequence value) {
+    if (chars == null && !isAscii(value)) {
+      return toString().contentEquals(value);
+    }
+    if (value.length() != length()) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (charAt(i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    if (bytes != null) {
+      return new String(bytes, start, end - start, charset);
+    }
+    if (buffer != null) {
+      byte[] copy = new byte[end - start];
+      buffer.get(start, copy);
+      return new String(copy, charset);
+    }
+    return chars.subSequence(start, end).toString();
+  }
+
+  private static boolean isAscii(CharSequence value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
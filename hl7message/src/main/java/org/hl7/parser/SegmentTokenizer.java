@@ -0,0 +1,387 @@
+package org.hl7.parser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Single pass tokenizer for one segment of an HL7 message. The segment is scanned once and the offsets of every field,
+ * component and subcomponent are recorded into a reusable int index, so segments and data types can pull values by
+ * position without splitting the segment into a String[] or compiling a regex.
+ *
+ * <p>Positions are the same as the ones produced by splitting the segment on the field separator: position 0 is the
+ * segment id. For header segments (MSH, FHS, BHS) position 1 holds the encoding characters and is never split into
+ * components. Component and subcomponent positions are 0-based.
+ *
+ * <p>Delimiters are taken from the header segment itself, other segments are tokenized with the delimiters passed by
+ * the caller (the standard ones by default), which are also used if the header declares invalid ones. Values are
+ * returned in the standard encoding, see {@link Delimiters}.
+ *
+ * <p>Instances are not thread-safe. {@link #local()} returns the instance bound to the current thread.
+ */
+public final class SegmentTokenizer {
+  public static final char FIELD_SEPARATOR = '|';
+  public static final char COMPONENT_SEPARATOR = '^';
+  public static final char SUBCOMPONENT_SEPARATOR = '&';
+
+  private static final ThreadLocal<SegmentTokenizer> LOCAL = ThreadLocal.withInitial(SegmentTokenizer::new);
+
+  private String source;
+  private int start;
+  private Delimiters delimiters = Delimiters.STANDARD;
+  private boolean header;
+  private boolean retainRawFields;
+  private List<ParseDiagnostic> diagnostics;
+  // interners of the tokenized segment by position, null if no field is interned
+  private StringInterner[] interners;
+
+  // end offset of every field, and index of the first component of every field (fieldCount + 1 entries)
+  private int fieldCount;
+  private int[] fieldEnds = new int[16];
+  private int[] fieldComponents = new int[17];
+
+  // end offset of every component, and index of the first subcomponent of every component (componentCount + 1 entries)
+  private int componentCount;
+  private int[] componentEnds = new int[32];
+  private int[] componentSubComponents = new int[33];
+
+  private int subComponentCount;
+  private int[] subComponentEnds = new int[32];
+
+  /**
+   * Returns the tokenizer bound to the current thread. The returned instance is reset by every call to
+   * {@link #tokenize(String)}, so callers must not hold on to it across segments.
+   */
+  public static SegmentTokenizer local() {
+    return LOCAL.get();
+  }
+
+  /**
+   * Tokenizes the given segment.
+   */
+  public SegmentTokenizer tokenize(String segment) {
+    return tokenize(segment, 0, segment.length());
+  }
+
+  /**
+   * Tokenizes the segment found between {@code start} (inclusive) and {@code end} (exclusive) of the given source,
+   * typically a whole message, without copying it.
+   */
+  public SegmentTokenizer tokenize(String source, int start, int end) {
+    return tokenize(source, start, end, Delimiters.STANDARD);
+  }
+
+  /**
+   * Tokenizes the segment found between {@code start} (inclusive) and {@code end} (exclusive) of the given source with
+   * the delimiters of its message. Header segments always use the delimiters they declare.
+   */
+  public SegmentTokenizer tokenize(String source, int start, int end, Delimiters delimiters) {
+    this.source = source;
+    this.start = start;
+    this.retainRawFields = false;
+    this.diagnostics = null;
+    this.interners = null;
+    this.fieldCount = 0;
+    this.componentCount = 0;
+    this.subComponentCount = 0;
+    fieldComponents[0] = 0;
+    componentSubComponents[0] = 0;
+
+    this.header = Delimiters.isHeader(source, start, end);
+    Delimiters declared = header ? Delimiters.fromHeaderOrNull(source, start, end) : null;
+    this.delimiters = declared != null ? declared : delimiters;
+
+    int pos = start;
+    if (header) {
+      // segment id, followed by the encoding characters which must not be split into components
+      closeField(start + 3);
+      pos = source.indexOf(this.delimiters.field(), start + 4);
+      if (pos < 0 || pos > end) {
+        pos = end;
+      }
+      if (pos == end) {
+        closeField(end);
+        return this;
+      }
+      closeField(pos++);
+    }
+
+    if (this.delimiters == Delimiters.STANDARD) {
+      scanStandard(pos, end);
+    } else {
+      scan(pos, end, this.delimiters.field(), this.delimiters.component(), this.delimiters.subComponent());
+    }
+    closeField(end);
+    return this;
+  }
+
+  /**
+   * Returns the delimiters of the tokenized segment. Values are always returned in the standard encoding.
+   */
+  public Delimiters delimiters() {
+    return delimiters;
+  }
+
+  /**
+   * Makes {@link #rawFields()} return the original text of the tokenized segment, so segments parsed from it keep their
+   * raw fields. Reset by every call to tokenize.
+   */
+  public SegmentTokenizer retainRawFields(boolean retainRawFields) {
+    this.retainRawFields = retainRawFields;
+    return this;
+  }
+
+  /**
+   * Makes {@link #requireField(int)} and {@link #requiredField(int)} add a diagnostic to the given list instead of
+   * throwing when the field is missing. Reset by every call to tokenize.
+   */
+  public SegmentTokenizer reportTo(List<ParseDiagnostic> diagnostics) {
+    this.diagnostics = diagnostics;
+    return this;
+  }
+
+  /**
+   * Makes the values of the given fields of the tokenized segment resolve to shared instances, see
+   * {@link InternedFields}. Reset by every call to tokenize.
+   */
+  public SegmentTokenizer intern(InternedFields internedFields) {
+    this.interners = internedFields.forSegment(source, start, fieldEnds[0]);
+    return this;
+  }
+
+  /**
+   * Returns the original text of the tokenized segment if {@link #retainRawFields(boolean)} is enabled, otherwise null.
+   */
+  public RawFields rawFields() {
+    if (!retainRawFields) {
+      return null;
+    }
+    int end = fieldEnds[fieldCount - 1];
+    if (delimiters.isStandard()) {
+      return RawFields.of(source, start, end);
+    }
+    // raw fields are printed next to modeled ones, so they must be in the standard encoding as well
+    return RawFields.of(delimiters.normalize(source, start, end));
+  }
+
+  /**
+   * Returns true if the tokenized segment has the given segment id. Does not allocate.
+   */
+  public boolean isSegment(String segmentId) {
+    return fieldEnds[0] - start == segmentId.length() && source.startsWith(segmentId, start);
+  }
+
+  /**
+   * Validates the segment id of the tokenized segment.
+   *
+   * @throws IllegalArgumentException if the segment id does not match the expected one
+   */
+  public void expectSegment(String segmentId) {
+    if (!isSegment(segmentId)) {
+      throw new IllegalArgumentException("Invalid message segment [" + segmentId() + "]. Expected [" + segmentId + "]");
+    }
+  }
+
+  public String segmentId() {
+    return field(0);
+  }
+
+  public int fieldCount() {
+    return fieldCount;
+  }
+
+  public boolean hasField(int field) {
+    return field >= 0 && field < fieldCount;
+  }
+
+  public int fieldStart(int field) {
+    return field == 0 ? start : fieldEnds[field - 1] + 1;
+  }
+
+  public int fieldEnd(int field) {
+    return fieldEnds[field];
+  }
+
+  /**
+   * Returns the whole field at the given position, or null if the segment does not have that many fields.
+   */
+  public String field(int field) {
+    return hasField(field) ? value(field, fieldStart(field), fieldEnds[field]) : null;
+  }
+
+  /**
+   * Returns the field at the given position. See {@link #reportTo(List)} to report missing fields without throwing.
+   *
+   * @throws NoSuchElementException if the segment does not have that many fields
+   */
+  public String requiredField(int field) {
+    return requireField(field) ? field(field) : "";
+  }
+
+  /**
+   * Returns true if the segment has the given field. If not, a diagnostic is reported and false returned when
+   * {@link #reportTo(List)} is enabled, otherwise an exception is thrown.
+   *
+   * @throws NoSuchElementException if the segment does not have that many fields
+   */
+  public boolean requireField(int field) {
+    if (hasField(field)) {
+      return true;
+    }
+    if (diagnostics == null) {
+      throw new NoSuchElementException("Missing required field [" + field + "] in segment [" + segmentId() + "]");
+    }
+    int number = header ? field + 1 : field;
+    diagnostics.add(new ParseDiagnostic(segmentId(), number, fieldEnds[fieldCount - 1], "Missing required field"));
+    return false;
+  }
+
+  /**
+   * Passes the field at the given position to the consumer if the segment has that many fields.
+   */
+  public void ifPresent(int field, Consumer<String> consumer) {
+    if (hasField(field)) {
+      consumer.accept(field(field));
+    }
+  }
+
+  public int componentCount(int field) {
+    return hasField(field) ? fieldComponents[field + 1] - fieldComponents[field] : 0;
+  }
+
+  /**
+   * Returns a component of a field, or null if either the field or the component does not exist.
+   */
+  public String component(int field, int component) {
+    if (component < 0 || component >= componentCount(field)) {
+      return null;
+    }
+    int index = fieldComponents[field] + component;
+    return value(field, componentStart(field, index), componentEnds[index]);
+  }
+
+  /**
+   * Passes a component of a field to the consumer if both the field and the component exist.
+   */
+  public void ifPresent(int field, int component, Consumer<String> consumer) {
+    String value = component(field, component);
+    if (value != null) {
+      consumer.accept(value);
+    }
+  }
+
+  /**
+   * Passes the unescaped field to the consumer if the segment has that many fields. Use for text values only, a
+   * composite field would have its escaped delimiters turned into real ones.
+   */
+  public void ifPresentText(int field, Consumer<String> consumer) {
+    if (hasField(field)) {
+      consumer.accept(Hl7Escaping.unescape(field(field)));
+    }
+  }
+
+  /**
+   * Passes the unescaped component of a field to the consumer if both the field and the component exist.
+   */
+  public void ifPresentText(int field, int component, Consumer<String> consumer) {
+    String value = component(field, component);
+    if (value != null) {
+      consumer.accept(Hl7Escaping.unescape(value));
+    }
+  }
+
+  /**
+   * Returns the number of subcomponents of a component, or 0 if either the field or the component does not exist.
+   */
+  public int subComponentCount(int field, int component) {
+    if (component < 0 || component >= componentCount(field)) {
+      return 0;
+    }
+    int index = fieldComponents[field] + component;
+    return componentSubComponents[index + 1] - componentSubComponents[index];
+  }
+
+  /**
+   * Returns a subcomponent of a component, or null if the field, component or subcomponent does not exist.
+   */
+  public String subComponent(int field, int component, int subComponent) {
+    if (subComponent < 0 || subComponent >= subComponentCount(field, component)) {
+      return null;
+    }
+    int componentIndex = fieldComponents[field] + component;
+    int index = componentSubComponents[componentIndex] + subComponent;
+    int subStart = index == componentSubComponents[componentIndex]
+        ? componentStart(field, componentIndex)
+        : subComponentEnds[index - 1] + 1;
+    return value(field, subStart, subComponentEnds[index]);
+  }
+
+  private String value(int field, int from, int to) {
+    StringInterner interner = interners != null && field < interners.length ? interners[field] : null;
+    if (interner == null) {
+      return delimiters.normalize(source, from, to);
+    }
+    return delimiters.isStandard()
+        ? interner.intern(source, from, to)
+        : interner.intern(delimiters.normalize(source, from, to));
+  }
+
+  // the standard delimiters are constants, so this loop compiles to compares against immediates
+  private void scanStandard(int from, int end) {
+    for (int pos = from; pos < end; pos++) {
+      char ch = source.charAt(pos);
+      if (ch == FIELD_SEPARATOR) {
+        closeField(pos);
+      } else if (ch == COMPONENT_SEPARATOR) {
+        closeComponent(pos);
+      } else if (ch == SUBCOMPONENT_SEPARATOR) {
+        closeSubComponent(pos);
+      }
+    }
+  }
+
+  private void scan(int from, int end, char fieldSeparator, char componentSeparator, char subComponentSeparator) {
+    for (int pos = from; pos < end; pos++) {
+      char ch = source.charAt(pos);
+      if (ch == fieldSeparator) {
+        closeField(pos);
+      } else if (ch == componentSeparator) {
+        closeComponent(pos);
+      } else if (ch == subComponentSeparator) {
+        closeSubComponent(pos);
+      }
+    }
+  }
+
+  private int componentStart(int field, int index) {
+    return index == fieldComponents[field] ? fieldStart(field) : componentEnds[index - 1] + 1;
+  }
+
+  private void closeSubComponent(int pos) {
+    if (subComponentCount == subComponentEnds.length) {
+      subComponentEnds = Arrays.copyOf(subComponentEnds, subComponentCount * 2);
+    }
+    subComponentEnds[subComponentCount++] = pos;
+  }
+
+  private void closeComponent(int pos) {
+    closeSubComponent(pos);
+    if (componentCount == componentEnds.length) {
+      componentEnds = Arrays.copyOf(componentEnds, componentCount * 2);
+      componentSubComponents = Arrays.copyOf(componentSubComponents, componentCount * 2 + 1);
+    }
+    componentEnds[componentCount++] = pos;
+    componentSubComponents[componentCount] = subComponentCount;
+  }
+
+  private void closeField(int pos) {
+    closeComponent(pos);
+    if (fieldCount == fieldEnds.length) {
+      fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+      fieldComponents = Arrays.copyOf(fieldComponents, fieldCount * 2 + 1);
+    }
+    fieldEnds[fieldCount++] = pos;
+    fieldComponents[fieldCount] = componentCount;
+  }
+}
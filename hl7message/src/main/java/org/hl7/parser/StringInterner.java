@@ -0,0 +1,112 @@
+package org.hl7.parser;
+
+/**
+ * Bounded cache of shared String instances for low-cardinality values, such as sending systems, message types or route
+ * codes, that repeat across millions of messages. Values are looked up straight from a region of the message, so a
+ * value that is cached already is returned without creating a String first.
+ *
+ * <p>The cache is a direct-mapped table: every value has exactly one slot, and a value that hashes to an occupied slot
+ * evicts the value cached there. Lookups and updates are lock-free, concurrent threads may both miss and cache their
+ * own instance, the last one wins. Values longer than the maximum length, typically free text, are never cached.
+ * Instances are thread-safe.
+ */
+public final class StringInterner {
+  public static final int DEFAULT_CAPACITY = 1024;
+  public static final int DEFAULT_MAX_LENGTH = 64;
+
+  // Strings are immutable, so instances published through the plain array are always complete
+  private final String[] table;
+  private final int mask;
+  private final int maxLength;
+
+  /**
+   * Creates a cache of the default capacity that caches values of up to {@value #DEFAULT_MAX_LENGTH} chars.
+   */
+  public StringInterner() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Creates a cache of the given capacity, rounded up to a power of two, that caches values of up to the given length.
+   *
+   * @throws IllegalArgumentException if the capacity is not positive or larger than 2^30
+   */
+  public StringInterner(int capacity, int maxLength) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity [" + capacity + "]");
+    }
+    this.table = new String[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+    this.mask = table.length - 1;
+    this.maxLength = maxLength;
+  }
+
+  public int capacity() {
+    return table.length;
+  }
+
+  /**
+   * Returns the shared instance of the text between {@code start} (inclusive) and {@code end} (exclusive) of the given
+   * source.
+   */
+  public String intern(CharSequence source, int start, int end) {
+    int length = end - start;
+    if (length == 0) {
+      return "";
+    }
+    if (length > maxLength) {
+      return substring(source, start, end);
+    }
+
+    int slot = hash(source, start, end) & mask;
+    String cached = table[slot];
+    if (cached != null && matches(cached, source, start, end)) {
+      return cached;
+    }
+    String value = substring(source, start, end);
+    table[slot] = value;
+    return value;
+  }
+
+  /**
+   * Returns the shared instance of the given value, caching the value itself if there is none.
+   */
+  public String intern(String value) {
+    int length = value.length();
+    if (length == 0 || length > maxLength) {
+      return value;
+    }
+
+    int slot = hash(value, 0, length) & mask;
+    String cached = table[slot];
+    if (cached != null && cached.equals(value)) {
+      return cached;
+    }
+    table[slot] = value;
+    return value;
+  }
+
+  // same as String.hashCode, spread so the low bits depend on all chars
+  private static int hash(CharSequence source, int start, int end) {
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + source.charAt(i);
+    }
+    return h ^ h >>> 16;
+  }
+
+  private static boolean matches(String cached, CharSequence source, int start, int end) {
+    if (cached.length() != end - start) {
+      return false;
+    }
+    for (int i = 0; i < cached.length(); i++) {
+      if (cached.charAt(i) != source.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String substring(CharSequence source, int start, int end) {
+    return source instanceof String text ? text.substring(start, end) : source.subSequence(start, end).toString();
+  }
+}
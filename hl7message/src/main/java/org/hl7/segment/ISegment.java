@@ -1,8 +1,33 @@
 package org.hl7.segment;
 
+import org.github.jacksonhelper.deserialize.DeserializeToObj;
+import org.github.jacksonhelper.serialize.SerializeToStr;
+
+import java.io.IOException;
+
 public interface ISegment {
   String EMPTY = "";
   String PIPE = "|";
 
+  /**
+   * Returns the segment as a String.
+   */
   String print();
+
+  /**
+   * Appends the segment, without segment terminator, to the given Appendable. The default appends {@link #print()};
+   * segments that can write their fields straight to the Appendable override it.
+   */
+  default void printTo(Appendable out) throws IOException {
+    out.append(print());
+  }
+
+  /**
+   * Returns a copy of the segment that can be modified independently of this one. Data type components are immutable
+   * and therefore shared between the copies. The default copies the segment through a JSON round trip; the built-in
+   * segments override it with a copy through their builder.
+   */
+  default ISegment copy() {
+    return DeserializeToObj.fromString(SerializeToStr.toString(this), getClass());
+  }
 }
@@ -1,17 +1,17 @@
 package org.hl7.segment;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.jackson.Jacksonized;
-import org.apache.commons.lang3.RandomStringUtils;
-import org.hl7.utils.Hl7DateUtils;
+import org.hl7.id.IdType;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.utils.Hl7Clock;
 
-import java.time.LocalDateTime;
-import java.util.Objects;
+import java.io.IOException;
 
 /**
  * MSG segment of an HL7 message.
@@ -23,6 +23,10 @@ import java.util.Objects;
 @Builder(toBuilder = true)
 @Jacksonized
 public class MSH implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   @NonNull
   private String msh_3_sendingSystem;
   @Builder.Default
@@ -32,42 +36,84 @@ public class MSH implements ISegment {
   @NonNull
   private String msh_6_receivingFacility;
   @Builder.Default
-  private String msh_7_messageDatetime = Hl7DateUtils.formatToHl7(LocalDateTime.now());
+  private String msh_7_messageDatetime = Hl7Clock.getDefault().now();
   @NonNull
   private String msh_9_messageType;
   @Builder.Default
-  private String msh_10_messageId = RandomStringUtils.randomNumeric(7);
+  private String msh_10_messageId = IdType.MESSAGE_CONTROL_ID.next();
   @Builder.Default
   private String msh_12_versionId = "2.5";
 
   public static final String segmentId = "MSH";
+  private static final long MODELED_FIELDS = RawFields.positions(2, 3, 4, 5, 6, 8, 9, 11);
+
+  @Override
+  public MSH copy() {
+    return toBuilder().build();
+  }
 
   @Override
   public String print() {
-    return segmentId + "|^~\\&|" + msh_3_sendingSystem + "|" + msh_4_sendingFacility + "|"
-        + msh_5_receivingSystem + "|" + msh_6_receivingFacility + "|" + msh_7_messageDatetime + "||" + msh_9_messageType
-        + "|" + msh_10_messageId + "|P|" + msh_12_versionId + "||||||ASCII|||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append("|^~\\&|")
+        .append(msh_3_sendingSystem)
+        .append('|')
+        .append(msh_4_sendingFacility)
+        .append('|')
+        .append(msh_5_receivingSystem)
+        .append('|')
+        .append(msh_6_receivingFacility)
+        .append('|')
+        .append(msh_7_messageDatetime)
+        .append("||")
+        .append(msh_9_messageType)
+        .append('|')
+        .append(msh_10_messageId)
+        .append("|P|")
+        .append(msh_12_versionId)
+        .append("||||||ASCII|||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static MSH fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!Objects.equals(fields[0], segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static MSH fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     MSHBuilder msh = MSH.builder();
-    getField(fields, 2).ifPresent(msh::msh_3_sendingSystem);
-    getField(fields, 3).ifPresent(msh::msh_4_sendingFacility);
-    getField(fields, 4).ifPresent(msh::msh_5_receivingSystem);
-    getField(fields, 5).ifPresent(msh::msh_6_receivingFacility);
-    getField(fields, 6).ifPresent(msh::msh_7_messageDatetime);
-    getField(fields, 8).ifPresent(msh::msh_9_messageType);
-    getField(fields, 9).ifPresent(msh::msh_10_messageId);
-    getField(fields, 11).ifPresent(msh::msh_12_versionId);
+
+    // required fields
+    msh.msh_3_sendingSystem(tokens.requiredField(2));
+    msh.msh_6_receivingFacility(tokens.requiredField(5));
+    msh.msh_9_messageType(tokens.requiredField(8));
+
+    // optional fields
+    tokens.ifPresent(3, msh::msh_4_sendingFacility);
+    tokens.ifPresent(4, msh::msh_5_receivingSystem);
+    tokens.ifPresent(6, msh::msh_7_messageDatetime);
+    tokens.ifPresent(9, msh::msh_10_messageId);
+    tokens.ifPresent(11, msh::msh_12_versionId);
+    msh.rawFields(tokens.rawFields());
     return msh.build();
   }
 }
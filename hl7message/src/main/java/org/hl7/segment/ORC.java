@@ -1,15 +1,18 @@
 package org.hl7.segment;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.segment.datatype.ExtendedCompositePersonName;
+import org.hl7.segment.datatype.Repetitions;
 import org.hl7.segment.datatype.TimingQuantity;
 
-import java.util.Objects;
+import java.io.IOException;
+
 
 /**
  * ORC segment of an HL7 message.
@@ -21,6 +24,10 @@ import java.util.Objects;
 @Builder(toBuilder = true)
 @Jacksonized
 public class ORC implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   @Builder.Default
   private String orc_1_orderControl = "";
   @Builder.Default
@@ -34,38 +41,80 @@ public class ORC implements ISegment {
   @Builder.Default
   private String orc_9_transactionDateTime = "";
   @Builder.Default
-  private ExtendedCompositePersonName orc_12_orderingProvider = ExtendedCompositePersonName.builder().build();
+  private Repetitions<ExtendedCompositePersonName> orc_12_orderingProvider = Repetitions.empty();
   @Builder.Default
   private String orc_25_orderStatusModifier = "";
 
   public static final String segmentId = "ORC";
+  private static final long MODELED_FIELDS = RawFields.positions(1, 3, 4, 5, 7, 9, 12, 25);
+
+  @Override
+  public ORC copy() {
+    return toBuilder().build();
+  }
 
   @Override
   public String print() {
-    return segmentId + "|" + orc_1_orderControl + "||" + orc_3_fillerOrderNumber + "|" + orc_4_placerGroupNumber
-        + "|" + orc_5_orderStatus + "||" + orc_7_quantityTiming.print() + "||" + orc_9_transactionDateTime
-        + "|||" + orc_12_orderingProvider.print() + "|||||||||||||" + orc_25_orderStatusModifier + "|||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append('|')
+        .append(orc_1_orderControl)
+        .append("||")
+        .append(orc_3_fillerOrderNumber)
+        .append('|')
+        .append(orc_4_placerGroupNumber)
+        .append('|')
+        .append(orc_5_orderStatus)
+        .append("||");
+    orc_7_quantityTiming.printTo(out);
+    out.append("||")
+        .append(orc_9_transactionDateTime)
+        .append("|||");
+    orc_12_orderingProvider.printTo(out);
+    out.append("|||||||||||||")
+        .append(orc_25_orderStatusModifier)
+        .append("|||||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static ORC fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!Objects.equals(fields[0], segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static ORC fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     ORCBuilder orc = ORC.builder();
-    getField(fields, 1).ifPresent(orc::orc_1_orderControl);
-    getField(fields, 3).ifPresent(orc::orc_3_fillerOrderNumber);
-    getField(fields, 4).ifPresent(orc::orc_4_placerGroupNumber);
-    getField(fields, 5).ifPresent(orc::orc_5_orderStatus);
-    getField(fields, 7).map(TimingQuantity::fromString).ifPresent(orc::orc_7_quantityTiming);
-    getField(fields, 9).ifPresent(orc::orc_9_transactionDateTime);
-    getField(fields, 12).map(ExtendedCompositePersonName::fromString).ifPresent(orc::orc_12_orderingProvider);
-    getField(fields, 25).ifPresent(orc::orc_25_orderStatusModifier);
+    tokens.ifPresent(1, orc::orc_1_orderControl);
+    tokens.ifPresent(3, orc::orc_3_fillerOrderNumber);
+    tokens.ifPresent(4, orc::orc_4_placerGroupNumber);
+    tokens.ifPresent(5, orc::orc_5_orderStatus);
+    if (tokens.hasField(7)) {
+      orc.orc_7_quantityTiming(TimingQuantity.fromTokens(tokens, 7));
+    }
+    tokens.ifPresent(9, orc::orc_9_transactionDateTime);
+    if (tokens.hasField(12)) {
+      orc.orc_12_orderingProvider(Repetitions.parse(tokens.field(12), ExtendedCompositePersonName::fromTokens));
+    }
+    tokens.ifPresent(25, orc::orc_25_orderStatusModifier);
+    orc.rawFields(tokens.rawFields());
     return orc.build();
   }
 }
@@ -1,15 +1,18 @@
 package org.hl7.segment;
 
-
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.segment.datatype.ExtendedCompositeId;
 import org.hl7.segment.datatype.ExtendedPersonName;
+import org.hl7.segment.datatype.Repetitions;
+
+import java.io.IOException;
 
-import java.util.Objects;
 
 /**
  * PID segment of an HL7 message.
@@ -20,10 +23,14 @@ import java.util.Objects;
 @Builder(toBuilder = true)
 @Jacksonized
 public class PID implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   @Builder.Default
   private String pid_2_patientId = RandomStringUtils.randomNumeric(6);
   @Builder.Default
-  private String pid_3_patient_identifier_list = EMPTY;
+  private Repetitions<ExtendedCompositeId> pid_3_patient_identifier_list = Repetitions.empty();
   @Builder.Default
   private ExtendedPersonName pid_5_patient_name = ExtendedPersonName.builder().build();
   @Builder.Default
@@ -32,29 +39,66 @@ public class PID implements ISegment {
   private String pid_8_patient_gender = EMPTY;
 
   public static final String segmentId = "PID";
+  private static final long MODELED_FIELDS = RawFields.positions(2, 3, 5, 7, 8);
+
+  @Override
+  public PID copy() {
+    return toBuilder().build();
+  }
 
   @Override
   public String print() {
-    return segmentId + "|1|" + pid_2_patientId + "|" + pid_3_patient_identifier_list + "||" + pid_5_patient_name.print()
-        + "^^^^||" + pid_7_patient_dob + "|" + pid_8_patient_gender + "|||||||||||||||||||||||||||||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append("|1|")
+        .append(pid_2_patientId)
+        .append('|');
+    pid_3_patient_identifier_list.printTo(out);
+    out.append("||");
+    pid_5_patient_name.printTo(out);
+    out.append("^^^^||")
+        .append(pid_7_patient_dob)
+        .append('|')
+        .append(pid_8_patient_gender)
+        .append("|||||||||||||||||||||||||||||||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static PID fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!Objects.equals(fields[0], segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static PID fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     PIDBuilder pid = PID.builder();
-    getField(fields, 2).ifPresent(pid::pid_2_patientId);
-    getField(fields, 3).ifPresent(pid::pid_3_patient_identifier_list);
-    getField(fields, 5).map(ExtendedPersonName::fromString).ifPresent(pid::pid_5_patient_name);
-    getField(fields, 7).ifPresent(pid::pid_7_patient_dob);
-    getField(fields, 8).ifPresent(pid::pid_8_patient_gender);
+    tokens.ifPresent(2, pid::pid_2_patientId);
+    if (tokens.hasField(3)) {
+      pid.pid_3_patient_identifier_list(Repetitions.parse(tokens.field(3), ExtendedCompositeId::fromTokens));
+    }
+    if (tokens.hasField(5)) {
+      pid.pid_5_patient_name(ExtendedPersonName.fromTokens(tokens, 5));
+    }
+    tokens.ifPresent(7, pid::pid_7_patient_dob);
+    tokens.ifPresent(8, pid::pid_8_patient_gender);
+    pid.rawFields(tokens.rawFields());
     return pid.build();
   }
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package org.hl7.segment;
 
-import static org.hl7.segment.datatype.IComponent.CARET;
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
+
+import java.io.IOException;
 
-import java.util.Objects;
 
 /**
  * PV1 segment of an HL7 message.
@@ -18,6 +19,10 @@ import java.util.Objects;
 @Builder(toBuilder = true)
 @Jacksonized
 public class PV1 implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   @Builder.Default
   private String pv1_3_4_patientLocationRoom = EMPTY;
   @Builder.Default
@@ -28,32 +33,59 @@ public class PV1 implements ISegment {
   private String pv1_44_admitDateTime = EMPTY;
 
   public static final String segmentId = "PV1";
+  private static final long MODELED_FIELDS = RawFields.positions(3, 44);
+
+  @Override
+  public PV1 copy() {
+    return toBuilder().build();
+  }
 
   @Override
   public String print() {
-    return segmentId + "|1|I|^" + pv1_3_4_patientLocationRoom + "^" + pv1_3_4_patientLocationBed + "^"
-        + pv1_3_4_patientLocationFacility + "^^^^|||||||||||||||||||||||||||||||||||||||||" + pv1_44_admitDateTime
-        + "||||||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append("|1|I|^")
+        .append(pv1_3_4_patientLocationRoom)
+        .append('^')
+        .append(pv1_3_4_patientLocationBed)
+        .append('^')
+        .append(pv1_3_4_patientLocationFacility)
+        .append("^^^^|||||||||||||||||||||||||||||||||||||||||")
+        .append(pv1_44_admitDateTime)
+        .append("||||||||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static PV1 fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!Objects.equals(fields[0], segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static PV1 fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     PV1Builder pv1 = PV1.builder();
-    getField(fields, 1).ifPresent(field -> {
-      String[] subFields = field.split("\\".concat(CARET));
-      pv1.pv1_3_4_patientLocationRoom(subFields[0])
-          .pv1_3_4_patientLocationBed(subFields[1])
-          .pv1_3_4_patientLocationFacility(subFields[2]);
-    });
-    getField(fields, 43).ifPresent(pv1::pv1_44_admitDateTime);
+    tokens.ifPresent(3, 1, pv1::pv1_3_4_patientLocationRoom);
+    tokens.ifPresent(3, 2, pv1::pv1_3_4_patientLocationBed);
+    tokens.ifPresent(3, 3, pv1::pv1_3_4_patientLocationFacility);
+    tokens.ifPresent(44, pv1::pv1_44_admitDateTime);
+    pv1.rawFields(tokens.rawFields());
     return pv1.build();
   }
 }
@@ -1,15 +1,16 @@
 package org.hl7.segment;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.segment.datatype.CodedElement;
-import org.hl7.utils.Hl7DateUtils;
+import org.hl7.utils.Hl7Clock;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
 
 /**
  * RXD segment of an HL7 message.
@@ -20,12 +21,16 @@ import java.time.LocalDateTime;
 @Builder(toBuilder = true)
 @Jacksonized
 public class RXD implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   @NonNull
   private String rxd_1_dispenseSubIdCounter;
   @NonNull
   private CodedElement rxd_2_dispenseGiveCode;
   @Builder.Default
-  private String rxd_3_dateTimeDispensed = Hl7DateUtils.formatToHl7(LocalDateTime.now());
+  private String rxd_3_dateTimeDispensed = Hl7Clock.getDefault().now();
   @Builder.Default
   private String rxd_4_actualDispenseAmount = EMPTY;
   @Builder.Default
@@ -34,35 +39,70 @@ public class RXD implements ISegment {
   private String rxd_7_prescriptionNumber = EMPTY;
 
   public static final String segmentId = "RXD";
+  private static final long MODELED_FIELDS = RawFields.positions(1, 2, 3, 4, 5, 7);
+
+  @Override
+  public RXD copy() {
+    return toBuilder().build();
+  }
 
   @Override
   public String print() {
-    return segmentId + "|" + rxd_1_dispenseSubIdCounter + "|" + rxd_2_dispenseGiveCode.print() + "|"
-        + rxd_3_dateTimeDispensed + "|" + rxd_4_actualDispenseAmount + "|" + rxd_5_actualDispenseUnit + "||"
-        + rxd_7_prescriptionNumber + "||||||||||||||||||||||||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append('|')
+        .append(rxd_1_dispenseSubIdCounter)
+        .append('|');
+    rxd_2_dispenseGiveCode.printTo(out);
+    out.append('|')
+        .append(rxd_3_dateTimeDispensed)
+        .append('|')
+        .append(rxd_4_actualDispenseAmount)
+        .append('|')
+        .append(rxd_5_actualDispenseUnit)
+        .append("||")
+        .append(rxd_7_prescriptionNumber)
+        .append("||||||||||||||||||||||||||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static RXD fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!fields[0].equals(segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static RXD fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     RXDBuilder rxd = RXD.builder();
 
     // required fields
-    rxd.rxd_1_dispenseSubIdCounter(getField(fields, 1).orElseThrow());
+    rxd.rxd_1_dispenseSubIdCounter(tokens.requiredField(1));
+    tokens.requireField(2);
+    rxd.rxd_2_dispenseGiveCode(CodedElement.fromTokens(tokens, 2));
 
     // optional fields
-    getField(fields, 2).map(CodedElement::fromString).ifPresent(rxd::rxd_2_dispenseGiveCode);
-    getField(fields, 3).ifPresent(rxd::rxd_3_dateTimeDispensed);
-    getField(fields, 4).ifPresent(rxd::rxd_4_actualDispenseAmount);
-    getField(fields, 5).ifPresent(rxd::rxd_5_actualDispenseUnit);
-    getField(fields, 7).ifPresent(rxd::rxd_7_prescriptionNumber);
+    tokens.ifPresent(3, rxd::rxd_3_dateTimeDispensed);
+    tokens.ifPresent(4, rxd::rxd_4_actualDispenseAmount);
+    tokens.ifPresent(5, rxd::rxd_5_actualDispenseUnit);
+    tokens.ifPresent(7, rxd::rxd_7_prescriptionNumber);
+    rxd.rawFields(tokens.rawFields());
     return rxd.build();
   }
 }
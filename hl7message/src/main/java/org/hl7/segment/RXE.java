@@ -1,15 +1,19 @@
 package org.hl7.segment;
 
-import static org.hl7.segment.datatype.IComponent.CARET;
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.jackson.Jacksonized;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hl7.id.IdType;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.segment.datatype.CodedElement;
 
+import java.io.IOException;
+
 /**
  * RXE segment of an HL7 message.
  *
@@ -20,10 +24,14 @@ import org.hl7.segment.datatype.CodedElement;
 @Builder(toBuilder = true)
 @Jacksonized
 public class RXE implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   @Builder.Default
   private String rxe_2_1_drugNdc = RandomStringUtils.randomNumeric(11);
   @Builder.Default
-  private String rxe_2_2_drugName = "Default RXE.2.2 medication name. Msg fails without this.";
+  private String rxe_2_2_drugName = DEFAULT_DRUG_NAME;
   @Builder.Default
   private String rxe_3_giveAmountMinimum = EMPTY;
   @Builder.Default
@@ -35,7 +43,7 @@ public class RXE implements ISegment {
   @Builder.Default
   private String rxe_10_dispenseAmount = EMPTY;
   @Builder.Default
-  private String rxe_15_prescriptionNumber = RandomStringUtils.randomNumeric(5);
+  private String rxe_15_prescriptionNumber = IdType.PRESCRIPTION_NUMBER.next();
   @Builder.Default
   private CodedElement rxe_27_giveIndication = CodedElement.builder().build();
   @Builder.Default
@@ -47,41 +55,89 @@ public class RXE implements ISegment {
   private final String rxe_35_controlledSubstanceSchedule = EMPTY;
 
   public static final String segmentId = "RXE";
+  /**
+   * Drug name of RXE segments built without one.
+   */
+  public static final String DEFAULT_DRUG_NAME = "Default RXE.2.2 medication name. Msg fails without this.";
+  private static final long MODELED_FIELDS = RawFields.positions(2, 3, 5, 6, 7, 10, 15, 25, 26, 27, 35);
+
+  @Override
+  public RXE copy() {
+    return toBuilder().build();
+  }
 
   @Override
   public String print() {
-    return segmentId + "||" + rxe_2_1_drugNdc + "^" + rxe_2_2_drugName + "^||||" + rxe_6_giveDosageForm + "|^"
-        + rxe_7_adminInstructionsText + "|||" + rxe_10_dispenseAmount + "|||||" + rxe_15_prescriptionNumber + "||||||||||"
-        + rxe_25_giveStrength + "|" + rxe_26_giveStrengthUnit + "|"
-        + rxe_27_giveIndication.print() + "||||||||" + rxe_35_controlledSubstanceSchedule + "|||||||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append("||")
+        .append(rxe_2_1_drugNdc)
+        .append('^')
+        .append(Hl7Escaping.escape(rxe_2_2_drugName))
+        .append("^|")
+        .append(rxe_3_giveAmountMinimum)
+        .append("||")
+        .append(rxe_5_giveUnits)
+        .append('|')
+        .append(rxe_6_giveDosageForm)
+        .append("|^")
+        .append(Hl7Escaping.escape(rxe_7_adminInstructionsText))
+        .append("|||")
+        .append(rxe_10_dispenseAmount)
+        .append("|||||")
+        .append(rxe_15_prescriptionNumber)
+        .append("||||||||||")
+        .append(rxe_25_giveStrength)
+        .append('|')
+        .append(rxe_26_giveStrengthUnit)
+        .append('|');
+    rxe_27_giveIndication.printTo(out);
+    out.append("||||||||")
+        .append(rxe_35_controlledSubstanceSchedule)
+        .append("|||||||||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static RXE fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!fields[0].equals(segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static RXE fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     RXEBuilder rxe = RXE.builder();
-    getField(fields, 2).ifPresent(field -> {
-      String[] subFields = field.split("\\".concat(CARET));
-      rxe.rxe_2_1_drugNdc(subFields[0])
-          .rxe_2_2_drugName(subFields[1]);
-    });
-    getField(fields, 3).ifPresent(rxe::rxe_3_giveAmountMinimum);
-    getField(fields, 5).ifPresent(rxe::rxe_5_giveUnits);
-    getField(fields, 6).ifPresent(rxe::rxe_6_giveDosageForm);
-    getField(fields, 7).map(field -> field.split("\\".concat(CARET))[1]).ifPresent(rxe::rxe_7_adminInstructionsText);
-    getField(fields, 10).ifPresent(rxe::rxe_10_dispenseAmount);
-    getField(fields, 15).ifPresent(rxe::rxe_15_prescriptionNumber);
-    getField(fields, 25).ifPresent(rxe::rxe_25_giveStrength);
-    getField(fields, 26).ifPresent(rxe::rxe_26_giveStrengthUnit);
-    getField(fields, 27).map(CodedElement::fromString).ifPresent(rxe::rxe_27_giveIndication);
-    getField(fields, 35).ifPresent(rxe::rxe_35_controlledSubstanceSchedule);
+    tokens.ifPresent(2, 0, rxe::rxe_2_1_drugNdc);
+    tokens.ifPresentText(2, 1, rxe::rxe_2_2_drugName);
+    tokens.ifPresent(3, rxe::rxe_3_giveAmountMinimum);
+    tokens.ifPresent(5, rxe::rxe_5_giveUnits);
+    tokens.ifPresent(6, rxe::rxe_6_giveDosageForm);
+    tokens.ifPresentText(7, 1, rxe::rxe_7_adminInstructionsText);
+    tokens.ifPresent(10, rxe::rxe_10_dispenseAmount);
+    tokens.ifPresent(15, rxe::rxe_15_prescriptionNumber);
+    tokens.ifPresent(25, rxe::rxe_25_giveStrength);
+    tokens.ifPresent(26, rxe::rxe_26_giveStrengthUnit);
+    if (tokens.hasField(27)) {
+      rxe.rxe_27_giveIndication(CodedElement.fromTokens(tokens, 27));
+    }
+    tokens.ifPresent(35, rxe::rxe_35_controlledSubstanceSchedule);
+    rxe.rawFields(tokens.rawFields());
     return rxe.build();
   }
 }
@@ -1,12 +1,15 @@
 package org.hl7.segment;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.segment.datatype.CodedElement;
 
+import java.io.IOException;
+
 /**
  * RXO segment of an HL7 message.
  *
@@ -16,31 +19,67 @@ import org.hl7.segment.datatype.CodedElement;
 @Builder(toBuilder = true)
 @Jacksonized
 public class RXO implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   @Builder.Default
   private CodedElement rxo_1_requestGiveCode = CodedElement.builder().build();
   @Builder.Default
   private CodedElement rxo_20_indication = CodedElement.builder().build();
 
   public static final String segmentId = "RXO";
+  private static final long MODELED_FIELDS = RawFields.positions(1, 20);
+
+  @Override
+  public RXO copy() {
+    return toBuilder().build();
+  }
 
   @Override
   public String print() {
-    return segmentId + "|" + rxo_1_requestGiveCode.print() + "|||||||||||||||||||" + rxo_20_indication.print() + "||||||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append('|');
+    rxo_1_requestGiveCode.printTo(out);
+    out.append("|||||||||||||||||||");
+    rxo_20_indication.printTo(out);
+    out.append("||||||||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static RXO fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!fields[0].equals(segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static RXO fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     RXOBuilder rxo = RXO.builder();
-    getField(fields, 1).map(CodedElement::fromString).ifPresent(rxo::rxo_1_requestGiveCode);
-    getField(fields, 20).map(CodedElement::fromString).ifPresent(rxo::rxo_20_indication);
+    if (tokens.hasField(1)) {
+      rxo.rxo_1_requestGiveCode(CodedElement.fromTokens(tokens, 1));
+    }
+    if (tokens.hasField(20)) {
+      rxo.rxo_20_indication(CodedElement.fromTokens(tokens, 20));
+    }
+    rxo.rawFields(tokens.rawFields());
     return rxo.build();
   }
 }
@@ -1,12 +1,15 @@
 package org.hl7.segment;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.segment.datatype.CodedElement;
 
+import java.io.IOException;
+
 /**
  * RXR segment of an HL7 message.
  *
@@ -16,27 +19,59 @@ import org.hl7.segment.datatype.CodedElement;
 @Builder(toBuilder = true)
 @Jacksonized
 public class RXR implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   public static final String segmentId = "RXR";
+  private static final long MODELED_FIELDS = RawFields.positions(1);
   @Builder.Default
   private CodedElement rxr_1_route = CodedElement.builder().build();
 
+  @Override
+  public RXR copy() {
+    return toBuilder().build();
+  }
+
   @Override
   public String print() {
-    return segmentId + "|" + rxr_1_route.print() + "|||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append('|');
+    rxr_1_route.printTo(out);
+    out.append("|||||");
   }
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static RXR fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!fields[0].equals(segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static RXR fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     RXRBuilder rxr = RXR.builder();
-    getField(fields, 1).map(CodedElement::fromString).ifPresent(rxr::rxr_1_route);
+    if (tokens.hasField(1)) {
+      rxr.rxr_1_route(CodedElement.fromTokens(tokens, 1));
+    }
+    rxr.rawFields(tokens.rawFields());
     return rxr.build();
   }
 }
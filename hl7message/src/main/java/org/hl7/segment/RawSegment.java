@@ -0,0 +1,49 @@
+package org.hl7.segment;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.jackson.Jacksonized;
+
+import java.io.IOException;
+
+/**
+ * Segment that is kept as raw text, e.g. NTE, AL1 or OBX segments that have no segment class and no parser registered
+ * in the {@link org.hl7.SegmentRegistry}. The segment is printed back exactly as it was read.
+ */
+@Getter
+@Builder(toBuilder = true)
+@Jacksonized
+public class RawSegment implements ISegment {
+  @NonNull
+  private final String segmentId;
+  @NonNull
+  private final String value;
+
+  /**
+   * Wraps the given segment, without segment terminator. The segment id is the text up to the first field separator.
+   */
+  public static RawSegment of(@NonNull String segment) {
+    int idEnd = segment.indexOf('|');
+    String segmentId = idEnd < 0 ? segment : segment.substring(0, idEnd);
+    return new RawSegment(segmentId, segment);
+  }
+
+  /**
+   * Returns this segment. Raw segments are immutable and can be shared between messages.
+   */
+  @Override
+  public RawSegment copy() {
+    return this;
+  }
+
+  @Override
+  public String print() {
+    return value;
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    out.append(value);
+  }
+}
@@ -0,0 +1,25 @@
+package org.hl7.segment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Helpers shared by the segment classes.
+ */
+final class Segments {
+  private Segments() {
+  }
+
+  /**
+   * Returns what the segment prints with {@link ISegment#printTo(Appendable)}.
+   */
+  static String print(ISegment segment) {
+    StringBuilder sb = new StringBuilder(128);
+    try {
+      segment.printTo(sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return sb.toString();
+  }
+}
@@ -1,13 +1,16 @@
 package org.hl7.segment;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -21,7 +24,12 @@ import java.util.List;
 @Builder(toBuilder = true)
 @Jacksonized
 public class TQ1 implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   public static final String segmentId = "TQ1";
+  private static final long MODELED_FIELDS = RawFields.positions(1, 2, 3, 4, 7, 8, 9, 11, 12);
   @NonNull
   private final String tq1_1_setId;
   @Builder.Default
@@ -45,34 +53,73 @@ public class TQ1 implements ISegment {
    * Converts String to object that implements ISegment.
    */
   public static TQ1 fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!fields[0].equals(segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static TQ1 fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     TQ1Builder tq1 = TQ1.builder();
 
     // required fields
-    tq1.tq1_1_setId(getField(fields, 1).orElseThrow());
+    tq1.tq1_1_setId(tokens.requiredField(1));
 
     // optional fields
-    getField(fields, 2).ifPresent(tq1::tq1_2_quantity);
-    getField(fields, 3).ifPresent(tq1::tq1_3_repeatPattern);
-    getField(fields, 4).ifPresent(tq1::tq1_4_explicit_time);
-    getField(fields, 7).ifPresent(tq1::tq1_7_startDateTime);
-    getField(fields, 8).ifPresent(tq1::tq1_8_endDateTime);
-    getField(fields, 9).ifPresent(tq1::tq1_9_priority);
-    getField(fields, 11).ifPresent(tq1::tq1_11_admin_instructions);
-    getField(fields, 12).ifPresent(tq1::tq1_12_conjunction);
+    tokens.ifPresent(2, tq1::tq1_2_quantity);
+    tokens.ifPresent(3, tq1::tq1_3_repeatPattern);
+    tokens.ifPresent(4, tq1::tq1_4_explicit_time);
+    tokens.ifPresent(7, tq1::tq1_7_startDateTime);
+    tokens.ifPresent(8, tq1::tq1_8_endDateTime);
+    tokens.ifPresent(9, tq1::tq1_9_priority);
+    tokens.ifPresentText(11, tq1::tq1_11_admin_instructions);
+    tokens.ifPresent(12, tq1::tq1_12_conjunction);
+    tq1.rawFields(tokens.rawFields());
     return tq1.build();
   }
 
+  @Override
+  public TQ1 copy() {
+    return toBuilder().build();
+  }
+
   @Override
   public String print() {
-    return segmentId + "|" + tq1_1_setId + "|" + tq1_2_quantity + "|" + tq1_3_repeatPattern + "|" + tq1_4_explicit_time
-        + "|||" + tq1_7_startDateTime + "|" + tq1_8_endDateTime + "|" + tq1_9_priority + "||" + tq1_11_admin_instructions
-        + "|" + tq1_12_conjunction + "||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append('|')
+        .append(tq1_1_setId)
+        .append('|')
+        .append(tq1_2_quantity)
+        .append('|')
+        .append(tq1_3_repeatPattern)
+        .append('|')
+        .append(tq1_4_explicit_time)
+        .append("|||")
+        .append(tq1_7_startDateTime)
+        .append('|')
+        .append(tq1_8_endDateTime)
+        .append('|')
+        .append(tq1_9_priority)
+        .append("||")
+        .append(Hl7Escaping.escape(tq1_11_admin_instructions))
+        .append('|')
+        .append(tq1_12_conjunction)
+        .append("||");
   }
 
   /**
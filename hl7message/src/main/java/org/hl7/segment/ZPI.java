@@ -1,13 +1,16 @@
 package org.hl7.segment;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
-import org.apache.commons.lang3.RandomStringUtils;
+import org.hl7.id.IdType;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.segment.datatype.CodedElement;
 
+import java.io.IOException;
+
 /**
  * ZPI is a custom segment for some specific interfaces. Framework is a common user of this segment.
  */
@@ -15,7 +18,12 @@ import org.hl7.segment.datatype.CodedElement;
 @Builder(toBuilder = true)
 @Jacksonized
 public class ZPI implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   public static final String segmentId = "ZPI";
+  private static final long MODELED_FIELDS = RawFields.positions(11, 12, 17, 23, 24, 25, 30, 33, 34);
   @Builder.Default
   private String zpi_11_timesPerDay = "";
   @Builder.Default
@@ -33,35 +41,75 @@ public class ZPI implements ISegment {
   @Builder.Default
   private String zpi_33_startDate = "";
   @Builder.Default
-  private String zpi_34_rxNumber = RandomStringUtils.randomNumeric(5);
+  private String zpi_34_rxNumber = IdType.RX_NUMBER.next();
 
   /**
    * Converts String to object that implements ISegment.
    */
   public static ZPI fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!fields[0].equals(segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static ZPI fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     ZPIBuilder zpi = ZPI.builder();
-    getField(fields, 11).ifPresent(zpi::zpi_11_timesPerDay);
-    getField(fields, 12).ifPresent(zpi::zpi_12_prescribedDate);
-    getField(fields, 17).ifPresent(zpi::zpi_17_dispensePartialStatus);
-    getField(fields, 23).map(CodedElement::fromString).ifPresent(zpi::zpi_23_orderRequestId);
-    getField(fields, 24).ifPresent(zpi::zpi_24_isPrn);
-    getField(fields, 25).ifPresent(zpi::zpi_25_linkedReorderNumber);
-    getField(fields, 30).ifPresent(zpi::zpi_30_explicitTime);
-    getField(fields, 33).ifPresent(zpi::zpi_33_startDate);
-    getField(fields, 34).ifPresent(zpi::zpi_34_rxNumber);
+    tokens.ifPresent(11, zpi::zpi_11_timesPerDay);
+    tokens.ifPresent(12, zpi::zpi_12_prescribedDate);
+    tokens.ifPresent(17, zpi::zpi_17_dispensePartialStatus);
+    if (tokens.hasField(23)) {
+      zpi.zpi_23_orderRequestId(CodedElement.fromTokens(tokens, 23));
+    }
+    tokens.ifPresent(24, zpi::zpi_24_isPrn);
+    tokens.ifPresent(25, zpi::zpi_25_linkedReorderNumber);
+    tokens.ifPresent(30, zpi::zpi_30_explicitTime);
+    tokens.ifPresent(33, zpi::zpi_33_startDate);
+    tokens.ifPresent(34, zpi::zpi_34_rxNumber);
+    zpi.rawFields(tokens.rawFields());
     return zpi.build();
   }
 
+  @Override
+  public ZPI copy() {
+    return toBuilder().build();
+  }
+
   @Override
   public String print() {
-    return segmentId + "|||||||||||" + zpi_11_timesPerDay + "|" + zpi_12_prescribedDate + "|||||"
-        + zpi_17_dispensePartialStatus + "||||||" + zpi_23_orderRequestId.print() + "|" + zpi_24_isPrn + "|"
-        + zpi_25_linkedReorderNumber + "|||||" + zpi_30_explicitTime + "|||" + zpi_33_startDate + "|" + zpi_34_rxNumber;
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append("|||||||||||")
+        .append(zpi_11_timesPerDay)
+        .append('|')
+        .append(zpi_12_prescribedDate)
+        .append("|||||")
+        .append(zpi_17_dispensePartialStatus)
+        .append("||||||");
+    zpi_23_orderRequestId.printTo(out);
+    out.append('|')
+        .append(zpi_24_isPrn)
+        .append('|')
+        .append(zpi_25_linkedReorderNumber)
+        .append("|||||")
+        .append(zpi_30_explicitTime)
+        .append("|||")
+        .append(zpi_33_startDate)
+        .append('|')
+        .append(zpi_34_rxNumber);
   }
 }
@@ -1,13 +1,14 @@
 package org.hl7.segment;
 
-import static org.hl7.segment.ISegment.PIPE;
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 
-import java.util.Objects;
+import java.io.IOException;
 
 /**
  * ZQM is a custom segment for some specific interfaces.
@@ -15,8 +16,13 @@ import java.util.Objects;
 @Getter
 @Builder(toBuilder = true)
 @Jacksonized
-public class ZQM {
+public class ZQM implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   public static final String segmentId = "ZQM";
+  private static final long MODELED_FIELDS = RawFields.positions(3, 6, 9, 10);
 
   @Builder.Default
   private String zqm_3_barCode = "";
@@ -31,22 +37,53 @@ public class ZQM {
    * Converts String to object that implements ISegment.
    */
   public static ZQM fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!Objects.equals(fields[0], segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static ZQM fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     ZQMBuilder zqm = ZQM.builder();
-    getField(fields, 3).ifPresent(zqm::zqm_3_barCode);
-    getField(fields, 6).ifPresent(zqm::zqm_6_vitalList);
-    getField(fields, 9).ifPresent(zqm::zqm_9_isSelfAdminOrSlidingScale);
-    getField(fields, 10).ifPresent(zqm::zqm_10_brandNameEquivalent);
+    tokens.ifPresent(3, zqm::zqm_3_barCode);
+    tokens.ifPresent(6, zqm::zqm_6_vitalList);
+    tokens.ifPresent(9, zqm::zqm_9_isSelfAdminOrSlidingScale);
+    tokens.ifPresentText(10, zqm::zqm_10_brandNameEquivalent);
+    zqm.rawFields(tokens.rawFields());
     return zqm.build();
   }
 
+  @Override
+  public ZQM copy() {
+    return toBuilder().build();
+  }
+
+  @Override
   public String print() {
-    return segmentId + "|||" + zqm_3_barCode + "|||" + zqm_6_vitalList + "|||" + zqm_9_isSelfAdminOrSlidingScale
-        + "|" + zqm_10_brandNameEquivalent + "||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append("|||")
+        .append(zqm_3_barCode)
+        .append("|||")
+        .append(zqm_6_vitalList)
+        .append("|||")
+        .append(zqm_9_isSelfAdminOrSlidingScale)
+        .append('|')
+        .append(Hl7Escaping.escape(zqm_10_brandNameEquivalent))
+        .append("||");
   }
 }
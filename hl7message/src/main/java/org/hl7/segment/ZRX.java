@@ -1,13 +1,13 @@
 package org.hl7.segment;
 
-import static org.hl7.segment.ISegment.PIPE;
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.RawFields;
+import org.hl7.parser.SegmentTokenizer;
 
-import java.util.Objects;
+import java.io.IOException;
 
 /**
  * ZRX is a custom segment for some specific interfaces.
@@ -15,8 +15,13 @@ import java.util.Objects;
 @Getter
 @Builder(toBuilder = true)
 @Jacksonized
-public class ZRX {
+public class ZRX implements ISegment {
+  // original text of the segment, only kept when parsed with Hl7Parser.retainRawFields
+  @Getter(AccessLevel.NONE)
+  private final RawFields rawFields;
+
   public static final String segmentId = "ZRX";
+  private static final long MODELED_FIELDS = RawFields.positions(1, 3, 4);
 
   @Builder.Default
   private String zrx_1_dispenseCode = "";
@@ -29,21 +34,50 @@ public class ZRX {
    * Converts String to object that implements ISegment.
    */
   public static ZRX fromString(String segment) {
-    String[] fields = segment.split("\\".concat(PIPE), -1);
+    return fromTokens(SegmentTokenizer.local().tokenize(segment));
+  }
 
-    if (!Objects.equals(fields[0], segmentId)) {
-      throw new IllegalArgumentException("Invalid message segment [" + fields[0] + "]. Expected [" + segmentId + "]");
-    }
+  /**
+   * Converts tokenized segment to object that implements ISegment.
+   */
+  public static ZRX fromTokens(SegmentTokenizer tokens) {
+    tokens.expectSegment(segmentId);
 
     ZRX.ZRXBuilder zrx = ZRX.builder();
-    getField(fields, 1).ifPresent(zrx::zrx_1_dispenseCode);
-    getField(fields, 3).ifPresent(zrx::zrx_3_patientChargeCode);
-    getField(fields, 4).ifPresent(zrx::zrx_4_retailPharmacyOriginalDate);
+    tokens.ifPresent(1, zrx::zrx_1_dispenseCode);
+    tokens.ifPresent(3, zrx::zrx_3_patientChargeCode);
+    tokens.ifPresent(4, zrx::zrx_4_retailPharmacyOriginalDate);
+    zrx.rawFields(tokens.rawFields());
     return zrx.build();
   }
 
+  @Override
+  public ZRX copy() {
+    return toBuilder().build();
+  }
+
+  @Override
   public String print() {
-    return segmentId + "|" + zrx_1_dispenseCode + "||" + zrx_3_patientChargeCode + "|" + zrx_4_retailPharmacyOriginalDate
-        + "||||||||";
+    return Segments.print(this);
+  }
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    if (rawFields == null) {
+      printFields(out);
+    } else {
+      rawFields.printTo(MODELED_FIELDS, this::printFields, out);
+    }
+  }
+
+  private void printFields(Appendable out) throws IOException {
+    out.append(segmentId)
+        .append('|')
+        .append(zrx_1_dispenseCode)
+        .append("||")
+        .append(zrx_3_patientChargeCode)
+        .append('|')
+        .append(zrx_4_retailPharmacyOriginalDate)
+        .append("||||||||");
   }
 }
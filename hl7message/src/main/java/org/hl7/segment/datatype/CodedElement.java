@@ -1,12 +1,13 @@
 package org.hl7.segment.datatype;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.utils.Hl7MsgUtils;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 
 /**
@@ -26,8 +27,8 @@ public class CodedElement implements IComponent {
   private String system = "";
 
   @Override
-  public String print() {
-    return Hl7MsgUtils.getCompositeFieldString(id, text, system);
+  public void printTo(Appendable out) throws IOException {
+    Hl7MsgUtils.appendCompositeField(out, id, Hl7Escaping.escape(text), system);
   }
 
   @Override
@@ -39,11 +40,17 @@ public class CodedElement implements IComponent {
    * Converts String to CodedElement object.
    */
   public static CodedElement fromString(String component) {
-    String[] fields = component.split("\\".concat(CARET), -1);
+    return fromTokens(new SegmentTokenizer().tokenize(component), 0);
+  }
+
+  /**
+   * Converts a field of a tokenized segment to CodedElement object.
+   */
+  public static CodedElement fromTokens(SegmentTokenizer tokens, int field) {
     CodedElementBuilder codedElement = CodedElement.builder();
-    getField(fields, 0).ifPresent(codedElement::id);
-    getField(fields, 1).ifPresent(codedElement::text);
-    getField(fields, 2).ifPresent(codedElement::system);
+    tokens.ifPresent(field, 0, codedElement::id);
+    tokens.ifPresentText(field, 1, codedElement::text);
+    tokens.ifPresent(field, 2, codedElement::system);
     return codedElement.build();
   }
 }
@@ -0,0 +1,56 @@
+package org.hl7.segment.datatype;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.utils.Hl7MsgUtils;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * This data type is called 'CX (Extended Composite ID with Check Digit)'. The assigning authority is kept as a whole,
+ * including its subcomponents.
+ *
+ * @see <a href="https://hl7-definition.caristix.com/v2/HL7v2.5.1/DataTypes/CX">Standard hl7 v2.5 spec - Data type CX</a>
+ */
+@Getter
+@Builder(toBuilder = true)
+@Jacksonized
+public class ExtendedCompositeId implements IComponent {
+  @Builder.Default
+  private String idNumber = "";
+  @Builder.Default
+  private String assigningAuthority = "";
+  @Builder.Default
+  private String identifierTypeCode = "";
+
+  @Override
+  public void printTo(Appendable out) throws IOException {
+    Hl7MsgUtils.appendCompositeField(out, idNumber, "", "", assigningAuthority, identifierTypeCode);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return Stream.of(idNumber, assigningAuthority, identifierTypeCode).allMatch(String::isBlank);
+  }
+
+  /**
+   * Converts String to CX (Extended Composite ID with Check Digit) object.
+   */
+  public static ExtendedCompositeId fromString(String component) {
+    return fromTokens(new SegmentTokenizer().tokenize(component), 0);
+  }
+
+  /**
+   * Converts a field of a tokenized segment to ExtendedCompositeId object.
+   */
+  public static ExtendedCompositeId fromTokens(SegmentTokenizer tokens, int field) {
+    ExtendedCompositeIdBuilder extendedCompositeId = ExtendedCompositeId.builder();
+    tokens.ifPresent(field, 0, extendedCompositeId::idNumber);
+    tokens.ifPresent(field, 3, extendedCompositeId::assigningAuthority);
+    tokens.ifPresent(field, 4, extendedCompositeId::identifierTypeCode);
+    return extendedCompositeId.build();
+  }
+}
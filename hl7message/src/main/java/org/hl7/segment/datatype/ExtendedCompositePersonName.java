@@ -1,12 +1,13 @@
 package org.hl7.segment.datatype;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.utils.Hl7MsgUtils;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 
 /**
@@ -26,8 +27,8 @@ public class ExtendedCompositePersonName implements IComponent {
   private String givenName = "";
 
   @Override
-  public String print() {
-    return Hl7MsgUtils.getCompositeFieldString(idNumber, familyName, givenName);
+  public void printTo(Appendable out) throws IOException {
+    Hl7MsgUtils.appendCompositeField(out, idNumber, Hl7Escaping.escape(familyName), Hl7Escaping.escape(givenName));
   }
 
   @Override
@@ -39,11 +40,17 @@ public class ExtendedCompositePersonName implements IComponent {
    * Converts String to XCN (Extended Composite ID Number and Name for Persons) object.
    */
   public static ExtendedCompositePersonName fromString(String component) {
-    String[] fields = component.split("\\".concat(CARET), -1);
+    return fromTokens(new SegmentTokenizer().tokenize(component), 0);
+  }
+
+  /**
+   * Converts a field of a tokenized segment to ExtendedCompositePersonName object.
+   */
+  public static ExtendedCompositePersonName fromTokens(SegmentTokenizer tokens, int field) {
     ExtendedCompositePersonNameBuilder extendedCompositePerson = ExtendedCompositePersonName.builder();
-    getField(fields, 0).ifPresent(extendedCompositePerson::idNumber);
-    getField(fields, 1).ifPresent(extendedCompositePerson::familyName);
-    getField(fields, 2).ifPresent(extendedCompositePerson::givenName);
+    tokens.ifPresent(field, 0, extendedCompositePerson::idNumber);
+    tokens.ifPresentText(field, 1, extendedCompositePerson::familyName);
+    tokens.ifPresentText(field, 2, extendedCompositePerson::givenName);
     return extendedCompositePerson.build();
   }
 }
@@ -1,12 +1,13 @@
 package org.hl7.segment.datatype;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.utils.Hl7MsgUtils;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 
 /**
@@ -24,8 +25,8 @@ public class ExtendedPersonName implements IComponent {
   private String givenName = "";
 
   @Override
-  public String print() {
-    return Hl7MsgUtils.getCompositeFieldString(familyName, givenName);
+  public void printTo(Appendable out) throws IOException {
+    Hl7MsgUtils.appendCompositeField(out, Hl7Escaping.escape(familyName), Hl7Escaping.escape(givenName));
   }
 
   @Override
@@ -37,10 +38,16 @@ public class ExtendedPersonName implements IComponent {
    * Converts String to XCN (Extended Composite ID Number and Name for Persons) object.
    */
   public static ExtendedPersonName fromString(String component) {
-    String[] fields = component.split("\\".concat(CARET), -1);
+    return fromTokens(new SegmentTokenizer().tokenize(component), 0);
+  }
+
+  /**
+   * Converts a field of a tokenized segment to ExtendedPersonName object.
+   */
+  public static ExtendedPersonName fromTokens(SegmentTokenizer tokens, int field) {
     ExtendedPersonName.ExtendedPersonNameBuilder extendedPersonName = ExtendedPersonName.builder();
-    getField(fields, 0).ifPresent(extendedPersonName::familyName);
-    getField(fields, 1).ifPresent(extendedPersonName::givenName);
+    tokens.ifPresentText(field, 0, extendedPersonName::familyName);
+    tokens.ifPresentText(field, 1, extendedPersonName::givenName);
     return extendedPersonName.build();
   }
 }
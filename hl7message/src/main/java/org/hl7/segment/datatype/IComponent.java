@@ -1,9 +1,28 @@
 package org.hl7.segment.datatype;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public interface IComponent {
   String CARET = "^";
 
-  String print();
+  /**
+   * Returns the component as a String.
+   */
+  default String print() {
+    StringBuilder sb = new StringBuilder(32);
+    try {
+      printTo(sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Appends the component to the given Appendable.
+   */
+  void printTo(Appendable out) throws IOException;
 
   boolean isEmpty();
 }
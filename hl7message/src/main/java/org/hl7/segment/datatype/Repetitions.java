@@ -0,0 +1,232 @@
+package org.hl7.segment.datatype;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.hl7.parser.Hl7Escaping;
+import org.hl7.parser.SegmentTokenizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Indexable view of a repeating field, e.g. {@code 775908^^^MRN~123-45-6789^^^SSN}. A parsed field is kept as its text
+ * and split on the repetition separator the first time it is accessed; a repetition is decoded the first time it is
+ * read and cached afterwards. {@link #raw(int)} returns the text of a repetition without decoding it.
+ *
+ * <p>Parsed repetitions are printed from their original text, repetitions created from values are printed from the
+ * values. Instances are immutable and can be shared between threads.
+ */
+public final class Repetitions<T extends IComponent> implements Iterable<T> {
+  private static final Repetitions<?> EMPTY = new Repetitions<>(null, null, new AtomicReferenceArray<>(0));
+
+  // repetitions are tokenized in place, on a tokenizer separate from the one parsing the segment
+  private static final ThreadLocal<SegmentTokenizer> TOKENIZER = ThreadLocal.withInitial(SegmentTokenizer::new);
+
+  private final String field;
+  private final Decoder<T> decoder;
+  // end offset of every repetition in field, split on first access
+  private volatile int[] ends;
+  // decoded repetitions, an entry is null until read; the atomic slots publish decoded values safely
+  private volatile AtomicReferenceArray<Object> values;
+
+  private Repetitions(String field, Decoder<T> decoder, AtomicReferenceArray<Object> values) {
+    this.field = field;
+    this.decoder = decoder;
+    this.values = values;
+  }
+
+  /**
+   * Returns a view of the given field, in the standard encoding. Repetitions are decoded with the given decoder, which
+   * is passed a tokenizer holding the repetition as field 0, e.g. {@code ExtendedCompositeId::fromTokens}.
+   */
+  public static <T extends IComponent> Repetitions<T> parse(String field, Decoder<T> decoder) {
+    if (field == null || field.isEmpty()) {
+      return empty();
+    }
+    return new Repetitions<>(field, decoder, null);
+  }
+
+  @SafeVarargs
+  public static <T extends IComponent> Repetitions<T> of(T... values) {
+    if (values.length == 0) {
+      return empty();
+    }
+    return new Repetitions<>(null, null, new AtomicReferenceArray<>(Arrays.copyOf(values, values.length, Object[].class)));
+  }
+
+  @JsonCreator
+  public static <T extends IComponent> Repetitions<T> of(List<T> values) {
+    return values.isEmpty() ? empty() : new Repetitions<>(null, null, new AtomicReferenceArray<>(values.toArray()));
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T extends IComponent> Repetitions<T> empty() {
+    return (Repetitions<T>) EMPTY;
+  }
+
+  public int size() {
+    return field == null ? values.length() : ends().length;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Returns the repetition at the given 0-based index, decoding it on first access.
+   *
+   * @throws IndexOutOfBoundsException if there is no such repetition
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    AtomicReferenceArray<Object> decoded = values();
+    Object value = decoded.get(Objects.checkIndex(index, decoded.length()));
+    if (value == null) {
+      // racing threads decode the same text into equal values, the first one cached is kept
+      int[] ends = ends();
+      value = decoder.decode(TOKENIZER.get().tokenize(field, start(ends, index), ends[index]), 0);
+      Object cached = decoded.compareAndExchange(index, null, value);
+      if (cached != null) {
+        value = cached;
+      }
+    }
+    return (T) value;
+  }
+
+  /**
+   * Returns the first repetition, or null if there is none.
+   */
+  public T first() {
+    return isEmpty() ? null : get(0);
+  }
+
+  /**
+   * Returns the text of the repetition at the given index, in the standard encoding, without decoding it.
+   *
+   * @throws IndexOutOfBoundsException if there is no such repetition
+   */
+  public String raw(int index) {
+    if (field != null) {
+      int[] ends = ends();
+      Objects.checkIndex(index, ends.length);
+      return field.substring(start(ends, index), ends[index]);
+    }
+    return get(index).print();
+  }
+
+  /**
+   * Returns all repetitions, decoding the ones not read yet.
+   */
+  @JsonValue
+  public List<T> toList() {
+    int size = size();
+    List<T> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(get(i));
+    }
+    return list;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    int size = size();
+    return new Iterator<>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return get(next++);
+      }
+    };
+  }
+
+  /**
+   * Appends the repetitions, separated by the repetition separator.
+   */
+  public void printTo(Appendable out) throws IOException {
+    if (field != null) {
+      out.append(field);
+      return;
+    }
+    for (int i = 0; i < values.length(); i++) {
+      if (i > 0) {
+        out.append(Hl7Escaping.REPETITION_SEPARATOR);
+      }
+      get(i).printTo(out);
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (field != null) {
+      return field;
+    }
+    StringBuilder sb = new StringBuilder();
+    try {
+      printTo(sb);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return sb.toString();
+  }
+
+  private int[] ends() {
+    int[] split = ends;
+    if (split == null) {
+      split = splitEnds(field);
+      ends = split;
+    }
+    return split;
+  }
+
+  private AtomicReferenceArray<Object> values() {
+    AtomicReferenceArray<Object> decoded = values;
+    if (decoded == null) {
+      decoded = new AtomicReferenceArray<>(ends().length);
+      values = decoded;
+    }
+    return decoded;
+  }
+
+  private static int start(int[] ends, int index) {
+    return index == 0 ? 0 : ends[index - 1] + 1;
+  }
+
+  private static int[] splitEnds(String field) {
+    int[] ends = new int[4];
+    int count = 0;
+    int pos = field.indexOf(Hl7Escaping.REPETITION_SEPARATOR);
+    while (pos >= 0) {
+      if (count == ends.length) {
+        ends = Arrays.copyOf(ends, count * 2);
+      }
+      ends[count++] = pos;
+      pos = field.indexOf(Hl7Escaping.REPETITION_SEPARATOR, pos + 1);
+    }
+    ends = Arrays.copyOf(ends, count + 1);
+    ends[count] = field.length();
+    return ends;
+  }
+
+  /**
+   * Decodes a repetition from field {@code field} of a tokenizer, the signature of the datatype fromTokens methods.
+   */
+  @FunctionalInterface
+  public interface Decoder<T> {
+    T decode(SegmentTokenizer tokens, int field);
+  }
+}
@@ -1,12 +1,12 @@
 package org.hl7.segment.datatype;
 
-import static org.hl7.utils.Hl7MsgUtils.getField;
-
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.jackson.Jacksonized;
+import org.hl7.parser.SegmentTokenizer;
 import org.hl7.utils.Hl7MsgUtils;
 
+import java.io.IOException;
 import java.util.stream.Stream;
 
 /**
@@ -32,8 +32,8 @@ public class TimingQuantity implements IComponent {
   private String priority = "";
 
   @Override
-  public String print() {
-    return Hl7MsgUtils.getCompositeFieldString(quantity, interval, duration, startDateTime, endDateTime, priority);
+  public void printTo(Appendable out) throws IOException {
+    Hl7MsgUtils.appendCompositeField(out, quantity, interval, duration, startDateTime, endDateTime, priority);
   }
 
   @Override
@@ -45,14 +45,20 @@ public class TimingQuantity implements IComponent {
    * Converts String to TimingQuantity object.
    */
   public static TimingQuantity fromString(String component) {
-    String[] fields = component.split("\\".concat(CARET), -1);
+    return fromTokens(new SegmentTokenizer().tokenize(component), 0);
+  }
+
+  /**
+   * Converts a field of a tokenized segment to TimingQuantity object.
+   */
+  public static TimingQuantity fromTokens(SegmentTokenizer tokens, int field) {
     TimingQuantityBuilder timingQuantity = TimingQuantity.builder();
-    getField(fields, 0).ifPresent(timingQuantity::quantity);
-    getField(fields, 1).ifPresent(timingQuantity::interval);
-    getField(fields, 2).ifPresent(timingQuantity::duration);
-    getField(fields, 3).ifPresent(timingQuantity::startDateTime);
-    getField(fields, 4).ifPresent(timingQuantity::endDateTime);
-    getField(fields, 5).ifPresent(timingQuantity::priority);
+    tokens.ifPresent(field, 0, timingQuantity::quantity);
+    tokens.ifPresent(field, 1, timingQuantity::interval);
+    tokens.ifPresent(field, 2, timingQuantity::duration);
+    tokens.ifPresent(field, 3, timingQuantity::startDateTime);
+    tokens.ifPresent(field, 4, timingQuantity::endDateTime);
+    tokens.ifPresent(field, 5, timingQuantity::priority);
     return timingQuantity.build();
   }
 }
@@ -0,0 +1,82 @@
+package org.hl7.utils;
+
+import lombok.NonNull;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.zone.ZoneRules;
+
+/**
+ * Source of the current HL7 timestamp ({@code yyyyMMddHHmmss}) used to stamp messages, e.g. MSH.7. HL7 timestamps have
+ * one second precision, so the formatted value is cached and only formatted again when the second rolls over. The
+ * cache is refreshed lazily by the first caller of a new second, no background thread is involved. Instances are
+ * thread-safe.
+ *
+ * <p>Tests can replace the clock used by the library with {@link #setDefault(Hl7Clock)}.
+ */
+public final class Hl7Clock {
+  private static volatile Hl7Clock defaultClock = new Hl7Clock(Clock.systemDefaultZone());
+
+  private final Clock clock;
+  private final ZoneRules rules;
+  private volatile Tick last = new Tick(Long.MIN_VALUE, null);
+
+  private Hl7Clock(Clock clock) {
+    this.clock = clock;
+    this.rules = clock.getZone().getRules();
+  }
+
+  /**
+   * Returns an HL7 clock that reads the time from the given clock, in the clock's zone.
+   */
+  public static Hl7Clock of(@NonNull Clock clock) {
+    return new Hl7Clock(clock);
+  }
+
+  /**
+   * Returns the clock used by the library for all timestamps it generates.
+   */
+  public static Hl7Clock getDefault() {
+    return defaultClock;
+  }
+
+  /**
+   * Replaces the clock used by the library for all timestamps it generates.
+   */
+  public static void setDefault(@NonNull Hl7Clock clock) {
+    defaultClock = clock;
+  }
+
+  /**
+   * Resets the clock used by the library to the system clock in the system default zone.
+   */
+  public static void resetDefault() {
+    defaultClock = new Hl7Clock(Clock.systemDefaultZone());
+  }
+
+  /**
+   * Returns the current time formatted as HL7 timestamp.
+   */
+  public String now() {
+    long epochSecond = Math.floorDiv(clock.millis(), 1000);
+    Tick tick = last;
+    if (tick.epochSecond != epochSecond) {
+      Instant instant = Instant.ofEpochSecond(epochSecond);
+      LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, rules.getOffset(instant));
+      tick = new Tick(epochSecond, Hl7DateUtils.formatToHl7(dateTime));
+      last = tick;
+    }
+    return tick.formatted;
+  }
+
+  private static final class Tick {
+    private final long epochSecond;
+    private final String formatted;
+
+    private Tick(long epochSecond, String formatted) {
+      this.epochSecond = epochSecond;
+      this.formatted = formatted;
+    }
+  }
+}
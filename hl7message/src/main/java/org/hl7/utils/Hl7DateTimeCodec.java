@@ -0,0 +1,261 @@
+package org.hl7.utils;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneRules;
+
+/**
+ * Hand-rolled codec for the HL7 TS/DTM format {@code YYYY[MM[DD[HH[MM[SS[.S[S[S[S]]]]]]]]][+/-ZZZZ]}. Values are
+ * parsed from any CharSequence (use {@link java.nio.CharBuffer#wrap(char[])} for char arrays) and formatted into char
+ * arrays without going through {@link java.time.format.DateTimeFormatter}.
+ *
+ * <p>The rules of the system default zone are resolved once and cached.
+ */
+public final class Hl7DateTimeCodec {
+  /**
+   * Maximum number of characters written by the format methods.
+   */
+  public static final int MAX_LENGTH = 24;
+
+  private static final ZoneId SYSTEM_ZONE = ZoneId.systemDefault();
+  private static final ZoneRules SYSTEM_RULES = SYSTEM_ZONE.getRules();
+
+  private Hl7DateTimeCodec() {
+  }
+
+  /**
+   * Precisions of the HL7 TS/DTM data type, with the number of characters of the value without offset.
+   */
+  public enum Precision {
+    YEAR(4),
+    MONTH(6),
+    DAY(8),
+    HOUR(10),
+    MINUTE(12),
+    SECOND(14),
+    /**
+     * Seconds with 4 fractional digits (1/10000 of a second).
+     */
+    FRACTION(19);
+
+    private final int length;
+
+    Precision(int length) {
+      this.length = length;
+    }
+
+    public int length() {
+      return length;
+    }
+  }
+
+  /**
+   * Formats the date time at the given precision.
+   */
+  public static String format(LocalDateTime dateTime, Precision precision) {
+    char[] chars = new char[precision.length];
+    format(dateTime, precision, chars, 0);
+    return new String(chars);
+  }
+
+  /**
+   * Writes the date time at the given precision into the array and returns the offset after the last written char.
+   *
+   * @throws DateTimeException if the year can not be written with 4 digits
+   */
+  public static int format(LocalDateTime dateTime, Precision precision, char[] dst, int offset) {
+    int year = dateTime.getYear();
+    if (year < 0 || year > 9999) {
+      throw new DateTimeException("Year " + year + " can not be formatted as HL7 date time");
+    }
+
+    int pos = offset;
+    pos = writeDigits(dst, pos, year / 100);
+    pos = writeDigits(dst, pos, year % 100);
+    if (precision.length >= Precision.MONTH.length) {
+      pos = writeDigits(dst, pos, dateTime.getMonthValue());
+    }
+    if (precision.length >= Precision.DAY.length) {
+      pos = writeDigits(dst, pos, dateTime.getDayOfMonth());
+    }
+    if (precision.length >= Precision.HOUR.length) {
+      pos = writeDigits(dst, pos, dateTime.getHour());
+    }
+    if (precision.length >= Precision.MINUTE.length) {
+      pos = writeDigits(dst, pos, dateTime.getMinute());
+    }
+    if (precision.length >= Precision.SECOND.length) {
+      pos = writeDigits(dst, pos, dateTime.getSecond());
+    }
+    if (precision == Precision.FRACTION) {
+      int fraction = dateTime.getNano() / 100_000;
+      dst[pos++] = '.';
+      pos = writeDigits(dst, pos, fraction / 100);
+      pos = writeDigits(dst, pos, fraction % 100);
+    }
+    return pos;
+  }
+
+  /**
+   * Writes the date time at the given precision followed by its offset ({@code +/-ZZZZ}) into the array and returns the
+   * offset after the last written char.
+   */
+  public static int format(OffsetDateTime dateTime, Precision precision, char[] dst, int offset) {
+    int pos = format(dateTime.toLocalDateTime(), precision, dst, offset);
+    int totalMinutes = dateTime.getOffset().getTotalSeconds() / 60;
+    dst[pos++] = totalMinutes < 0 ? '-' : '+';
+    totalMinutes = Math.abs(totalMinutes);
+    pos = writeDigits(dst, pos, totalMinutes / 60);
+    return writeDigits(dst, pos, totalMinutes % 60);
+  }
+
+  /**
+   * Writes the time as {@code HHmm} into the array and returns the offset after the last written char.
+   */
+  public static int formatHourMinute(int hour, int minute, char[] dst, int offset) {
+    return writeDigits(dst, writeDigits(dst, offset, hour), minute);
+  }
+
+  /**
+   * Parses a date time of any precision. Missing parts default to the start of the period and an offset, if present,
+   * is ignored.
+   *
+   * @throws DateTimeParseException if the value is not a valid HL7 date time
+   */
+  public static LocalDateTime parseLocalDateTime(CharSequence text) {
+    return parseLocalDateTime(text, 0, text.length());
+  }
+
+  /**
+   * Parses the date time between {@code start} (inclusive) and {@code end} (exclusive) of the given text.
+   *
+   * @throws DateTimeParseException if the value is not a valid HL7 date time
+   */
+  public static LocalDateTime parseLocalDateTime(CharSequence text, int start, int end) {
+    int digitsEnd = digitsEnd(text, start, end);
+    int fractionEnd = fractionEnd(text, digitsEnd, end);
+    if (fractionEnd < end) {
+      // validated, but not applied
+      parseOffset(text, start, fractionEnd, end);
+    }
+    return toLocalDateTime(text, start, digitsEnd, fractionEnd, end);
+  }
+
+  /**
+   * Parses a date time of any precision. The offset of the value is used if present, otherwise the offset of the system
+   * default zone at that date time.
+   *
+   * @throws DateTimeParseException if the value is not a valid HL7 date time
+   */
+  public static OffsetDateTime parseOffsetDateTime(CharSequence text) {
+    return parseOffsetDateTime(text, 0, text.length(), SYSTEM_ZONE);
+  }
+
+  /**
+   * Parses the date time between {@code start} (inclusive) and {@code end} (exclusive) of the given text, using the
+   * offset of the given zone when the value has none.
+   *
+   * @throws DateTimeParseException if the value is not a valid HL7 date time
+   */
+  public static OffsetDateTime parseOffsetDateTime(CharSequence text, int start, int end, ZoneId defaultZone) {
+    int digitsEnd = digitsEnd(text, start, end);
+    int fractionEnd = fractionEnd(text, digitsEnd, end);
+    LocalDateTime dateTime = toLocalDateTime(text, start, digitsEnd, fractionEnd, end);
+
+    if (fractionEnd < end) {
+      return OffsetDateTime.of(dateTime, parseOffset(text, start, fractionEnd, end));
+    }
+    ZoneRules rules = defaultZone == SYSTEM_ZONE ? SYSTEM_RULES : defaultZone.getRules();
+    return OffsetDateTime.of(dateTime, rules.getOffset(dateTime));
+  }
+
+  private static LocalDateTime toLocalDateTime(CharSequence text, int start, int digitsEnd, int fractionEnd, int end) {
+    int length = digitsEnd - start;
+    if (length < 4 || length > 14 || length % 2 != 0) {
+      throw error(text, start, end, "invalid precision");
+    }
+    if (fractionEnd > digitsEnd && length != 14) {
+      throw error(text, start, end, "fraction of a second requires seconds");
+    }
+
+    int year = number(text, start, 4);
+    int month = length >= 6 ? number(text, start + 4, 2) : 1;
+    int day = length >= 8 ? number(text, start + 6, 2) : 1;
+    int hour = length >= 10 ? number(text, start + 8, 2) : 0;
+    int minute = length >= 12 ? number(text, start + 10, 2) : 0;
+    int second = length >= 14 ? number(text, start + 12, 2) : 0;
+
+    int nanos = 0;
+    int scale = 100_000_000;
+    for (int i = digitsEnd + 1; i < fractionEnd; i++) {
+      nanos += (text.charAt(i) - '0') * scale;
+      scale /= 10;
+    }
+
+    try {
+      return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    } catch (DateTimeException e) {
+      throw error(text, start, end, e.getMessage());
+    }
+  }
+
+  private static ZoneOffset parseOffset(CharSequence text, int start, int offsetStart, int end) {
+    char sign = text.charAt(offsetStart);
+    if (end - offsetStart != 5 || sign != '+' && sign != '-' || digitsEnd(text, offsetStart + 1, end) != end) {
+      throw error(text, start, end, "invalid offset");
+    }
+    int hours = number(text, offsetStart + 1, 2);
+    int minutes = number(text, offsetStart + 3, 2);
+    try {
+      return sign == '+' ? ZoneOffset.ofHoursMinutes(hours, minutes) : ZoneOffset.ofHoursMinutes(-hours, -minutes);
+    } catch (DateTimeException e) {
+      throw error(text, start, end, e.getMessage());
+    }
+  }
+
+  private static int digitsEnd(CharSequence text, int start, int end) {
+    int pos = start;
+    while (pos < end && isDigit(text.charAt(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static int fractionEnd(CharSequence text, int digitsEnd, int end) {
+    if (digitsEnd >= end || text.charAt(digitsEnd) != '.') {
+      return digitsEnd;
+    }
+    int pos = digitsEnd(text, digitsEnd + 1, end);
+    if (pos == digitsEnd + 1 || pos - digitsEnd - 1 > 4) {
+      throw error(text, digitsEnd, end, "fraction of a second must have 1 to 4 digits");
+    }
+    return pos;
+  }
+
+  private static int number(CharSequence text, int start, int digits) {
+    int value = 0;
+    for (int i = start; i < start + digits; i++) {
+      value = value * 10 + text.charAt(i) - '0';
+    }
+    return value;
+  }
+
+  private static boolean isDigit(char ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  private static int writeDigits(char[] dst, int pos, int value) {
+    dst[pos] = (char) ('0' + value / 10);
+    dst[pos + 1] = (char) ('0' + value % 10);
+    return pos + 2;
+  }
+
+  private static DateTimeParseException error(CharSequence text, int start, int end, String reason) {
+    String value = text.subSequence(start, end).toString();
+    return new DateTimeParseException("Text '" + value + "' is not a valid HL7 date time: " + reason, value, 0);
+  }
+}
@@ -1,11 +1,11 @@
 package org.hl7.utils;
 
 import lombok.NonNull;
+import org.hl7.utils.Hl7DateTimeCodec.Precision;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 public final class Hl7DateUtils {
@@ -16,23 +16,34 @@ public final class Hl7DateUtils {
   public static final DateTimeFormatter MM_dd_yyyy_HHmm = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm");
 
   public static String formatToHl7(@NonNull LocalDateTime date) {
-    return formatLocalDateTime(date, HL7_SPEC_DATE_TIME_FORMAT);
+    return Hl7DateTimeCodec.format(date, Precision.SECOND);
   }
 
+  /**
+   * Formats the time as HHmm.
+   */
   public static String formatToHl7(@NonNull LocalTime time) {
-    return time.format(DateTimeFormatter.ofPattern("HHmm"));
+    char[] chars = new char[4];
+    Hl7DateTimeCodec.formatHourMinute(time.getHour(), time.getMinute(), chars, 0);
+    return new String(chars);
   }
 
   public static String formatLocalDateTime(@NonNull LocalDateTime date, DateTimeFormatter formatter) {
     return date.format(formatter);
   }
 
+  /**
+   * Reformats an HL7 date time of any precision with the given formatter.
+   */
   public static String formatFromHl7(@NonNull String hl7DateTimeValue, DateTimeFormatter formatter) {
-    return LocalDateTime.parse(hl7DateTimeValue, HL7_SPEC_DATE_TIME_FORMAT).format(formatter);
+    return Hl7DateTimeCodec.parseLocalDateTime(hl7DateTimeValue).format(formatter);
   }
 
+  /**
+   * Parses an HL7 date time of any precision. The offset of the value is used if present, otherwise the offset of the
+   * system default zone.
+   */
   public static OffsetDateTime formatFromHl7ToOffsetDateTime(@NonNull String hl7DateTimeValue) {
-    LocalDateTime localDateTIme = LocalDateTime.parse(hl7DateTimeValue, HL7_SPEC_DATE_TIME_FORMAT);
-    return OffsetDateTime.of(localDateTIme, ZoneId.systemDefault().getRules().getOffset(localDateTIme));
+    return Hl7DateTimeCodec.parseOffsetDateTime(hl7DateTimeValue);
   }
 }
@@ -3,14 +3,15 @@ package org.hl7.utils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.github.jacksonhelper.deserialize.DeserializeToObj;
-import org.github.jacksonhelper.serialize.SerializeToStr;
 import org.hl7.Hl7Message;
+import org.hl7.id.IdType;
+import org.hl7.segment.ISegment;
 import org.hl7.segment.TQ1;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -20,8 +21,48 @@ import java.util.stream.Collectors;
  */
 public final class Hl7MsgUtils {
 
+  /**
+   * Returns a deep copy of the given message. Every segment is copied, so segments of the copy can be modified
+   * without affecting the original message.
+   */
   public static Hl7Message copy(Hl7Message origMsg) {
-    return DeserializeToObj.fromString(SerializeToStr.toString(origMsg), Hl7Message.class);
+    List<TQ1> schedules = null;
+    if (origMsg.getTq1() != null) {
+      schedules = new ArrayList<>(origMsg.getTq1().size());
+      for (TQ1 tq1 : origMsg.getTq1()) {
+        schedules.add(copyOf(tq1));
+      }
+    }
+
+    List<ISegment> otherSegments = null;
+    if (origMsg.getOtherSegments() != null) {
+      otherSegments = new ArrayList<>(origMsg.getOtherSegments().size());
+      for (ISegment segment : origMsg.getOtherSegments()) {
+        otherSegments.add(copyOf(segment));
+      }
+    }
+
+    return Hl7Message.builder()
+        .msh(copyOf(origMsg.getMsh()))
+        .pid(copyOf(origMsg.getPid()))
+        .pv1(copyOf(origMsg.getPv1()))
+        .orc(copyOf(origMsg.getOrc()))
+        .rxo(copyOf(origMsg.getRxo()))
+        .rxe(copyOf(origMsg.getRxe()))
+        .tq1(schedules)
+        .rxr(copyOf(origMsg.getRxr()))
+        .rxd(copyOf(origMsg.getRxd()))
+        .zpi(copyOf(origMsg.getZpi()))
+        .zqm(copyOf(origMsg.getZqm()))
+        .zrx(copyOf(origMsg.getZrx()))
+        .otherSegments(otherSegments)
+        .otherSegmentAnchors(origMsg.getOtherSegmentAnchors() == null ? null : origMsg.getOtherSegmentAnchors().clone())
+        .build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends ISegment> T copyOf(T segment) {
+    return segment == null ? null : (T) segment.copy();
   }
 
   public static Optional<String> getField(String[] hl7MsgField, int index) {
@@ -114,24 +155,39 @@ public final class Hl7MsgUtils {
    * and processing existing orders.
    */
   public static void scrambleOrderId(Hl7Message hl7Message) {
-    hl7Message.getOrc().setOrc_3_fillerOrderNumber(RandomStringUtils.randomNumeric(5));
+    hl7Message.getOrc().setOrc_3_fillerOrderNumber(IdType.FILLER_ORDER_NUMBER.next());
   }
 
   /**
    * Gets the HL7 String from values for a Composite Field.
    */
   public static String getCompositeFieldString(String... values) {
-    List<String> valuesList = new ArrayList<>(Arrays.asList(values));
-    while (!valuesList.isEmpty()) {
-      if (StringUtils.isBlank(valuesList.get(valuesList.size() - 1))) {
-        valuesList.remove(valuesList.size() - 1);
-      } else {
-        break;
-      }
+    StringBuilder sb = new StringBuilder();
+    try {
+      appendCompositeField(sb, values);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
+    return sb.toString();
+  }
 
-    return valuesList.stream()
-        .reduce((a, b) -> (a == null ? "" : a) + "^" + (b == null ? "" : b))
-        .orElse("");
+  /**
+   * Appends the HL7 String from values for a Composite Field. Trailing blank values are omitted and null values are
+   * written as empty components.
+   */
+  public static void appendCompositeField(Appendable out, String... values) throws IOException {
+    int last = values.length - 1;
+    while (last >= 0 && StringUtils.isBlank(values[last])) {
+      last--;
+    }
+
+    for (int i = 0; i <= last; i++) {
+      if (i > 0) {
+        out.append('^');
+      }
+      if (values[i] != null) {
+        out.append(values[i]);
+      }
+    }
   }
 }
@@ -0,0 +1,146 @@
+package org.hl7;
+
+import org.hl7.common.ParseMode;
+import org.hl7.segment.ISegment;
+import org.hl7.segment.MSH;
+import org.hl7.segment.ORC;
+import org.hl7.segment.PID;
+import org.hl7.segment.RXE;
+import org.hl7.segment.RawSegment;
+import org.hl7.segment.TQ1;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+class GenericHl7MessageTest {
+  private static final String MESSAGE =
+      "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|4154345958|P|2.5||||||ASCII|||\r"
+          + "PID|1|775908|08PAT||lastname^firstname^^^^||19690531000000|M\r"
+          + "ORC|NW||5288240975\r"
+          + "RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902\r"
+          + "TQ1|1|1^TAB|QAM|0800|||20240607111958||P||Take 1 tablet|A||\r"
+          + "TQ1|2|1^TAB|QHS|2200|||20240607111958||P||Take 1 tablet|A||\r"
+          + "RXR|27^by mouth|||||\r"
+          + "ORC|NW||5288240976\r"
+          + "RXE||00093505801^Prednisone 10MG TAB^||||TABS|^instructions||||||||58902\r"
+          + "NTE|1||Take with food\r"
+          + "TQ1|1|1^TAB|QD|0800|||20240607111958||P||Take 1 tablet|A||\r"
+          + "ZRX|D||CHG|20240601||||||||\r";
+
+  @Test
+  void fromString_IndexesRepeatingOrderGroups() {
+    GenericHl7Message msg = GenericHl7Message.fromString(MESSAGE);
+
+    Assertions.assertEquals(12, msg.size());
+    Assertions.assertEquals("RDE^O11^RDE_O11", msg.first("MSH", MSH.class).getMsh_9_messageType());
+    Assertions.assertEquals("775908", msg.first("PID", PID.class).getPid_2_patientId());
+    Assertions.assertEquals(2, msg.groupCount("ORDER"));
+
+    SegmentGroup first = msg.group("ORDER", 0);
+    Assertions.assertEquals(5, first.size());
+    Assertions.assertEquals(2, first.messageIndex());
+    Assertions.assertEquals("5288240975", first.first("ORC", ORC.class).getOrc_3_fillerOrderNumber());
+    Assertions.assertEquals(2, first.all("TQ1", TQ1.class).size());
+
+    // ZRX is no member of the group and ends it
+    SegmentGroup second = msg.group("ORDER", 1);
+    Assertions.assertEquals(4, second.size());
+    Assertions.assertEquals("00093505801", second.first("RXE", RXE.class).getRxe_2_1_drugNdc());
+    Assertions.assertNotNull(second.first("TQ1", TQ1.class));
+    Assertions.assertEquals("NTE", msg.segmentId(9));
+    Assertions.assertEquals(RawSegment.class, msg.segment(9).getClass());
+    Assertions.assertEquals("ZRX", msg.segmentId(11));
+
+    Assertions.assertEquals(3, msg.all("TQ1", TQ1.class).size());
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> msg.group("ORDER", 2));
+  }
+
+  @Test
+  void pharmacy_KeepsNotesAndComponentsInTheirOrder() {
+    String rde = "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|4154345958|P|2.5\r"
+        + "PID|1|775908\r"
+        + "NTE|1||patient note\r"
+        + "ORC|NW||5288240975\r"
+        + "RXO|^Mirtazapine\r"
+        + "NTE|1||order note\r"
+        + "RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902\r"
+        + "NTE|2||Take with food\r"
+        + "TQ1|1|1^TAB|QHS|2200|||20240607111958||P||Take 1 tablet|A||\r"
+        + "RXR|27^by mouth|||||\r"
+        + "RXC|B|69618001001^Mirtazapine|7.5|MG\r"
+        + "ORC|NW||5288240976\r"
+        + "RXE||00093505801^Prednisone 10MG TAB^||||TABS|^instructions||||||||58902\r"
+        + "RXR|27^by mouth|||||\r";
+
+    GenericHl7Message msg = GenericHl7Message.fromString(rde, MessageStructure.pharmacy());
+
+    Assertions.assertEquals(2, msg.groupCount("ORDER"));
+    SegmentGroup first = msg.group("ORDER", 0);
+    Assertions.assertEquals(3, first.messageIndex());
+    Assertions.assertEquals(8, first.size());
+    Assertions.assertEquals(2, first.all("NTE", ISegment.class).size());
+    Assertions.assertNotNull(first.first("TQ1", TQ1.class));
+    Assertions.assertNotNull(first.first("RXR", ISegment.class));
+    Assertions.assertNotNull(first.first("RXC", ISegment.class));
+    Assertions.assertNotNull(msg.group("ORDER", 1).first("RXR", ISegment.class));
+  }
+
+  @Test
+  void print_KeepsSegmentOrder() {
+    GenericHl7Message msg = Hl7Parser.builder().retainRawFields(true).build()
+        .parseGeneric(MESSAGE, MessageStructure.pharmacy());
+
+    Assertions.assertEquals(MESSAGE, Hl7MessageWriter.standard().print(msg));
+  }
+
+  @Test
+  void parseGeneric_CustomStructureAndModes() {
+    String oru = "MSH|^~\\&|LAB||AB|LOCATION1|20240607111040||ORU^R01^ORU_R01|1|P|2.5\r"
+        + "PID|1|775908\r"
+        + "OBR|1||ORD1\r"
+        + "OBX|1|NM|29463-7^Body weight^LN||72|kg\r"
+        + "OBX|2|NM|8302-2^Body height^LN||180|cm\r"
+        + "OBR|2||ORD2\r"
+        + "OBX|1|NM|8867-4^Heart rate^LN||64|/min\r";
+    MessageStructure structure = MessageStructure.flat().group("OBSERVATION", "OBR", "OBX", "NTE");
+
+    GenericHl7Message msg = GenericHl7Message.fromString(oru, structure);
+    Assertions.assertEquals(2, msg.groupCount("OBSERVATION"));
+    Assertions.assertEquals(3, msg.group("OBSERVATION", 0).size());
+    Assertions.assertEquals(1, msg.groups("OBSERVATION").get(1).all("OBX", ISegment.class).size());
+    Assertions.assertEquals(0, msg.groupCount("ORDER"));
+
+    // RXD without RXD-2, the strict parser throws while the lenient one still parses the message
+    String invalid = "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|1|P|2.5\rORC|NW\rRXD|1\r";
+    Assertions.assertThrows(NoSuchElementException.class, () -> GenericHl7Message.fromString(invalid));
+    GenericHl7Message lenient = Hl7Parser.builder().mode(ParseMode.LENIENT).build()
+        .parseGeneric(invalid, MessageStructure.pharmacy());
+    Assertions.assertEquals(3, lenient.size());
+    Assertions.assertEquals(2, lenient.group("ORDER", 0).size());
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> structure.group("OBSERVATION", "SPM"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> structure.group("SPECIMEN", "OBR"));
+  }
+
+  @Test
+  void parseGenericWithDiagnostics_ReportsProblems() {
+    String invalid = "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|1|P|2.5\rORC|NW\rRXD|1\rZAL|boom\r";
+    SegmentRegistry registry = SegmentRegistry.standard().register("ZAL", tokens -> {
+      throw new IllegalStateException("boom");
+    });
+
+    GenericParseResult lenient = Hl7Parser.builder().registry(registry).mode(ParseMode.LENIENT).build()
+        .parseGenericWithDiagnostics(invalid, MessageStructure.pharmacy());
+    Assertions.assertEquals(2, lenient.getDiagnostics().size());
+    Assertions.assertEquals("Missing required field", lenient.getDiagnostics().get(0).getReason());
+    Assertions.assertEquals("Segment could not be parsed: boom", lenient.getDiagnostics().get(1).getReason());
+    Assertions.assertTrue(lenient.getMessage().segment(3) instanceof RawSegment);
+
+    GenericParseResult strict = Hl7Parser.builder().registry(registry).build()
+        .parseGenericWithDiagnostics(invalid, MessageStructure.pharmacy());
+    Assertions.assertFalse(strict.isValid());
+    Assertions.assertNull(strict.getMessage());
+    Assertions.assertEquals(1, strict.getDiagnostics().size());
+  }
+}
@@ -1,5 +1,6 @@
 package org.hl7;
 
+import org.hl7.common.ConversionMode;
 import org.hl7.common.MessageEvent;
 import org.hl7.utils.Hl7DateUtils;
 import org.junit.jupiter.api.Assertions;
@@ -50,4 +51,32 @@ class Hl7ConverterTest {
         .replace('\r', '\n'));
 
   }
-}
\ No newline at end of file
+
+  @SuppressWarnings("checkstyle:lineLength")
+  @Test
+  void convertNewToDiscontinue_SharedMode() {
+    Hl7Message newHl7Message = Hl7Message.fromString("""
+        MSH|^~\\&|||AB|LOCATION1|20240531000000||RDE^O11^RDE_O11|4154345958|P|2.5||||||ASCII|||
+        PID|1|775908|08PAT||lastname^firstname^^^^||19690531000000|M|||||||||||||||||||||||||||||||
+        ORC|NW||5288240975||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|||1234567890^MedProFirstName^MedProLastName||||||||||||||||||
+        RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902||||||||||||F33.9^Depression^ICD10|||||||||||||||||
+        TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet my mouth every day for Depression|A||
+        RXR|27^by mouth|||||
+        """);
+
+    Hl7Message shared = Hl7Converter.convert(newHl7Message, MessageEvent.ORDER_DC, ConversionMode.SHARED);
+    Hl7Message copied = Hl7Converter.convert(newHl7Message, MessageEvent.ORDER_DC);
+    shared.getMsh().setMsh_7_messageDatetime(copied.getMsh().getMsh_7_messageDatetime());
+
+    Assertions.assertEquals(copied.printMessage(), shared.printMessage());
+    Assertions.assertEquals("DC", shared.getOrc().getOrc_1_orderControl());
+    Assertions.assertEquals("NW", newHl7Message.getOrc().getOrc_1_orderControl());
+
+    // immutable segments are shared, mutable ones are not
+    Assertions.assertSame(newHl7Message.getPid(), shared.getPid());
+    Assertions.assertSame(newHl7Message.getRxr(), shared.getRxr());
+    Assertions.assertNotSame(newHl7Message.getRxe(), shared.getRxe());
+    Assertions.assertNotSame(newHl7Message.getTq1().get(0), shared.getTq1().get(0));
+    Assertions.assertNotSame(newHl7Message.getPid(), copied.getPid());
+  }
+}
@@ -0,0 +1,66 @@
+package org.hl7;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+class Hl7MessageEncoderTest {
+  private static final String MESSAGE =
+      "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|4154345958|P|2.5||||||ASCII|||\r"
+          + "ORC|NW||5288240975||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|||"
+          + "1234567890^M\u00fcller^Jos\u00e9||||||||||||||||||\r"
+          + "TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet \ud83d\udc8a, \u00bd at night|A||\r";
+
+  private final Hl7Message message = Hl7Message.fromString(MESSAGE);
+
+  @Test
+  void encode_MatchesPrintedMessageInEveryCharset() {
+    for (Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+        StandardCharsets.US_ASCII, StandardCharsets.UTF_16LE}) {
+      Hl7MessageEncoder encoder = Hl7MessageEncoder.builder().charset(charset).build();
+      byte[] expected = Hl7MessageWriter.standard().print(message).getBytes(charset);
+
+      Assertions.assertArrayEquals(expected, encoder.encode(message), charset.name());
+    }
+  }
+
+  @Test
+  void encode_IntoBufferAtPosition() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+    buffer.put((byte) 0x0B);
+
+    int length = Hl7MessageEncoder.standard().encode(message, buffer);
+
+    byte[] expected = MESSAGE.getBytes(StandardCharsets.UTF_8);
+    Assertions.assertEquals(expected.length, length);
+    byte[] actual = new byte[length];
+    buffer.get(1, actual);
+    Assertions.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  void encode_RestoresPositionOnOverflow() {
+    ByteBuffer buffer = ByteBuffer.allocate(64).position(3);
+
+    Assertions.assertThrows(BufferOverflowException.class, () -> Hl7MessageEncoder.standard().encode(message, buffer));
+    Assertions.assertEquals(3, buffer.position());
+  }
+
+  @Test
+  void encode_StreamsThroughSmallBuffers() throws Exception {
+    Hl7MessageEncoder encoder = Hl7MessageEncoder.builder().bufferSize(16).build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    encoder.encode(message, out);
+    byte[] bytes = encoder.encode(message);
+
+    Assertions.assertArrayEquals(MESSAGE.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    Assertions.assertArrayEquals(MESSAGE.getBytes(StandardCharsets.UTF_8), bytes);
+    Assertions.assertEquals(bytes.length, encoder.getSizeEstimate());
+  }
+}
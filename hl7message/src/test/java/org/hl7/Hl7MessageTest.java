@@ -134,4 +134,33 @@ public class Hl7MessageTest {
     String diff = StringUtils.difference(originalHl7, convertedHl7);
     Assertions.assertEquals("", diff);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testHl7Message_CanConvertPatientVisitFromString() {
+    String originalHl7 = "PV1|1|I|^101^A^NORTH^^^^|||||||||||||||||||||||||||||||||||||||||20240601111958||||||||";
+
+    Hl7Message msg = Hl7Message.fromString(originalHl7);
+
+    Assertions.assertEquals("101", msg.getPv1().getPv1_3_4_patientLocationRoom());
+    Assertions.assertEquals("A", msg.getPv1().getPv1_3_4_patientLocationBed());
+    Assertions.assertEquals("NORTH", msg.getPv1().getPv1_3_4_patientLocationFacility());
+    Assertions.assertEquals(originalHl7, msg.printMessage());
+  }
+
+  @Test
+  public void testHl7MessageWriter_WritesSegmentsWithTerminator() {
+    String originalHl7 = "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|4154345958|P|2.5||||||ASCII|||\r"
+        + "TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A||\r"
+        + "TQ1|2|1^TAB|QHS|1800|||20240607111958||P||Take 1 tablet|A||\r"
+        + "ZRX|D||CHG|20240601||||||||\r";
+
+    Hl7Message msg = Hl7Message.fromString(originalHl7);
+
+    StringBuilder sb = new StringBuilder("prefix:");
+    Hl7MessageWriter.standard().write(msg, sb);
+    Assertions.assertEquals("prefix:" + originalHl7, sb.toString());
+
+    String withNewLines = Hl7MessageWriter.builder().segmentTerminator("\n").terminateLastSegment(false).build().print(msg);
+    Assertions.assertEquals(originalHl7.trim().replace('\r', '\n'), withNewLines);
+  }
+}
@@ -0,0 +1,257 @@
+package org.hl7;
+
+import org.hl7.common.MessageEvent;
+import org.hl7.common.ParseMode;
+import org.hl7.parser.InternedFields;
+import org.hl7.parser.ParseDiagnostic;
+import org.hl7.segment.RXE;
+import org.hl7.segment.RawSegment;
+import org.hl7.segment.TQ1;
+import org.hl7.utils.Hl7MsgUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class Hl7ParserTest {
+  // MSH.15, ORC.10, RXE.2.3 and RXE.21 are not modeled by the segment classes
+  private static final String MESSAGE =
+      "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|4154345958|P|2.5|||AL\r"
+          + "ORC|NW||5288240975||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|ENTERED^BY|||"
+          + "1234567890^MedProFirstName^MedProLastName\r"
+          + "RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902||||||Take with water\r"
+          + "TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A\r"
+          + "NTE|1||note\r";
+
+  private static final Hl7Parser RETAINING = Hl7Parser.builder().retainRawFields(true).build();
+  private static final Hl7MessageWriter WRITER = Hl7MessageWriter.standard();
+
+  @Test
+  void parse_RetainingRawFieldsPrintsMessageUnchanged() {
+    Hl7Message msg = RETAINING.parse(MESSAGE);
+
+    Assertions.assertEquals(MESSAGE, WRITER.print(msg));
+  }
+
+  @Test
+  void parse_RetainingRawFieldsKeepsGiveAmountAndUnits() {
+    String message = MESSAGE.replace("RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|",
+        "RXE||69618001001^Mirtazapine 7.5MG TAB^|7.5||MG|TABS|");
+
+    Hl7Message msg = RETAINING.parse(message);
+    Assertions.assertEquals("7.5", msg.getRxe().getRxe_3_giveAmountMinimum());
+    Assertions.assertEquals("MG", msg.getRxe().getRxe_5_giveUnits());
+    Assertions.assertEquals(message, WRITER.print(msg));
+    Assertions.assertTrue(WRITER.print(Hl7Parser.standard().parse(message)).contains("TAB^|7.5||MG|TABS|"));
+  }
+
+  @Test
+  void parse_PrintsOtherSegmentsWhereTheyWereRead() {
+    String message = "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|4154345958|P|2.5\r"
+        + "AL1|1||^PENICILLIN\r"
+        + "ORC|NW||5288240975\r"
+        + "RXE||69618001001^Mirtazapine 7.5MG TAB^|||||^instructions||||||||58902\r"
+        + "NTE|1||take with food\r"
+        + "TQ1|1|1^TAB|QHS\r"
+        + "OBX|1|NM|WT||70\r"
+        + "TQ1|2|1^TAB|QAM\r"
+        + "RXR|PO\r"
+        + "NTE|2||by mouth\r";
+
+    Assertions.assertEquals(message, WRITER.print(RETAINING.parse(message)));
+    Assertions.assertEquals(message, WRITER.print(RETAINING.parseInto(message, new ReusableHl7Message()).toMessage()));
+    Assertions.assertEquals(message, WRITER.print(Hl7MsgUtils.copy(RETAINING.parse(message))));
+    Assertions.assertEquals(WRITER.print(Hl7Parser.standard().parse(message)), WRITER.print(LazyHl7Message.of(message)));
+
+    // segments added afterwards have no anchor and are printed last
+    Hl7Message msg = RETAINING.parse(message);
+    msg.getOtherSegments().add(RawSegment.of("NTE|3||added"));
+    Assertions.assertEquals(message + "NTE|3||added\r", WRITER.print(msg));
+  }
+
+  @Test
+  void parse_PrintsSegmentsAppendedAfterParsingLast() {
+    String message = "MSH|^~\\&|||AB|LOCATION1|20240607111040||ADT^A01|4154345958|P|2.5\r"
+        + "PID|1|775908\r"
+        + "NTE|1|first\r";
+
+    for (Hl7Message msg : List.of(Hl7Parser.standard().parse(message),
+        Hl7Parser.standard().parseInto(message, new ReusableHl7Message()).toMessage(), LazyHl7Message.of(message))) {
+      msg.getOtherSegments().add(RawSegment.of("NTE|2|appended"));
+      String printed = WRITER.print(msg);
+
+      Assertions.assertTrue(printed.indexOf("\rPID|1|775908") < printed.indexOf("\rNTE|1|first\r"), printed);
+      Assertions.assertTrue(printed.endsWith("\rNTE|1|first\rNTE|2|appended\r"), printed);
+    }
+  }
+
+  @Test
+  void parse_WithoutRawFieldsDropsUnmodeledFields() {
+    String printed = WRITER.print(Hl7Parser.standard().parse(MESSAGE));
+
+    Assertions.assertFalse(printed.contains("ENTERED^BY"));
+    Assertions.assertFalse(printed.contains("Take with water"));
+  }
+
+  @Test
+  void parse_RetainingRawFieldsOverlaysModifiedFields() {
+    Hl7Message msg = RETAINING.parse(MESSAGE);
+    msg.getRxe().setRxe_15_prescriptionNumber("12345");
+    msg.getTq1().get(0).setTq1_11_admin_instructions("");
+    msg.setRxe(msg.getRxe().toBuilder().rxe_10_dispenseAmount("30").build());
+
+    String printed = WRITER.print(msg);
+
+    Assertions.assertTrue(printed.contains(
+        "RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions|||30|||||12345||||||Take with water\r"),
+        printed);
+    Assertions.assertTrue(printed.contains("TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P|||A\r"), printed);
+  }
+
+  @Test
+  void convert_KeepsUnmodeledFieldsOfRewrittenSegments() {
+    Hl7Message dispense = Hl7Converter.convert(RETAINING.parse(MESSAGE), MessageEvent.ORDER_DISPENSE);
+
+    String printed = WRITER.print(dispense);
+
+    Assertions.assertTrue(printed.contains("|RDS^O13^RDS_O13|4154345958|P|2.5|||AL\r"), printed);
+    Assertions.assertTrue(printed.startsWith("MSH|^~\\&|||AB|LOCATION1|"), printed);
+    Assertions.assertTrue(printed.contains("\rORC|RE||5288240975|"), printed);
+    Assertions.assertTrue(printed.contains("|20240604100958|ENTERED^BY|||1234567890^"), printed);
+  }
+
+  @Test
+  void builtSegmentsPrintModeledFieldsOnly() {
+    RXE rxe = RETAINING.parse(MESSAGE).getRxe();
+
+    Assertions.assertEquals(RXE.builder().rxe_15_prescriptionNumber("58902").rxe_2_1_drugNdc("69618001001")
+            .rxe_2_2_drugName("Mirtazapine 7.5MG TAB").rxe_7_adminInstructionsText("instructions")
+            .rxe_6_giveDosageForm("TABS").build().print(),
+        rxe.toBuilder().rawFields(null).build().print());
+  }
+
+  @Test
+  void parse_UnescapesTextFieldsAndEscapesThemWhenPrinting() {
+    String message = MESSAGE.replace("Take 1 tablet", "1 tab \\F\\ twice \\T\\ daily")
+        .replace("^instructions", "^crush \\S\\ mix");
+    Hl7Message msg = Hl7Parser.standard().parse(message);
+
+    Assertions.assertEquals("1 tab | twice & daily", msg.getTq1().get(0).getTq1_11_admin_instructions());
+    Assertions.assertEquals("crush ^ mix", msg.getRxe().getRxe_7_adminInstructionsText());
+
+    String printed = WRITER.print(msg);
+    Assertions.assertTrue(printed.contains("|P||1 tab \\F\\ twice \\T\\ daily|"), printed);
+    Assertions.assertTrue(printed.contains("|TABS|^crush \\S\\ mix|"), printed);
+    Assertions.assertEquals(message, WRITER.print(RETAINING.parse(message)));
+  }
+
+  @Test
+  void parse_MessageWithCustomDelimiters() {
+    String custom = MESSAGE.replace('|', '!').replace('^', '$').replace('~', '*').replace('\\', '#').replace('&', '@');
+
+    Assertions.assertEquals(WRITER.print(Hl7Parser.standard().parse(MESSAGE)),
+        WRITER.print(Hl7Parser.standard().parse(custom)));
+    Assertions.assertEquals(MESSAGE, WRITER.print(RETAINING.parse(custom)));
+    Assertions.assertEquals("RDE^O11^RDE_O11", LazyHl7Message.of(custom).getMsh().getMsh_9_messageType());
+  }
+
+  @Test
+  void parseWithDiagnostics_LenientCollectsProblems() {
+    String malformed = MESSAGE.replace("TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A\r", "TQ1\r")
+        + "RXD\r";
+    Hl7Parser lenient = Hl7Parser.builder().mode(ParseMode.LENIENT).build();
+
+    ParseResult result = lenient.parseWithDiagnostics(malformed);
+
+    Assertions.assertFalse(result.isValid());
+    Assertions.assertEquals(3, result.getDiagnostics().size());
+    ParseDiagnostic missingSetId = result.getDiagnostics().get(0);
+    Assertions.assertEquals("TQ1", missingSetId.getSegmentId());
+    Assertions.assertEquals(1, missingSetId.getField());
+    Assertions.assertEquals(malformed.indexOf("TQ1\r") + 3, missingSetId.getOffset());
+    Assertions.assertEquals("RXD-2", result.getDiagnostics().get(2).toString().substring(0, 5));
+    Assertions.assertEquals("", result.getMessage().getTq1().get(0).getTq1_1_setId());
+    Assertions.assertEquals("58902", result.getMessage().getRxe().getRxe_15_prescriptionNumber());
+    Assertions.assertNotNull(lenient.parse(malformed).getRxd());
+  }
+
+  @Test
+  void parseWithDiagnostics_StrictStopsAtFirstInvalidSegment() {
+    String malformed = MESSAGE + "RXD\r";
+
+    ParseResult result = Hl7Parser.standard().parseWithDiagnostics(malformed);
+
+    Assertions.assertNull(result.getMessage());
+    Assertions.assertEquals(2, result.getDiagnostics().size());
+    Assertions.assertTrue(result.getDiagnostics().get(0).toString().startsWith("RXD-1 at offset "));
+    Assertions.assertTrue(Hl7Parser.standard().parseWithDiagnostics(MESSAGE).isValid());
+    Assertions.assertThrows(NoSuchElementException.class, () -> Hl7Parser.standard().parse(malformed));
+  }
+
+  @Test
+  void parseWithDiagnostics_InvalidEncodingCharactersAndFailingParsers() {
+    String malformed = MESSAGE.replace("MSH|^~\\&|", "MSH|^^\\&|") + "ZAL|boom\r";
+    SegmentRegistry registry = SegmentRegistry.standard().register("ZAL", tokens -> {
+      throw new IllegalStateException("boom");
+    });
+
+    ParseResult result = Hl7Parser.builder().registry(registry).mode(ParseMode.LENIENT).build()
+        .parseWithDiagnostics(malformed);
+
+    Assertions.assertEquals("MSH-2 at offset 4: Invalid encoding characters", result.getDiagnostics().get(0).toString());
+    Assertions.assertEquals("Segment could not be parsed: boom", result.getDiagnostics().get(1).getReason());
+    Assertions.assertEquals("ZAL|boom", result.getMessage().getOtherSegments().get(1).print());
+  }
+
+  @Test
+  void parse_InternedFieldsShareInstances() {
+    Hl7Parser interning = Hl7Parser.builder().internedFields(InternedFields.defaults()).build();
+
+    Hl7Message first = interning.parse(MESSAGE);
+    Hl7Message second = interning.parse(MESSAGE);
+    Assertions.assertSame(first.getMsh().getMsh_9_messageType(), second.getMsh().getMsh_9_messageType());
+    Assertions.assertSame(first.getRxe().getRxe_6_giveDosageForm(), second.getRxe().getRxe_6_giveDosageForm());
+    Assertions.assertSame(first.getTq1().get(0).getTq1_3_repeatPattern(), second.getTq1().get(0).getTq1_3_repeatPattern());
+    Assertions.assertEquals(Hl7Parser.standard().parse(MESSAGE).printMessage(), first.printMessage());
+
+    Hl7Message notInterned = Hl7Parser.standard().parse(MESSAGE);
+    Assertions.assertNotSame(first.getMsh().getMsh_9_messageType(), notInterned.getMsh().getMsh_9_messageType());
+    Assertions.assertNotSame(first.getRxe().getRxe_2_1_drugNdc(), second.getRxe().getRxe_2_1_drugNdc());
+  }
+
+  @Test
+  void parseInto_DecodesSegmentsOnlyWhenBuilt() {
+    Hl7Message dispensed = Hl7Message.fromString(MESSAGE);
+    ReusableHl7Message msg = Hl7Parser.standard().parseInto(MESSAGE, new ReusableHl7Message());
+
+    Assertions.assertEquals(5, msg.size());
+    Assertions.assertEquals(MESSAGE, WRITER.print(msg));
+    Assertions.assertEquals(dispensed.printMessage(), msg.toMessage().printMessage());
+    Assertions.assertNotSame(msg.toMessage().getRxe(), msg.toMessage().getRxe());
+
+    // fields the message leaves out get their defaults when the message is built, not while it is filled
+    Hl7Parser.standard().parseInto(MESSAGE.replace("||||||||58902||||||Take with water", ""), msg);
+    Assertions.assertNull(msg.first("RXE").field(15));
+    Assertions.assertFalse(msg.toMessage().getRxe().getRxe_15_prescriptionNumber().isEmpty());
+  }
+
+  @Test
+  void parseInto_LenientReportsToMessageAndKeepsFailingSegmentsRawWhenBuilt() {
+    SegmentRegistry registry = SegmentRegistry.standard().register("ZAL", tokens -> {
+      throw new IllegalStateException("boom");
+    });
+    Hl7Parser lenient = Hl7Parser.builder().registry(registry).mode(ParseMode.LENIENT).build();
+
+    ReusableHl7Message msg = lenient.parseInto(MESSAGE.replace("^~\\&", "^^^^") + "ZAL|boom\r", new ReusableHl7Message());
+    Assertions.assertEquals(1, msg.diagnostics().size());
+    Assertions.assertEquals("Invalid encoding characters", msg.diagnostics().get(0).getReason());
+    Assertions.assertEquals("ZAL|boom", msg.toMessage().getOtherSegments().get(1).print());
+
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> Hl7Parser.standard().parseInto(MESSAGE.replace("^~\\&", "^^^^"), msg));
+    lenient.parseInto(MESSAGE, msg);
+    Assertions.assertTrue(msg.diagnostics().isEmpty());
+    Assertions.assertThrows(IllegalStateException.class, () -> new ReusableHl7Message().toMessage());
+  }
+}
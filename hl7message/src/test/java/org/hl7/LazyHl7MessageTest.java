@@ -0,0 +1,54 @@
+package org.hl7;
+
+import org.hl7.segment.RXR;
+import org.hl7.segment.datatype.CodedElement;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LazyHl7MessageTest {
+  private static final String MESSAGE =
+      "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|4154345958|P|2.5||||||ASCII|||\r"
+          + "ORC|NW||5288240975||||1^QHS&1200,1300^1^20240601111958^20240607111958^0||20240604100958|||"
+          + "1234567890^MedProFirstName^MedProLastName||||||||||||||||||\r"
+          + "TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A||\r"
+          + "TQ1|2|1^TAB|QHS|1800|||20240607111958||P||Take 1 tablet|A||\r"
+          + "RXR|27^by mouth|||||\r"
+          + "ZRX|D||CHG|20240601||||||||\r";
+
+  @Test
+  void of_DecodesSegmentsOnFirstAccess() {
+    LazyHl7Message msg = LazyHl7Message.of(MESSAGE);
+
+    Assertions.assertEquals("RDS^O13^RDS_O13", msg.getMsh().getMsh_9_messageType());
+    Assertions.assertEquals("5288240975", msg.getOrc().getOrc_3_fillerOrderNumber());
+    Assertions.assertFalse(msg.isPending("MSH"));
+    Assertions.assertTrue(msg.isPending("TQ1"));
+    Assertions.assertTrue(msg.isPending("RXR"));
+    Assertions.assertNull(msg.getPid());
+
+    Assertions.assertEquals(2, msg.getTq1().size());
+    Assertions.assertEquals(Hl7Message.fromString(MESSAGE).printMessage(), msg.printMessage());
+  }
+
+  @Test
+  void setAndToBuilder_BehaveLikeEagerMessage() {
+    LazyHl7Message msg = LazyHl7Message.of(MESSAGE);
+    msg.setRxr(RXR.builder().rxr_1_route(CodedElement.builder().id("47").text("topical").build()).build());
+
+    Assertions.assertFalse(msg.isPending("RXR"));
+    Assertions.assertEquals("topical", msg.getRxr().getRxr_1_route().getText());
+
+    Hl7Message copy = msg.toBuilder().build();
+    Assertions.assertEquals(Hl7Message.class, copy.getClass());
+    Assertions.assertEquals(msg.printMessage(), copy.printMessage());
+    Assertions.assertEquals("D", copy.getZrx().getZrx_1_dispenseCode());
+  }
+
+  @Test
+  void of_KeepsUnknownSegmentsRaw() {
+    LazyHl7Message msg = LazyHl7Message.of(MESSAGE + "NTE|1||note\r");
+
+    Assertions.assertEquals(1, msg.getOtherSegments().size());
+    Assertions.assertEquals("NTE|1||note", msg.getOtherSegments().get(0).print());
+  }
+}
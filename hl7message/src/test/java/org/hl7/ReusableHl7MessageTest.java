@@ -0,0 +1,103 @@
+package org.hl7;
+
+import org.hl7.parser.InternedFields;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+class ReusableHl7MessageTest {
+  private static final String MESSAGE =
+      "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|4154345958|P|2.5\r"
+          + "ORC|NW||5288240975\r"
+          + "RXE||69618001001^Mirtazapine 7.5MG TAB^|||||^instructions||||||||58902\r"
+          + "TQ1|1|1^TAB|QHS\r"
+          + "TQ1|2|1^TAB|QAM\r";
+
+  private static final Hl7Parser PARSER = Hl7Parser.builder().internedFields(InternedFields.defaults()).build();
+
+  @Test
+  void parseInto_ReadsFieldsFromHolders() {
+    ReusableHl7Message msg = PARSER.parseInto(MESSAGE, new ReusableHl7Message());
+
+    Assertions.assertEquals(5, msg.size());
+    Assertions.assertEquals(2, msg.count("TQ1"));
+    Assertions.assertEquals("RDE^O11^RDE_O11", msg.first("MSH").field(8));
+    Assertions.assertTrue(msg.first("MSH").fieldEquals(9, "4154345958"));
+    Assertions.assertEquals("69618001001", msg.first("RXE").component(2, 0));
+    Assertions.assertEquals("QAM", msg.find("TQ1", 1).field(3));
+    Assertions.assertEquals("TAB", msg.find("TQ1", 1).component(2, 1));
+    Assertions.assertNull(msg.find("TQ1", 2));
+    Assertions.assertNull(msg.first("PID"));
+    Assertions.assertEquals(MESSAGE, Hl7MessageWriter.standard().print(msg));
+  }
+
+  @Test
+  void setField_RewritesSegmentAndIsPrinted() {
+    ReusableHl7Message msg = PARSER.parseInto(MESSAGE, new ReusableHl7Message());
+    SegmentHolder orc = msg.first("ORC");
+
+    orc.setField(1, "XO");
+    orc.setField(5, "IP");
+
+    Assertions.assertEquals("ORC|XO||5288240975||IP", orc.toString());
+    Assertions.assertTrue(orc.fieldEquals(1, "XO"));
+    Assertions.assertEquals("XO", msg.toMessage().getOrc().getOrc_1_orderControl());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> msg.first("MSH").setField(1, "^~\\&"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> orc.setField(0, "RXE"));
+  }
+
+  @Test
+  void parseInto_ReadsAndPrintsOtherDelimitersInStandardEncoding() {
+    String message = MESSAGE.replace('|', '#').replace('^', '$');
+
+    ReusableHl7Message msg = PARSER.parseInto(message, new ReusableHl7Message());
+
+    Assertions.assertEquals("1^TAB", msg.first("TQ1").field(2));
+    Assertions.assertTrue(msg.first("TQ1").fieldEquals(3, "QHS"));
+    Assertions.assertEquals(MESSAGE, Hl7MessageWriter.standard().print(msg));
+  }
+
+  @Test
+  void pool_ReusesMessagesAndHolders() {
+    Hl7MessagePool pool = new Hl7MessagePool(2);
+    ReusableHl7Message msg = PARSER.parseInto(MESSAGE, pool.acquire());
+    SegmentHolder second = msg.segment(1);
+    pool.release(msg);
+    Assertions.assertEquals(1, pool.size());
+    Assertions.assertEquals(0, msg.size());
+    Assertions.assertEquals(0, second.fieldCount());
+
+    String dispense = "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|1|P|2.5\r"
+        + "RXD|1|69618001001^Mirtazapine 7.5MG TAB\r";
+    ReusableHl7Message reused = PARSER.parseInto(dispense, pool.acquire());
+    Assertions.assertSame(msg, reused);
+    Assertions.assertSame(second, reused.first("RXD"));
+    Assertions.assertNull(reused.first("RXE"));
+    Assertions.assertEquals(0, pool.size());
+    Assertions.assertNotSame(msg, pool.acquire());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new Hl7MessagePool(0));
+  }
+
+  @Test
+  void parseInto_DoesNotAllocateOnceWarm() {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Hl7MessagePool pool = new Hl7MessagePool(1);
+    for (int i = 0; i < 10_000; i++) {
+      pool.release(PARSER.parseInto(MESSAGE, pool.acquire()));
+    }
+
+    int found = 0;
+    long before = threads.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < 10_000; i++) {
+      ReusableHl7Message msg = PARSER.parseInto(MESSAGE, pool.acquire());
+      found += msg.first("RXE").fieldEquals(15, "58902") ? 1 : 0;
+      pool.release(msg);
+    }
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+    Assertions.assertEquals(10_000, found);
+    // leaves room for the measurement itself, a parse allocating a single object would add up to 160000 bytes
+    Assertions.assertTrue(allocated < 10_000, allocated + " bytes");
+  }
+}
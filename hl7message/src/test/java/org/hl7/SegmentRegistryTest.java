@@ -0,0 +1,90 @@
+package org.hl7;
+
+import org.hl7.parser.SegmentTokenizer;
+import org.hl7.segment.ISegment;
+import org.hl7.segment.RawSegment;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SegmentRegistryTest {
+  private static final String MESSAGE =
+      "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|4154345958|P|2.5||||||ASCII|||\r"
+          + "NTE|1||first note\r"
+          + "ORC|NW||5288240975\r"
+          + "AL1|1||^PENICILLIN\r"
+          + "NTE|2||second note\r";
+
+  @Test
+  void fromString_KeepsUnknownSegmentsRaw() {
+    Hl7Message msg = Hl7Message.fromString(MESSAGE);
+
+    Assertions.assertEquals("5288240975", msg.getOrc().getOrc_3_fillerOrderNumber());
+    Assertions.assertEquals(3, msg.getOtherSegments().size());
+    RawSegment allergy = (RawSegment) msg.getOtherSegments().get(1);
+    Assertions.assertEquals("AL1", allergy.getSegmentId());
+    Assertions.assertEquals("AL1|1||^PENICILLIN", allergy.getValue());
+    // other segments are printed where they were read
+    String printed = msg.printMessage();
+    Assertions.assertTrue(printed.indexOf("NTE|1||first note") < printed.indexOf("ORC|NW"));
+    Assertions.assertTrue(printed.endsWith(
+        "AL1|1||^PENICILLIN" + System.lineSeparator() + "NTE|2||second note"));
+  }
+
+  @Test
+  void fromString_UsesRegisteredParsers() {
+    SegmentRegistry registry = SegmentRegistry.standard().register("NTE", Note::fromTokens);
+
+    Hl7Message msg = Hl7Message.fromString(MESSAGE, registry);
+
+    Assertions.assertEquals("first note", ((Note) msg.getOtherSegments().get(0)).comment);
+    Assertions.assertEquals(RawSegment.class, msg.getOtherSegments().get(1).getClass());
+    Assertions.assertEquals("second note", ((Note) msg.getOtherSegments().get(2)).comment);
+    // segments that only implement print() are written through the default printTo
+    Assertions.assertTrue(Hl7MessageWriter.standard().print(msg).contains("\rNTE|||first note\rORC|NW"));
+  }
+
+  @Test
+  void find_MatchesWholeSegmentIdOnly() {
+    SegmentRegistry registry = SegmentRegistry.standard();
+
+    Assertions.assertNotNull(registry.find("MSH|^~\\&", 0, 8));
+    Assertions.assertNotNull(registry.find("xxTQ1", 2, 5));
+    Assertions.assertNull(registry.find("MSHX|1", 0, 6));
+    Assertions.assertNull(registry.find("MS", 0, 2));
+    Assertions.assertNull(registry.find("msh|", 0, 4));
+    Assertions.assertTrue(registry.isRegistered("ZRX"));
+    Assertions.assertFalse(registry.isRegistered("NTE"));
+  }
+
+  @Test
+  void register_RejectsInvalidOrDuplicateIds() {
+    SegmentRegistry registry = SegmentRegistry.standard();
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> registry.register("NOTE", Note::fromTokens));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> registry.register("nte", Note::fromTokens));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> registry.register("ORC", Note::fromTokens));
+    Assertions.assertFalse(registry.isRegistered("NTE"));
+  }
+
+  private static final class Note implements ISegment {
+    private final String comment;
+
+    private Note(String comment) {
+      this.comment = comment;
+    }
+
+    static Note fromTokens(SegmentTokenizer tokens) {
+      return new Note(tokens.field(3));
+    }
+
+    @Override
+    public String print() {
+      return "NTE|||" + comment;
+    }
+
+    @Override
+    public Note copy() {
+      return this;
+    }
+  }
+}
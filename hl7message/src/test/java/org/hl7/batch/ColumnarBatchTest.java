@@ -0,0 +1,102 @@
+package org.hl7.batch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.Map;
+
+class ColumnarBatchTest {
+  private static String order(String orderNumber, String ndc, String start) {
+    return "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDE^O11^RDE_O11|1|P|2.5\r"
+        + "PID|1|775908\r"
+        + "ORC|NW||" + orderNumber + "\r"
+        + "RXE||" + ndc + "^Drug\r"
+        + "TQ1|1|1^TAB|QHS|2200|||" + start + "|20240630\r";
+  }
+
+  @Test
+  void build_ExtractsDictionaryAndTimestampColumns() {
+    ColumnarBatch batch = ColumnarBatch.builder()
+        .zone(ZoneOffset.UTC)
+        .stringColumn("RXE-2.1")
+        .stringColumn("ORC-3")
+        .timestampColumn("TQ1-7")
+        .timestampColumn("TQ1-8")
+        .add(order("1001", "69618001001", "20240601080000"))
+        .add(order("1002", "00093505801", "20240602"))
+        .add(order("1003", "69618001001", "not a date"))
+        .add("MSH|^~\\&|||AB|LOCATION1|20240607111040||ADT^A01|1|P|2.5\rPID|1|775908\r")
+        .build();
+
+    Assertions.assertEquals(4, batch.rowCount());
+    StringColumn ndc = batch.stringColumn("RXE-2.1");
+    Assertions.assertEquals(2, ndc.dictionarySize());
+    Assertions.assertEquals(ndc.code(0), ndc.code(2));
+    Assertions.assertSame(ndc.get(0), ndc.get(2));
+    Assertions.assertEquals("00093505801", ndc.get(1));
+    Assertions.assertNull(ndc.get(3));
+    Assertions.assertEquals(StringColumn.NULL, ndc.code(3));
+
+    TimestampColumn start = batch.timestampColumn("TQ1-7");
+    Assertions.assertEquals(Instant.parse("2024-06-01T08:00:00Z"), start.get(0));
+    Assertions.assertEquals(Instant.parse("2024-06-02T00:00:00Z").toEpochMilli(), start.getEpochMillis(1));
+    Assertions.assertTrue(start.isNull(2));
+    Assertions.assertTrue(start.isNull(3));
+    Assertions.assertFalse(batch.timestampColumn("TQ1-8").isNull(2));
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> batch.stringColumn("PID-2"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> batch.timestampColumn("RXE-2.1"));
+  }
+
+  @Test
+  void zone_AppliesToColumnsDeclaredBefore() {
+    ColumnarBatch batch = ColumnarBatch.builder()
+        .timestampColumn("TQ1-7")
+        .zone(ZoneOffset.ofHours(5))
+        .add(order("1001", "69618001001", "20240601080000"))
+        .build();
+
+    Assertions.assertEquals(Instant.parse("2024-06-01T03:00:00Z"), batch.timestampColumn("TQ1-7").get(0));
+  }
+
+  @Test
+  void filterAndCountBy() {
+    ColumnarBatch.Builder builder = ColumnarBatch.builder().zone(ZoneOffset.UTC)
+        .stringColumn("RXE-2.1")
+        .timestampColumn("TQ1-7");
+    for (int day = 1; day <= 9; day++) {
+      builder.add(order("100" + day, day % 3 == 0 ? "00093505801" : "69618001001", "2024060" + day));
+    }
+    ColumnarBatch batch = builder.build();
+
+    BitSet rows = batch.timestampColumn("TQ1-7")
+        .between(Instant.parse("2024-06-01T00:00:00Z"), Instant.parse("2024-06-07T00:00:00Z"));
+    Assertions.assertEquals(6, rows.cardinality());
+
+    Map<String, Integer> counts = batch.stringColumn("RXE-2.1").countBy(rows);
+    Assertions.assertEquals(Map.of("69618001001", 4, "00093505801", 2), counts);
+
+    rows.and(batch.stringColumn("RXE-2.1").equalTo("00093505801"));
+    Assertions.assertEquals(2, rows.cardinality());
+    Assertions.assertEquals(0, batch.stringColumn("RXE-2.1").equalTo("unknown").cardinality());
+    Assertions.assertEquals(9, batch.allRows().cardinality());
+  }
+
+  @Test
+  void addAll_ReadsBatchWithoutParsing() {
+    String file = order("1001", "69618001001", "20240601") + order("1002", "69618001001", "20240602");
+    ByteBuffer buffer = ByteBuffer.wrap(file.getBytes(StandardCharsets.UTF_8));
+
+    ColumnarBatch.Builder builder = ColumnarBatch.builder().stringColumn("ORC-3");
+    ColumnarBatch batch = builder.addAll(Hl7BatchReader.of(buffer, StandardCharsets.UTF_8)).build();
+
+    Assertions.assertEquals(2, batch.rowCount());
+    Assertions.assertEquals("1002", batch.stringColumn("ORC-3").get(1));
+    Assertions.assertThrows(IllegalStateException.class, () -> builder.stringColumn("PID-2"));
+  }
+}
@@ -0,0 +1,64 @@
+package org.hl7.batch;
+
+import org.hl7.Hl7Message;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+class Hl7BatchReaderTest {
+  private static final String BATCH = "FHS|^~\\&|SENDER\r"
+      + "BHS|^~\\&|SENDER\r"
+      + "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|1001|P|2.5||||||ASCII|||\r"
+      + "TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A||\r"
+      + "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|1002|P|2.5||||||ASCII|||\r\n"
+      + "RXR|27^by mouth|||||\r\n"
+      + "\r\n"
+      + "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|1003|P|2.5||||||ASCII|||\r"
+      + "BTS|3\r"
+      + "FTS|1\r";
+
+  @Test
+  void read_MessagesFromFileWithEnvelopes() throws Exception {
+    Path file = Files.createTempFile("batch", ".hl7");
+    try {
+      Files.writeString(file, BATCH);
+
+      // tiny window to force remapping in the middle of messages
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+           Hl7BatchReader reader = new Hl7BatchReader(channel, 0, channel.size(), 16, StandardCharsets.UTF_8)) {
+        List<Hl7Message> messages = reader.stream().collect(Collectors.toList());
+
+        Assertions.assertEquals(3, messages.size());
+        Assertions.assertEquals("1001", messages.get(0).getMsh().getMsh_10_messageId());
+        Assertions.assertEquals("Take 1 tablet", messages.get(0).getTq1().get(0).getTq1_11_admin_instructions());
+        Assertions.assertEquals("by mouth", messages.get(1).getRxr().getRxr_1_route().getText());
+        Assertions.assertEquals("1003", messages.get(2).getMsh().getMsh_10_messageId());
+        Assertions.assertFalse(reader.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, reader::next);
+      }
+
+      try (Hl7BatchReader reader = Hl7BatchReader.open(file)) {
+        Assertions.assertEquals(3, reader.stream().count());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void read_SegmentOutsideOfMessage() {
+    ByteBuffer buffer = ByteBuffer.wrap("BHS|^~\\&\rPID|1|775908\r".getBytes(StandardCharsets.UTF_8));
+    Hl7BatchReader reader = Hl7BatchReader.of(buffer, StandardCharsets.UTF_8);
+
+    Assertions.assertThrows(IllegalArgumentException.class, reader::hasNext);
+  }
+}
@@ -0,0 +1,57 @@
+package org.hl7.batch;
+
+import org.hl7.Hl7Message;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+class Hl7BatchSpliteratorTest {
+
+  @Test
+  void parallelStream_SplitsOnMessageBoundariesAndKeepsOrder() {
+    StringBuilder batch = new StringBuilder("BHS|^~\\&|SENDER\r");
+    for (int i = 0; i < 500; i++) {
+      batch.append("MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|").append(i).append("|P|2.5\r")
+          .append("TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A||\r")
+          .append("RXR|27^by mouth|||||\r");
+    }
+    batch.append("BTS|500\r");
+    ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+
+    Hl7BatchSpliterator spliterator = Hl7BatchSpliterator.of(buffer, StandardCharsets.UTF_8, 1024);
+    Assertions.assertNotNull(spliterator.trySplit());
+
+    List<String> ids = StreamSupport.stream(Hl7BatchSpliterator.of(buffer, StandardCharsets.UTF_8, 1024), true)
+        .map(Hl7Message::getMsh)
+        .map(msh -> msh.getMsh_10_messageId())
+        .collect(Collectors.toList());
+
+    Assertions.assertEquals(IntStream.range(0, 500).mapToObj(String::valueOf).collect(Collectors.toList()), ids);
+  }
+
+  @Test
+  void trySplit_FileShrankAfterOpening() throws IOException {
+    Path file = Files.createTempFile("shrinking", ".hl7");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap("x".repeat(64 * 1024).getBytes(StandardCharsets.US_ASCII)));
+      Hl7BatchSpliterator spliterator = Hl7BatchSpliterator.of(channel, StandardCharsets.UTF_8, 1024);
+      channel.truncate(0);
+
+      Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> Assertions.assertNull(spliterator.trySplit()));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
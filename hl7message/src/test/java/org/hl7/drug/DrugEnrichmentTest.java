@@ -0,0 +1,93 @@
+package org.hl7.drug;
+
+import org.hl7.GenericHl7Message;
+import org.hl7.Hl7Message;
+import org.hl7.Hl7Parser;
+import org.hl7.MessageStructure;
+import org.hl7.segment.RXD;
+import org.hl7.segment.RXE;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class DrugEnrichmentTest {
+  private static final String MESSAGE = "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|1|P|2.5\r"
+      + "RXE||69618-0010-01|||||^instructions||||||||58902\r"
+      + "RXD|1|00093505801^Amoxicillin 500 mg\r"
+      + "RXD|2|69618001001\r";
+
+  private static final DrugCodeResolver DRUGS = ndc -> switch ((int) (ndc % 100_000_000)) {
+    case 18001001 -> Drug.builder().ndc(Ndc.format(ndc)).name("Cyclobenzaprine 10 mg").dosageForm("TAB").build();
+    case 93505801 -> Drug.builder().ndc(Ndc.format(ndc)).name("Amoxicillin 500 mg").build();
+    default -> null;
+  };
+
+  @Test
+  void parse_FillsBlankDrugFields() {
+    Hl7Parser parser = Hl7Parser.builder().drugCodeResolver(DRUGS).build();
+    Hl7Message msg = parser.parse(MESSAGE.replace("RXD|1|00093505801^Amoxicillin 500 mg\r", ""));
+
+    Assertions.assertEquals("Cyclobenzaprine 10 mg", msg.getRxe().getRxe_2_2_drugName());
+    Assertions.assertEquals("TAB", msg.getRxe().getRxe_6_giveDosageForm());
+    Assertions.assertEquals("Cyclobenzaprine 10 mg", msg.getRxd().getRxd_2_dispenseGiveCode().getText());
+    Assertions.assertEquals(RXE.DEFAULT_DRUG_NAME, Hl7Parser.standard().parse(MESSAGE).getRxe().getRxe_2_2_drugName());
+  }
+
+  @Test
+  void parseGeneric_KeepsValuesAndUnknownDrugs() {
+    Hl7Parser parser = Hl7Parser.builder().drugCodeResolver(DRUGS).build();
+    GenericHl7Message msg = parser.parseGeneric(MESSAGE.replace("RXE||69618-0010-01|", "RXE||69618-0010-01^Flexeril|")
+        .replace("RXD|2|69618001001", "RXD|2|00591555101"), MessageStructure.flat());
+
+    RXE rxe = msg.first("RXE", RXE.class);
+    Assertions.assertEquals("Flexeril", rxe.getRxe_2_2_drugName());
+    Assertions.assertEquals("TAB", rxe.getRxe_6_giveDosageForm());
+    List<RXD> rxd = msg.all("RXD", RXD.class);
+    Assertions.assertEquals("Amoxicillin 500 mg", rxd.get(0).getRxd_2_dispenseGiveCode().getText());
+    Assertions.assertEquals("", rxd.get(1).getRxd_2_dispenseGiveCode().getText());
+  }
+
+  @Test
+  void parse_SkipsRxeWithoutNdc() {
+    List<Long> lookups = new ArrayList<>();
+    Hl7Parser parser = Hl7Parser.builder().drugCodeResolver(ndc -> {
+      lookups.add(ndc);
+      return Drug.builder().ndc(Ndc.format(ndc)).name("Any drug").dosageForm("TAB").build();
+    }).build();
+    String message = MESSAGE.replace("RXE||69618-0010-01|||||^instructions||||||||58902", "RXE|");
+
+    Hl7Message msg = parser.parse(message);
+    Assertions.assertEquals(RXE.DEFAULT_DRUG_NAME, msg.getRxe().getRxe_2_2_drugName());
+    Assertions.assertEquals("", msg.getRxe().getRxe_6_giveDosageForm());
+    RXE rxe = parser.parseGeneric(message, MessageStructure.flat()).first("RXE", RXE.class);
+    Assertions.assertEquals(RXE.DEFAULT_DRUG_NAME, rxe.getRxe_2_2_drugName());
+    // only the RXD without a drug name is looked up
+    Assertions.assertEquals(List.of(Ndc.pack("69618001001"), Ndc.pack("69618001001")), lookups);
+  }
+
+  @Test
+  void cached_EvictsLeastRecentlyUsedAndCachesUnknownNdcs() {
+    List<Long> lookups = new ArrayList<>();
+    CachingDrugCodeResolver cache = new CachingDrugCodeResolver(ndc -> {
+      lookups.add(ndc);
+      return DRUGS.resolve(ndc);
+    }, 2);
+
+    Drug drug = cache.resolve("69618001001");
+    Assertions.assertSame(drug, cache.resolve("69618-0010-01"));
+    Assertions.assertNull(cache.resolve("00591555101"));
+    Assertions.assertNull(cache.resolve("00591555101"));
+    Assertions.assertEquals(2, lookups.size());
+
+    // 69618001001 was used before 00591555101, so it is evicted
+    cache.resolve("00093505801");
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertNull(cache.resolve("00591555101"));
+    Assertions.assertNotSame(drug, cache.resolve("69618001001"));
+    Assertions.assertEquals(4, lookups.size());
+    Assertions.assertEquals(3, cache.hitCount());
+    Assertions.assertEquals(4, cache.missCount());
+  }
+}
@@ -0,0 +1,56 @@
+package org.hl7.drug;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+class NdcTableTest {
+
+  @Test
+  void pack_NormalizesHyphenatedFormatsTo11Digits() {
+    Assertions.assertEquals(69618001001L, Ndc.pack("69618001001"));
+    Assertions.assertEquals(69618001001L, Ndc.pack("69618-0010-01"));
+    Assertions.assertEquals(Ndc.pack("00093-5058-01"), Ndc.pack("0093-5058-01"));
+    Assertions.assertEquals(Ndc.pack("69618-0010-01"), Ndc.pack("69618-010-01"));
+    Assertions.assertEquals(Ndc.pack("69618-0010-01"), Ndc.pack("69618-0010-1"));
+    Assertions.assertEquals("00093505801", Ndc.format(Ndc.pack("0093-5058-01")));
+
+    Assertions.assertEquals(Ndc.INVALID, Ndc.pack("6961800100"));
+    Assertions.assertEquals(Ndc.INVALID, Ndc.pack("6961-800-10"));
+    Assertions.assertEquals(Ndc.INVALID, Ndc.pack("69618-0010-01-1"));
+    Assertions.assertEquals(Ndc.INVALID, Ndc.pack("6961800100A"));
+    Assertions.assertEquals(Ndc.INVALID, Ndc.pack(""));
+  }
+
+  @Test
+  void load_ResolvesDrugsByAnyNdcFormat() throws IOException {
+    NdcTable table = NdcTable.load(new StringReader("ndc,name,dosage form\n"
+        + "# comment\n"
+        + "\n"
+        + "69618-0010-01,Cyclobenzaprine 10 mg,TAB\n"
+        + "00093505801,\"Amoxicillin, 500 mg\",CAP\n"
+        + "0093-5058-01,\"Amoxicillin \"\"Trihydrate\"\" 500 mg\",CAP\n"
+        + "00591555101,Lisinopril 10 mg\n"));
+
+    Assertions.assertEquals(3, table.size());
+    Drug drug = table.resolve("69618001001");
+    Assertions.assertEquals("69618001001", drug.getNdc());
+    Assertions.assertEquals("Cyclobenzaprine 10 mg", drug.getName());
+    Assertions.assertEquals("TAB", drug.getDosageForm());
+    // the last line of an NDC wins
+    Assertions.assertEquals("Amoxicillin \"Trihydrate\" 500 mg", table.resolve("00093-5058-01").getName());
+    Assertions.assertEquals("", table.resolve("00591555101").getDosageForm());
+    Assertions.assertNull(table.resolve("00591555102"));
+    Assertions.assertNull(table.resolve("not an ndc"));
+  }
+
+  @Test
+  void load_InvalidLine_Throws() {
+    IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+        () -> NdcTable.load(new StringReader("69618001001,Cyclobenzaprine\n123,Unknown\n")));
+    Assertions.assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> NdcTable.load(new StringReader("69618001001,\n")));
+  }
+}
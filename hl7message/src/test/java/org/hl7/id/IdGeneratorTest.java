@@ -0,0 +1,120 @@
+package org.hl7.id;
+
+import org.hl7.segment.MSH;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+class IdGeneratorTest {
+  private static final int THREADS = 8;
+  private static final int IDS_PER_THREAD = 20_000;
+
+  @Test
+  void counter_PadsAndWrapsAtWidth() {
+    IdGenerator ids = new CounterIdGenerator(3, 998);
+
+    Assertions.assertEquals("998", ids.next());
+    Assertions.assertEquals("999", ids.next());
+    Assertions.assertEquals("000", ids.next());
+    Assertions.assertEquals("001", ids.next());
+  }
+
+  @Test
+  void counter_RejectsInvalidWidth() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> IdGenerator.counter(0));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> IdGenerator.counter(19));
+  }
+
+  @Test
+  void striped_UniqueAcrossThreads() throws Exception {
+    IdGenerator ids = new StripedIdGenerator(7, 64, 0);
+
+    Set<String> unique = generateConcurrently(ids::next);
+
+    Assertions.assertEquals(THREADS * IDS_PER_THREAD, unique.size());
+    Assertions.assertTrue(unique.stream().allMatch(id -> id.length() == 7));
+  }
+
+  @Test
+  void nodePrefixed_PrefixesNode() {
+    IdGenerator ids = IdGenerator.nodePrefixed(7, 2, new CounterIdGenerator(4, 41));
+
+    Assertions.assertEquals("070041", ids.next());
+    Assertions.assertEquals("070042", ids.next());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> IdGenerator.nodePrefixed(100, 2, ids));
+  }
+
+  @Test
+  void snowflake_UniqueAndIncreasingWithinFrozenMillisecond() throws Exception {
+    Clock frozen = Clock.fixed(Instant.parse("2024-06-07T09:19:58Z"), ZoneOffset.UTC);
+    SnowflakeIdGenerator ids = new SnowflakeIdGenerator(5, frozen);
+
+    long first = ids.nextLong();
+    long second = ids.nextLong();
+    Assertions.assertTrue(second > first);
+    Assertions.assertEquals(5, first >>> 12 & 1023);
+
+    // far more ids than the sequence of a single millisecond can hold
+    Set<String> unique = generateConcurrently(ids::next);
+    Assertions.assertEquals(THREADS * IDS_PER_THREAD, unique.size());
+  }
+
+  @Test
+  void defaults_NarrowIdsDoNotReserveBlocksPerThread() throws Exception {
+    IdType.PRESCRIPTION_NUMBER.resetGenerator();
+    Set<String> unique = ConcurrentHashMap.newKeySet();
+    // 64,000 ids fit the 100,000 of RXE.15, blocks of 64 per thread would wrap around and repeat them
+    for (int t = 0; t < 1_600; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 40; i++) {
+          unique.add(IdType.PRESCRIPTION_NUMBER.next());
+        }
+      });
+      thread.start();
+      thread.join();
+    }
+    Assertions.assertEquals(64_000, unique.size());
+  }
+
+  @Test
+  void setGenerator_UsedForMessageDefaults() {
+    IdType.MESSAGE_CONTROL_ID.setGenerator(new CounterIdGenerator(7, 42));
+    try {
+      MSH msh = MSH.builder().msh_3_sendingSystem("AB").msh_6_receivingFacility("A").msh_9_messageType("A").build();
+      Assertions.assertEquals("0000042", msh.getMsh_10_messageId());
+    } finally {
+      IdType.MESSAGE_CONTROL_ID.resetGenerator();
+    }
+  }
+
+  private static Set<String> generateConcurrently(Supplier<String> ids) throws Exception {
+    Set<String> unique = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      Future<?>[] futures = new Future<?>[THREADS];
+      for (int t = 0; t < THREADS; t++) {
+        futures[t] = executor.submit(() -> {
+          for (int i = 0; i < IDS_PER_THREAD; i++) {
+            unique.add(ids.get());
+          }
+        });
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return unique;
+  }
+}
@@ -0,0 +1,71 @@
+package org.hl7.mllp;
+
+import org.hl7.Hl7Message;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class MllpServerTest {
+  private static final String MESSAGE =
+      "MSH|^~\\&|SENDER|FACILITY|AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|4154345958|P|2.5||||||ASCII|||\r"
+          + "TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A||\r";
+
+  @Test
+  void send_AcceptsAndHandlesMessages() throws Exception {
+    List<Hl7Message> received = new CopyOnWriteArrayList<>();
+
+    try (MllpServer server = MllpServer.builder().port(0).handler(received::add).build().start();
+         MllpClient client = MllpClient.connect("localhost", server.getLocalPort())) {
+      for (int i = 0; i < 3; i++) {
+        String ack = client.send(MESSAGE);
+        Assertions.assertTrue(ack.startsWith("MSH|^~\\&|AB|LOCATION1|SENDER|FACILITY|"), ack);
+        Assertions.assertTrue(ack.contains("|ACK^O13^ACK|"), ack);
+        Assertions.assertTrue(ack.endsWith("\rMSA|AA|4154345958\r"), ack);
+      }
+
+      String ack = client.send(Hl7Message.fromString(MESSAGE));
+      Assertions.assertTrue(ack.endsWith("\rMSA|AA|4154345958\r"), ack);
+    }
+
+    Assertions.assertEquals(4, received.size());
+    Assertions.assertEquals("Take 1 tablet", received.get(0).getTq1().get(0).getTq1_11_admin_instructions());
+  }
+
+  @Test
+  void send_RejectsInvalidAndReportsHandlerErrors() throws Exception {
+    Hl7MessageHandler handler = msg -> {
+      throw new IllegalStateException("store unavailable");
+    };
+
+    try (MllpServer server = MllpServer.builder().port(0).handler(handler).build().start();
+         MllpClient client = MllpClient.connect("localhost", server.getLocalPort())) {
+      String reject = client.send(MESSAGE + "RXD\r");
+      Assertions.assertTrue(reject.contains("\rMSA|AR|4154345958|"), reject);
+
+      String error = client.send(MESSAGE);
+      Assertions.assertTrue(error.endsWith("\rMSA|AE|4154345958|store unavailable\r"), error);
+    }
+  }
+
+  @Test
+  void build_EscapesText() {
+    String ack = MllpAck.build(MESSAGE, MllpAck.APPLICATION_ERROR, "RXE-2^1 missing\r~retry");
+    Assertions.assertTrue(ack.endsWith("\rMSA|AE|4154345958|RXE-2\\S\\1 missing\\X0D\\\\R\\retry\r"), ack);
+  }
+
+  @Test
+  void decode_FramesSplitAcrossReads() {
+    List<String> messages = new CopyOnWriteArrayList<>();
+    MllpFrameDecoder decoder = new MllpFrameDecoder(StandardCharsets.UTF_8, 1024);
+
+    byte[] frame = ("\u000Bfirst\u001C\r\u000Bsec\u001Cond\u001C\r").getBytes(StandardCharsets.UTF_8);
+    decoder.decode(ByteBuffer.wrap(frame, 0, 9), messages::add);
+    decoder.decode(ByteBuffer.wrap(frame, 9, frame.length - 9), messages::add);
+
+    Assertions.assertEquals(List.of("first", "sec\u001Cond"), messages);
+  }
+}
@@ -0,0 +1,58 @@
+package org.hl7.parser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DelimitersTest {
+
+  @Test
+  void fromHeader_StandardDelimitersShareInstance() {
+    String msh = "MSH|^~\\&|||AB|LOCATION1";
+
+    Assertions.assertSame(Delimiters.STANDARD, Delimiters.fromHeader(msh, 0, msh.length()));
+    Assertions.assertSame(Delimiters.STANDARD, Delimiters.fromHeader("PID|1|775908", 0, 12));
+    Assertions.assertSame(Delimiters.STANDARD, Delimiters.of('|', "^~\\&"));
+  }
+
+  @Test
+  void fromHeader_CustomDelimiters() {
+    String msh = "MSH!$*#@!!!AB!LOCATION1";
+    Delimiters delimiters = Delimiters.fromHeader(msh, 0, msh.length());
+
+    Assertions.assertFalse(delimiters.isStandard());
+    Assertions.assertEquals('!', delimiters.field());
+    Assertions.assertEquals('$', delimiters.component());
+    Assertions.assertEquals('*', delimiters.repetition());
+    Assertions.assertEquals('#', delimiters.escape());
+    Assertions.assertEquals('@', delimiters.subComponent());
+  }
+
+  @Test
+  void of_RejectsInvalidDelimiters() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Delimiters.of('|', "^^\\&"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Delimiters.of('A', "^~\\&"));
+  }
+
+  @Test
+  void normalize_TranslatesDelimitersAndEscapesStandardOnes() {
+    Delimiters delimiters = Delimiters.of('!', "$*#@");
+    String field = "1$QHS@1200*2 | 3^4 #F#";
+
+    Assertions.assertEquals("1^QHS&1200~2 \\F\\ 3\\S\\4 \\F\\", delimiters.normalize(field, 0, field.length()));
+    Assertions.assertEquals("plain text", delimiters.normalize("plain text", 0, 10));
+  }
+
+  @Test
+  void tokenize_UsesDelimitersOfHeaderAndMessage() {
+    SegmentTokenizer tokens = new SegmentTokenizer().tokenize("MSH!$*#@!!!AB!LOCATION1!!!RDS$O13$RDS_O13");
+
+    Assertions.assertEquals("^~\\&", tokens.field(1));
+    Assertions.assertEquals("AB", tokens.field(4));
+    Assertions.assertEquals("O13", tokens.component(8, 1));
+    Assertions.assertEquals("RDS^O13^RDS_O13", tokens.field(8));
+
+    tokens.tokenize("ORC!NW!!!!!!1$QHS@1200$1", 0, 24, tokens.delimiters());
+    Assertions.assertEquals("QHS&1200", tokens.component(7, 1));
+    Assertions.assertEquals("1200", tokens.subComponent(7, 1, 1));
+  }
+}
@@ -0,0 +1,97 @@
+package org.hl7.parser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+class FieldPathTest {
+  private static final String MESSAGE =
+      "MSH|^~\\&|||AB|LOCATION1|20240607111040||RDS^O13^RDS_O13|4154345958|P|2.5||||||ASCII|||\r"
+          + "ORC|NW||5288240975||||1^QHS&1200,1300^1||20240604100958|||1234567890^First^Last|\r"
+          + "RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions\r"
+          + "TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet|A||\r"
+          + "TQ1|2|1^TAB|QHS|1800|||20240607111958||P||Take 2 tablets|A||\r";
+
+  @Test
+  void find_FieldsComponentsAndOccurrences() {
+    Assertions.assertEquals("RDS^O13^RDS_O13", FieldPath.compile("MSH-9").find(MESSAGE).toString());
+    Assertions.assertEquals("O13", FieldPath.compile("MSH-9.2").find(MESSAGE).toString());
+    Assertions.assertEquals("|", FieldPath.compile("MSH-1").find(MESSAGE).toString());
+    Assertions.assertEquals("^~\\&", FieldPath.compile("MSH-2").find(MESSAGE).toString());
+    Assertions.assertEquals("5288240975", FieldPath.compile("ORC-3").find(MESSAGE).toString());
+    Assertions.assertEquals("1200,1300", FieldPath.compile("ORC-7.2.2").find(MESSAGE).toString());
+    Assertions.assertEquals("69618001001", FieldPath.compile("RXE-2.1").find(MESSAGE).toString());
+    Assertions.assertEquals("Take 2 tablets", FieldPath.compile("TQ1[2]-11").find(MESSAGE).toString());
+
+    Assertions.assertEquals("", FieldPath.compile("ORC-2").find(MESSAGE).toString());
+    Assertions.assertNull(FieldPath.compile("ORC-30").find(MESSAGE));
+    Assertions.assertNull(FieldPath.compile("RXE-2.4").find(MESSAGE));
+    Assertions.assertNull(FieldPath.compile("TQ1[3]-11").find(MESSAGE));
+    Assertions.assertNull(FieldPath.compile("PID-3").find(MESSAGE));
+  }
+
+  @Test
+  void find_RepeatingFields() {
+    String message = "MSH|^~\\&|||AB|LOCATION1|20240607111040||ADT^A01\rPID|1|123|A^B~C^D&E||Last^First\r";
+
+    Assertions.assertEquals("A^B", FieldPath.compile("PID-3").find(message).toString());
+    Assertions.assertEquals("B", FieldPath.compile("PID-3.2").find(message).toString());
+    Assertions.assertEquals("A", FieldPath.compile("PID-3(1).1").find(message).toString());
+    Assertions.assertEquals("C^D&E", FieldPath.compile("PID-3(2)").find(message).toString());
+    Assertions.assertEquals("E", FieldPath.compile("PID-3(2).2.2").find(message).toString());
+    Assertions.assertEquals("Last", FieldPath.compile("PID-5(1).1").find(message).toString());
+    Assertions.assertNull(FieldPath.compile("PID-3(3)").find(message));
+    Assertions.assertNull(FieldPath.compile("PID-5(2)").find(message));
+    Assertions.assertEquals("^~\\&", FieldPath.compile("MSH-2").find(message).toString());
+    Assertions.assertNull(FieldPath.compile("MSH-2(2)").find(message));
+
+    String otherDelimiters = "MSH|^!\\&|||AB\rPID|1|123|A^B!C^D~E\r";
+    Assertions.assertEquals("D~E", FieldPath.compile("PID-3(2).2").find(otherDelimiters).toString());
+  }
+
+  @Test
+  void find_OverBytesWithoutCopying() {
+    byte[] bytes = MESSAGE.getBytes(StandardCharsets.US_ASCII);
+    FieldPath messageType = FieldPath.compile("MSH-9.1");
+
+    Assertions.assertTrue(messageType.find(bytes).contentEquals("RDS"));
+    Assertions.assertTrue(messageType.find(ByteBuffer.wrap(bytes)).contentEquals("RDS"));
+    Assertions.assertFalse(messageType.find(bytes).contentEquals("RDE"));
+  }
+
+  @Test
+  void find_DecodesValuesWithCharsetOfMessage() {
+    String drug = "Cr\u00e8me \u00c4rztlich 10 mg";
+    String message = "MSH|^~\\&|||AB\rRXE||69618001001^" + drug + "\r";
+    FieldPath drugName = FieldPath.compile("RXE-2.2");
+
+    byte[] utf8 = message.getBytes(StandardCharsets.UTF_8);
+    Assertions.assertEquals(drug, drugName.find(utf8).toString());
+    Assertions.assertEquals(drug, drugName.find(ByteBuffer.wrap(utf8)).toString());
+    Assertions.assertTrue(drugName.find(utf8).contentEquals(drug));
+    Assertions.assertFalse(drugName.find(utf8).contentEquals(drug.replace('\u00e8', 'e')));
+
+    byte[] latin1 = message.getBytes(StandardCharsets.ISO_8859_1);
+    Assertions.assertEquals(drug, drugName.find(latin1, StandardCharsets.ISO_8859_1).toString());
+  }
+
+  @Test
+  void find_UsesDelimitersOfMessage() {
+    String message = "MSH#:~\\&###AB#LOCATION1#20240607111040##RDS:O13:RDS_O13\rORC#NW##5288240975\r";
+
+    Assertions.assertEquals("O13", FieldPath.compile("MSH-9.2").find(message).toString());
+    Assertions.assertEquals("5288240975", FieldPath.compile("ORC-3").find(message).toString());
+  }
+
+  @Test
+  void compile_InvalidPaths() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("MSH9"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("msh-9"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("TQ1[0]-11"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("RXE-2.0"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("PID-3(0).1"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> FieldPath.compile("PID-3.1(2)"));
+  }
+}
@@ -0,0 +1,41 @@
+package org.hl7.parser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class Hl7EscapingTest {
+
+  @Test
+  void escape_ReturnsSameInstanceWithoutDelimiters() {
+    String value = "Take 1 tablet by mouth";
+
+    Assertions.assertSame(value, Hl7Escaping.escape(value));
+    Assertions.assertSame(value, Hl7Escaping.unescape(value));
+    Assertions.assertNull(Hl7Escaping.escape(null));
+  }
+
+  @Test
+  void escape_DelimitersAndLineBreaks() {
+    Assertions.assertEquals("a\\F\\b\\S\\c\\T\\d\\R\\e\\E\\f\\X0D\\\\X0A\\",
+        Hl7Escaping.escape("a|b^c&d~e\\f\r\n"));
+  }
+
+  @Test
+  void unescape_SequencesAndHex() {
+    Assertions.assertEquals("a|b^c&d~e\\f\r\nAB", Hl7Escaping.unescape("a\\F\\b\\S\\c\\T\\d\\R\\e\\E\\f\\X0D0A\\\\X4142\\"));
+  }
+
+  @Test
+  void unescape_KeepsUnknownAndUnterminatedSequences() {
+    Assertions.assertEquals("\\H\\bold\\N\\", Hl7Escaping.unescape("\\H\\bold\\N\\"));
+    Assertions.assertEquals("a\\X0\\b", Hl7Escaping.unescape("a\\X0\\b"));
+    Assertions.assertEquals("a|b\\F", Hl7Escaping.unescape("a\\F\\b\\F"));
+  }
+
+  @Test
+  void escape_RoundTrip() {
+    String value = "1 tab | twice ^ daily & \\ as needed ~ with food";
+
+    Assertions.assertEquals(value, Hl7Escaping.unescape(Hl7Escaping.escape(value)));
+  }
+}
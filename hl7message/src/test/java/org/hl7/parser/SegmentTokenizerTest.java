@@ -0,0 +1,72 @@
+package org.hl7.parser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+class SegmentTokenizerTest {
+
+  @Test
+  void tokenize_FieldsComponentsAndSubComponents() {
+    SegmentTokenizer tokens = new SegmentTokenizer()
+        .tokenize("ORC|NW||5288240975||||1^QHS&1200,1300^1||20240604100958|||1234567890^First^Last|");
+
+    Assertions.assertTrue(tokens.isSegment("ORC"));
+    Assertions.assertEquals(14, tokens.fieldCount());
+    Assertions.assertEquals("NW", tokens.field(1));
+    Assertions.assertEquals("", tokens.field(2));
+    Assertions.assertEquals("", tokens.field(13));
+    Assertions.assertNull(tokens.field(14));
+
+    Assertions.assertEquals(3, tokens.componentCount(7));
+    Assertions.assertEquals("QHS&1200,1300", tokens.component(7, 1));
+    Assertions.assertEquals("1200,1300", tokens.subComponent(7, 1, 1));
+    Assertions.assertNull(tokens.subComponent(7, 1, 2));
+    Assertions.assertEquals("Last", tokens.component(12, 2));
+    Assertions.assertNull(tokens.component(12, 3));
+  }
+
+  @Test
+  void tokenize_HeaderSegmentKeepsEncodingCharacters() {
+    SegmentTokenizer tokens = new SegmentTokenizer().tokenize("MSH|^~\\&|||AB|LOCATION1|20240531000000||RDS^O13^RDS_O13");
+
+    Assertions.assertEquals("^~\\&", tokens.field(1));
+    Assertions.assertEquals(1, tokens.componentCount(1));
+    Assertions.assertEquals("AB", tokens.field(4));
+    Assertions.assertEquals("O13", tokens.component(8, 1));
+  }
+
+  @Test
+  void tokenize_RegionOfMessageAndReuse() {
+    String message = "PID|1|775908\rRXR|27^by mouth|||||";
+    SegmentTokenizer tokens = new SegmentTokenizer();
+
+    tokens.tokenize(message, 0, 12);
+    Assertions.assertEquals("775908", tokens.field(2));
+    Assertions.assertEquals(3, tokens.fieldCount());
+
+    tokens.tokenize(message, 13, message.length());
+    Assertions.assertTrue(tokens.isSegment("RXR"));
+    Assertions.assertEquals("by mouth", tokens.component(1, 1));
+    Assertions.assertEquals(7, tokens.fieldCount());
+  }
+
+  @Test
+  void tokenize_GrowsIndexForLongSegments() {
+    String segment = "ZPI" + "|a^b&c".repeat(200);
+    SegmentTokenizer tokens = new SegmentTokenizer().tokenize(segment);
+
+    Assertions.assertEquals(201, tokens.fieldCount());
+    Assertions.assertEquals("b&c", tokens.component(200, 1));
+    Assertions.assertEquals("c", tokens.subComponent(200, 1, 1));
+  }
+
+  @Test
+  void requiredAndExpectedSegment() {
+    SegmentTokenizer tokens = new SegmentTokenizer().tokenize("TQ1");
+
+    Assertions.assertThrows(NoSuchElementException.class, () -> tokens.requiredField(1));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> tokens.expectSegment("RXD"));
+  }
+}
@@ -0,0 +1,65 @@
+package org.hl7.parser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StringInternerTest {
+
+  @Test
+  void intern_ReturnsCachedInstanceForSameSlice() {
+    StringInterner interner = new StringInterner(16, 8);
+    String message = "MSH|RDE^O11|RDE^O11";
+
+    String first = interner.intern(message, 4, 11);
+    Assertions.assertEquals("RDE^O11", first);
+    Assertions.assertSame(first, interner.intern(message, 12, 19));
+    Assertions.assertSame(first, interner.intern(new StringBuilder("RDE^O11"), 0, 7));
+    Assertions.assertSame(first, interner.intern(new String("RDE^O11")));
+    Assertions.assertEquals(16, interner.capacity());
+  }
+
+  @Test
+  void intern_SkipsEmptyAndLongValues() {
+    StringInterner interner = new StringInterner(16, 4);
+
+    Assertions.assertSame("", interner.intern("abc", 1, 1));
+    String text = "|Take 1 tablet|";
+    Assertions.assertNotSame(interner.intern(text, 1, 14), interner.intern(text, 1, 14));
+    Assertions.assertSame(text, interner.intern(text));
+  }
+
+  @Test
+  void intern_EvictsOnCollision() {
+    // a single slot holds the last value only
+    StringInterner interner = new StringInterner(1, 8);
+    String tab = interner.intern("TAB");
+    String cap = interner.intern("CAP");
+
+    Assertions.assertSame(cap, interner.intern("|CAP|", 1, 4));
+    Assertions.assertNotSame(tab, interner.intern("|TAB|", 1, 4));
+  }
+
+  @Test
+  void internedFields_ValidatesPaths() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> InternedFields.none().with("MSH"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> InternedFields.none().with("MSH-2"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> InternedFields.none().with("RXE-0"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> InternedFields.defaults().with("MSH-3"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new StringInterner(0, 8));
+  }
+
+  @Test
+  void tokenizer_InternsConfiguredFieldsAndComponents() {
+    StringInterner routes = new StringInterner();
+    InternedFields fields = InternedFields.none().with("RXR-1", routes);
+    SegmentTokenizer tokens = new SegmentTokenizer();
+
+    String code = tokens.tokenize("RXR|27^by mouth|x").intern(fields).component(1, 0);
+    Assertions.assertSame(code, tokens.tokenize("RXR|27^by mouth|y").intern(fields).component(1, 0));
+    Assertions.assertSame(code, routes.intern("27"));
+    Assertions.assertNotSame(tokens.field(2), tokens.tokenize("RXR|27^by mouth|y").intern(fields).field(2));
+
+    // interning is reset by the next tokenize call
+    Assertions.assertNotSame(code, tokens.tokenize("RXR|27^by mouth").component(1, 0));
+  }
+}
@@ -0,0 +1,58 @@
+package org.hl7.segment.datatype;
+
+import org.hl7.segment.ORC;
+import org.hl7.segment.PID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RepetitionsTest {
+
+  @Test
+  void parse_SplitsAndDecodesOnAccess() {
+    Repetitions<ExtendedCompositeId> ids =
+        Repetitions.parse("775908^^^MRN~123-45-6789^^^SSA&2.16.840&ISO^SS~", ExtendedCompositeId::fromTokens);
+
+    Assertions.assertEquals(3, ids.size());
+    Assertions.assertEquals("123-45-6789^^^SSA&2.16.840&ISO^SS", ids.raw(1));
+    Assertions.assertEquals("775908", ids.first().getIdNumber());
+    Assertions.assertEquals("SSA&2.16.840&ISO", ids.get(1).getAssigningAuthority());
+    Assertions.assertEquals("SS", ids.get(1).getIdentifierTypeCode());
+    Assertions.assertTrue(ids.get(2).isEmpty());
+    Assertions.assertSame(ids.get(1), ids.get(1));
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> ids.get(3));
+  }
+
+  @Test
+  void parse_EmptyField() {
+    Repetitions<ExtendedCompositeId> ids = Repetitions.parse("", ExtendedCompositeId::fromTokens);
+
+    Assertions.assertTrue(ids.isEmpty());
+    Assertions.assertNull(ids.first());
+    Assertions.assertFalse(ids.iterator().hasNext());
+  }
+
+  @Test
+  void of_PrintsValues() {
+    Repetitions<ExtendedCompositePersonName> providers = Repetitions.of(
+        ExtendedCompositePersonName.builder().idNumber("1").familyName("First").build(),
+        ExtendedCompositePersonName.builder().idNumber("2").familyName("Second").givenName("Jo").build());
+
+    Assertions.assertEquals("1^First~2^Second^Jo", providers.toString());
+    Assertions.assertEquals("2^Second^Jo", providers.raw(1));
+  }
+
+  @Test
+  void segments_ParseAndPrintRepetitions() {
+    PID pid = PID.fromString("PID|1|775908|775908^^^MRN~123-45-6789^^^SSA^SS||Doe^Jane||19910619|F");
+    ORC orc = ORC.fromString("ORC|NW||5288240975|||||||||1234567890^First^Last~987^Other^Name");
+
+    int matched = 0;
+    for (ExtendedCompositeId id : pid.getPid_3_patient_identifier_list()) {
+      matched += id.getIdNumber().equals("123-45-6789") ? 1 : 0;
+    }
+    Assertions.assertEquals(1, matched);
+    Assertions.assertEquals("Other", orc.getOrc_12_orderingProvider().get(1).getFamilyName());
+    Assertions.assertTrue(pid.print().startsWith("PID|1|775908|775908^^^MRN~123-45-6789^^^SSA^SS||Doe^Jane"));
+    Assertions.assertTrue(orc.print().contains("|1234567890^First^Last~987^Other^Name|"), orc.print());
+  }
+}
@@ -0,0 +1,62 @@
+package org.hl7.utils;
+
+import org.hl7.segment.MSH;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+class Hl7ClockTest {
+
+  @Test
+  void now_CachesFormattedSecond() {
+    MutableClock clock = new MutableClock(Instant.parse("2024-06-07T09:19:58.100Z"));
+    Hl7Clock hl7Clock = Hl7Clock.of(clock);
+
+    String first = hl7Clock.now();
+    Assertions.assertEquals("20240607111958", first);
+
+    clock.instant = Instant.parse("2024-06-07T09:19:58.900Z");
+    Assertions.assertSame(first, hl7Clock.now());
+
+    clock.instant = Instant.parse("2024-06-07T09:19:59.000Z");
+    Assertions.assertEquals("20240607111959", hl7Clock.now());
+  }
+
+  @Test
+  void setDefault_UsedForMessageDefaults() {
+    Hl7Clock.setDefault(Hl7Clock.of(Clock.fixed(Instant.parse("2024-01-02T03:04:05Z"), ZoneOffset.UTC)));
+    try {
+      MSH msh = MSH.builder().msh_3_sendingSystem("AB").msh_6_receivingFacility("A").msh_9_messageType("A").build();
+      Assertions.assertEquals("20240102030405", msh.getMsh_7_messageDatetime());
+    } finally {
+      Hl7Clock.resetDefault();
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant instant;
+
+    private MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.of("Europe/Berlin");
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
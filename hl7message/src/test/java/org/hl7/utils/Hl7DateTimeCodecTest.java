@@ -0,0 +1,53 @@
+package org.hl7.utils;
+
+import org.hl7.utils.Hl7DateTimeCodec.Precision;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+class Hl7DateTimeCodecTest {
+
+  @Test
+  void format_AllPrecisions() {
+    LocalDateTime dateTime = LocalDateTime.of(2024, 6, 7, 9, 5, 3, 123_456_789);
+
+    Assertions.assertEquals("2024", Hl7DateTimeCodec.format(dateTime, Precision.YEAR));
+    Assertions.assertEquals("20240607", Hl7DateTimeCodec.format(dateTime, Precision.DAY));
+    Assertions.assertEquals("20240607090503", Hl7DateTimeCodec.format(dateTime, Precision.SECOND));
+    Assertions.assertEquals("20240607090503.1234", Hl7DateTimeCodec.format(dateTime, Precision.FRACTION));
+    Assertions.assertEquals(dateTime.format(Hl7DateUtils.HL7_SPEC_DATE_TIME_FORMAT), Hl7DateUtils.formatToHl7(dateTime));
+    Assertions.assertEquals("0905", Hl7DateUtils.formatToHl7(LocalTime.of(9, 5)));
+
+    char[] chars = new char[Hl7DateTimeCodec.MAX_LENGTH];
+    int end = Hl7DateTimeCodec.format(dateTime.atOffset(ZoneOffset.ofHoursMinutes(-5, -30)), Precision.MINUTE, chars, 0);
+    Assertions.assertEquals("202406070905-0530", new String(chars, 0, end));
+  }
+
+  @Test
+  void parse_AllPrecisionsAndOffsets() {
+    Assertions.assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), Hl7DateTimeCodec.parseLocalDateTime("2024"));
+    Assertions.assertEquals(LocalDateTime.of(2024, 6, 7, 0, 0), Hl7DateTimeCodec.parseLocalDateTime("20240607"));
+    Assertions.assertEquals(LocalDateTime.of(2024, 6, 7, 11, 19, 58, 120_000_000),
+        Hl7DateTimeCodec.parseLocalDateTime("20240607111958.12+0200"));
+
+    OffsetDateTime withOffset = Hl7DateTimeCodec.parseOffsetDateTime("202406071119-0500");
+    Assertions.assertEquals(OffsetDateTime.of(2024, 6, 7, 11, 19, 0, 0, ZoneOffset.ofHours(-5)), withOffset);
+
+    OffsetDateTime withZone = Hl7DateTimeCodec.parseOffsetDateTime("x20240107y", 1, 9, ZoneId.of("Europe/Berlin"));
+    Assertions.assertEquals(ZoneOffset.ofHours(1), withZone.getOffset());
+  }
+
+  @Test
+  void parse_InvalidValues() {
+    for (String value : new String[] {"", "202", "20240", "20241301", "20240230", "2024060711.5", "20240607+05",
+        "20240607111958.12345", "2024a607"}) {
+      Assertions.assertThrows(DateTimeParseException.class, () -> Hl7DateTimeCodec.parseLocalDateTime(value), value);
+    }
+  }
+}
@@ -3,12 +3,15 @@ package org.hl7.utils;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.hl7.Hl7Message;
+import org.hl7.segment.ISegment;
 import org.hl7.segment.MSH;
 import org.hl7.segment.TQ1;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 class Hl7MsgUtilsTest {
 
@@ -29,6 +32,39 @@ class Hl7MsgUtilsTest {
     Assertions.assertNotEquals(msg1.hashCode(), msg2.hashCode());
   }
 
+  @Test
+  void testCopy_SegmentsCanBeModifiedIndependently() {
+    Hl7Message msg1 = Hl7Message.fromString("""
+        MSH|^~\\&|||AB|LOCATION1|20240531000000||RDS^O13^RDS_O13|4154345958|P|2.5||||||ASCII|||
+        RXE||69618001001^Mirtazapine 7.5MG TAB^||||TABS|^instructions||||||||58902|||||||||||||||||||||||||||
+        TQ1|1|1^TAB|QHS|1200-1300|||20240607111958||P||Take 1 tablet my mouth every day for Depression|A||
+        TQ1|2|1^TAB|QHS|1800|||20240607111958||P||Take 1 tablet my mouth every day for Depression|A||
+        """);
+
+    Hl7Message msg2 = Hl7MsgUtils.copy(msg1);
+    Assertions.assertEquals(msg1.printMessage(), msg2.printMessage());
+    Assertions.assertNotSame(msg1.getMsh(), msg2.getMsh());
+    Assertions.assertNotSame(msg1.getTq1(), msg2.getTq1());
+    Assertions.assertNull(msg2.getPid());
+
+    msg2.getRxe().setRxe_2_2_drugName("Changed");
+    msg2.getTq1().get(1).setTq1_4_explicit_time("2000");
+    Assertions.assertEquals("Mirtazapine 7.5MG TAB", msg1.getRxe().getRxe_2_2_drugName());
+    Assertions.assertEquals("1800", msg1.getTq1().get(1).getTq1_4_explicit_time());
+  }
+
+  @Test
+  void testCopy_CopiesSegmentsWithoutCopyThroughJson() {
+    Note note = new Note();
+    note.comment = "first note";
+    Hl7Message msg1 = Hl7Message.builder().otherSegments(new ArrayList<>(List.of(note))).build();
+
+    Hl7Message msg2 = Hl7MsgUtils.copy(msg1);
+    Note copied = (Note) msg2.getOtherSegments().get(0);
+    Assertions.assertNotSame(note, copied);
+    Assertions.assertEquals("first note", copied.comment);
+  }
+
   @Test
   void testUpdateMessageStartAndEndDate() {
     Hl7Message msg1 = Hl7Message.builder()
@@ -65,4 +101,14 @@ class Hl7MsgUtilsTest {
     assertEquals("^a^b", Hl7MsgUtils.getCompositeFieldString(null, "a", "b"));
     assertEquals("a^^b", Hl7MsgUtils.getCompositeFieldString("a", null, "b"));
   }
-}
\ No newline at end of file
+
+  // segment written against ISegment before it had copy()
+  public static class Note implements ISegment {
+    public String comment;
+
+    @Override
+    public String print() {
+      return "NTE|||" + comment;
+    }
+  }
+}